@@ -0,0 +1,159 @@
+package org.swen.dms.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Appends a chunk of daily access counts with one set-based statement:
+ * <pre>
+ * INSERT INTO document_access_daily (day, document_id, access_count)
+ * SELECT ?, v.id, v.n FROM (VALUES (?, ?), ...) AS v(id, n)
+ * JOIN documents d ON d.id = v.id
+ * ON CONFLICT (day, document_id) DO UPDATE SET access_count = EXCLUDED.access_count
+ * RETURNING document_id
+ * </pre>
+ * One round trip per chunk, and the {@code documents} rows are only read, never written.
+ * The ids returned by the statement tell which documents exist, so unknown ids come from the
+ * same statement. Re-applying a chunk (after a crash) overwrites instead of double counting.
+ * <p>
+ * Live counts ({@link #add}) go to the separate {@code download_count} column of the same rows, so
+ * importing a day's access log never wipes the downloads counted that day, and downloads never
+ * inflate the imported totals. Readers sum the two columns.
+ * <p>
+ * {@link #addEgressBytesSaved} adds the bytes saved by optimized downloads to
+ * {@code documents.egress_bytes_saved} the same way: one {@code UPDATE ... FROM (VALUES ...)} per
+ * flush, so each downloaded document's row is written once per flush and not once per download.
+ * <p>
+ * {@code document_access_daily} is partitioned by month; callers create the partition with
+ * {@link #ensurePartition(LocalDate)} before writing a day. PostgreSQL only.
+ */
+@Component
+public class AccessCountWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessCountWriter.class);
+
+    /** PostgreSQL accepts at most 65535 bind parameters per statement, two per row. */
+    public static final int MAX_ROWS = 30_000;
+
+    private static final String ROW = "(CAST(? AS BIGINT), CAST(? AS BIGINT))";
+
+    private final JdbcTemplate jdbc;
+
+    private final Set<YearMonth> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    public AccessCountWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param day          the day the counts belong to
+     * @param accessCounts document id to access count on that day; one entry per id
+     * @return the ids that did not match any document
+     */
+    public List<Long> apply(LocalDate day, Map<Long, Long> accessCounts) {
+        return upsert(day, accessCounts, "access_count", "EXCLUDED.access_count");
+    }
+
+    /**
+     * Adds live counts (e.g. downloads seen since the last flush) to the day's
+     * {@code download_count} instead of replacing it. Imports of that day's access log leave it alone.
+     *
+     * @return the ids that did not match any document (deleted since they were counted)
+     */
+    public List<Long> add(LocalDate day, Map<Long, Long> accessCounts) {
+        return upsert(day, accessCounts, "download_count", "document_access_daily.download_count + EXCLUDED.download_count");
+    }
+
+    /**
+     * Adds saved bytes to each document's {@code egress_bytes_saved} with one statement.
+     * Ids of documents deleted since the download match no row.
+     *
+     * @param bytesSaved document id to bytes saved since the last flush; one entry per id
+     * @return the number of documents updated
+     */
+    public int addEgressBytesSaved(Map<Long, Long> bytesSaved) {
+        if (bytesSaved.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder(128 + bytesSaved.size() * (ROW.length() + 1))
+                .append("UPDATE documents d SET egress_bytes_saved = d.egress_bytes_saved + v.n FROM (VALUES ");
+        Object[] args = new Object[bytesSaved.size() * 2];
+        int i = 0;
+        for (Map.Entry<Long, Long> e : bytesSaved.entrySet()) {
+            sql.append(i == 0 ? "" : ",").append(ROW);
+            args[i++] = e.getKey();
+            args[i++] = e.getValue();
+        }
+        sql.append(") AS v(id, n) WHERE d.id = v.id");
+        return jdbc.update(sql.toString(), args);
+    }
+
+    private List<Long> upsert(LocalDate day, Map<Long, Long> accessCounts, String column, String newValue) {
+        if (accessCounts.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder(256 + accessCounts.size() * (ROW.length() + 1))
+                .append("INSERT INTO document_access_daily (day, document_id, ").append(column).append(") ")
+                .append("SELECT CAST(? AS DATE), v.id, v.n FROM (VALUES ");
+        Object[] args = new Object[1 + accessCounts.size() * 2];
+        args[0] = day;
+        int i = 1;
+        for (Map.Entry<Long, Long> e : accessCounts.entrySet()) {
+            sql.append(i == 1 ? "" : ",").append(ROW);
+            args[i++] = e.getKey();
+            args[i++] = e.getValue();
+        }
+        sql.append(") AS v(id, n) JOIN documents d ON d.id = v.id ")
+                .append("ON CONFLICT (day, document_id) DO UPDATE SET ").append(column).append(" = ").append(newValue)
+                .append(" RETURNING document_id");
+
+        Set<Long> written = new HashSet<>(jdbc.queryForList(sql.toString(), Long.class, args));
+        List<Long> unknown = new ArrayList<>();
+        for (Long id : accessCounts.keySet()) {
+            if (!written.contains(id)) {
+                unknown.add(id);
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * Creates the monthly partition for {@code day} if it does not exist yet.
+     * Call outside of a transaction, so losing a creation race with another importer thread
+     * cannot abort a chunk.
+     */
+    public void ensurePartition(LocalDate day) {
+        YearMonth month = YearMonth.from(day);
+        if (knownPartitions.contains(month)) {
+            return;
+        }
+        String name = String.format("document_access_daily_y%04dm%02d", month.getYear(), month.getMonthValue());
+        String sql = "CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF document_access_daily " +
+                "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+        try {
+            jdbc.execute(sql);
+        } catch (Exception e) {
+            // Lost a race with another importer thread: fine as long as the partition is there now
+            log.debug("Creating partition {} failed, checking whether it exists: {}", name, e.getMessage());
+            Integer found = jdbc.queryForObject("SELECT count(*) FROM pg_class WHERE relname = ?", Integer.class, name);
+            if (found == null || found == 0) {
+                throw e;
+            }
+        }
+        knownPartitions.add(month);
+        log.info("Access-count partition {} is in place", name);
+    }
+}
@@ -0,0 +1,119 @@
+package org.swen.dms.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.swen.dms.entity.AccessLogImport;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Leases on access-log imports in {@code access_log_imports}, so several instances can import
+ * from the same folder without processing a file twice.
+ * <p>
+ * {@link #claim} atomically creates or takes over a file's row (one upsert, keyed by the content
+ * hash). It only succeeds if the file is not completed and not held by another instance with a
+ * live lease. Every committed chunk extends the lease with {@link #renew}, in the same
+ * transaction as the chunk; if another instance has taken the file over in the meantime the
+ * renewal fails and the chunk is rolled back. Instances that crash stop renewing, so after
+ * {@code dms.batch.lease-seconds} their files can be claimed again and are resumed from the
+ * last committed entry.
+ * <p>
+ * Lease times use the database clock, so clock skew between instances does not matter.
+ * An instance is identified by {@code dms.batch.node-id} (default: host name and process id).
+ * PostgreSQL only.
+ */
+@Component
+public class AccessLogClaims {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogClaims.class);
+
+    /** A claimed file: entries up to {@code committedEntries} are already imported. */
+    public record Claim(long committedEntries, LocalDate logDate) {}
+
+    private static final String CLAIM = """
+            INSERT INTO access_log_imports (file_hash, file_name, committed_entries, status, started_at, updated_at,
+                                            log_date, rolled_up, claimed_by, lease_until)
+            VALUES (?, ?, 0, 'RUNNING', LOCALTIMESTAMP, LOCALTIMESTAMP, ?, FALSE, ?, LOCALTIMESTAMP + ? * INTERVAL '1 second')
+            ON CONFLICT (file_hash) DO UPDATE SET status = 'RUNNING', updated_at = EXCLUDED.updated_at,
+                claimed_by = EXCLUDED.claimed_by, lease_until = EXCLUDED.lease_until,
+                log_date = COALESCE(access_log_imports.log_date, EXCLUDED.log_date)
+            WHERE access_log_imports.status <> 'COMPLETED'
+              AND (access_log_imports.claimed_by IS NULL
+                   OR access_log_imports.claimed_by = EXCLUDED.claimed_by
+                   OR access_log_imports.lease_until < LOCALTIMESTAMP)
+            RETURNING committed_entries, log_date""";
+
+    private static final String RENEW = """
+            UPDATE access_log_imports SET committed_entries = ?, updated_at = LOCALTIMESTAMP,
+                lease_until = LOCALTIMESTAMP + ? * INTERVAL '1 second'
+            WHERE file_hash = ? AND claimed_by = ?""";
+
+    private static final String RELEASE = """
+            UPDATE access_log_imports SET status = ?, updated_at = LOCALTIMESTAMP,
+                completed_at = CASE WHEN ? THEN LOCALTIMESTAMP END, claimed_by = NULL, lease_until = NULL
+            WHERE file_hash = ? AND claimed_by = ?""";
+
+    private final JdbcTemplate jdbc;
+    private final String nodeId;
+    private final long leaseSeconds;
+
+    public AccessLogClaims(JdbcTemplate jdbc,
+                           @Value("${dms.batch.node-id:}") String nodeId,
+                           @Value("${dms.batch.lease-seconds:300}") long leaseSeconds) {
+        this.jdbc = jdbc;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId.trim();
+        this.leaseSeconds = Math.max(1, leaseSeconds);
+    }
+
+    /**
+     * Claims the file for this instance.
+     *
+     * @param logDate the day the file's counts belong to, unless already recorded
+     * @return the checkpoint to resume from, or empty if the file is completed or held by
+     *         another instance
+     */
+    public Optional<Claim> claim(String fileHash, String fileName, LocalDate logDate) {
+        List<Claim> claimed = jdbc.query(CLAIM,
+                (rs, i) -> new Claim(rs.getLong(1), rs.getObject(2, LocalDate.class)),
+                fileHash, fileName, logDate, nodeId, leaseSeconds);
+        return claimed.stream().findFirst();
+    }
+
+    /**
+     * Advances the checkpoint and extends the lease. Call in the transaction of the chunk.
+     *
+     * @throws IllegalStateException if another instance has taken the file over
+     */
+    public void renew(String fileHash, long committedEntries) {
+        if (jdbc.update(RENEW, committedEntries, leaseSeconds, fileHash, nodeId) == 0) {
+            throw new IllegalStateException("Lost the claim on " + fileHash + " to another instance");
+        }
+    }
+
+    /** Records the outcome and gives up the claim. */
+    public void release(String fileHash, AccessLogImport.Status status) {
+        boolean completed = status == AccessLogImport.Status.COMPLETED;
+        if (jdbc.update(RELEASE, status.name(), completed, fileHash, nodeId) == 0) {
+            log.warn("Could not record {} for {}: the claim was taken over by another instance", status, fileHash);
+        }
+    }
+
+    public String getNodeId() { return nodeId; }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
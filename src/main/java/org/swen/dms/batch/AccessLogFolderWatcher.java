@@ -0,0 +1,198 @@
+package org.swen.dms.batch;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.swen.dms.batch.format.AccessLogFormats;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches {@code dms.batch.input-folder} and hands each access-log file (any name
+ * {@link AccessLogFormats} accepts) to the {@link AccessLogImporter} shortly after it lands,
+ * instead of waiting for the nightly sweep.
+ * <p>
+ * A file is only submitted once it is complete: no create/modify event for
+ * {@code dms.batch.watch.debounce-ms}, and its size and modification time unchanged since the
+ * last event. Producers that can, should still write to a temporary name (e.g. ending in
+ * {@code .part}) and rename it when done. A file cut short anyway fails to parse and is kept;
+ * once its writer finishes, the new content is imported.
+ * <p>
+ * If events were lost (overflow) the folder is rescanned; files missed while the application
+ * was down are picked up on startup and by the sweep. Disable with
+ * {@code dms.batch.watch.enabled=false}.
+ */
+@Component
+public class AccessLogFolderWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogFolderWatcher.class);
+
+    /** What a pending file looked like at its last event. */
+    record Observation(long size, long modified, long seenAt) {}
+
+    private final AccessLogImporter importer;
+    private final AccessLogFormats formats;
+    private final Path folder;
+    private final boolean enabled;
+    private final long debounceMillis;
+
+    /** Only touched by the watcher thread. */
+    private final Map<Path, Observation> pending = new HashMap<>();
+
+    private volatile WatchService watchService;
+    private Thread thread;
+
+    public AccessLogFolderWatcher(AccessLogImporter importer,
+                                  AccessLogFormats formats,
+                                  @Value("${dms.batch.input-folder:./input}") String inputFolderPath,
+                                  @Value("${dms.batch.watch.enabled:true}") boolean enabled,
+                                  @Value("${dms.batch.watch.debounce-ms:2000}") long debounceMillis) {
+        this.importer = importer;
+        this.formats = formats;
+        this.folder = Paths.get(inputFolderPath).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.debounceMillis = Math.max(0, debounceMillis);
+    }
+
+    /**
+     * This runs automatically on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || thread != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(folder);
+            watchService = FileSystems.getDefault().newWatchService();
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            // Log the error but allow the app to keep running; the nightly sweep still imports
+            log.error("Could not watch {}, files are only imported by the sweep: {}", folder, e.getMessage());
+            return;
+        }
+        thread = new Thread(this::run, "access-log-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for access-log files", folder);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Closing the watch service failed: {}", e.getMessage());
+        }
+        thread.interrupt();
+        thread = null;
+    }
+
+    private void run() {
+        // Files that arrived while the application was down
+        scanFolder(System.currentTimeMillis());
+        long pollMillis = Math.max(100, debounceMillis / 2);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                long now = System.currentTimeMillis();
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanFolder(now);
+                        } else {
+                            onEvent(folder.resolve((Path) event.context()), now);
+                        }
+                    }
+                    if (!key.reset()) {
+                        log.warn("{} is no longer accessible, files are only imported by the sweep", folder);
+                        return;
+                    }
+                }
+                checkPending(now);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Access-log watcher stopped, files are only imported by the sweep", e);
+        }
+    }
+
+    /** Records a create/modify event, restarting the file's quiet period. */
+    void onEvent(Path file, long now) {
+        if (!formats.isAccessLog(file)) {
+            return;
+        }
+        Observation observed = observe(file, now);
+        if (observed != null) {
+            pending.put(file, observed);
+        }
+    }
+
+    /** Submits every pending file that has been quiet for the debounce time and did not change. */
+    void checkPending(long now) {
+        Iterator<Map.Entry<Path, Observation>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Observation> e = it.next();
+            if (now - e.getValue().seenAt() < debounceMillis) {
+                continue;
+            }
+            Observation current = observe(e.getKey(), now);
+            if (current == null) {
+                // Gone (renamed away or imported by the sweep)
+                it.remove();
+            } else if (current.size() != e.getValue().size() || current.modified() != e.getValue().modified()) {
+                // Still being written without events (e.g. network share): wait another period
+                e.setValue(current);
+            } else {
+                it.remove();
+                log.debug("{} is complete, importing it", e.getKey().getFileName());
+                importer.submit(e.getKey());
+            }
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private void scanFolder(long now) {
+        try (Stream<Path> files = Files.list(folder)) {
+            files.forEach(file -> onEvent(file, now));
+        } catch (IOException e) {
+            log.warn("Scanning {} failed: {}", folder, e.getMessage());
+        }
+    }
+
+    private static Observation observe(Path file, long now) {
+        try {
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            return new Observation(Files.size(file), Files.getLastModifiedTime(file).toMillis(), now);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -1,97 +1,378 @@
 package org.swen.dms.batch;
 
-import jakarta.xml.bind.JAXBContext;
-import jakarta.xml.bind.Unmarshaller;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.swen.dms.batch.format.AccessLogFormats;
+import org.swen.dms.batch.format.AccessLogParser;
 import org.swen.dms.batch.xml.AccessLogEntry;
-import org.swen.dms.batch.xml.AccessLogs;
-import org.swen.dms.entity.Document;
-import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.entity.AccessLogImport;
+import org.swen.dms.repository.jpa.AccessLogImportRepository;
+import org.swen.dms.service.AccessStatsService;
+import org.swen.dms.service.TrendingService;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+/**
+ * Imports daily access-log files from {@code dms.batch.input-folder}.
+ * <p>
+ * Files may be XML, NDJSON or CSV, optionally gzip or zstd compressed; {@link AccessLogFormats}
+ * picks the parser and decompresses while reading, so entries are streamed whatever the format.
+ * Each file holds one day's counts (see {@link #logDate(String)}). They are appended to the
+ * monthly-partitioned {@code document_access_daily} table in chunks of {@code dms.batch.chunk-size}
+ * by {@link AccessCountWriter}; the {@code documents} rows are not written. The weekly and monthly
+ * rollups are refreshed at the end of each run.
+ * <p>
+ * Up to {@code dms.batch.parallelism} files are imported at once. Every chunk is its own
+ * transaction, which also advances the file's checkpoint in {@code access_log_imports}
+ * (keyed by the SHA-256 of the content). After a crash the file is resumed after the last
+ * committed entry; a file whose content was already imported is deleted without being applied again.
+ * <p>
+ * Several instances can import from the same (shared) folder: each file is claimed with a lease
+ * through {@link AccessLogClaims} before it is read, so the instances split the files between
+ * them and a file held by one is skipped by the others. A crashed instance's files are taken
+ * over once its lease expires.
+ * <p>
+ * Files are normally imported shortly after they land, via {@link #submit(Path)} from the
+ * {@link AccessLogFolderWatcher}. The nightly run ({@code dms.batch.sweep-cron}) sweeps up
+ * anything the watcher missed. A file or content is never imported twice at the same time.
+ */
 @Service
 public class AccessLogImporter {
 
     private static final Logger log = LoggerFactory.getLogger(AccessLogImporter.class);
 
-    private final DocumentRepository documentRepository;
+    private static final long PROGRESS_INTERVAL = 100_000;
+
+    private static final Pattern FILE_DATE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})");
+
+    private final AccessCountWriter writer;
+    private final AccessLogImportRepository checkpoints;
+    private final AccessLogClaims claims;
+    private final AccessStatsService accessStats;
+    private final TrendingService trending;
+    private final TransactionTemplate tx;
     private final String inputFolderPath;
+    private final AccessLogFormats formats;
+    private final int chunkSize;
+    private final ExecutorService filePool;
 
-    public AccessLogImporter(DocumentRepository documentRepository,
-                             @Value("${dms.batch.input-folder:./input}") String inputFolderPath) {
-        this.documentRepository = documentRepository;
+    /** Files queued or being imported, and the content hashes being imported. */
+    private final Set<Path> queued = ConcurrentHashMap.newKeySet();
+    private final Set<String> importing = ConcurrentHashMap.newKeySet();
+
+    public AccessLogImporter(AccessCountWriter writer,
+                             AccessLogImportRepository checkpoints,
+                             AccessLogClaims claims,
+                             AccessStatsService accessStats,
+                             TrendingService trending,
+                             PlatformTransactionManager transactionManager,
+                             AccessLogFormats formats,
+                             @Value("${dms.batch.input-folder:./input}") String inputFolderPath,
+                             @Value("${dms.batch.chunk-size:5000}") int chunkSize,
+                             @Value("${dms.batch.parallelism:4}") int parallelism) {
+        this.writer = writer;
+        this.checkpoints = checkpoints;
+        this.claims = claims;
+        this.accessStats = accessStats;
+        this.trending = trending;
+        this.tx = new TransactionTemplate(transactionManager);
         this.inputFolderPath = inputFolderPath;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, AccessCountWriter.MAX_ROWS));
+        this.formats = formats;
+        AtomicInteger threads = new AtomicInteger();
+        this.filePool = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                r -> new Thread(r, "access-log-import-" + threads.incrementAndGet()));
     }
 
     /**
-     * Runs every day at 01:00 AM.
+     * Runs every day at 01:00 AM by default.
      * Cron format: Second, Minute, Hour, Day, Month, Weekday
+     * Returns once every file has been handled, so runs never overlap.
      */
-    @Scheduled(cron = "0 0 1 * * ?")
-    @Transactional
+    @Scheduled(cron = "${dms.batch.sweep-cron:0 0 1 * * ?}")
     public void processAccessLogs() {
-        log.info("Batch process started: Checking for XML files in {}", inputFolderPath);
+        log.info("Batch process started: Checking for access-log files in {}", inputFolderPath);
 
         try {
-            Path folder = Paths.get(inputFolderPath);
+            Path folder = Paths.get(inputFolderPath).toAbsolutePath().normalize();
             if (!Files.exists(folder)) {
                 Files.createDirectories(folder);
             }
 
+            List<Path> logFiles;
             try (Stream<Path> files = Files.list(folder)) {
-                files.filter(path -> path.toString().endsWith(".xml"))
-                        .forEach(this::processFile);
+                logFiles = files.filter(formats::isAccessLog).sorted().toList();
             }
 
+            // Two copies of the same content must not be imported side by side
+            Set<String> claimed = ConcurrentHashMap.newKeySet();
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (Path file : logFiles) {
+                if (!queued.add(file)) {
+                    // Already handed over by the watcher
+                    continue;
+                }
+                tasks.add(() -> {
+                    try {
+                        processFile(file, claimed);
+                    } finally {
+                        queued.remove(file);
+                    }
+                    return null;
+                });
+            }
+            filePool.invokeAll(tasks);
+
+            if (!logFiles.isEmpty()) {
+                accessStats.rollUp();
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Batch process interrupted");
         } catch (Exception e) {
             log.error("Batch process failed", e);
         }
     }
 
-    private void processFile(Path filePath) {
-        log.info("Processing file: {}", filePath.getFileName());
+    /**
+     * Imports one file in the background and refreshes the rollups afterwards.
+     * Does nothing if the file is already queued or being imported.
+     */
+    public void submit(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        if (!queued.add(normalized)) {
+            return;
+        }
         try {
-            JAXBContext context = JAXBContext.newInstance(AccessLogs.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
+            filePool.execute(() -> {
+                try {
+                    if (processFile(normalized, ConcurrentHashMap.newKeySet())) {
+                        accessStats.rollUp();
+                    }
+                } catch (Exception e) {
+                    log.error("Refreshing rollups after {} failed: {}", normalized.getFileName(), e.getMessage());
+                } finally {
+                    queued.remove(normalized);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the next sweep picks the file up
+            queued.remove(normalized);
+        }
+    }
 
-            // 1. Parse XML
-            AccessLogs logs = (AccessLogs) unmarshaller.unmarshal(filePath.toFile());
+    /**
+     * @return whether the file was imported (not skipped and not failed)
+     */
+    boolean processFile(Path filePath, Set<String> claimed) {
+        String fileName = filePath.getFileName().toString();
+        String hash = null;
+        boolean held = false;
+        AccessLogParser parser = formats.parserFor(filePath).orElse(null);
+        if (parser == null) {
+            log.warn("Skipping {}: not a supported access-log format", fileName);
+            return false;
+        }
+        try {
+            long start = System.nanoTime();
+            String contentHash;
+            try {
+                contentHash = sha256(filePath);
+            } catch (NoSuchFileException e) {
+                // Imported and deleted (here or by another instance) since it was listed
+                return false;
+            }
+            if (!claimed.add(contentHash) || !importing.add(contentHash)) {
+                log.info("Skipping {}: the same content is imported from another file", fileName);
+                return false;
+            }
+            hash = contentHash;
 
-            if (logs.getEntries() != null) {
-                // 2. Update Database
-                for (AccessLogEntry entry : logs.getEntries()) {
-                    updateDocumentAccessCount(entry);
+            Optional<AccessLogClaims.Claim> claim = claims.claim(hash, fileName, logDate(fileName));
+            if (claim.isEmpty()) {
+                AccessLogImport checkpoint = checkpoints.findById(hash).orElse(null);
+                if (checkpoint != null && checkpoint.getStatus() == AccessLogImport.Status.COMPLETED) {
+                    Files.deleteIfExists(filePath);
+                    log.info("{} was already imported (as {}), deleted without applying it again",
+                            fileName, checkpoint.getFileName());
+                } else {
+                    log.info("Skipping {}: it is being imported by {}", fileName,
+                            checkpoint == null ? "another instance" : checkpoint.getClaimedBy());
                 }
+                return false;
             }
+            held = true;
+            long resumeAfter = claim.get().committedEntries();
+            LocalDate day = claim.get().logDate();
+
+            log.info("Processing file: {} for {} ({}{})", fileName, day, parser.name(),
+                    resumeAfter > 0 ? ", resuming after entry " + resumeAfter : "");
+            writer.ensurePartition(day);
+            ChunkedImport chunks = new ChunkedImport(fileName, hash, day, resumeAfter);
+
+            // 1. Parse (decompressing on the fly) and 2. Update Database, one transaction per chunk
+            try (InputStream in = AccessLogFormats.decompress(Files.newInputStream(filePath))) {
+                parser.read(in, chunks::add);
+            }
+            chunks.flush();
+            claims.release(hash, AccessLogImport.Status.COMPLETED);
+            held = false;
 
             // 3. Cleanup (Delete file to prevent re-processing)
             Files.delete(filePath);
-            log.info("Successfully processed and deleted: {}", filePath.getFileName());
+            log.info("Successfully processed and deleted: {} ({} entries, {} unknown document IDs, {} ms)",
+                    fileName, chunks.position - resumeAfter, chunks.unknown,
+                    (System.nanoTime() - start) / 1_000_000);
+            return true;
 
         } catch (Exception e) {
             log.error("Failed to process file: {}", filePath, e);
+            if (held) {
+                try {
+                    claims.release(hash, AccessLogImport.Status.FAILED);
+                } catch (Exception checkpointError) {
+                    log.error("Could not mark {} as failed: {}", fileName, checkpointError.getMessage());
+                }
+            }
+            return false;
+        } finally {
+            if (hash != null) {
+                importing.remove(hash);
+            }
         }
     }
 
-    private void updateDocumentAccessCount(AccessLogEntry entry) {
-        Optional<Document> docOpt = documentRepository.findById(entry.getDocumentId());
-        if (docOpt.isPresent()) {
-            Document doc = docOpt.get();
-            doc.setAccessCount(entry.getAccessCount());
-            documentRepository.save(doc);
-        } else {
-            log.warn("Document ID {} not found, skipping access log update.", entry.getDocumentId());
+    /**
+     * The day a file's counts belong to: a yyyy-MM-dd date in the file name
+     * (e.g. {@code access-2025-03-14.xml}), otherwise yesterday, as the nightly run
+     * picks up the previous day's logs.
+     */
+    LocalDate logDate(String fileName) {
+        Matcher m = FILE_DATE.matcher(fileName);
+        if (m.find()) {
+            try {
+                return LocalDate.parse(m.group(1));
+            } catch (DateTimeParseException e) {
+                log.warn("Ignoring invalid date in file name {}", fileName);
+            }
+        }
+        return LocalDate.now().minusDays(1);
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        filePool.shutdownNow();
+    }
+
+    /**
+     * Collects entries of one file into chunks of {@code dms.batch.chunk-size} distinct ids.
+     * Each chunk is written together with the new checkpoint (which also extends the lease) in
+     * one transaction, so the checkpoint always matches the committed updates, and a chunk is
+     * rolled back if another instance has taken the file over. Entries up to {@code resumeAfter}
+     * were committed by an earlier run and are skipped.
+     * A later entry for the same id replaces the earlier one, as it would have when updating
+     * row by row.
+     */
+    private class ChunkedImport {
+        private final String fileName;
+        private final String hash;
+        private final LocalDate day;
+        private final long resumeAfter;
+        private Map<Long, Long> chunk = new LinkedHashMap<>();
+        private long position;
+        private long committedPosition;
+        private long unknown;
+
+        ChunkedImport(String fileName, String hash, LocalDate day, long resumeAfter) {
+            this.fileName = fileName;
+            this.hash = hash;
+            this.day = day;
+            this.resumeAfter = resumeAfter;
+            this.committedPosition = resumeAfter;
+        }
+
+        void add(AccessLogEntry entry) {
+            if (++position <= resumeAfter) {
+                return;
+            }
+            if (position % PROGRESS_INTERVAL == 0) {
+                log.info("{}: {} entries imported", fileName, position);
+            }
+            if (entry.getDocumentId() == null || entry.getAccessCount() == null) {
+                log.warn("Incomplete access log entry, skipping.");
+                return;
+            }
+            chunk.put(entry.getDocumentId(), entry.getAccessCount());
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (position == committedPosition) {
+                return;
+            }
+            Map<Long, Long> counts = chunk;
+            long committed = position;
+            List<Long> missing = tx.execute(status -> {
+                List<Long> notFound = writer.apply(day, counts);
+                claims.renew(hash, committed);
+                return notFound;
+            });
+            if (missing != null && !missing.isEmpty()) {
+                unknown += missing.size();
+                log.warn("{} document IDs not found, skipping access log update: {}", missing.size(),
+                        missing.size() > 20 ? missing.subList(0, 20) + "..." : missing);
+            }
+            trending.record(counts);
+            committedPosition = committed;
+            chunk = new LinkedHashMap<>();
         }
     }
-}
\ No newline at end of file
+}
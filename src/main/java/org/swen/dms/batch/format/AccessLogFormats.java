@@ -0,0 +1,86 @@
+package org.swen.dms.batch.format;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Picks the {@link AccessLogParser} for a file and decompresses it on the fly.
+ * <p>
+ * The format comes from the file extension, ignoring a trailing compression extension
+ * ({@code access.xml}, {@code access.ndjson.gz}, {@code access.csv.zst}). Compression is detected
+ * from the magic bytes, not the name: gzip ({@code 1f 8b}) and zstd ({@code 28 b5 2f fd}) are
+ * decompressed while parsing, anything else is read as is. Nothing is staged on disk.
+ */
+@Component
+public class AccessLogFormats {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> COMPRESSION_EXTENSIONS = List.of("gz", "gzip", "zst", "zstd");
+
+    private final Map<String, AccessLogParser> byExtension = new HashMap<>();
+
+    public AccessLogFormats(List<AccessLogParser> parsers) {
+        for (AccessLogParser parser : parsers) {
+            for (String extension : parser.extensions()) {
+                AccessLogParser previous = byExtension.put(extension, parser);
+                if (previous != null) {
+                    throw new IllegalStateException("Both " + previous.name() + " and " + parser.name()
+                            + " parse ." + extension + " files");
+                }
+            }
+        }
+    }
+
+    /** The parser for the file, or empty if it is not an access log (e.g. still a {@code .part}). */
+    public Optional<AccessLogParser> parserFor(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.startsWith(".")) {
+            return Optional.empty();
+        }
+        String extension = extension(name);
+        if (COMPRESSION_EXTENSIONS.contains(extension)) {
+            extension = extension(name.substring(0, name.length() - extension.length() - 1));
+        }
+        return Optional.ofNullable(byExtension.get(extension));
+    }
+
+    public boolean isAccessLog(Path file) {
+        return parserFor(file).isPresent();
+    }
+
+    /**
+     * Wraps {@code in} with a buffer and, if its content is gzip or zstd compressed, a decompressor.
+     */
+    public static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(4);
+        byte[] magic = buffered.readNBytes(4);
+        buffered.reset();
+
+        if (magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            return new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE);
+        }
+        if (magic.length == 4 && (magic[0] & 0xff) == 0x28 && (magic[1] & 0xff) == 0xb5
+                && (magic[2] & 0xff) == 0x2f && (magic[3] & 0xff) == 0xfd) {
+            return new BufferedInputStream(new ZstdInputStream(buffered), BUFFER_SIZE);
+        }
+        return buffered;
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+}
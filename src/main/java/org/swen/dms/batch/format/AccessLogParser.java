@@ -0,0 +1,31 @@
+package org.swen.dms.batch.format;
+
+import org.swen.dms.batch.xml.AccessLogEntry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streams access-log entries out of one file format. Implementations are Spring beans and are
+ * picked up by {@link AccessLogFormats}; adding a format means adding a bean.
+ * <p>
+ * Entries are handed over one at a time and in file order, so the importer's checkpoints
+ * (entry ordinals) stay valid. Missing or unparseable values are left null.
+ */
+public interface AccessLogParser {
+
+    /** Short name for logging, e.g. {@code "xml"}. */
+    String name();
+
+    /** File extensions handled, lower case and without the dot (e.g. {@code "xml"}). */
+    Set<String> extensions();
+
+    /**
+     * Reads all entries from the (already decompressed) stream.
+     *
+     * @return the number of entries read
+     */
+    long read(InputStream in, Consumer<AccessLogEntry> consumer) throws IOException;
+}
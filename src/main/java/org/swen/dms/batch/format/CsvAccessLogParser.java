@@ -0,0 +1,114 @@
+package org.swen.dms.batch.format;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.swen.dms.batch.xml.AccessLogEntry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Comma-separated values, one line per entry:
+ * <pre>
+ * documentId,accessCount
+ * 1,5
+ * 2,6
+ * </pre>
+ * The header line is optional; without one the first two columns are the document id and the
+ * access count. With one, the columns are found by name ({@code documentId}/{@code document_id},
+ * {@code accessCount}/{@code access_count}) and other columns are ignored. Blank lines and lines
+ * starting with {@code #} are skipped. Values may be quoted but must not contain commas.
+ */
+@Component
+public class CsvAccessLogParser implements AccessLogParser {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvAccessLogParser.class);
+
+    @Override
+    public String name() {
+        return "csv";
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return Set.of("csv");
+    }
+
+    @Override
+    public long read(InputStream in, Consumer<AccessLogEntry> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int idColumn = 0;
+        int countColumn = 1;
+        boolean firstLine = true;
+        long count = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (firstLine) {
+                firstLine = false;
+                if (isHeader(fields)) {
+                    idColumn = -1;
+                    countColumn = -1;
+                    for (int i = 0; i < fields.length; i++) {
+                        switch (unquote(fields[i]).toLowerCase(Locale.ROOT).replace("_", "")) {
+                            case "documentid" -> idColumn = i;
+                            case "accesscount" -> countColumn = i;
+                            default -> { } // other columns are ignored
+                        }
+                    }
+                    if (idColumn < 0 || countColumn < 0) {
+                        throw new IOException("CSV header needs documentId and accessCount columns: " + line);
+                    }
+                    continue;
+                }
+            }
+
+            AccessLogEntry entry = new AccessLogEntry();
+            entry.setDocumentId(parseLong(fields, idColumn));
+            entry.setAccessCount(parseLong(fields, countColumn));
+            consumer.accept(entry);
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isHeader(String[] fields) {
+        String first = unquote(fields[0]);
+        return !first.isEmpty() && !Character.isDigit(first.charAt(0)) && first.charAt(0) != '-';
+    }
+
+    private static Long parseLong(String[] fields, int column) {
+        if (column >= fields.length) {
+            return null;
+        }
+        String text = unquote(fields[column]);
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid number in access log: '{}'", text);
+            return null;
+        }
+    }
+
+    private static String unquote(String field) {
+        String text = field.trim();
+        if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+            text = text.substring(1, text.length() - 1).trim();
+        }
+        return text;
+    }
+}
@@ -0,0 +1,87 @@
+package org.swen.dms.batch.format;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.swen.dms.batch.xml.AccessLogEntry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Newline-delimited JSON, one object per entry:
+ * <pre>
+ * {"documentId": 1, "accessCount": 5}
+ * {"document_id": 2, "access_count": 6}
+ * </pre>
+ * Read with Jackson's streaming parser, one object at a time. Other fields are ignored.
+ */
+@Component
+public class NdjsonAccessLogParser implements AccessLogParser {
+
+    private static final Logger log = LoggerFactory.getLogger(NdjsonAccessLogParser.class);
+
+    // Thread-safe, creates one parser per file
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    @Override
+    public String name() {
+        return "ndjson";
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return Set.of("ndjson", "jsonl");
+    }
+
+    @Override
+    public long read(InputStream in, Consumer<AccessLogEntry> consumer) throws IOException {
+        long count = 0;
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a JSON object per line at " + parser.currentLocation());
+                }
+                consumer.accept(readEntry(parser));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private AccessLogEntry readEntry(JsonParser parser) throws IOException {
+        AccessLogEntry entry = new AccessLogEntry();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "documentId", "document_id" -> entry.setDocumentId(longValue(parser, value));
+                case "accessCount", "access_count" -> entry.setAccessCount(longValue(parser, value));
+                default -> parser.skipChildren(); // unknown fields are ignored
+            }
+        }
+        return entry;
+    }
+
+    private static Long longValue(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Long.valueOf(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        log.warn("Invalid number in access log: '{}'", parser.getText());
+        parser.skipChildren();
+        return null;
+    }
+}
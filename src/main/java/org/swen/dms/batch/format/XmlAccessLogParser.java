@@ -0,0 +1,68 @@
+package org.swen.dms.batch.format;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.swen.dms.batch.xml.AccessLogEntry;
+import org.swen.dms.batch.xml.AccessLogStreamReader;
+import org.swen.dms.batch.xml.AccessLogs;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * {@code <accessLogs><entry>...</entry></accessLogs>} files.
+ * <p>
+ * {@code dms.batch.xml-mode} selects how they are parsed:
+ * <ul>
+ *   <li>{@code stax} (default): entries are streamed one at a time, constant memory</li>
+ *   <li>{@code jaxb-fragment}: streamed as well, each {@code <entry>} is unmarshalled by JAXB</li>
+ *   <li>{@code full}: the whole document is unmarshalled into memory; only for small files</li>
+ * </ul>
+ */
+@Component
+public class XmlAccessLogParser implements AccessLogParser {
+
+    public enum Mode { STAX, JAXB_FRAGMENT, FULL }
+
+    private final Mode mode;
+    private final AccessLogStreamReader streamReader;
+
+    public XmlAccessLogParser(@Value("${dms.batch.xml-mode:stax}") String mode) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        this.streamReader = new AccessLogStreamReader(this.mode == Mode.JAXB_FRAGMENT);
+    }
+
+    @Override
+    public String name() {
+        return "xml (" + mode.name().toLowerCase(Locale.ROOT).replace('_', '-') + ")";
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return Set.of("xml");
+    }
+
+    @Override
+    public long read(InputStream in, Consumer<AccessLogEntry> consumer) throws IOException {
+        try {
+            if (mode != Mode.FULL) {
+                return streamReader.read(in, consumer);
+            }
+            Unmarshaller unmarshaller = AccessLogStreamReader.jaxbContext().createUnmarshaller();
+            AccessLogs logs = (AccessLogs) unmarshaller.unmarshal(in);
+            if (logs.getEntries() == null) {
+                return 0;
+            }
+            logs.getEntries().forEach(consumer);
+            return logs.getEntries().size();
+        } catch (XMLStreamException | JAXBException e) {
+            throw new IOException("Invalid access-log XML: " + e.getMessage(), e);
+        }
+    }
+}
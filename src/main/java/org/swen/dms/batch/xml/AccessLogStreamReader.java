@@ -0,0 +1,126 @@
+package org.swen.dms.batch.xml;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streams {@code <entry>} elements out of an {@code <accessLogs>} file one at a time.
+ * <p>
+ * Only the current entry is ever held in memory, so memory use does not depend on the file size.
+ * Entries are either read field by field with StAX (default), or each {@code <entry>} fragment is
+ * unmarshalled through the shared {@link JAXBContext} when {@code unmarshalFragments} is set.
+ * <p>
+ * DTDs and external entities are disabled; the files come from outside the system.
+ */
+public class AccessLogStreamReader {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogStreamReader.class);
+
+    private static final String ENTRY = "entry";
+    private static final String DOCUMENT_ID = "documentId";
+    private static final String ACCESS_COUNT = "accessCount";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final boolean unmarshalFragments;
+
+    public AccessLogStreamReader(boolean unmarshalFragments) {
+        this.unmarshalFragments = unmarshalFragments;
+    }
+
+    /**
+     * JAXBContext is expensive to build and thread-safe, so one instance is shared by everyone.
+     */
+    public static JAXBContext jaxbContext() {
+        return ContextHolder.CONTEXT;
+    }
+
+    /**
+     * Reads all entries from the stream and hands each one to {@code consumer}.
+     *
+     * @return the number of entries read
+     */
+    public long read(InputStream in, Consumer<AccessLogEntry> consumer) throws XMLStreamException, JAXBException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+        // Unmarshaller is not thread-safe, but cheap: one per file
+        Unmarshaller unmarshaller = unmarshalFragments ? jaxbContext().createUnmarshaller() : null;
+        long count = 0;
+        try {
+            while (reader.hasNext()) {
+                if (reader.getEventType() == XMLStreamConstants.START_ELEMENT && ENTRY.equals(reader.getLocalName())) {
+                    AccessLogEntry entry = unmarshaller != null
+                            // leaves the reader on the event after </entry>
+                            ? unmarshaller.unmarshal(reader, AccessLogEntry.class).getValue()
+                            : readEntry(reader);
+                    count++;
+                    consumer.accept(entry);
+                    continue;
+                }
+                reader.next();
+            }
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    /**
+     * Reads one entry with the reader on its start tag; leaves the reader on its end tag.
+     * Unparseable numbers are left null, as JAXB would.
+     */
+    private AccessLogEntry readEntry(XMLStreamReader reader) throws XMLStreamException {
+        AccessLogEntry entry = new AccessLogEntry();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case DOCUMENT_ID -> entry.setDocumentId(parseLong(reader.getElementText()));
+                    case ACCESS_COUNT -> entry.setAccessCount(parseLong(reader.getElementText()));
+                    default -> { } // unknown elements are ignored
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && ENTRY.equals(reader.getLocalName())) {
+                break;
+            }
+        }
+        return entry;
+    }
+
+    private static Long parseLong(String text) {
+        try {
+            return Long.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid number in access log: '{}'", text);
+            return null;
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static final class ContextHolder {
+        private static final JAXBContext CONTEXT;
+
+        static {
+            try {
+                CONTEXT = JAXBContext.newInstance(AccessLogs.class);
+            } catch (JAXBException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
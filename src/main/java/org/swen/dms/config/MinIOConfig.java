@@ -2,30 +2,94 @@ package org.swen.dms.config;
 
 import io.minio.BucketExistsArgs;
 import io.minio.MakeBucketArgs;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.swen.dms.storage.MinioBlobStore;
+import org.swen.dms.storage.MinioMultipartClient;
 
+import java.time.Duration;
+
+/**
+ * MinIO client and {@link MinioBlobStore}; only created when MinIO is the storage backend
+ * ({@code dms.storage.backend=minio}, the default).
+ */
 @Configuration
+@ConditionalOnProperty(name = "dms.storage.backend", havingValue = "minio", matchIfMissing = true)
 public class MinIOConfig {
 
     @Bean
-    public MinioClient minioClient() {
+    public MinioClient minioClient(@Value("${dms.storage.minio.endpoint:http://minio:9000}") String endpoint,
+                                   @Value("${dms.storage.minio.access-key:minioadmin}") String accessKey,
+                                   @Value("${dms.storage.minio.secret-key:minioadmin}") String secretKey) {
+        return MinioClient.builder()
+                .endpoint(endpoint) // the docker service name by default
+                .credentials(accessKey, secretKey)
+                .build();
+    }
+
+    /**
+     * The document store. Presigned URLs are signed for {@code dms.storage.minio.public-endpoint}
+     * (the internal endpoint if unset), valid for {@code dms.storage.presigned.get-ttl-seconds} /
+     * {@code put-ttl-seconds}; 0 turns them off. Multipart uploads use the internal endpoint.
+     * <p>
+     * Download URLs are off by default: redirecting a browser needs a public endpoint it can
+     * reach, and a redirect to another origin breaks XHR downloads unless MinIO allows it (CORS).
+     * Set the GET TTL only together with the public endpoint.
+     */
+    @Bean
+    public MinioBlobStore minioBlobStore(MinioClient minioClient,
+                                         @Value("${dms.storage.minio.endpoint:http://minio:9000}") String endpoint,
+                                         @Value("${dms.storage.minio.bucket:documents}") String bucket,
+                                         @Value("${dms.storage.minio.public-endpoint:}") String publicEndpoint,
+                                         @Value("${dms.storage.minio.region:us-east-1}") String region,
+                                         @Value("${dms.storage.minio.access-key:minioadmin}") String accessKey,
+                                         @Value("${dms.storage.minio.secret-key:minioadmin}") String secretKey,
+                                         @Value("${dms.storage.presigned.get-ttl-seconds:0}") long getTtlSeconds,
+                                         @Value("${dms.storage.presigned.put-ttl-seconds:900}") long putTtlSeconds) {
+        MinioClient presigner = presigner(minioClient, publicEndpoint, region, accessKey, secretKey);
+        MinioMultipartClient multipart = multipartClient(endpoint, region, accessKey, secretKey);
+        return new MinioBlobStore(minioClient, multipart, presigner, bucket,
+                Duration.ofSeconds(getTtlSeconds), Duration.ofSeconds(putTtlSeconds));
+    }
+
+    /**
+     * Client that signs URLs for the endpoint browsers reach. The region is fixed so signing never
+     * has to ask the server for it.
+     */
+    static MinioClient presigner(MinioClient internal, String publicEndpoint, String region,
+                                 String accessKey, String secretKey) {
+        if (publicEndpoint == null || publicEndpoint.isBlank()) {
+            return internal;
+        }
         return MinioClient.builder()
-                .endpoint("http://minio:9000") // Ensure this matches your docker service name
-                .credentials("minioadmin", "minioadmin")
+                .endpoint(publicEndpoint.trim())
+                .region(region)
+                .credentials(accessKey, secretKey)
                 .build();
     }
 
+    /** Client for multipart uploads (resumable uploads), on the internal endpoint. */
+    static MinioMultipartClient multipartClient(String endpoint, String region, String accessKey, String secretKey) {
+        return new MinioMultipartClient(MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .region(region)
+                .credentials(accessKey, secretKey)
+                .build());
+    }
+
     /**
      * This runs automatically on startup.
-     * It checks if the "documents" bucket exists; if not, it creates it.
+     * It checks if the document bucket exists; if not, it creates it.
      */
     @Bean
-    public CommandLineRunner initBucket(MinioClient minioClient) {
+    public CommandLineRunner initBucket(MinioClient minioClient,
+                                        @Value("${dms.storage.minio.bucket:documents}") String bucketName) {
         return args -> {
-            String bucketName = "documents";
             try {
                 // 1. Check if bucket exists
                 boolean found = minioClient.bucketExists(
@@ -3,6 +3,7 @@ package org.swen.dms.config;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,6 +17,17 @@ import org.springframework.context.annotation.Configuration;
  *  - Exchange: {@code docs.exchange} (topic exchange for document events)
  *  - Queue: {@code docs.ocr.queue} (receives document creation messages)
  *  - Routing Key: {@code docs.created}
+ *  - Queues: {@code docs.index.updated.queue} / {@code docs.index.deleted.queue} /
+ *    {@code docs.index.categories.queue} (keep the search index in sync, bound to
+ *    {@code docs.updated} / {@code docs.deleted} / {@code docs.categories.changed})
+ *  - Queue: {@code docs.optimize.queue} (also bound to {@code docs.created}; only declared when
+ *    {@code dms.optimize.enabled=true}, so it does not fill up without a consumer)
+ *  - Exchange: {@code docs.cache.fanout} (fanout; document cache invalidations)
+ *  - Queue: one auto-deleted queue per application instance bound to it, so every instance
+ *    drops its cached copy
+ *  - Queues: one auto-deleted queue per instance and routing key ({@code docs.updated},
+ *    {@code docs.deleted}, {@code docs.categories.changed}, {@code docs.ocr.completed}), so a running reindex sees which documents
+ *    change while it copies them
  *
  * Also enables RabbitMQ listener support through {@link org.springframework.amqp.rabbit.annotation.EnableRabbit}.
  */
@@ -25,12 +37,20 @@ import org.springframework.context.annotation.Configuration;
 public class RabbitConfig {
     public static final String EXCHANGE_DOCS = "docs.exchange";
 
+    public static final String EXCHANGE_CACHE_INVALIDATION = "docs.cache.fanout";
+
     public static final String ROUTING_DOC_CREATED = "docs.created";
     public static final String ROUTING_DOC_UPDATED = "docs.updated";
+    public static final String ROUTING_DOC_DELETED = "docs.deleted";
+    public static final String ROUTING_CATEGORIES_CHANGED = "docs.categories.changed";
     public static final String ROUTING_OCR_COMPLETED = "docs.ocr.completed";
 
     public static final String QUEUE_OCR = "docs.ocr.queue";
     public static final String QUEUE_GENAI = "docs.genai.queue";
+    public static final String QUEUE_INDEX_UPDATED = "docs.index.updated.queue";
+    public static final String QUEUE_INDEX_DELETED = "docs.index.deleted.queue";
+    public static final String QUEUE_INDEX_CATEGORIES = "docs.index.categories.queue";
+    public static final String QUEUE_OPTIMIZE = "docs.optimize.queue";
 
     @Bean
     public TopicExchange docsExchange() {
@@ -61,6 +81,112 @@ public class RabbitConfig {
                 .with(ROUTING_OCR_COMPLETED);
     }
 
+    @Bean
+    public Queue indexUpdatedQueue() {
+        return QueueBuilder.durable(QUEUE_INDEX_UPDATED).build();
+    }
+
+    @Bean
+    public Binding bindIndexUpdatedQueue() {
+        return BindingBuilder.bind(indexUpdatedQueue())
+                .to(docsExchange())
+                .with(ROUTING_DOC_UPDATED);
+    }
+
+    @Bean
+    public Queue indexDeletedQueue() {
+        return QueueBuilder.durable(QUEUE_INDEX_DELETED).build();
+    }
+
+    @Bean
+    public Binding bindIndexDeletedQueue() {
+        return BindingBuilder.bind(indexDeletedQueue())
+                .to(docsExchange())
+                .with(ROUTING_DOC_DELETED);
+    }
+
+    @Bean
+    public Queue indexCategoriesQueue() {
+        return QueueBuilder.durable(QUEUE_INDEX_CATEGORIES).build();
+    }
+
+    @Bean
+    public Binding bindIndexCategoriesQueue() {
+        return BindingBuilder.bind(indexCategoriesQueue())
+                .to(docsExchange())
+                .with(ROUTING_CATEGORIES_CHANGED);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "dms.optimize.enabled", havingValue = "true")
+    public Queue optimizeQueue() {
+        return QueueBuilder.durable(QUEUE_OPTIMIZE).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "dms.optimize.enabled", havingValue = "true")
+    public Binding bindOptimizeQueue() {
+        return BindingBuilder.bind(optimizeQueue())
+                .to(docsExchange())
+                .with(ROUTING_DOC_CREATED);
+    }
+
+    @Bean
+    public FanoutExchange cacheInvalidationExchange() {
+        return new FanoutExchange(EXCHANGE_CACHE_INVALIDATION, true, false);
+    }
+
+    // Server-named, exclusive and auto-deleted: each instance gets its own copy of every message
+    @Bean
+    public Queue documentCacheQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding bindDocumentCacheQueue() {
+        return BindingBuilder.bind(documentCacheQueue()).to(cacheInvalidationExchange());
+    }
+
+    @Bean
+    public Queue reindexUpdatedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding bindReindexUpdatedQueue() {
+        return BindingBuilder.bind(reindexUpdatedQueue()).to(docsExchange()).with(ROUTING_DOC_UPDATED);
+    }
+
+    @Bean
+    public Queue reindexDeletedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding bindReindexDeletedQueue() {
+        return BindingBuilder.bind(reindexDeletedQueue()).to(docsExchange()).with(ROUTING_DOC_DELETED);
+    }
+
+    @Bean
+    public Queue reindexCategoriesChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding bindReindexCategoriesChangedQueue() {
+        return BindingBuilder.bind(reindexCategoriesChangedQueue()).to(docsExchange()).with(ROUTING_CATEGORIES_CHANGED);
+    }
+
+    @Bean
+    public Queue reindexOcrCompletedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding bindReindexOcrCompletedQueue() {
+        return BindingBuilder.bind(reindexOcrCompletedQueue()).to(docsExchange()).with(ROUTING_OCR_COMPLETED);
+    }
+
     @Bean
     public Jackson2JsonMessageConverter jackson2JsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
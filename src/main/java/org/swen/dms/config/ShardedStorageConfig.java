@@ -0,0 +1,70 @@
+package org.swen.dms.config;
+
+import io.minio.MinioClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.swen.dms.storage.MinioBlobStore;
+import org.swen.dms.storage.MinioMultipartClient;
+import org.swen.dms.storage.ShardRebalancer;
+import org.swen.dms.storage.ShardedBlobStore;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharded storage ({@code dms.storage.backend=sharded}): one {@link MinioBlobStore} per endpoint
+ * in {@code dms.storage.sharded.endpoints}, all with the same bucket and credentials, combined in
+ * a {@link ShardedBlobStore}. Endpoints can be added (then run a rebalance) but not renamed.
+ */
+@Configuration
+@ConditionalOnProperty(name = "dms.storage.backend", havingValue = "sharded")
+public class ShardedStorageConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedStorageConfig.class);
+
+    @Bean
+    public ShardedBlobStore shardedBlobStore(@Value("${dms.storage.sharded.endpoints}") List<String> endpoints,
+                                             @Value("${dms.storage.sharded.public-endpoints:}") List<String> publicEndpoints,
+                                             @Value("${dms.storage.sharded.virtual-nodes:160}") int virtualNodes,
+                                             @Value("${dms.storage.minio.region:us-east-1}") String region,
+                                             @Value("${dms.storage.minio.access-key:minioadmin}") String accessKey,
+                                             @Value("${dms.storage.minio.secret-key:minioadmin}") String secretKey,
+                                             @Value("${dms.storage.minio.bucket:documents}") String bucket,
+                                             @Value("${dms.storage.presigned.get-ttl-seconds:0}") long getTtlSeconds,
+                                             @Value("${dms.storage.presigned.put-ttl-seconds:900}") long putTtlSeconds) {
+        Map<String, MinioBlobStore> shards = new LinkedHashMap<>();
+        for (int i = 0; i < endpoints.size(); i++) {
+            String name = endpoints.get(i).trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            MinioClient client = MinioClient.builder().endpoint(name).credentials(accessKey, secretKey).build();
+            // Public endpoints, if given, are listed in the same order as the endpoints
+            String publicEndpoint = i < publicEndpoints.size() ? publicEndpoints.get(i) : null;
+            MinioClient presigner = MinIOConfig.presigner(client, publicEndpoint, region, accessKey, secretKey);
+            MinioMultipartClient multipart = MinIOConfig.multipartClient(name, region, accessKey, secretKey);
+            shards.put(name, new MinioBlobStore(client, multipart, presigner, bucket,
+                    Duration.ofSeconds(getTtlSeconds), Duration.ofSeconds(putTtlSeconds)));
+        }
+        log.info("Storing documents on {} shards: {}", shards.size(), shards.keySet());
+        return new ShardedBlobStore(shards, virtualNodes, getTtlSeconds > 0);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardedBlobStore store) {
+        return new ShardRebalancer(store);
+    }
+
+    /** Creates the bucket on every shard that lacks it, as {@link MinIOConfig} does for one. */
+    @Bean
+    public CommandLineRunner initShardBuckets(ShardedBlobStore store) {
+        return args -> store.createBucketsIfMissing();
+    }
+}
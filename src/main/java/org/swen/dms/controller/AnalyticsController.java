@@ -0,0 +1,55 @@
+package org.swen.dms.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.swen.dms.dto.TopDocument;
+import org.swen.dms.dto.TrendingDocument;
+import org.swen.dms.service.AccessStatsService;
+import org.swen.dms.service.TrendingService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Access analytics, served from the daily access-count history and its rollups.
+ * <ul>
+ *   <li>GET /api/analytics/top-documents?days=30 → most accessed documents of the last 30 days</li>
+ *   <li>GET /api/analytics/top-documents?from=2025-01-01&amp;to=2025-03-31 → same for a fixed range</li>
+ *   <li>GET /api/analytics/trending?limit=10 → approximate hot documents right now (in memory, decayed)</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private static final int MAX_DAYS = 3660;
+
+    private final AccessStatsService accessStats;
+    private final TrendingService trending;
+
+    public AnalyticsController(AccessStatsService accessStats, TrendingService trending) {
+        this.accessStats = accessStats;
+        this.trending = trending;
+    }
+
+    @GetMapping("/top-documents")
+    public ResponseEntity<List<TopDocument>> topDocuments(
+            @RequestParam(value = "days", defaultValue = "30") int days,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(Math.max(1, Math.min(days, MAX_DAYS)) - 1L);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(accessStats.topDocuments(start, end, limit));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingDocument>> trending(@RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trending.top(limit));
+    }
+}
@@ -2,11 +2,15 @@ package org.swen.dms.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.swen.dms.dto.BulkCategoryRequest;
+import org.swen.dms.dto.BulkCategoryResult;
 import org.swen.dms.entity.Category;
+import org.swen.dms.repository.jpa.CategoryCountView;
 import org.swen.dms.service.CategoryService;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -25,10 +29,18 @@ public class CategoryController {
         return service.getAllCategories();
     }
 
-    // 2. Create a new category
+    // 1b. Same list with the number of documents in each category, for the sidebar (GET /api/categories?withCounts=true)
+    @GetMapping(params = "withCounts=true")
+    public List<CategoryCountView> getAllCategoriesWithCounts() {
+        return service.getAllCategoriesWithCounts();
+    }
+
+    // 2. Create a new category, at the top level or below parentId (Finance -> Finance/Invoices)
     @PostMapping
-    public ResponseEntity<Category> createCategory(@RequestParam String name, @RequestParam(required = false) String description) {
-        Category created = service.createCategory(name, description);
+    public ResponseEntity<Category> createCategory(@RequestParam String name,
+                                                   @RequestParam(required = false) String description,
+                                                   @RequestParam(required = false) Long parentId) {
+        Category created = service.createCategory(name, description, parentId);
         return ResponseEntity.ok(created);
     }
 
@@ -46,4 +58,33 @@ public class CategoryController {
         service.removeCategoryFromDoc(categoryId, docId);
         return ResponseEntity.ok(Map.of("message", "Category removed successfully"));
     }
+
+    // 5. Assign a category to many documents at once: {"documentIds": [1, 2, 3]} or {"query": "invoice 2024"}
+    @PostMapping("/{categoryId}/assign")
+    public ResponseEntity<BulkCategoryResult> assignCategoryBulk(@PathVariable Long categoryId,
+                                                                 @RequestBody BulkCategoryRequest selection) {
+        if (!isValid(selection)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.assignCategoryToDocs(categoryId, selection));
+    }
+
+    // 6. Remove a category from many documents at once (same body as 5.)
+    @PostMapping("/{categoryId}/remove")
+    public ResponseEntity<BulkCategoryResult> removeCategoryBulk(@PathVariable Long categoryId,
+                                                                 @RequestBody BulkCategoryRequest selection) {
+        if (!isValid(selection)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.removeCategoryFromDocs(categoryId, selection));
+    }
+
+    // Exactly one of documentIds and query, and not too many ids
+    private static boolean isValid(BulkCategoryRequest selection) {
+        boolean byIds = selection.getDocumentIds() != null && !selection.getDocumentIds().isEmpty();
+        boolean byQuery = selection.getQuery() != null && !selection.getQuery().isBlank();
+        return byIds != byQuery
+                && (!byIds || selection.getDocumentIds().size() <= BulkCategoryRequest.MAX_DOCUMENT_IDS)
+                && (!byIds || selection.getDocumentIds().stream().allMatch(Objects::nonNull));
+    }
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package org.swen.dms.controller;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.swen.dms.entity.Document;
+import org.swen.dms.repository.jpa.DocumentTitleView;
 import org.swen.dms.service.DocumentService;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +18,7 @@ import java.util.List;
  * <ul>
  *   <li>POST /documents → create a new document</li>
  *   <li>GET /documents → list all or filter by title</li>
+ *   <li>GET /documents/titles?q= → title-substring typeahead</li>
  *   <li>GET /documents/{id} → fetch by ID</li>
  *   <li>PUT /documents/{id} → update an existing document</li>
  *   <li>DELETE /documents/{id} → remove a document</li>
@@ -41,13 +44,23 @@ public class DocumentController {
         return service.uploadDocument(file, title, category);
     }
 
+    // Optionally only the documents under a category path, e.g. ?category=Finance/Invoices
     @GetMapping
-    public List<Document> list() {
-        return service.findAll();
+    public List<Document> list(@RequestParam(value = "category", required = false) String category) {
+        if (category == null || category.isBlank()) {
+            return service.findAll();
+        }
+        return service.findByCategory(category);
+    }
+
+    @GetMapping("/titles")
+    public List<DocumentTitleView> searchTitles(@RequestParam("q") String query,
+                                                @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return service.searchTitles(query, limit);
     }
 
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> download(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable Long id) {
         return service.downloadDocument(id);
     }
 
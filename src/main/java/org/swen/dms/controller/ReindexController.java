@@ -0,0 +1,34 @@
+package org.swen.dms.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.swen.dms.dto.ReindexStatus;
+import org.swen.dms.service.ReindexService;
+
+/**
+ * Admin endpoints to rebuild the search index from Postgres and follow its progress.
+ */
+@RestController
+@RequestMapping("/api/admin/reindex")
+public class ReindexController {
+
+    private final ReindexService reindexService;
+
+    public ReindexController(ReindexService reindexService) {
+        this.reindexService = reindexService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReindexStatus> start() {
+        if (reindexService.getStatus().getState() == ReindexStatus.State.RUNNING) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(reindexService.getStatus());
+        }
+        return ResponseEntity.accepted().body(reindexService.startReindex());
+    }
+
+    @GetMapping
+    public ReindexStatus status() {
+        return reindexService.getStatus();
+    }
+}
@@ -1,6 +1,8 @@
 package org.swen.dms.controller;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.swen.dms.dto.SearchResult;
 import org.swen.dms.entity.DocumentSearch;
 import org.swen.dms.service.SearchService;
 
@@ -11,6 +13,9 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:4200")
 public class SearchController {
 
+    // Tells the client whether Elasticsearch or the Postgres fallback answered
+    static final String ENGINE_HEADER = "X-Search-Engine";
+
     private final SearchService searchService;
 
     public SearchController(SearchService searchService) {
@@ -18,7 +23,23 @@ public class SearchController {
     }
 
     @GetMapping
-    public List<DocumentSearch> search(@RequestParam("q") String query) {
-        return searchService.searchDocuments(query);
+    public ResponseEntity<List<DocumentSearch>> search(@RequestParam("q") String query) {
+        SearchResult result = searchService.search(query);
+        if (result == null) {
+            return ResponseEntity.ok().build();
+        }
+        return ResponseEntity.ok()
+                .header(ENGINE_HEADER, result.getEngine())
+                .body(result.getHits());
+    }
+
+    // Hits plus category / upload month / size facet counts in one round trip
+    @GetMapping("/faceted")
+    public ResponseEntity<SearchResult> searchFaceted(@RequestParam("q") String query,
+                                                      @RequestParam(value = "category", required = false) String category) {
+        SearchResult result = searchService.searchWithFacets(query, category);
+        return ResponseEntity.ok()
+                .header(ENGINE_HEADER, result.getEngine())
+                .body(result);
     }
 }
@@ -0,0 +1,41 @@
+package org.swen.dms.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.swen.dms.dto.RebalanceStatus;
+import org.swen.dms.storage.ShardRebalancer;
+
+/**
+ * Admin endpoints to rebalance sharded storage after shards were added and follow its progress.
+ * Answer 404 unless the storage backend is {@code sharded}.
+ */
+@RestController
+@RequestMapping("/api/admin/storage/rebalance")
+public class StorageController {
+
+    private final ObjectProvider<ShardRebalancer> rebalancer;
+
+    public StorageController(ObjectProvider<ShardRebalancer> rebalancer) {
+        this.rebalancer = rebalancer;
+    }
+
+    @PostMapping
+    public ResponseEntity<RebalanceStatus> start() {
+        ShardRebalancer r = rebalancer.getIfAvailable();
+        if (r == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (r.getStatus().getState() == RebalanceStatus.State.RUNNING) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(r.getStatus());
+        }
+        return ResponseEntity.accepted().body(r.start());
+    }
+
+    @GetMapping
+    public ResponseEntity<RebalanceStatus> status() {
+        ShardRebalancer r = rebalancer.getIfAvailable();
+        return r == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(r.getStatus());
+    }
+}
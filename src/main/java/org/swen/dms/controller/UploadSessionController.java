@@ -0,0 +1,82 @@
+package org.swen.dms.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.service.ChunkedUploadService;
+
+import java.io.IOException;
+
+/**
+ * Resumable uploads for files too large for {@code POST /api/documents/upload}: open a session,
+ * PUT each chunk as the raw request body ({@code Content-Type: application/octet-stream}), then
+ * complete the session to create the document. After an interruption, GET the session and carry
+ * on from {@code receivedBytes}.
+ */
+@RestController
+@RequestMapping("/api/documents/upload-sessions")
+public class UploadSessionController {
+
+    private final ChunkedUploadService service;
+
+    public UploadSessionController(ChunkedUploadService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@RequestParam("size") long size,
+                                    @RequestParam(value = "title", required = false) String title,
+                                    @RequestParam(value = "category", required = false) String category) {
+        try {
+            return ResponseEntity.ok(service.createSession(title, category, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // The body is streamed to the store as it arrives; it is not parsed or buffered here
+    @PutMapping("/{id}/chunks/{chunk}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String id, @PathVariable int chunk,
+                                         HttpServletRequest request) throws IOException {
+        try {
+            service.uploadChunk(id, chunk, request.getInputStream(), request.getContentLengthLong());
+            return ResponseEntity.noContent().build();
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(service.getStatus(id));
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<?> complete(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(service.complete(id));
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> abort(@PathVariable String id) {
+        try {
+            service.abort(id);
+            return ResponseEntity.noContent().build();
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+}
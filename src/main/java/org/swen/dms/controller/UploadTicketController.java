@@ -0,0 +1,50 @@
+package org.swen.dms.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.swen.dms.dto.UploadTicket;
+import org.swen.dms.service.DirectUploadService;
+
+import java.util.Optional;
+
+/**
+ * Direct uploads: request a ticket, PUT the PDF to its {@code uploadUrl}, then complete it to
+ * create the document. Answers 501 if the storage backend cannot presign URLs; use
+ * {@code POST /api/documents/upload} there.
+ */
+@RestController
+@RequestMapping("/api/documents/upload-tickets")
+public class UploadTicketController {
+
+    private final DirectUploadService service;
+
+    public UploadTicketController(DirectUploadService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> issue(@RequestParam("size") long size,
+                                   @RequestParam(value = "title", required = false) String title,
+                                   @RequestParam(value = "category", required = false) String category) {
+        try {
+            Optional<UploadTicket> ticket = service.issueTicket(title, category, size);
+            if (ticket.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
+                        .body("Direct uploads are not supported by this storage backend");
+            }
+            return ResponseEntity.ok(ticket.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/complete")
+    public ResponseEntity<?> complete(@RequestParam("ticket") String ticket) {
+        try {
+            return ResponseEntity.ok(service.complete(ticket));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
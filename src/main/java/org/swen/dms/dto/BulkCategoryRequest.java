@@ -0,0 +1,28 @@
+package org.swen.dms.dto;
+
+import java.util.List;
+
+/**
+ * Selects the documents of a bulk category change: either explicit {@code documentIds},
+ * or every document matching a full-text {@code query} (same syntax as the search box).
+ */
+public class BulkCategoryRequest {
+    // Also the most documents a query may match
+    public static final int MAX_DOCUMENT_IDS = 10_000;
+
+    private List<Long> documentIds;
+    private String query;
+
+    public BulkCategoryRequest() {}
+
+    public BulkCategoryRequest(List<Long> documentIds, String query) {
+        this.documentIds = documentIds;
+        this.query = query;
+    }
+
+    public List<Long> getDocumentIds() { return documentIds; }
+    public void setDocumentIds(List<Long> documentIds) { this.documentIds = documentIds; }
+
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+}
@@ -0,0 +1,23 @@
+package org.swen.dms.dto;
+
+/**
+ * Outcome of a bulk category change. {@code affected} counts the documents that actually
+ * changed: already tagged (or untagged) and unknown documents are not included.
+ */
+public class BulkCategoryResult {
+    private Long categoryId;
+    private int affected;
+
+    public BulkCategoryResult() {}
+
+    public BulkCategoryResult(Long categoryId, int affected) {
+        this.categoryId = categoryId;
+        this.affected = affected;
+    }
+
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+    public int getAffected() { return affected; }
+    public void setAffected(int affected) { this.affected = affected; }
+}
@@ -0,0 +1,22 @@
+package org.swen.dms.dto;
+
+/**
+ * A single bucket of a search facet, e.g. one category and the number of hits in it.
+ */
+public class FacetBucket {
+    private String key;
+    private long count;
+
+    public FacetBucket() {}
+
+    public FacetBucket(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
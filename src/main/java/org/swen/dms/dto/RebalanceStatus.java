@@ -0,0 +1,52 @@
+package org.swen.dms.dto;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of the progress of a storage shard rebalance run.
+ */
+public class RebalanceStatus {
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    private State state;
+    private long scannedObjects;
+    private long movedObjects;
+    private long failedObjects;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    public RebalanceStatus() {}
+
+    public RebalanceStatus(State state, long scannedObjects, long movedObjects, long failedObjects,
+                           Instant startedAt, Instant finishedAt, String error) {
+        this.state = state;
+        this.scannedObjects = scannedObjects;
+        this.movedObjects = movedObjects;
+        this.failedObjects = failedObjects;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    public static RebalanceStatus idle() {
+        return new RebalanceStatus(State.IDLE, 0, 0, 0, null, null, null);
+    }
+
+    public State getState() { return state; }
+    public long getScannedObjects() { return scannedObjects; }
+    public long getMovedObjects() { return movedObjects; }
+    public long getFailedObjects() { return failedObjects; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+
+    public void setState(State state) { this.state = state; }
+    public void setScannedObjects(long scannedObjects) { this.scannedObjects = scannedObjects; }
+    public void setMovedObjects(long movedObjects) { this.movedObjects = movedObjects; }
+    public void setFailedObjects(long failedObjects) { this.failedObjects = failedObjects; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,69 @@
+package org.swen.dms.dto;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of the progress of a search reindex run.
+ */
+public class ReindexStatus {
+
+    /**
+     * {@code PARTIAL}: the alias moved to the new index, but some documents could not be written to
+     * it after the swap; {@code failedDocuments} says how many.
+     */
+    public enum State { IDLE, RUNNING, COMPLETED, PARTIAL, FAILED }
+
+    private State state;
+    private String targetIndex;
+    private String previousIndex;
+    private long totalDocuments;
+    private long indexedDocuments;
+    private long failedDocuments;
+    private double documentsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    public ReindexStatus() {}
+
+    public ReindexStatus(State state, String targetIndex, String previousIndex,
+                         long totalDocuments, long indexedDocuments, long failedDocuments,
+                         double documentsPerSecond, Instant startedAt, Instant finishedAt, String error) {
+        this.state = state;
+        this.targetIndex = targetIndex;
+        this.previousIndex = previousIndex;
+        this.totalDocuments = totalDocuments;
+        this.indexedDocuments = indexedDocuments;
+        this.failedDocuments = failedDocuments;
+        this.documentsPerSecond = documentsPerSecond;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    public static ReindexStatus idle() {
+        return new ReindexStatus(State.IDLE, null, null, 0, 0, 0, 0, null, null, null);
+    }
+
+    public State getState() { return state; }
+    public String getTargetIndex() { return targetIndex; }
+    public String getPreviousIndex() { return previousIndex; }
+    public long getTotalDocuments() { return totalDocuments; }
+    public long getIndexedDocuments() { return indexedDocuments; }
+    public long getFailedDocuments() { return failedDocuments; }
+    public double getDocumentsPerSecond() { return documentsPerSecond; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+
+    public void setState(State state) { this.state = state; }
+    public void setTargetIndex(String targetIndex) { this.targetIndex = targetIndex; }
+    public void setPreviousIndex(String previousIndex) { this.previousIndex = previousIndex; }
+    public void setTotalDocuments(long totalDocuments) { this.totalDocuments = totalDocuments; }
+    public void setIndexedDocuments(long indexedDocuments) { this.indexedDocuments = indexedDocuments; }
+    public void setFailedDocuments(long failedDocuments) { this.failedDocuments = failedDocuments; }
+    public void setDocumentsPerSecond(double documentsPerSecond) { this.documentsPerSecond = documentsPerSecond; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+    public void setError(String error) { this.error = error; }
+}
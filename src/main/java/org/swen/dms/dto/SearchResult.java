@@ -0,0 +1,48 @@
+package org.swen.dms.dto;
+
+import org.swen.dms.entity.DocumentSearch;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a faceted search: the matching documents plus the facet counts
+ * computed by Elasticsearch in the same request.
+ *
+ * Facets are keyed by name ({@code categories}, {@code uploadedAt}, {@code fileSize}).
+ * {@code engine} says which backend answered; the Postgres fallback returns no facets.
+ */
+public class SearchResult {
+    public static final String ENGINE_ELASTICSEARCH = "elasticsearch";
+    public static final String ENGINE_POSTGRES = "postgres";
+
+    private String engine = ENGINE_ELASTICSEARCH;
+    private List<DocumentSearch> hits;
+    private long total;
+    private Map<String, List<FacetBucket>> facets;
+
+    public SearchResult() {}
+
+    public SearchResult(List<DocumentSearch> hits, long total, Map<String, List<FacetBucket>> facets) {
+        this.hits = hits;
+        this.total = total;
+        this.facets = facets;
+    }
+
+    public SearchResult(String engine, List<DocumentSearch> hits, long total, Map<String, List<FacetBucket>> facets) {
+        this(hits, total, facets);
+        this.engine = engine;
+    }
+
+    public String getEngine() { return engine; }
+    public void setEngine(String engine) { this.engine = engine; }
+
+    public List<DocumentSearch> getHits() { return hits; }
+    public void setHits(List<DocumentSearch> hits) { this.hits = hits; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public Map<String, List<FacetBucket>> getFacets() { return facets; }
+    public void setFacets(Map<String, List<FacetBucket>> facets) { this.facets = facets; }
+}
@@ -0,0 +1,27 @@
+package org.swen.dms.dto;
+
+/**
+ * A document and how often it was accessed in the requested period.
+ */
+public class TopDocument {
+    private Long documentId;
+    private String title;
+    private long accessCount;
+
+    public TopDocument() {}
+
+    public TopDocument(Long documentId, String title, long accessCount) {
+        this.documentId = documentId;
+        this.title = title;
+        this.accessCount = accessCount;
+    }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public long getAccessCount() { return accessCount; }
+    public void setAccessCount(long accessCount) { this.accessCount = accessCount; }
+}
@@ -0,0 +1,33 @@
+package org.swen.dms.dto;
+
+/**
+ * A trending document. {@code score} is the decayed, approximate access count (an upper bound);
+ * the true value is at least {@code minScore}.
+ */
+public class TrendingDocument {
+    private Long documentId;
+    private String title;
+    private double score;
+    private double minScore;
+
+    public TrendingDocument() {}
+
+    public TrendingDocument(Long documentId, String title, double score, double minScore) {
+        this.documentId = documentId;
+        this.title = title;
+        this.score = score;
+        this.minScore = minScore;
+    }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+
+    public double getMinScore() { return minScore; }
+    public void setMinScore(double minScore) { this.minScore = minScore; }
+}
@@ -0,0 +1,57 @@
+package org.swen.dms.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * State of a resumable upload session.
+ * <p>
+ * The client PUTs chunk {@code n} (from 1) with bytes {@code (n-1)*chunkSize} up to
+ * {@code n*chunkSize} of the file. {@code receivedBytes} is the offset up to which every chunk has
+ * arrived, where a sequential client resumes; {@code receivedChunks} lists all chunks that have
+ * arrived, for clients that send several at once. {@code documentId} is set once the session has
+ * been completed.
+ */
+public class UploadSessionStatus {
+
+    private String id;
+    private long size;
+    private long chunkSize;
+    private int chunkCount;
+    private long receivedBytes;
+    private List<Integer> receivedChunks;
+    private LocalDateTime expiresAt;
+    private Long documentId;
+
+    public UploadSessionStatus() {}
+
+    public UploadSessionStatus(String id, long size, long chunkSize, int chunkCount, long receivedBytes,
+                               List<Integer> receivedChunks, LocalDateTime expiresAt, Long documentId) {
+        this.id = id;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.chunkCount = chunkCount;
+        this.receivedBytes = receivedBytes;
+        this.receivedChunks = receivedChunks;
+        this.expiresAt = expiresAt;
+        this.documentId = documentId;
+    }
+
+    public String getId() { return id; }
+    public long getSize() { return size; }
+    public long getChunkSize() { return chunkSize; }
+    public int getChunkCount() { return chunkCount; }
+    public long getReceivedBytes() { return receivedBytes; }
+    public List<Integer> getReceivedChunks() { return receivedChunks; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public Long getDocumentId() { return documentId; }
+
+    public void setId(String id) { this.id = id; }
+    public void setSize(long size) { this.size = size; }
+    public void setChunkSize(long chunkSize) { this.chunkSize = chunkSize; }
+    public void setChunkCount(int chunkCount) { this.chunkCount = chunkCount; }
+    public void setReceivedBytes(long receivedBytes) { this.receivedBytes = receivedBytes; }
+    public void setReceivedChunks(List<Integer> receivedChunks) { this.receivedChunks = receivedChunks; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+}
@@ -0,0 +1,40 @@
+package org.swen.dms.dto;
+
+import java.time.Instant;
+
+/**
+ * Permission to upload one document straight to the object store.
+ * <p>
+ * The client PUTs the PDF to {@code uploadUrl} (with {@code Content-Type: application/pdf}) before
+ * {@code expiresAt} and then hands {@code ticket} back to complete the upload.
+ */
+public class UploadTicket {
+
+    private String fileKey;
+    private String uploadUrl;
+    private String method;
+    private Instant expiresAt;
+    private String ticket;
+
+    public UploadTicket() {}
+
+    public UploadTicket(String fileKey, String uploadUrl, String method, Instant expiresAt, String ticket) {
+        this.fileKey = fileKey;
+        this.uploadUrl = uploadUrl;
+        this.method = method;
+        this.expiresAt = expiresAt;
+        this.ticket = ticket;
+    }
+
+    public String getFileKey() { return fileKey; }
+    public String getUploadUrl() { return uploadUrl; }
+    public String getMethod() { return method; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public String getTicket() { return ticket; }
+
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+    public void setUploadUrl(String uploadUrl) { this.uploadUrl = uploadUrl; }
+    public void setMethod(String method) { this.method = method; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    public void setTicket(String ticket) { this.ticket = ticket; }
+}
@@ -0,0 +1,97 @@
+package org.swen.dms.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of one access-log file import, keyed by the SHA-256 of the file content.
+ * {@code committedEntries} counts the {@code <entry>} elements whose updates are committed,
+ * {@code logDate} is the day the file's counts belong to, and {@code rolledUp} tells whether
+ * the weekly/monthly rollups include it. While an instance imports the file, {@code claimedBy}
+ * names it and {@code leaseUntil} is when its claim expires (see
+ * {@link org.swen.dms.batch.AccessLogClaims}).
+ */
+@Entity
+@Table(name = "access_log_imports")
+public class AccessLogImport {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @Column(length = 64)
+    private String fileHash;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private long committedEntries;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+
+    private LocalDate logDate;
+
+    @Column(nullable = false)
+    private boolean rolledUp;
+
+    private String claimedBy;
+
+    private LocalDateTime leaseUntil;
+
+    public AccessLogImport() {
+    }
+
+    public AccessLogImport(String fileHash, String fileName, LocalDate logDate) {
+        this.fileHash = fileHash;
+        this.fileName = fileName;
+        this.logDate = logDate;
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = this.startedAt;
+    }
+
+    public String getFileHash() { return fileHash; }
+    public void setFileHash(String fileHash) { this.fileHash = fileHash; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public long getCommittedEntries() { return committedEntries; }
+    public void setCommittedEntries(long committedEntries) { this.committedEntries = committedEntries; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public LocalDate getLogDate() { return logDate; }
+    public void setLogDate(LocalDate logDate) { this.logDate = logDate; }
+
+    public boolean isRolledUp() { return rolledUp; }
+    public void setRolledUp(boolean rolledUp) { this.rolledUp = rolledUp; }
+
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+}
@@ -2,9 +2,18 @@ package org.swen.dms.entity;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.swen.dms.helper.CategoryPaths;
+
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * A category in the hierarchy (Finance / Invoices / 2026).
+ * <p>
+ * {@link #getPath()} is the materialized path from the root, so a subtree is one prefix query
+ * on an index. Paths are derived from the names when the category is created; categories are not
+ * renamed or moved. {@code subtreeDocumentCount} is maintained by the database (V7 triggers).
+ */
 @Entity
 @Table(name = "categories")
 public class Category {
@@ -13,11 +22,23 @@ public class Category {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Unique among siblings only; the path is unique
+    @Column(nullable = false)
     private String name;
 
     private String description;
 
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id")
+    private Category parent;
+
+    @Column(nullable = false, unique = true, length = 1024)
+    private String path;
+
+    @Column(insertable = false, updatable = false)
+    private Long subtreeDocumentCount;
+
     @JsonIgnore
     @ManyToMany(mappedBy = "categories")
     private Set<Document> documents = new HashSet<>();
@@ -29,6 +50,18 @@ public class Category {
         this.description = description;
     }
 
+    public Category(String name, String description, Category parent) {
+        this(name, description);
+        this.parent = parent;
+    }
+
+    @PrePersist
+    void derivePath() {
+        if (path == null) {
+            path = CategoryPaths.child(parent == null ? null : parent.getPath(), name);
+        }
+    }
+
     //  Getters & Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -39,6 +72,17 @@ public class Category {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
+    public Category getParent() { return parent; }
+    public void setParent(Category parent) { this.parent = parent; }
+
+    // Does not initialize a lazy parent
+    public Long getParentId() { return parent == null ? null : parent.getId(); }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public Long getSubtreeDocumentCount() { return subtreeDocumentCount; }
+
     public Set<Document> getDocuments() { return documents; }
     public void setDocuments(Set<Document> documents) { this.documents = documents; }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package org.swen.dms.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A presigned upload ticket that has not been completed: the client may PUT an object under
+ * {@code fileKey} and complete the ticket until {@code expiresAt}. After that, an object without
+ * a document is abandoned and gets deleted.
+ */
+@Entity
+@Table(name = "direct_uploads")
+public class DirectUpload {
+
+    @Id
+    private String fileKey;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public DirectUpload() {
+    }
+
+    public DirectUpload(String fileKey, LocalDateTime expiresAt) {
+        this.fileKey = fileKey;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getFileKey() { return fileKey; }
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
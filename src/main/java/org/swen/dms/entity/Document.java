@@ -1,14 +1,21 @@
 package org.swen.dms.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "documents")
+@NamedEntityGraph(name = Document.WITH_CATEGORIES, attributeNodes = @NamedAttributeNode("categories"))
 public class Document {
 
+    /** Fetch plan that loads the categories in the same select as the document(s). */
+    public static final String WITH_CATEGORIES = "Document.withCategories";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -36,9 +43,25 @@ public class Document {
     @Column(columnDefinition = "TEXT")
     private String ocrSummaryText;
 
-    private Long accessCount = 0L;
-
-    @ManyToMany(fetch = FetchType.EAGER) // Eager so we see tags immediately when loading a doc
+    // The optimized copy that downloads are served from (PdfOptimizeWorker), null until there is
+    // one. These three are only written by targeted updates (DocumentRepository.setOptimized,
+    // AccessCountWriter.addEgressBytesSaved), so saving a document loaded earlier (e.g. by the OCR
+    // worker) cannot overwrite them.
+    @Column(insertable = false, updatable = false)
+    private String optimizedFileKey;
+
+    @Column(insertable = false, updatable = false)
+    private Long optimizedFileSize;
+
+    // Bytes not sent because downloads were served from the optimized copy
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long egressBytesSaved;
+
+    // Lazy; repository methods that return documents to the API use the WITH_CATEGORIES graph.
+    // Any other list initializes the categories of up to 100 documents per select instead of one each.
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "document_categories",
             joinColumns = @JoinColumn(name = "document_id"),
@@ -92,9 +115,14 @@ public class Document {
         this.categories = categories;
     }
 
-    public Long getAccessCount() { return accessCount; }
+    public String getOptimizedFileKey() { return optimizedFileKey; }
+    public void setOptimizedFileKey(String optimizedFileKey) { this.optimizedFileKey = optimizedFileKey; }
+
+    public Long getOptimizedFileSize() { return optimizedFileSize; }
+    public void setOptimizedFileSize(Long optimizedFileSize) { this.optimizedFileSize = optimizedFileSize; }
 
-    public void setAccessCount(Long accessCount) { this.accessCount = accessCount; }
+    public long getEgressBytesSaved() { return egressBytesSaved; }
+    public void setEgressBytesSaved(long egressBytesSaved) { this.egressBytesSaved = egressBytesSaved; }
 
     public void addCategory(Category category) {
         this.categories.add(category);
@@ -1,11 +1,17 @@
 package org.swen.dms.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 
-@Document(indexName = "documents")
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// "documents" is an alias onto a versioned index (documents_vN), managed by ReindexService
+@Document(indexName = "documents", createIndex = false)
 public class DocumentSearch {
 
     @Id
@@ -17,6 +23,18 @@ public class DocumentSearch {
     @Field(type = FieldType.Text)
     private String content;
 
+    // Facet fields: keyword/date/long so Elasticsearch can aggregate on them.
+    // Categories are paths including all ancestors (Finance, Finance/Invoices), so a term filter
+    // on a path matches its whole subtree and its bucket counts the subtree.
+    @Field(type = FieldType.Keyword)
+    private List<String> categories = new ArrayList<>();
+
+    @Field(type = FieldType.Date, format = DateFormat.date_hour_minute_second_millis)
+    private LocalDateTime uploadedAt;
+
+    @Field(type = FieldType.Long)
+    private Long fileSize;
+
     // Constructors
     public DocumentSearch() {}
 
@@ -35,4 +53,13 @@ public class DocumentSearch {
 
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
+
+    public List<String> getCategories() { return categories; }
+    public void setCategories(List<String> categories) { this.categories = categories; }
+
+    public LocalDateTime getUploadedAt() { return uploadedAt; }
+    public void setUploadedAt(LocalDateTime uploadedAt) { this.uploadedAt = uploadedAt; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
 }
@@ -0,0 +1,101 @@
+package org.swen.dms.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable upload in progress: the document will be stored under {@code fileKey}, and its
+ * {@code chunkSize} chunks (the last one shorter) are the parts of the multipart upload
+ * {@code uploadId} in the object store. Each chunk moves {@code expiresAt} forward; once a session
+ * has expired it is aborted. {@code documentId} is set when the session has been completed.
+ */
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String fileKey;
+
+    @Column(nullable = false, length = 1024)
+    private String uploadId;
+
+    private String title;
+
+    @Column(length = 1024)
+    private String category;
+
+    @Column(nullable = false)
+    private long totalSize;
+
+    @Column(nullable = false)
+    private long chunkSize;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private Long documentId;
+
+    public UploadSession() {
+    }
+
+    public UploadSession(String id, String fileKey, String uploadId, String title, String category,
+                         long totalSize, long chunkSize, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.id = id;
+        this.fileKey = fileKey;
+        this.uploadId = uploadId;
+        this.title = title;
+        this.category = category;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /** Number of chunks, the last one possibly shorter than {@code chunkSize}. */
+    public int getChunkCount() {
+        return (int) ((totalSize + chunkSize - 1) / chunkSize);
+    }
+
+    /** Size of chunk {@code chunk} (from 1). */
+    public long chunkLength(int chunk) {
+        return Math.min(chunkSize, totalSize - (chunk - 1) * chunkSize);
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getFileKey() { return fileKey; }
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+
+    public String getUploadId() { return uploadId; }
+    public void setUploadId(String uploadId) { this.uploadId = uploadId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public long getTotalSize() { return totalSize; }
+    public void setTotalSize(long totalSize) { this.totalSize = totalSize; }
+
+    public long getChunkSize() { return chunkSize; }
+    public void setChunkSize(long chunkSize) { this.chunkSize = chunkSize; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+}
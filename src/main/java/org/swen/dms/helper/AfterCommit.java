@@ -0,0 +1,40 @@
+package org.swen.dms.helper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers work, typically publishing an event, until the current transaction has committed, so
+ * consumers that re-read the database see the change and a rollback publishes nothing.
+ */
+public final class AfterCommit {
+
+    private static final Logger log = LoggerFactory.getLogger(AfterCommit.class);
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs {@code action} once the current transaction commits (never if it rolls back), or right
+     * away outside a transaction. After a commit a failure can no longer undo the change, so it is
+     * logged rather than thrown at the caller.
+     */
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.error("Action after commit failed: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+}
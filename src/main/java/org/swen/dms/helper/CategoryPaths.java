@@ -0,0 +1,69 @@
+package org.swen.dms.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Materialized category paths: the names from the root down to a category, joined by
+ * {@code /} ({@code Finance/Invoices/2026}).
+ */
+public final class CategoryPaths {
+
+    public static final String SEPARATOR = "/";
+
+    private CategoryPaths() {
+    }
+
+    /**
+     * Splits a user-supplied path into its names, trimming each and ignoring empty ones,
+     * so {@code " Finance / Invoices/"} becomes {@code [Finance, Invoices]}.
+     */
+    public static List<String> segments(String path) {
+        if (path == null) {
+            return List.of();
+        }
+        return Arrays.stream(path.split(SEPARATOR))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    /** The canonical form of a user-supplied path (see {@link #segments(String)}). */
+    public static String normalize(String path) {
+        return String.join(SEPARATOR, segments(path));
+    }
+
+    public static String child(String parentPath, String name) {
+        return parentPath == null ? name : parentPath + SEPARATOR + name;
+    }
+
+    /**
+     * The given paths and all their ancestors, without duplicates:
+     * {@code [Finance/Invoices/2026]} gives {@code [Finance, Finance/Invoices, Finance/Invoices/2026]}.
+     * Indexed as the category facet, so filtering on a path matches its whole subtree.
+     */
+    public static List<String> withAncestors(Collection<String> paths) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String path : paths) {
+            int slash = path.indexOf(SEPARATOR);
+            while (slash >= 0) {
+                result.add(path.substring(0, slash));
+                slash = path.indexOf(SEPARATOR, slash + 1);
+            }
+            result.add(path);
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * LIKE pattern for everything strictly below {@code path}, with LIKE wildcards in the names
+     * escaped by {@code \}.
+     */
+    public static String descendantsPattern(String path) {
+        return path.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + SEPARATOR + "%";
+    }
+}
@@ -0,0 +1,72 @@
+package org.swen.dms.helper;
+
+import java.time.Clock;
+
+/**
+ * Minimal thread-safe circuit breaker.
+ * <p>
+ * CLOSED: calls go through; after {@code failureThreshold} consecutive failures it opens.
+ * OPEN: calls are rejected until {@code openMillis} have passed.
+ * HALF_OPEN: one trial call is let through; success closes, failure re-opens.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMillis, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /** @return true if the protected call may be attempted now */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) {
+                    yield false;
+                }
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,77 @@
+package org.swen.dms.helper;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent hashing of keys onto named nodes.
+ * <p>
+ * Each node is placed on a 64-bit ring at {@code virtualNodes} points derived from its name, and
+ * a key belongs to the first node at or after the key's hash. Placement depends only on the node
+ * names, not on their order, and adding a node only moves the keys it takes over (about
+ * {@code 1/n} of them), all from their previous owners.
+ *
+ * @param <T> the node type
+ */
+public final class ConsistentHashRing<T> {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    public ConsistentHashRing(Map<String, T> nodesByName, int virtualNodes) {
+        if (nodesByName.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        nodesByName.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(name + "#" + i), node);
+            }
+        });
+        this.nodeCount = Set.copyOf(nodesByName.values()).size();
+    }
+
+    /** The node that owns {@code key}. */
+    public T nodeFor(String key) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * All nodes in ring order starting at the owner of {@code key}. The second one is where the
+     * key lived before its owner was added, so it is the place to look during a rebalance.
+     */
+    public List<T> nodesFor(String key) {
+        Set<T> nodes = new LinkedHashSet<>();
+        collect(ring.tailMap(hash(key), true).values(), nodes);
+        collect(ring.values(), nodes);
+        return new ArrayList<>(nodes);
+    }
+
+    private void collect(Collection<T> candidates, Set<T> into) {
+        for (T node : candidates) {
+            if (into.size() == nodeCount) {
+                return;
+            }
+            into.add(node);
+        }
+    }
+
+    private static long hash(String value) {
+        return HASH.hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+}
@@ -0,0 +1,102 @@
+package org.swen.dms.helper;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Count-Min sketch over {@code long} keys with fractional counts (so it can be decayed).
+ * <p>
+ * Memory is fixed at {@code width * depth} doubles. {@link #estimate(long)} never
+ * underestimates; with width {@code w} it overestimates by at most {@code e / w} of the total
+ * count with probability {@code 1 - e^-depth}. Not thread-safe; callers synchronize.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final double[][] counts;
+    private final long[] seeds;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counts = new double[depth][width];
+        this.seeds = new long[depth];
+        for (int i = 0; i < depth; i++) {
+            seeds[i] = 0x9E3779B97F4A7C15L * (i + 1);
+        }
+    }
+
+    /** Adds {@code amount} to {@code key} and returns its new estimate. */
+    public double add(long key, double amount) {
+        double estimate = Double.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int column = column(key, i);
+            counts[i][column] += amount;
+            estimate = Math.min(estimate, counts[i][column]);
+        }
+        return estimate;
+    }
+
+    public double estimate(long key) {
+        double estimate = Double.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, counts[i][column(key, i)]);
+        }
+        return estimate;
+    }
+
+    /** Multiplies every counter by {@code factor}, e.g. for exponential decay. */
+    public void scale(double factor) {
+        for (double[] row : counts) {
+            for (int j = 0; j < width; j++) {
+                row[j] *= factor;
+            }
+        }
+    }
+
+    public int getWidth() { return width; }
+    public int getDepth() { return depth; }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(depth);
+        for (double[] row : counts) {
+            for (double value : row) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * Restores counters written by {@link #writeTo}. Returns false, leaving this sketch untouched,
+     * if the snapshot has different dimensions (the configuration changed).
+     */
+    public boolean readFrom(DataInputStream in) throws IOException {
+        int w = in.readInt();
+        int d = in.readInt();
+        if (w != width || d != depth) {
+            in.skipNBytes((long) w * d * Double.BYTES);
+            return false;
+        }
+        for (double[] row : counts) {
+            for (int j = 0; j < width; j++) {
+                row[j] = in.readDouble();
+            }
+        }
+        return true;
+    }
+
+    private int column(long key, int row) {
+        // SplitMix64 finalizer: good avalanche for sequential ids
+        long h = key ^ seeds[row];
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h = h ^ (h >>> 31);
+        return (int) Long.remainderUnsigned(h, width);
+    }
+}
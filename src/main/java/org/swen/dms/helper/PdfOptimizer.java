@@ -0,0 +1,134 @@
+package org.swen.dms.helper;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Makes a smaller copy of a (typically scanned) PDF with PDFBox.
+ * <p>
+ * Page images are downsampled to at most {@code maxDpi} at the page size (assuming an image may
+ * cover the whole page, so no image ends up coarser than that) and re-encoded as JPEG with
+ * {@code jpegQuality}. An image is only replaced if that makes it smaller. Bilevel images, stencil
+ * masks and images with (soft) masks are left alone, since JPEG would blur or drop them. The
+ * result is written with compressed object streams. Images shared between pages are converted once.
+ * <p>
+ * The document is parsed with a temp-file stream cache, so large scans do not have to fit in the
+ * heap; decoding one image at a time still does.
+ */
+public class PdfOptimizer {
+
+    /** What {@link #optimize} did; the sizes are of the files. */
+    public record Result(int pages, int imagesRecompressed, long originalBytes, long optimizedBytes) {}
+
+    private static final float POINTS_PER_INCH = 72f;
+
+    private final int maxDpi;
+    private final float jpegQuality;
+
+    public PdfOptimizer(int maxDpi, float jpegQuality) {
+        if (maxDpi <= 0 || jpegQuality <= 0 || jpegQuality > 1) {
+            throw new IllegalArgumentException("Invalid max DPI " + maxDpi + " or JPEG quality " + jpegQuality);
+        }
+        this.maxDpi = maxDpi;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /** Writes the optimized copy of {@code source} to {@code target}. */
+    public Result optimize(Path source, Path target) throws IOException {
+        int recompressed = 0;
+        int pages;
+        try (PDDocument doc = Loader.loadPDF(source.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            Map<COSBase, PDImageXObject> converted = new IdentityHashMap<>();
+            Set<COSBase> visitedForms = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (PDPage page : doc.getPages()) {
+                PDRectangle box = page.getMediaBox();
+                // The longer side, so a rotated page or image is not downsampled too far
+                int maxPixels = (int) Math.ceil(Math.max(box.getWidth(), box.getHeight()) / POINTS_PER_INCH * maxDpi);
+                recompressed += optimize(doc, page.getResources(), maxPixels, converted, visitedForms);
+            }
+            pages = doc.getNumberOfPages();
+            doc.save(target.toFile(), CompressParameters.DEFAULT_COMPRESSION);
+        }
+        return new Result(pages, recompressed, Files.size(source), Files.size(target));
+    }
+
+    private int optimize(PDDocument doc, PDResources resources, int maxPixels,
+                         Map<COSBase, PDImageXObject> converted, Set<COSBase> visitedForms) throws IOException {
+        if (resources == null) {
+            return 0;
+        }
+        int recompressed = 0;
+        for (COSName name : resources.getXObjectNames()) {
+            PDXObject xObject = resources.getXObject(name);
+            if (xObject instanceof PDFormXObject form) {
+                if (visitedForms.add(form.getCOSObject())) {
+                    recompressed += optimize(doc, form.getResources(), maxPixels, converted, visitedForms);
+                }
+            } else if (xObject instanceof PDImageXObject image) {
+                PDImageXObject replacement = converted.get(image.getCOSObject());
+                if (replacement == null) {
+                    replacement = recompress(doc, image, maxPixels);
+                    converted.put(image.getCOSObject(), replacement);
+                    if (replacement != image) {
+                        recompressed++;
+                    }
+                }
+                if (replacement != image) {
+                    resources.put(name, replacement);
+                }
+            }
+        }
+        return recompressed;
+    }
+
+    // The JPEG version of the image, or the image itself if that is not smaller or not suitable
+    private PDImageXObject recompress(PDDocument doc, PDImageXObject image, int maxPixels) throws IOException {
+        if (image.isStencil() || image.getBitsPerComponent() == 1
+                || image.getMask() != null || image.getSoftMask() != null) {
+            return image;
+        }
+        BufferedImage original = image.getImage();
+        double scale = Math.min(1.0, (double) maxPixels / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+        boolean gray = original.getColorModel().getNumColorComponents() == 1;
+
+        // Also drops any alpha channel, which JPEG cannot carry
+        BufferedImage scaled = new BufferedImage(width, height, gray ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        PDImageXObject jpeg = JPEGFactory.createFromImage(doc, scaled, jpegQuality);
+        long before = image.getStream().getCOSObject().getLength();
+        long after = jpeg.getStream().getCOSObject().getLength();
+        return after < before ? jpeg : image;
+    }
+}
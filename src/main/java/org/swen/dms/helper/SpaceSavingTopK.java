@@ -0,0 +1,178 @@
+package org.swen.dms.helper;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter summary over {@code long} keys, holding at most {@code capacity} counters.
+ * <p>
+ * A key that is not tracked replaces the smallest counter and inherits its count as error, so
+ * every tracked count is an upper bound and {@code count - error} a lower bound. Any key with a
+ * true count above {@code total / capacity} is guaranteed to be tracked.
+ * When an upper bound from elsewhere (e.g. a {@link CountMinSketch}) is known, it can cap the
+ * inherited count. Not thread-safe; callers synchronize.
+ * <p>
+ * The counters form a binary min-heap indexed by key, so finding and replacing the smallest
+ * counter costs {@code O(log capacity)} instead of a scan over all of them.
+ */
+public class SpaceSavingTopK {
+
+    /** A tracked key with its estimated count and the maximum overestimation. */
+    public record Counter(long key, double count, double error) {}
+
+    private final int capacity;
+    // Min-heap on counts: the children of slot i are 2i+1 and 2i+2
+    private final long[] keys;
+    private final double[] counts;
+    private final double[] errors;
+    private final Map<Long, Integer> slots;
+    private int size;
+
+    public SpaceSavingTopK(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.counts = new double[capacity];
+        this.errors = new double[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * @param upperBound an independent upper bound of the key's count, or {@link Double#MAX_VALUE}
+     */
+    public void add(long key, double amount, double upperBound) {
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += amount;
+            siftDown(slot);
+            return;
+        }
+        if (size < capacity) {
+            set(size, key, amount, 0);
+            siftUp(size++);
+            return;
+        }
+
+        // Replace the smallest counter, at the root
+        double min = counts[0];
+        slots.remove(keys[0]);
+        double count = Math.max(amount, Math.min(min + amount, upperBound));
+        set(0, key, count, count - amount);
+        siftDown(0);
+    }
+
+    /** The {@code k} largest counters, largest first. */
+    public List<Counter> top(int k) {
+        List<Counter> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            all.add(new Counter(keys[i], counts[i], errors[i]));
+        }
+        all.sort(Comparator.comparingDouble(Counter::count).reversed().thenComparingLong(Counter::key));
+        return all.subList(0, Math.min(k, all.size()));
+    }
+
+    /** Multiplies every count and error by {@code factor}, dropping counters that decayed to nothing. */
+    public void scale(double factor, double dropBelow) {
+        // A positive factor keeps the heap order; only the dropped counters need a rebuild
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            double count = counts[i] * factor;
+            if (count < dropBelow) {
+                slots.remove(keys[i]);
+            } else {
+                set(kept++, keys[i], count, errors[i] * factor);
+            }
+        }
+        if (kept < size) {
+            size = kept;
+            heapify();
+        }
+    }
+
+    public int size() { return size; }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(keys[i]);
+            out.writeDouble(counts[i]);
+            out.writeDouble(errors[i]);
+        }
+    }
+
+    /** Restores counters written by {@link #writeTo}; keeps the largest ones if the capacity shrank. */
+    public void readFrom(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<Counter> restored = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            restored.add(new Counter(in.readLong(), in.readDouble(), in.readDouble()));
+        }
+        restored.sort(Comparator.comparingDouble(Counter::count).reversed());
+        slots.clear();
+        size = Math.min(capacity, restored.size());
+        for (int i = 0; i < size; i++) {
+            Counter c = restored.get(i);
+            set(i, c.key(), c.count(), c.error());
+        }
+        heapify();
+    }
+
+    private void set(int slot, long key, double count, double error) {
+        keys[slot] = key;
+        counts[slot] = count;
+        errors[slot] = error;
+        slots.put(key, slot);
+    }
+
+    private void heapify() {
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (counts[parent] <= counts[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        double count = counts[a];
+        double error = errors[a];
+        set(a, keys[b], counts[b], errors[b]);
+        set(b, key, count, error);
+    }
+}
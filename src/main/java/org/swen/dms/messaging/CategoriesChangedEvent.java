@@ -0,0 +1,27 @@
+package org.swen.dms.messaging;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Fired once per bulk category change, with every document that gained or lost the category. */
+public class CategoriesChangedEvent {
+    private Long categoryId;
+    private List<Long> documentIds;
+    private Instant changedAt;
+
+    public CategoriesChangedEvent() {}
+
+    public CategoriesChangedEvent(Long categoryId, List<Long> documentIds, Instant changedAt) {
+        this.categoryId = categoryId;
+        this.documentIds = documentIds;
+        this.changedAt = changedAt;
+    }
+
+    public Long getCategoryId() { return categoryId; }
+    public List<Long> getDocumentIds() { return documentIds; }
+    public Instant getChangedAt() { return changedAt; }
+
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+    public void setDocumentIds(List<Long> documentIds) { this.documentIds = documentIds; }
+    public void setChangedAt(Instant changedAt) { this.changedAt = changedAt; }
+}
@@ -0,0 +1,15 @@
+package org.swen.dms.messaging;
+
+/** Tells every application instance to drop its cached details of a document. */
+public class DocumentCacheInvalidation {
+    private Long id;
+
+    public DocumentCacheInvalidation() {}
+
+    public DocumentCacheInvalidation(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+}
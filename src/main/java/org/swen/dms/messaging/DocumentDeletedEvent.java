@@ -0,0 +1,26 @@
+package org.swen.dms.messaging;
+
+import java.time.Instant;
+
+/** Fired after a document row and its stored file have been removed. */
+public class DocumentDeletedEvent {
+    private Long id;
+    private String fileKey;
+    private Instant deletedAt;
+
+    public DocumentDeletedEvent() {}
+
+    public DocumentDeletedEvent(Long id, String fileKey, Instant deletedAt) {
+        this.id = id;
+        this.fileKey = fileKey;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getId() { return id; }
+    public String getFileKey() { return fileKey; }
+    public Instant getDeletedAt() { return deletedAt; }
+
+    public void setId(Long id) { this.id = id; }
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+    public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
+}
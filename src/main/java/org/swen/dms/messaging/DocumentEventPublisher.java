@@ -47,6 +47,40 @@ public class DocumentEventPublisher {
         }
     }
 
+    public void publishCategoriesChanged(CategoriesChangedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(EXCHANGE_DOCS, ROUTING_CATEGORIES_CHANGED, event);
+            log.info("Published CategoriesChangedEvent: category={}, {} documents",
+                    event.getCategoryId(), event.getDocumentIds().size());
+        } catch (Exception ex) {
+            log.error("Failed to publish CategoriesChangedEvent for category={}: {}",
+                    event.getCategoryId(), ex.getMessage(), ex);
+            throw new MessagingException("Unable to publish document event", ex);
+        }
+    }
+
+    public void publishDocumentDeleted(DocumentDeletedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(EXCHANGE_DOCS, ROUTING_DOC_DELETED, event);
+            log.info("Published DocumentDeletedEvent: id={}", event.getId());
+        } catch (Exception ex) {
+            log.error("Failed to publish DocumentDeletedEvent for id={}: {}", event.getId(), ex.getMessage(), ex);
+            throw new MessagingException("Unable to publish document event", ex);
+        }
+    }
+
+    /**
+     * Broadcasts that a document's cached details are stale. Not thrown on failure: the change is
+     * already committed, and caches expire on their own.
+     */
+    public void publishCacheInvalidation(Long id) {
+        try {
+            rabbitTemplate.convertAndSend(EXCHANGE_CACHE_INVALIDATION, "", new DocumentCacheInvalidation(id));
+        } catch (Exception ex) {
+            log.error("Failed to broadcast cache invalidation for id={}: {}", id, ex.getMessage());
+        }
+    }
+
     /** Layer-specific exception for messaging failures */
     public static class MessagingException extends RuntimeException {
         public MessagingException(String msg, Throwable cause) { super(msg, cause); }
@@ -0,0 +1,20 @@
+package org.swen.dms.repository.jpa;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.swen.dms.entity.AccessLogImport;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AccessLogImportRepository extends JpaRepository<AccessLogImport, String> {
+
+    // Claims and checkpoints are written by AccessLogClaims (leases on the database clock)
+
+    List<AccessLogImport> findByStatusAndRolledUpFalse(AccessLogImport.Status status);
+
+    @Modifying
+    @Query("update AccessLogImport i set i.rolledUp = true where i.fileHash in :fileHashes")
+    int markRolledUp(Collection<String> fileHashes);
+}
@@ -0,0 +1,14 @@
+package org.swen.dms.repository.jpa;
+
+/**
+ * A category with the number of documents assigned to it, and to it and its descendants.
+ */
+public interface CategoryCountView {
+    Long getId();
+    String getName();
+    String getPath();
+    Long getParentId();
+    String getDescription();
+    Long getDocumentCount();
+    Long getSubtreeDocumentCount();
+}
@@ -1,9 +1,27 @@
 package org.swen.dms.repository.jpa;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.swen.dms.entity.Category;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-    Optional<Category> findByName(String name);
-}
\ No newline at end of file
+    Optional<Category> findByPath(String path);
+
+    // The sidebar: every category with its number of documents, one aggregate over the join table.
+    // The subtree count is maintained by the database, so the tree needs no recursive query.
+    @Query("select c.id as id, c.name as name, c.path as path, c.parent.id as parentId, " +
+            "c.description as description, count(d.id) as documentCount, " +
+            "coalesce(c.subtreeDocumentCount, 0) as subtreeDocumentCount " +
+            "from Category c left join c.documents d " +
+            "group by c.id, c.name, c.path, c.parent.id, c.description, c.subtreeDocumentCount " +
+            "order by c.path")
+    List<CategoryCountView> findAllWithDocumentCounts();
+
+    // One query for the category paths of a whole batch of documents
+    @Query("select d.id as documentId, c.path as path from Category c join c.documents d where d.id in :documentIds")
+    List<DocumentCategoryView> findPathsByDocumentIds(Collection<Long> documentIds);
+}
@@ -0,0 +1,13 @@
+package org.swen.dms.repository.jpa;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.swen.dms.entity.DirectUpload;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DirectUploadRepository extends JpaRepository<DirectUpload, String> {
+
+    /** The tickets whose completion window closed longest ago, a batch at a time for the sweep. */
+    List<DirectUpload> findTop100ByExpiresAtBeforeOrderByExpiresAt(LocalDateTime now);
+}
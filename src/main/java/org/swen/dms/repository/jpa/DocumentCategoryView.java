@@ -0,0 +1,9 @@
+package org.swen.dms.repository.jpa;
+
+/**
+ * One row of the {@code document_categories} join table, resolved to the category path.
+ */
+public interface DocumentCategoryView {
+    Long getDocumentId();
+    String getPath();
+}
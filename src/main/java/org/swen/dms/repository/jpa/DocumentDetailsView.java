@@ -0,0 +1,18 @@
+package org.swen.dms.repository.jpa;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a document's detail views (download, summary) need, without the OCR text.
+ */
+public interface DocumentDetailsView {
+    Long getId();
+    String getTitle();
+    String getFileKey();
+    String getContentType();
+    Long getFileSize();
+    LocalDateTime getUploadedAt();
+    String getOcrSummaryText();
+    String getOptimizedFileKey();
+    Long getOptimizedFileSize();
+}
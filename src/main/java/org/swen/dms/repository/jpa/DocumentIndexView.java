@@ -0,0 +1,15 @@
+package org.swen.dms.repository.jpa;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the columns needed to build a search document.
+ * Used by the reindex job so it never loads full {@link org.swen.dms.entity.Document} entities.
+ */
+public interface DocumentIndexView {
+    Long getId();
+    String getTitle();
+    String getOcrText();
+    LocalDateTime getUploadedAt();
+    Long getFileSize();
+}
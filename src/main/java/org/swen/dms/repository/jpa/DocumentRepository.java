@@ -1,8 +1,19 @@
 package org.swen.dms.repository.jpa;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.swen.dms.entity.Document;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 
 /**
@@ -11,9 +22,108 @@ import java.util.List;
  * Extends {@link JpaRepository} to provide CRUD operations and query execution
  * without requiring explicit SQL. Additional finder methods can be declared
  * using Spring Data’s query derivation (e.g., {@code findByTitle}).
+ * <p>
+ * {@link Document#getCategories()} is lazy. The finders below that hand documents to the API
+ * fetch them in the same select ({@link Document#WITH_CATEGORIES}), so a listing is one query
+ * however many documents and categories there are.
  */
 
 public interface DocumentRepository extends JpaRepository<Document, Long> {
+    @EntityGraph(Document.WITH_CATEGORIES)
     List<Document> findByTitle(String title); // Spring auto-implements this
+
+    @Override
+    @EntityGraph(Document.WITH_CATEGORIES)
+    List<Document> findAll();
+
+    @Override
+    @EntityGraph(Document.WITH_CATEGORIES)
+    Optional<Document> findById(Long id);
+
+    /**
+     * Documents in the category at {@code path} or any category below it. The descendants pattern
+     * comes from {@link org.swen.dms.helper.CategoryPaths#descendantsPattern(String)}; both
+     * conditions are served by the (prefix) indexes on {@code categories.path}.
+     */
+    @EntityGraph(Document.WITH_CATEGORIES)
+    @Query("select d from Document d where d.id in (" +
+            "select dc.id from Document dc join dc.categories c " +
+            "where c.path = :path or c.path like :descendants escape '\\')")
+    List<Document> findByCategorySubtree(String path, String descendants);
+
     boolean existsByTitle(String title);
+
+    @EntityGraph(Document.WITH_CATEGORIES)
+    Optional<Document> findByFileKey(String fileKey);
+
+    boolean existsByFileKey(String fileKey);
+
+    /**
+     * Streams the indexable columns of every document in id order.
+     * Must be consumed inside a transaction; the fetch size keeps the JDBC driver
+     * from materializing the whole result set (and all OCR text) at once.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select d.id as id, d.title as title, d.ocrText as ocrText, " +
+            "d.uploadedAt as uploadedAt, d.fileSize as fileSize " +
+            "from Document d where d.id > :afterId order by d.id")
+    Stream<DocumentIndexView> streamForIndexing(Long afterId);
+
+    /** The indexable columns of the given documents; ids without a row are missing from the result. */
+    @Query("select d.id as id, d.title as title, d.ocrText as ocrText, " +
+            "d.uploadedAt as uploadedAt, d.fileSize as fileSize " +
+            "from Document d where d.id in :ids")
+    List<DocumentIndexView> findForIndexingByIdIn(Collection<Long> ids);
+
+    @Query("select d.id as id, d.title as title, d.fileKey as fileKey, d.contentType as contentType, " +
+            "d.fileSize as fileSize, d.uploadedAt as uploadedAt, d.ocrSummaryText as ocrSummaryText, " +
+            "d.optimizedFileKey as optimizedFileKey, d.optimizedFileSize as optimizedFileSize " +
+            "from Document d where d.id = :id")
+    Optional<DocumentDetailsView> findDetailsById(Long id);
+
+    /** Records the optimized copy; 0 if the document has been deleted meanwhile. */
+    @Transactional
+    @Modifying
+    @Query("update Document d set d.optimizedFileKey = :key, d.optimizedFileSize = :size where d.id = :id")
+    int setOptimized(Long id, String key, long size);
+
+    @Query("select d.id as id, d.title as title from Document d where d.id in :ids")
+    List<DocumentTitleView> findTitlesByIdIn(Collection<Long> ids);
+
+    /**
+     * Degraded-mode full-text search over the generated {@code search_vector} column (GIN indexed).
+     * PostgreSQL only; used when Elasticsearch is down or too slow.
+     */
+    @Query(value = "SELECT d.id AS \"id\", d.title AS \"title\", d.ocr_text AS \"ocrText\", " +
+            "d.uploaded_at AS \"uploadedAt\", d.file_size AS \"fileSize\" " +
+            "FROM documents d, websearch_to_tsquery('simple', :query) q " +
+            "WHERE d.search_vector @@ q " +
+            "ORDER BY ts_rank(d.search_vector, q) DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<DocumentIndexView> searchFullText(String query, int limit);
+
+    /**
+     * {@link #searchFullText} restricted to documents in category {@code path} or below it;
+     * {@code descendants} is {@link org.swen.dms.helper.CategoryPaths#descendantsPattern} of the path.
+     */
+    @Query(value = "SELECT d.id AS \"id\", d.title AS \"title\", d.ocr_text AS \"ocrText\", " +
+            "d.uploaded_at AS \"uploadedAt\", d.file_size AS \"fileSize\" " +
+            "FROM documents d, websearch_to_tsquery('simple', :query) q " +
+            "WHERE d.search_vector @@ q AND EXISTS (" +
+            "SELECT 1 FROM document_categories dc JOIN categories c ON c.id = dc.category_id " +
+            "WHERE dc.document_id = d.id AND (c.path = :path OR c.path LIKE :descendants ESCAPE '\\')) " +
+            "ORDER BY ts_rank(d.search_vector, q) DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<DocumentIndexView> searchFullTextInCategory(String query, String path, String descendants, int limit);
+
+    /**
+     * Title-substring search for typeahead, served by the {@code pg_trgm} GIN index on {@code title}.
+     * The pattern must already be LIKE-escaped and wrapped in {@code %}; best matches come first.
+     * PostgreSQL only.
+     */
+    @Query(value = "SELECT d.id AS \"id\", d.title AS \"title\" FROM documents d " +
+            "WHERE d.title ILIKE :pattern " +
+            "ORDER BY similarity(d.title, :query) DESC, d.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<DocumentTitleView> searchTitles(String pattern, String query, int limit);
 }
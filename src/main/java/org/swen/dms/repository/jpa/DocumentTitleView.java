@@ -0,0 +1,9 @@
+package org.swen.dms.repository.jpa;
+
+/**
+ * Id and title of a document, without loading the entity (and its OCR text).
+ */
+public interface DocumentTitleView {
+    Long getId();
+    String getTitle();
+}
@@ -0,0 +1,13 @@
+package org.swen.dms.repository.jpa;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.swen.dms.entity.UploadSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /** The sessions that expired longest ago, a batch at a time for the sweep. */
+    List<UploadSession> findTop100ByExpiresAtBeforeOrderByExpiresAt(LocalDateTime now);
+}
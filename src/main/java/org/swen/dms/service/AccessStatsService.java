@@ -0,0 +1,25 @@
+package org.swen.dms.service;
+
+import org.swen.dms.dto.TopDocument;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Access analytics over the daily access-count history ({@code document_access_daily})
+ * and its weekly and monthly rollups.
+ */
+public interface AccessStatsService {
+
+    /**
+     * Refreshes the weekly and monthly rollups touched by imports that completed since the last run.
+     *
+     * @return the number of imports rolled up
+     */
+    int rollUp();
+
+    /**
+     * The most accessed documents between {@code from} and {@code to} (both inclusive).
+     */
+    List<TopDocument> topDocuments(LocalDate from, LocalDate to, int limit);
+}
@@ -0,0 +1,177 @@
+package org.swen.dms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.swen.dms.dto.TopDocument;
+import org.swen.dms.entity.AccessLogImport;
+import org.swen.dms.repository.jpa.AccessLogImportRepository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps the weekly/monthly rollups of {@code document_access_daily} up to date and answers
+ * top-N queries from them.
+ * <p>
+ * A query range is split into whole months (read from {@code document_access_monthly}),
+ * whole weeks ({@code document_access_weekly}) and the remaining days (the daily table,
+ * pruned to the partitions of those days). "Last 30 days" therefore reads a few weekly
+ * rows per document plus a handful of days, however many years of history there are.
+ * <p>
+ * Rollups are refreshed per period: after each import run and hourly, every week and month
+ * containing the day of a newly completed import is recomputed from the daily rows, and once a
+ * day the week and month of the day that just ended (for the live download counts).
+ * Periods that have not ended yet are always read from the daily table.
+ * <p>
+ * A day's count is the imported {@code access_count} plus the live {@code download_count}; the
+ * rollups store that sum.
+ * PostgreSQL only.
+ */
+@Service
+public class AccessStatsServiceImpl implements AccessStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessStatsServiceImpl.class);
+
+    static final int MAX_LIMIT = 100;
+
+    private static final String ROLL_UP_WEEK = """
+            INSERT INTO document_access_weekly (week_start, document_id, access_count)
+            SELECT CAST(? AS DATE), document_id, SUM(access_count + download_count) FROM document_access_daily
+            WHERE day >= ? AND day < ? GROUP BY document_id
+            ON CONFLICT (week_start, document_id) DO UPDATE SET access_count = EXCLUDED.access_count""";
+
+    private static final String ROLL_UP_MONTH = """
+            INSERT INTO document_access_monthly (month_start, document_id, access_count)
+            SELECT CAST(? AS DATE), document_id, SUM(access_count + download_count) FROM document_access_daily
+            WHERE day >= ? AND day < ? GROUP BY document_id
+            ON CONFLICT (month_start, document_id) DO UPDATE SET access_count = EXCLUDED.access_count""";
+
+    private final JdbcTemplate jdbc;
+    private final AccessLogImportRepository imports;
+    private final TransactionTemplate tx;
+
+    private LocalDate lastClosedDay;
+
+    public AccessStatsServiceImpl(JdbcTemplate jdbc,
+                                  AccessLogImportRepository imports,
+                                  PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.imports = imports;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Scheduled(cron = "${dms.analytics.rollup-cron:0 15 * * * ?}")
+    public synchronized int rollUp() {
+        List<AccessLogImport> pending = imports.findByStatusAndRolledUpFalse(AccessLogImport.Status.COMPLETED);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        boolean dayClosed = !yesterday.equals(lastClosedDay);
+        if (pending.isEmpty() && !dayClosed) {
+            return 0;
+        }
+
+        Set<LocalDate> weeks = new TreeSet<>();
+        Set<LocalDate> months = new TreeSet<>();
+        if (dayClosed) {
+            // Live download counts of the day that just ended
+            weeks.add(weekStart(yesterday));
+            months.add(yesterday.withDayOfMonth(1));
+        }
+        List<String> hashes = new ArrayList<>();
+        for (AccessLogImport done : pending) {
+            hashes.add(done.getFileHash());
+            if (done.getLogDate() != null) {
+                weeks.add(weekStart(done.getLogDate()));
+                months.add(done.getLogDate().withDayOfMonth(1));
+            }
+        }
+
+        long start = System.nanoTime();
+        tx.executeWithoutResult(status -> {
+            for (LocalDate week : weeks) {
+                jdbc.update(ROLL_UP_WEEK, week, week, week.plusWeeks(1));
+            }
+            for (LocalDate month : months) {
+                jdbc.update(ROLL_UP_MONTH, month, month, month.plusMonths(1));
+            }
+            if (!hashes.isEmpty()) {
+                imports.markRolledUp(hashes);
+            }
+        });
+        lastClosedDay = yesterday;
+        log.info("Access rollups refreshed for {} imports: {} weeks, {} months in {} ms",
+                hashes.size(), weeks.size(), months.size(), (System.nanoTime() - start) / 1_000_000);
+        return hashes.size();
+    }
+
+    @Override
+    public List<TopDocument> topDocuments(LocalDate from, LocalDate to, int limit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        // Rollups only cover periods that have ended; today's live counts are in the daily table
+        LocalDate today = LocalDate.now();
+        List<String> parts = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        LocalDate day = from;
+        LocalDate dailyFrom = null;
+        while (!day.isAfter(to)) {
+            LocalDate monthEnd = day.with(TemporalAdjusters.lastDayOfMonth());
+            LocalDate weekEnd = day.plusDays(6);
+            boolean wholeMonth = day.getDayOfMonth() == 1 && !monthEnd.isAfter(to) && monthEnd.isBefore(today);
+            boolean wholeWeek = day.getDayOfWeek() == DayOfWeek.MONDAY && !weekEnd.isAfter(to) && weekEnd.isBefore(today);
+
+            if (!wholeMonth && !wholeWeek) {
+                dailyFrom = dailyFrom == null ? day : dailyFrom;
+                day = day.plusDays(1);
+                continue;
+            }
+            if (dailyFrom != null) {
+                addDaily(parts, args, dailyFrom, day);
+                dailyFrom = null;
+            }
+            if (wholeMonth) {
+                parts.add("SELECT document_id, access_count FROM document_access_monthly WHERE month_start = ?");
+                args.add(day);
+                day = monthEnd.plusDays(1);
+            } else {
+                parts.add("SELECT document_id, access_count FROM document_access_weekly WHERE week_start = ?");
+                args.add(day);
+                day = weekEnd.plusDays(1);
+            }
+        }
+        if (dailyFrom != null) {
+            addDaily(parts, args, dailyFrom, to.plusDays(1));
+        }
+
+        String sql = "SELECT a.document_id, d.title, SUM(a.access_count) AS total FROM (" +
+                String.join(" UNION ALL ", parts) +
+                ") a JOIN documents d ON d.id = a.document_id " +
+                "GROUP BY a.document_id, d.title ORDER BY total DESC, a.document_id LIMIT ?";
+        args.add(Math.max(1, Math.min(limit, MAX_LIMIT)));
+
+        return jdbc.query(sql, (rs, i) -> new TopDocument(rs.getLong(1), rs.getString(2), rs.getLong(3)),
+                args.toArray());
+    }
+
+    private static void addDaily(List<String> parts, List<Object> args, LocalDate from, LocalDate toExclusive) {
+        parts.add("SELECT document_id, access_count + download_count FROM document_access_daily WHERE day >= ? AND day < ?");
+        args.add(from);
+        args.add(toExclusive);
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,129 @@
+package org.swen.dms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.swen.dms.entity.Category;
+import org.swen.dms.helper.AfterCommit;
+import org.swen.dms.helper.CategoryPaths;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves category paths to categories on the upload path, creating missing ones.
+ * <p>
+ * Resolved categories are cached in memory by path, so a known category costs no database round
+ * trip. On a miss each missing level of the path is inserted with
+ * {@code INSERT ... ON CONFLICT DO NOTHING} and read back, whether this or a concurrent upload
+ * created it, so uploads with the same new path never fail on the unique constraint. The upsert
+ * runs in the caller's transaction (or its own, without one), so an upload never holds a second
+ * pool connection; the resolved categories are cached only after that transaction commits, so a
+ * cached id always refers to a committed row.
+ * <p>
+ * {@link CategoryServiceImpl} invalidates paths it changes. Categories are never deleted,
+ * renamed or moved through the API, so entries cached on other replicas stay valid.
+ */
+@Component
+public class CategoryResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryResolver.class);
+
+    // Categories are few; a runaway number of paths just starts the cache over
+    static final int MAX_CACHED = 10_000;
+
+    private static final String INSERT =
+            "INSERT INTO categories (name, path, parent_id) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String SELECT = "SELECT id, description, parent_id FROM categories WHERE path = ?";
+
+    /** What is cached; handed out as a fresh {@link Category} each time. */
+    record Cached(Long id, String description, Long parentId) {}
+
+    private static final RowMapper<Cached> ROW = (rs, rowNum) ->
+            new Cached(rs.getLong("id"), rs.getString("description"), rs.getObject("parent_id", Long.class));
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ConcurrentHashMap<String, Cached> byPath = new ConcurrentHashMap<>();
+
+    public CategoryResolver(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * The category at this path ({@code Invoices} or {@code Finance/Invoices/2026}), created
+     * together with any missing ancestors.
+     * The result is detached (not managed by the caller's persistence context); it can be added
+     * to {@link org.swen.dms.entity.Document#getCategories()} to link it.
+     */
+    public Category resolve(String path) {
+        List<String> names = CategoryPaths.segments(path);
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("Invalid category path: '" + path + "'");
+        }
+        String normalized = String.join(CategoryPaths.SEPARATOR, names);
+
+        Cached cached = byPath.get(normalized);
+        if (cached == null) {
+            Map<String, Cached> resolved = tx.execute(status -> upsert(names));
+            AfterCommit.run(() -> cache(resolved));
+            cached = resolved.get(normalized);
+        }
+
+        Category category = new Category(names.get(names.size() - 1), cached.description());
+        category.setId(cached.id());
+        category.setPath(normalized);
+        if (cached.parentId() != null) {
+            Category parent = new Category();
+            parent.setId(cached.parentId());
+            category.setParent(parent);
+        }
+        return category;
+    }
+
+    private void cache(Map<String, Cached> resolved) {
+        if (byPath.size() + resolved.size() > MAX_CACHED) {
+            byPath.clear();
+        }
+        byPath.putAll(resolved);
+    }
+
+    /** Drops a path from the cache, e.g. after the category was created or changed. */
+    public void invalidate(String path) {
+        byPath.remove(path);
+    }
+
+    int cachedCount() {
+        return byPath.size();
+    }
+
+    // Root first, so every parent exists (and is committed or locked by us) before its child
+    private Map<String, Cached> upsert(List<String> names) {
+        Map<String, Cached> resolved = new LinkedHashMap<>();
+        String path = null;
+        Long parentId = null;
+        for (String name : names) {
+            path = CategoryPaths.child(path, name);
+            Cached category = byPath.get(path);
+            if (category == null) {
+                // Waits for a concurrent insert of the same path to commit instead of failing
+                if (jdbc.update(INSERT, name, path, parentId) > 0) {
+                    log.info("Created category '{}'", path);
+                }
+                // A new statement, so it also sees a row a concurrent upload committed meanwhile
+                category = jdbc.queryForObject(SELECT, ROW, path);
+            }
+            resolved.put(path, category);
+            parentId = category.id();
+        }
+        return resolved;
+    }
+}
@@ -1,11 +1,17 @@
 package org.swen.dms.service;
 
+import org.swen.dms.dto.BulkCategoryRequest;
+import org.swen.dms.dto.BulkCategoryResult;
 import org.swen.dms.entity.Category;
+import org.swen.dms.repository.jpa.CategoryCountView;
 import java.util.List;
 
 public interface CategoryService {
     List<Category> getAllCategories();
-    Category createCategory(String name, String description);
+    List<CategoryCountView> getAllCategoriesWithCounts();
+    Category createCategory(String name, String description, Long parentId);
     void assignCategoryToDoc(Long categoryId, Long documentId);
     void removeCategoryFromDoc(Long categoryId, Long documentId);
+    BulkCategoryResult assignCategoryToDocs(Long categoryId, BulkCategoryRequest selection);
+    BulkCategoryResult removeCategoryFromDocs(Long categoryId, BulkCategoryRequest selection);
 }
\ No newline at end of file
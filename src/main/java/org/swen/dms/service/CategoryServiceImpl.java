@@ -1,24 +1,72 @@
 package org.swen.dms.service;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.swen.dms.dto.BulkCategoryRequest;
+import org.swen.dms.dto.BulkCategoryResult;
 import org.swen.dms.entity.Category;
 import org.swen.dms.entity.Document;
-import org.swen.dms.exception.NotFoundException; // Use your existing custom exception if available, else RuntimeException
+import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.helper.AfterCommit;
+import org.swen.dms.helper.CategoryPaths;
+import org.swen.dms.messaging.CategoriesChangedEvent;
+import org.swen.dms.messaging.DocumentEventPublisher;
+import org.swen.dms.messaging.DocumentUpdatedEvent;
+import org.swen.dms.repository.jpa.CategoryCountView;
 import org.swen.dms.repository.jpa.CategoryRepository;
 import org.swen.dms.repository.jpa.DocumentRepository;
 
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * Categories and their assignment to documents.
+ * <p>
+ * Single assignments go through the entities. Bulk assignments (a list of ids or a full-text
+ * query) are one set-based statement on {@code document_categories}
+ * ({@code INSERT ... SELECT ... ON CONFLICT DO NOTHING} or {@code DELETE ... USING}) that never
+ * loads a document; its {@code RETURNING} rows are the documents that actually changed, and only
+ * those are sent to the index, in one {@link CategoriesChangedEvent} after the commit. Both kinds
+ * of selection are limited to {@link BulkCategoryRequest#MAX_DOCUMENT_IDS} documents.
+ * PostgreSQL only.
+ */
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final String BY_IDS = "d.id = ANY(CAST(? AS BIGINT[]))";
+    private static final String BY_QUERY = "d.search_vector @@ websearch_to_tsquery('simple', ?)";
+
+    private static final String BULK_ASSIGN = """
+            INSERT INTO document_categories (document_id, category_id)
+            SELECT d.id, ? FROM documents d WHERE %s
+            ON CONFLICT DO NOTHING
+            RETURNING document_id""";
+
+    private static final String BULK_REMOVE = """
+            DELETE FROM document_categories dc USING documents d
+            WHERE dc.category_id = ? AND dc.document_id = d.id AND %s
+            RETURNING dc.document_id""";
+
+    // Stops counting one past the limit, so a broad query does not count every match
+    private static final String COUNT_QUERY_MATCHES =
+            "SELECT count(*) FROM (SELECT 1 FROM documents d WHERE " + BY_QUERY + " LIMIT ?) AS matches";
+
     private final CategoryRepository categoryRepo;
     private final DocumentRepository documentRepo;
+    private final DocumentEventPublisher publisher;
+    private final JdbcTemplate jdbc;
+    private final CategoryResolver categoryResolver;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepo, DocumentRepository documentRepo) {
+    public CategoryServiceImpl(CategoryRepository categoryRepo, DocumentRepository documentRepo,
+                               DocumentEventPublisher publisher, JdbcTemplate jdbc,
+                               CategoryResolver categoryResolver) {
         this.categoryRepo = categoryRepo;
         this.documentRepo = documentRepo;
+        this.publisher = publisher;
+        this.jdbc = jdbc;
+        this.categoryResolver = categoryResolver;
     }
 
     @Override
@@ -26,14 +74,38 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryRepo.findAll();
     }
 
+    @Override
+    public List<CategoryCountView> getAllCategoriesWithCounts() {
+        return categoryRepo.findAllWithDocumentCounts();
+    }
+
     @Override
     @Transactional
-    public Category createCategory(String name, String description) {
+    public Category createCategory(String name, String description, Long parentId) {
+        if (name == null || name.isBlank() || name.contains(CategoryPaths.SEPARATOR)) {
+            throw new IllegalArgumentException("Invalid category name: '" + name + "'");
+        }
+        Category parent = null;
+        if (parentId != null) {
+            parent = categoryRepo.findById(parentId)
+                    .orElseThrow(() -> new NotFoundException("Category " + parentId + " not found"));
+        }
+        String path = CategoryPaths.child(parent == null ? null : parent.getPath(), name.trim());
+
         // Logic extracted from Controller: Check for duplicates
-        if (categoryRepo.findByName(name).isPresent()) {
-            throw new IllegalArgumentException("Category already exists: " + name);
+        if (categoryRepo.findByPath(path).isPresent()) {
+            throw new IllegalArgumentException("Category already exists: " + path);
         }
-        return categoryRepo.save(new Category(name, description));
+        Category saved;
+        try {
+            // Flushed here, so a concurrent create of the same path fails inside this method
+            saved = categoryRepo.saveAndFlush(new Category(name.trim(), description, parent));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race with a concurrent create: uk_categories_path
+            throw new IllegalArgumentException("Category already exists: " + path);
+        }
+        categoryResolver.invalidate(path);
+        return saved;
     }
 
     @Override
@@ -48,6 +120,7 @@ public class CategoryServiceImpl implements CategoryService {
         // Logic extracted from Controller: Add helper
         doc.addCategory(category);
         documentRepo.save(doc);
+        publishCategoriesChanged(doc);
     }
 
     @Override
@@ -62,5 +135,57 @@ public class CategoryServiceImpl implements CategoryService {
         // Logic extracted from Controller: Remove helper
         doc.removeCategory(category);
         documentRepo.save(doc);
+        publishCategoriesChanged(doc);
+    }
+
+    @Override
+    @Transactional
+    public BulkCategoryResult assignCategoryToDocs(Long categoryId, BulkCategoryRequest selection) {
+        return bulkChange(BULK_ASSIGN, categoryId, selection);
+    }
+
+    @Override
+    @Transactional
+    public BulkCategoryResult removeCategoryFromDocs(Long categoryId, BulkCategoryRequest selection) {
+        return bulkChange(BULK_REMOVE, categoryId, selection);
+    }
+
+    private BulkCategoryResult bulkChange(String statement, Long categoryId, BulkCategoryRequest selection) {
+        boolean byIds = selection.getDocumentIds() != null && !selection.getDocumentIds().isEmpty();
+        boolean byQuery = selection.getQuery() != null && !selection.getQuery().isBlank();
+        if (byIds == byQuery) {
+            throw new IllegalArgumentException("Select documents by either documentIds or query");
+        }
+        if (byIds && selection.getDocumentIds().size() > BulkCategoryRequest.MAX_DOCUMENT_IDS) {
+            throw new IllegalArgumentException("At most " + BulkCategoryRequest.MAX_DOCUMENT_IDS + " document ids per request");
+        }
+        if (!categoryRepo.existsById(categoryId)) {
+            throw new NotFoundException("Category not found: " + categoryId);
+        }
+        if (byQuery) {
+            Long matches = jdbc.queryForObject(COUNT_QUERY_MATCHES, Long.class,
+                    selection.getQuery().trim(), BulkCategoryRequest.MAX_DOCUMENT_IDS + 1);
+            if (matches != null && matches > BulkCategoryRequest.MAX_DOCUMENT_IDS) {
+                throw new IllegalArgumentException("Query matches more than " + BulkCategoryRequest.MAX_DOCUMENT_IDS
+                        + " documents; narrow it down");
+            }
+        }
+
+        String sql = String.format(statement, byIds ? BY_IDS : BY_QUERY);
+        Object selector = byIds ? selection.getDocumentIds().toArray(new Long[0]) : selection.getQuery().trim();
+        List<Long> changed = jdbc.queryForList(sql, Long.class, categoryId, selector);
+
+        // One message for the whole change; the index sync re-reads the categories after the commit
+        if (!changed.isEmpty()) {
+            CategoriesChangedEvent event = new CategoriesChangedEvent(categoryId, changed, Instant.now());
+            AfterCommit.run(() -> publisher.publishCategoriesChanged(event));
+        }
+        return new BulkCategoryResult(categoryId, changed.size());
+    }
+
+    // Title is unchanged; the index sync re-reads the categories for its facet field after the commit
+    private void publishCategoriesChanged(Document doc) {
+        DocumentUpdatedEvent event = new DocumentUpdatedEvent(doc.getId(), doc.getTitle(), doc.getTitle(), Instant.now());
+        AfterCommit.run(() -> publisher.publishDocumentUpdated(event));
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package org.swen.dms.service;
+
+import org.swen.dms.dto.UploadSessionStatus;
+import org.swen.dms.entity.Document;
+
+import java.io.InputStream;
+
+/**
+ * Resumable uploads of large documents: the client opens a session, sends the file in numbered
+ * chunks (each its own short request, so a broken connection only costs the chunk in flight),
+ * asks which chunks have arrived when it resumes, and completes the session to create the
+ * document.
+ * <p>
+ * The methods taking a session id throw {@link org.swen.dms.exception.NotFoundException} if there
+ * is no such session or it has expired.
+ */
+public interface ChunkedUploadService {
+
+    /**
+     * Opens a session for a file of {@code size} bytes.
+     *
+     * @throws IllegalArgumentException if the size is not acceptable
+     */
+    UploadSessionStatus createSession(String title, String category, long size);
+
+    /**
+     * Stores chunk {@code chunk} (from 1), streaming {@code length} bytes from {@code in}; sending a
+     * chunk again replaces it.
+     *
+     * @throws IllegalArgumentException if the chunk number or length is wrong, or the session is complete
+     */
+    void uploadChunk(String sessionId, int chunk, InputStream in, long length);
+
+    /** Which chunks have arrived. */
+    UploadSessionStatus getStatus(String sessionId);
+
+    /**
+     * Joins the chunks and creates the document; completing the same session again returns the
+     * same document.
+     *
+     * @throws IllegalArgumentException if chunks are missing or the file is not a PDF
+     */
+    Document complete(String sessionId);
+
+    /** Discards the session and the chunks received. */
+    void abort(String sessionId);
+
+    /**
+     * Aborts sessions that have expired and forgets completed ones.
+     *
+     * @return the number of sessions removed
+     */
+    int sweepExpired();
+}
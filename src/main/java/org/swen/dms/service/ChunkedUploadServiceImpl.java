@@ -0,0 +1,292 @@
+package org.swen.dms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.swen.dms.dto.UploadSessionStatus;
+import org.swen.dms.entity.Document;
+import org.swen.dms.entity.UploadSession;
+import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.helper.GenerateFileKey;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.repository.jpa.UploadSessionRepository;
+import org.swen.dms.storage.BlobStore;
+import org.swen.dms.storage.PartInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Resumable uploads on the object store's multipart uploads: a session is one multipart upload,
+ * each chunk one part, streamed from the request into the store. Which chunks have arrived is
+ * asked from the store, so a chunk whose response was lost still counts. Sessions live in
+ * {@code upload_sessions} (any instance can take the next chunk) and expire
+ * {@code dms.upload.session-ttl-minutes} after their last chunk; {@link #sweepExpired} aborts them.
+ * <p>
+ * Chunks are {@code dms.upload.chunk-bytes} (8 MiB by default; S3 needs at least 5 MiB for all but
+ * the last part), files at most {@code dms.upload.session-max-bytes}. No database transaction or
+ * connection is held while a chunk streams.
+ */
+@Service
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadServiceImpl.class);
+
+    private static final String PDF_CONTENT_TYPE = "application/pdf";
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    // The S3 limit on parts per upload
+    static final int MAX_CHUNKS = 10_000;
+
+    private final BlobStore blobStore;
+    private final DocumentService documentService;
+    private final DocumentRepository documentRepo;
+    private final UploadSessionRepository sessions;
+    private final long maxBytes;
+    private final long chunkBytes;
+    private final Duration ttl;
+    private final Clock clock;
+    private final GenerateFileKey generateFileKey = new GenerateFileKey();
+
+    @Autowired
+    public ChunkedUploadServiceImpl(BlobStore blobStore, DocumentService documentService,
+                                    DocumentRepository documentRepo, UploadSessionRepository sessions,
+                                    @Value("${dms.upload.session-max-bytes:2147483648}") long maxBytes,
+                                    @Value("${dms.upload.chunk-bytes:8388608}") long chunkBytes,
+                                    @Value("${dms.upload.session-ttl-minutes:1440}") long ttlMinutes) {
+        this(blobStore, documentService, documentRepo, sessions, maxBytes, chunkBytes,
+                Duration.ofMinutes(ttlMinutes), Clock.systemDefaultZone());
+    }
+
+    ChunkedUploadServiceImpl(BlobStore blobStore, DocumentService documentService, DocumentRepository documentRepo,
+                             UploadSessionRepository sessions, long maxBytes, long chunkBytes, Duration ttl,
+                             Clock clock) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("dms.upload.chunk-bytes must be positive");
+        }
+        this.blobStore = blobStore;
+        this.documentService = documentService;
+        this.documentRepo = documentRepo;
+        this.sessions = sessions;
+        this.maxBytes = maxBytes;
+        this.chunkBytes = chunkBytes;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public UploadSessionStatus createSession(String title, String category, long size) {
+        if (size <= 0 || size > maxBytes) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxBytes + " bytes");
+        }
+        if ((size + chunkBytes - 1) / chunkBytes > MAX_CHUNKS) {
+            throw new IllegalArgumentException("Size needs more than " + MAX_CHUNKS + " chunks of " + chunkBytes + " bytes");
+        }
+        String fileKey = generateFileKey.generateFileKey();
+        String uploadId;
+        try {
+            uploadId = blobStore.startMultipart(fileKey, PDF_CONTENT_TYPE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start upload: " + e.getMessage(), e);
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        UploadSession session = sessions.save(new UploadSession(UUID.randomUUID().toString(), fileKey, uploadId,
+                title, category, size, chunkBytes, now, now.plus(ttl)));
+        log.info("Opened upload session {} for {} bytes in {} chunks", session.getId(), size, session.getChunkCount());
+        return status(session, List.of());
+    }
+
+    @Override
+    public void uploadChunk(String sessionId, int chunk, InputStream in, long length) {
+        UploadSession session = open(sessionId);
+        if (session.getDocumentId() != null) {
+            throw new IllegalArgumentException("Upload session " + sessionId + " is already complete");
+        }
+        if (chunk < 1 || chunk > session.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk must be between 1 and " + session.getChunkCount());
+        }
+        long expected = session.chunkLength(chunk);
+        if (length != expected) {
+            throw new IllegalArgumentException("Chunk " + chunk + " must have " + expected + " bytes, not " + length);
+        }
+        try {
+            blobStore.uploadPart(session.getFileKey(), session.getUploadId(), chunk, in, length);
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("Upload session " + sessionId + " was aborted");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store chunk " + chunk + " of " + sessionId + ": " + e.getMessage(), e);
+        }
+        session.setExpiresAt(LocalDateTime.now(clock).plus(ttl));
+        sessions.save(session);
+    }
+
+    @Override
+    public UploadSessionStatus getStatus(String sessionId) {
+        UploadSession session = open(sessionId);
+        if (session.getDocumentId() != null) {
+            return status(session, IntStream.rangeClosed(1, session.getChunkCount()).boxed().toList());
+        }
+        return status(session, receivedChunks(session, listParts(session)));
+    }
+
+    @Override
+    public Document complete(String sessionId) {
+        UploadSession session = sessions.findById(sessionId)
+                .orElseThrow(() -> new NotFoundException("Upload session " + sessionId + " not found"));
+
+        // Completing twice (e.g. a retried request) returns the document created the first time
+        Optional<Document> existing = session.getDocumentId() != null
+                ? documentRepo.findById(session.getDocumentId())
+                : documentRepo.findByFileKey(session.getFileKey());
+        if (existing.isPresent()) {
+            return finish(session, existing.get());
+        }
+        if (isExpired(session)) {
+            throw new NotFoundException("Upload session " + sessionId + " has expired");
+        }
+
+        String fileKey = session.getFileKey();
+        try {
+            // The object exists already if an earlier attempt failed after joining the chunks
+            if (blobStore.stat(fileKey).isEmpty()) {
+                List<PartInfo> parts = listParts(session);
+                Set<Integer> received = new HashSet<>(receivedChunks(session, parts));
+                if (received.size() < session.getChunkCount()) {
+                    List<Integer> missing = IntStream.rangeClosed(1, session.getChunkCount())
+                            .filter(chunk -> !received.contains(chunk)).boxed().limit(20).toList();
+                    throw new IllegalArgumentException("Missing chunks: " + missing);
+                }
+                blobStore.completeMultipart(fileKey, session.getUploadId(), parts);
+            }
+            if (!isPdf(fileKey)) {
+                blobStore.delete(fileKey);
+                sessions.delete(session);
+                throw new IllegalArgumentException("Only PDFs allowed!");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not complete upload " + sessionId + ": " + e.getMessage(), e);
+        }
+        Document document = documentService.registerUpload(fileKey, session.getTitle(), PDF_CONTENT_TYPE,
+                session.getTotalSize(), session.getCategory());
+        return finish(session, document);
+    }
+
+    // Keeps the completed session until it expires, so a retried completion finds the document
+    private Document finish(UploadSession session, Document document) {
+        if (session.getDocumentId() == null) {
+            session.setDocumentId(document.getId());
+            session.setExpiresAt(LocalDateTime.now(clock).plus(ttl));
+            sessions.save(session);
+        }
+        return document;
+    }
+
+    @Override
+    public void abort(String sessionId) {
+        UploadSession session = sessions.findById(sessionId)
+                .orElseThrow(() -> new NotFoundException("Upload session " + sessionId + " not found"));
+        if (session.getDocumentId() == null) {
+            try {
+                blobStore.abortMultipart(session.getFileKey(), session.getUploadId());
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not abort upload " + sessionId + ": " + e.getMessage(), e);
+            }
+        }
+        sessions.delete(session);
+    }
+
+    // One batch per run; a session whose abort fails stays and is tried again next time
+    @Override
+    @Scheduled(fixedDelayString = "${dms.upload.session-sweep-ms:600000}")
+    public int sweepExpired() {
+        int removed = 0;
+        for (UploadSession session : sessions.findTop100ByExpiresAtBeforeOrderByExpiresAt(LocalDateTime.now(clock))) {
+            if (session.getDocumentId() == null) {
+                try {
+                    blobStore.abortMultipart(session.getFileKey(), session.getUploadId());
+                } catch (IOException e) {
+                    log.warn("Could not abort expired upload session {}: {}", session.getId(), e.getMessage());
+                    continue;
+                }
+            }
+            sessions.delete(session);
+            removed++;
+        }
+        if (removed > 0) {
+            log.info("Removed {} expired upload sessions", removed);
+        }
+        return removed;
+    }
+
+    private UploadSession open(String sessionId) {
+        UploadSession session = sessions.findById(sessionId)
+                .orElseThrow(() -> new NotFoundException("Upload session " + sessionId + " not found"));
+        if (isExpired(session)) {
+            throw new NotFoundException("Upload session " + sessionId + " has expired");
+        }
+        return session;
+    }
+
+    private boolean isExpired(UploadSession session) {
+        return session.getDocumentId() == null && session.getExpiresAt().isBefore(LocalDateTime.now(clock));
+    }
+
+    private List<PartInfo> listParts(UploadSession session) {
+        try {
+            return blobStore.listParts(session.getFileKey(), session.getUploadId());
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("Upload session " + session.getId() + " was aborted");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not list chunks of " + session.getId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // A part counts only with the full chunk length (a short one is from an interrupted attempt)
+    private static List<Integer> receivedChunks(UploadSession session, List<PartInfo> parts) {
+        Map<Integer, PartInfo> byNumber = parts.stream()
+                .collect(Collectors.toMap(PartInfo::partNumber, Function.identity(), (a, b) -> b));
+        List<Integer> received = new ArrayList<>();
+        for (int chunk = 1; chunk <= session.getChunkCount(); chunk++) {
+            PartInfo part = byNumber.get(chunk);
+            if (part != null && part.size() == session.chunkLength(chunk)) {
+                received.add(chunk);
+            }
+        }
+        return received;
+    }
+
+    private static UploadSessionStatus status(UploadSession session, List<Integer> received) {
+        // The offset up to which there are no gaps
+        long receivedBytes = 0;
+        for (int chunk = 1; chunk <= received.size() && received.get(chunk - 1) == chunk; chunk++) {
+            receivedBytes += session.chunkLength(chunk);
+        }
+        return new UploadSessionStatus(session.getId(), session.getTotalSize(), session.getChunkSize(),
+                session.getChunkCount(), receivedBytes, received, session.getExpiresAt(), session.getDocumentId());
+    }
+
+    private boolean isPdf(String fileKey) throws IOException {
+        try (InputStream in = blobStore.get(fileKey, 0, PDF_MAGIC.length)) {
+            return Arrays.equals(in.readNBytes(PDF_MAGIC.length), PDF_MAGIC);
+        }
+    }
+}
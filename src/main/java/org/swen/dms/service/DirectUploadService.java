@@ -0,0 +1,36 @@
+package org.swen.dms.service;
+
+import org.swen.dms.dto.UploadTicket;
+import org.swen.dms.entity.Document;
+
+import java.util.Optional;
+
+/**
+ * Uploads that go from the client straight to the object store with a presigned URL, so the bytes
+ * never pass through the application. The document is created when the client completes the
+ * ticket after its PUT.
+ */
+public interface DirectUploadService {
+
+    /**
+     * A ticket for one upload, empty if the storage backend cannot presign URLs.
+     *
+     * @throws IllegalArgumentException if the size is not acceptable
+     */
+    Optional<UploadTicket> issueTicket(String title, String category, long size);
+
+    /**
+     * Creates the document for an uploaded ticket; completing the same ticket again returns the
+     * same document.
+     *
+     * @throws IllegalArgumentException if the ticket is invalid or expired, or the upload is missing or not a PDF
+     */
+    Document complete(String ticket);
+
+    /**
+     * Deletes the objects of tickets that were not completed in time.
+     *
+     * @return the number of tickets removed
+     */
+    int sweepAbandoned();
+}
@@ -0,0 +1,243 @@
+package org.swen.dms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.swen.dms.dto.UploadTicket;
+import org.swen.dms.entity.DirectUpload;
+import org.swen.dms.entity.Document;
+import org.swen.dms.helper.GenerateFileKey;
+import org.swen.dms.repository.jpa.DirectUploadRepository;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.storage.BlobInfo;
+import org.swen.dms.storage.BlobStore;
+import org.swen.dms.storage.PresignedUrl;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Presigned-URL uploads.
+ * <p>
+ * A ticket carries the file key, title, category and expiry, signed with HMAC-SHA256 under
+ * {@code dms.upload.ticket-secret}, so completing needs no server-side state and any instance can
+ * do it; a client cannot complete a key it was not issued. On completion the object is checked in
+ * the store (present, at most {@code dms.upload.max-bytes}, starts with {@code %PDF-}) before the
+ * document is created through {@link DocumentService#registerUpload}, which also publishes
+ * {@link org.swen.dms.messaging.DocumentCreatedEvent}. A rejected object is deleted.
+ * <p>
+ * Issued tickets are also recorded in {@code direct_uploads} until they are completed, only so
+ * that {@link #sweepAbandoned} can delete objects that were PUT but never completed once the
+ * ticket's completion window has closed.
+ */
+@Service
+public class DirectUploadServiceImpl implements DirectUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectUploadServiceImpl.class);
+
+    private static final String HMAC = "HmacSHA256";
+    private static final String PDF_CONTENT_TYPE = "application/pdf";
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    // A client may finish its PUT just before the URL expires; leave time to complete
+    static final Duration COMPLETE_GRACE = Duration.ofHours(1);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final BlobStore blobStore;
+    private final DocumentService documentService;
+    private final DocumentRepository repo;
+    private final DirectUploadRepository pending;
+    private final long maxBytes;
+    private final SecretKeySpec key;
+    private final GenerateFileKey generateFileKey = new GenerateFileKey();
+    private final Clock clock;
+
+    @Autowired
+    public DirectUploadServiceImpl(BlobStore blobStore, DocumentService documentService, DocumentRepository repo,
+                                   DirectUploadRepository pending,
+                                   @Value("${dms.upload.max-bytes:10485760}") long maxBytes,
+                                   @Value("${dms.upload.ticket-secret:}") String secret) {
+        this(blobStore, documentService, repo, pending, maxBytes, secret, Clock.systemUTC());
+    }
+
+    DirectUploadServiceImpl(BlobStore blobStore, DocumentService documentService, DocumentRepository repo,
+                            DirectUploadRepository pending, long maxBytes, String secret, Clock clock) {
+        this.blobStore = blobStore;
+        this.documentService = documentService;
+        this.repo = repo;
+        this.pending = pending;
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warn("dms.upload.ticket-secret is not set; upload tickets are only valid on this instance until it restarts");
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secretBytes, HMAC);
+    }
+
+    @Override
+    public Optional<UploadTicket> issueTicket(String title, String category, long size) {
+        if (size <= 0 || size > maxBytes) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxBytes + " bytes");
+        }
+        String fileKey = generateFileKey.generateFileKey();
+        Optional<PresignedUrl> url;
+        try {
+            url = blobStore.presignPut(fileKey);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not presign upload: " + e.getMessage(), e);
+        }
+        url.ifPresent(u -> pending.save(new DirectUpload(fileKey,
+                LocalDateTime.ofInstant(u.expiresAt().plus(COMPLETE_GRACE), clock.getZone()))));
+        return url.map(u -> new UploadTicket(fileKey, u.url(), "PUT", u.expiresAt(),
+                sign(new Claims(fileKey, title, category, u.expiresAt()))));
+    }
+
+    @Override
+    public Document complete(String ticket) {
+        Claims claims = verify(ticket);
+
+        // Completing twice (e.g. a retried request) returns the document created the first time
+        Optional<Document> existing = repo.findByFileKey(claims.fileKey());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        try {
+            BlobInfo object = blobStore.stat(claims.fileKey())
+                    .orElseThrow(() -> new IllegalArgumentException("Nothing was uploaded for this ticket"));
+            if (object.size() > maxBytes) {
+                reject(claims.fileKey());
+                throw new IllegalArgumentException("Upload exceeds " + maxBytes + " bytes");
+            }
+            if (!isPdf(claims.fileKey())) {
+                reject(claims.fileKey());
+                throw new IllegalArgumentException("Only PDFs allowed!");
+            }
+            Document document = documentService.registerUpload(claims.fileKey(), claims.title(), PDF_CONTENT_TYPE,
+                    object.size(), claims.category());
+            pending.deleteById(claims.fileKey());
+            return document;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not check upload " + claims.fileKey() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // One batch per run; a ticket whose object cannot be deleted stays and is tried again next time
+    @Override
+    @Scheduled(fixedDelayString = "${dms.upload.ticket-sweep-ms:600000}")
+    public int sweepAbandoned() {
+        int removed = 0;
+        for (DirectUpload upload : pending.findTop100ByExpiresAtBeforeOrderByExpiresAt(LocalDateTime.now(clock))) {
+            // A completed upload whose row outlived it (the instance stopped in between) keeps its object
+            if (!repo.existsByFileKey(upload.getFileKey())) {
+                try {
+                    blobStore.delete(upload.getFileKey());
+                } catch (IOException e) {
+                    log.warn("Could not delete abandoned upload {}: {}", upload.getFileKey(), e.getMessage());
+                    continue;
+                }
+            }
+            pending.delete(upload);
+            removed++;
+        }
+        if (removed > 0) {
+            log.info("Removed {} expired upload tickets", removed);
+        }
+        return removed;
+    }
+
+    private boolean isPdf(String fileKey) throws IOException {
+        try (InputStream in = blobStore.get(fileKey, 0, PDF_MAGIC.length)) {
+            return Arrays.equals(in.readNBytes(PDF_MAGIC.length), PDF_MAGIC);
+        }
+    }
+
+    private void reject(String fileKey) {
+        try {
+            blobStore.delete(fileKey);
+        } catch (IOException e) {
+            log.warn("Could not delete rejected upload {}: {}", fileKey, e.getMessage());
+        }
+    }
+
+    /** What a ticket vouches for. Title and category may be null. */
+    record Claims(String fileKey, String title, String category, Instant expiresAt) {}
+
+    // Each field base64url-encoded and joined by '.', then the signature over all of them
+    String sign(Claims claims) {
+        String payload = String.join(".",
+                encode(claims.fileKey()),
+                encode(claims.title()),
+                encode(claims.category()),
+                encode(Long.toString(claims.expiresAt().getEpochSecond())));
+        return payload + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    Claims verify(String ticket) {
+        String[] parts = ticket == null ? new String[0] : ticket.split("\\.", -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Invalid upload ticket");
+        }
+        String payload = String.join(".", Arrays.copyOf(parts, 4));
+        byte[] signature;
+        try {
+            signature = DECODER.decode(parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid upload ticket");
+        }
+        if (!MessageDigest.isEqual(signature, mac(payload))) {
+            throw new IllegalArgumentException("Invalid upload ticket");
+        }
+        Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(decode(parts[3])));
+        if (clock.instant().isAfter(expiresAt.plus(COMPLETE_GRACE))) {
+            throw new IllegalArgumentException("Upload ticket expired");
+        }
+        return new Claims(decode(parts[0]), decodeNullable(parts[1]), decodeNullable(parts[2]), expiresAt);
+    }
+
+    private byte[] mac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // null and "" are both encoded as empty
+    private static String encode(String value) {
+        return value == null ? "" : ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+
+    private static String decodeNullable(String value) {
+        return value.isEmpty() ? null : decode(value);
+    }
+}
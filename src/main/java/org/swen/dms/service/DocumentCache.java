@@ -0,0 +1,111 @@
+package org.swen.dms.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.helper.AfterCommit;
+import org.swen.dms.messaging.DocumentCacheInvalidation;
+import org.swen.dms.messaging.DocumentEventPublisher;
+import org.swen.dms.repository.jpa.DocumentDetailsView;
+import org.swen.dms.repository.jpa.DocumentRepository;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Read-through cache of document details (metadata and summary, never the OCR text).
+ * <p>
+ * Bounded by the estimated size of the entries ({@code dms.cache.documents.max-bytes}) rather
+ * than their number, since summaries vary from a few bytes to kilobytes. A miss loads the row with
+ * one projection query; concurrent misses for the same document share that load.
+ * <p>
+ * Whatever changes a document calls {@link #evict(Long)}. The entry is dropped right away and
+ * again after the transaction commits (so a read in between cannot re-cache the old row), and
+ * the eviction is broadcast over the {@code docs.cache.fanout} exchange to every instance,
+ * including the GenAI worker's writes. Entries also expire after
+ * {@code dms.cache.documents.ttl-seconds}, which bounds staleness if a broadcast is lost.
+ */
+@Component
+public class DocumentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentCache.class);
+
+    // Rough per-entry overhead: entry, projection proxy, boxed fields, timestamps
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final DocumentRepository repo;
+    private final DocumentEventPublisher publisher;
+    private final Cache<Long, DocumentDetailsView> cache;
+
+    public DocumentCache(DocumentRepository repo,
+                         DocumentEventPublisher publisher,
+                         @Value("${dms.cache.documents.max-bytes:16777216}") long maxBytes,
+                         @Value("${dms.cache.documents.ttl-seconds:600}") long ttlSeconds) {
+        this.repo = repo;
+        this.publisher = publisher;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, DocumentDetailsView details) -> weigh(details))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * The document's details, from the cache or loaded once from the database.
+     *
+     * @throws NotFoundException if there is no such document (not cached)
+     */
+    public DocumentDetailsView get(Long id) {
+        try {
+            return cache.get(id, () -> repo.findDetailsById(id)
+                    .orElseThrow(() -> new NotFoundException("Document " + id + " not found")));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Loading document " + id + " failed", e.getCause());
+        } catch (UncheckedExecutionException e) {
+            // Guava wraps the loader's NotFoundException; rethrow it as is
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Drops the document here and, once the current transaction (if any) commits, everywhere. */
+    public void evict(Long id) {
+        cache.invalidate(id);
+        AfterCommit.run(() -> {
+            cache.invalidate(id);
+            publisher.publishCacheInvalidation(id);
+        });
+    }
+
+    /** Evictions broadcast by any instance (this one included). */
+    @RabbitListener(queues = "#{documentCacheQueue.name}")
+    public void onInvalidation(DocumentCacheInvalidation message) {
+        if (message.getId() != null) {
+            cache.invalidate(message.getId());
+            log.debug("Evicted document {} from the cache", message.getId());
+        }
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    private static int weigh(DocumentDetailsView details) {
+        long chars = length(details.getTitle()) + length(details.getFileKey())
+                + length(details.getContentType()) + length(details.getOcrSummaryText())
+                + length(details.getOptimizedFileKey());
+        return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + 2 * chars);
+    }
+
+    private static long length(String s) {
+        return s == null ? 0 : s.length();
+    }
+}
@@ -3,7 +3,9 @@ package org.swen.dms.service;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.swen.dms.entity.Document;
+import org.swen.dms.repository.jpa.DocumentTitleView;
 
 import java.util.List;
 
@@ -17,11 +19,14 @@ import java.util.List;
 public interface DocumentService {
     //Document create(Document doc);
     List<Document> findAll();
+    List<Document> findByCategory(String categoryPath);
     Document findById(Long id);
     Document update(Long id, Document update);
     void delete(Long id);
     ResponseEntity<?> uploadDocument(MultipartFile file, String documentTitle, String categoryName);
+    Document registerUpload(String fileKey, String requestedTitle, String contentType, long size, String categoryName);
     boolean existsByTitle(String title);
-    ResponseEntity<byte[]> downloadDocument(Long id);
+    ResponseEntity<StreamingResponseBody> downloadDocument(Long id);
     String getOcrSummaryTextFromDB(long id);
+    List<DocumentTitleView> searchTitles(String query, int limit);
 }
@@ -1,23 +1,36 @@
 package org.swen.dms.service;
 
-import io.minio.*;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.swen.dms.entity.Category;
 import org.swen.dms.entity.Document;
 import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.messaging.DocumentDeletedEvent;
 import org.swen.dms.messaging.DocumentEventPublisher;
 import org.swen.dms.messaging.DocumentUpdatedEvent;
-import org.swen.dms.repository.jpa.CategoryRepository;
+import org.swen.dms.repository.jpa.DocumentDetailsView;
 import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.repository.jpa.DocumentTitleView;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.swen.dms.messaging.DocumentCreatedEvent;
+import org.swen.dms.helper.AfterCommit;
+import org.swen.dms.helper.CategoryPaths;
 import org.swen.dms.helper.GenerateFileKey;
+import org.swen.dms.storage.BlobStore;
+import org.swen.dms.storage.ObjectByteCache;
+import org.swen.dms.storage.PresignedUrl;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.time.Instant;
 
 /**
@@ -34,13 +47,19 @@ import java.time.Instant;
 @Service
 public class DocumentServiceImpl implements DocumentService {
 
+    private static final int MIN_TITLE_QUERY_LENGTH = 3;
+    private static final int MAX_TITLE_RESULTS = 50;
+
     private final DocumentRepository repo;
     private final DocumentEventPublisher publisher;
-    private final MinioClient minioClient;
+    private final BlobStore blobStore;
 
     GenerateFileKey generateFileKey = new GenerateFileKey();
 
-    private final CategoryRepository categoryRepo;
+    private final CategoryResolver categoryResolver;
+    private final DownloadCounter downloadCounter;
+    private final DocumentCache documentCache;
+    private final ObjectByteCache objectCache;
 
 //    //just testing sth EDIT THIS TESTDOC EVERY TIME YOU DOCKER COMPOSE!!!!
 //    Document testDoc = new Document(
@@ -54,12 +73,17 @@ public class DocumentServiceImpl implements DocumentService {
 
 
 
-    public DocumentServiceImpl(DocumentRepository repo, DocumentEventPublisher publisher, MinioClient minioClient, CategoryRepository categoryRepo) {
+    public DocumentServiceImpl(DocumentRepository repo, DocumentEventPublisher publisher, BlobStore blobStore,
+                               CategoryResolver categoryResolver, DownloadCounter downloadCounter,
+                               DocumentCache documentCache, ObjectByteCache objectCache) {
 
         this.repo = repo;
         this.publisher = publisher;
-        this.minioClient = minioClient;
-        this.categoryRepo = categoryRepo;
+        this.blobStore = blobStore;
+        this.categoryResolver = categoryResolver;
+        this.downloadCounter = downloadCounter;
+        this.documentCache = documentCache;
+        this.objectCache = objectCache;
     }
 
     @Override
@@ -74,61 +98,18 @@ public class DocumentServiceImpl implements DocumentService {
                 return ResponseEntity.badRequest().body("Only PDFs allowed!");
             }
 
-            // 1. Determine the effective title (use filename if title is missing)
-            String effectiveTitle = (documentTitle != null && !documentTitle.isBlank())
-                    ? documentTitle
-                    : file.getOriginalFilename();
-
-            // 2. Strip ".pdf" extension if the user typed it in manually, to avoid "Report.pdf.pdf"
-            if (effectiveTitle != null && effectiveTitle.toLowerCase().endsWith(".pdf")) {
-                effectiveTitle = effectiveTitle.substring(0, effectiveTitle.length() - 4);
-            }
-
-            // 3. Keep the original clean title as a base for renaming
-            String baseTitle = effectiveTitle;
-            int count = 1;
-
-            // 4. Check for collisions.
-            //    If "Report.pdf" exists, try "Report (1).pdf", then "Report (2).pdf", etc.
-            while (existsByTitle(effectiveTitle + ".pdf")) {
-                effectiveTitle = baseTitle + " (" + count++ + ")";
-            }
-
-            // 5. Finally add the extension back
-            String finalFileName = effectiveTitle + ".pdf";
-
             String fileKey = generateFileKey.generateFileKey();
 
-            // Upload to MinIO
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket("documents")
-                            .object(fileKey)
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .contentType("application/pdf")
-                            .build()
-            );
-
-            // Save metadata to DB
-            Document doc = new Document();
-            doc.setTitle(finalFileName);
-            doc.setFileKey(fileKey);
-            doc.setContentType(file.getContentType());
-            doc.setFileSize(file.getSize());
-            doc.setUploadedAt(LocalDateTime.now());
-
-            if (categoryName != null && !categoryName.isBlank()) {
-                Category cat = categoryRepo.findByName(categoryName)
-                        .orElseGet(() -> categoryRepo.save(new Category(categoryName, null)));
-                doc.addCategory(cat);
+            // Upload to the blob store
+            try (InputStream in = file.getInputStream()) {
+                blobStore.put(fileKey, in, file.getSize(), "application/pdf");
             }
 
-            Document saved = repo.save(doc);
-
-            // Publish Event
-            publisher.publishDocumentCreated(
-                    new DocumentCreatedEvent(saved.getId(), saved.getTitle(), Instant.now(), "documents", saved.getFileKey())
-            );
+            // Use filename if title is missing
+            String requestedTitle = (documentTitle != null && !documentTitle.isBlank())
+                    ? documentTitle
+                    : file.getOriginalFilename();
+            Document saved = registerUpload(fileKey, requestedTitle, file.getContentType(), file.getSize(), categoryName);
 
             return ResponseEntity.ok(saved);
 
@@ -139,29 +120,118 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
 
-    public ResponseEntity<byte[]> downloadDocument(Long id) {
-        try {
-            Document doc = repo.findById(id)
-                    .orElseThrow(() -> new IllegalArgumentException("Document not found: " + id));
+    /**
+     * Creates the row for a file already in the blob store (uploaded through the app or directly
+     * with a presigned URL) and publishes {@link DocumentCreatedEvent}. The title gets a
+     * {@code .pdf} extension and, if taken, a counter: {@code Report (1).pdf}. Without a title (it is
+     * optional for upload tickets and sessions) the file key is used.
+     */
+    @Override
+    @Transactional
+    public Document registerUpload(String fileKey, String requestedTitle, String contentType, long size,
+                                   String categoryName) {
+        // 1. Strip ".pdf" extension if the user typed it in manually, to avoid "Report.pdf.pdf"
+        String effectiveTitle = requestedTitle == null || requestedTitle.isBlank() ? fileKey : requestedTitle;
+        if (effectiveTitle.toLowerCase().endsWith(".pdf")) {
+            effectiveTitle = effectiveTitle.substring(0, effectiveTitle.length() - 4);
+        }
+
+        // 2. Keep the original clean title as a base for renaming
+        String baseTitle = effectiveTitle;
+        int count = 1;
+
+        // 3. Check for collisions.
+        //    If "Report.pdf" exists, try "Report (1).pdf", then "Report (2).pdf", etc.
+        while (existsByTitle(effectiveTitle + ".pdf")) {
+            effectiveTitle = baseTitle + " (" + count++ + ")";
+        }
 
-            GetObjectResponse response = minioClient.getObject(
-                    GetObjectArgs.builder()
-                            .bucket("documents")
-                            .object(doc.getFileKey())
-                            .build()
-            );
+        // 4. Finally add the extension back
+        String finalFileName = effectiveTitle + ".pdf";
+
+        // Save metadata to DB
+        Document doc = new Document();
+        doc.setTitle(finalFileName);
+        doc.setFileKey(fileKey);
+        doc.setContentType(contentType);
+        doc.setFileSize(size);
+        doc.setUploadedAt(LocalDateTime.now());
+
+        if (categoryName != null && !categoryName.isBlank()) {
+            // Usually cached; created atomically if new, so concurrent uploads cannot collide
+            Category cat = categoryResolver.resolve(categoryName);
+            doc.getCategories().add(cat);
+        }
+
+        Document saved = repo.save(doc);
+
+        // Publish Event once the row is committed, so the OCR worker can find it
+        DocumentCreatedEvent event =
+                new DocumentCreatedEvent(saved.getId(), saved.getTitle(), Instant.now(), "documents", saved.getFileKey());
+        AfterCommit.run(() -> publisher.publishDocumentCreated(event));
+        return saved;
+    }
 
-            byte[] fileBytes = response.readAllBytes();
+    /**
+     * Redirects to a short-lived presigned URL when the blob store offers one, so the bytes do not
+     * pass through the application. Otherwise streams the file instead of buffering it. Hot objects are served from the local
+     * {@link ObjectByteCache}; a miss streams from the {@link BlobStore} and, if the object is now downloaded often
+     * enough, is written to the cache while it streams to the client.
+     * <p>
+     * Once a document has an optimized copy, that copy is served instead of the original, and the bytes saved are
+     * recorded with the download.
+     */
+    public ResponseEntity<StreamingResponseBody> downloadDocument(Long id) {
+        try {
+            // Cached: repeat downloads do not query Postgres
+            DocumentDetailsView doc = documentCache.get(id);
+            boolean optimized = doc.getOptimizedFileKey() != null;
+            String fileKey = optimized ? doc.getOptimizedFileKey() : doc.getFileKey();
+            Long fileSize = optimized ? doc.getOptimizedFileSize() : doc.getFileSize();
+            long bytesSaved = optimized && doc.getFileSize() != null && fileSize != null
+                    ? Math.max(0, doc.getFileSize() - fileSize) : 0;
+
+            Optional<PresignedUrl> direct = blobStore.presignGet(fileKey, doc.getTitle());
+            if (direct.isPresent()) {
+                downloadCounter.increment(id);
+                downloadCounter.recordBytesSaved(id, bytesSaved);
+                return ResponseEntity.status(HttpStatus.FOUND)
+                        .location(URI.create(direct.get().url()))
+                        .build();
+            }
+
+            Optional<FileChannel> cached = objectCache.open(fileKey);
+            FileChannel file = cached.isPresent() ? cached.get() : null;
+            StreamingResponseBody body;
+            if (file != null) {
+                body = out -> ObjectByteCache.transfer(file, out);
+            } else {
+                // Opened here, so a missing object is still reported as an error response
+                InputStream response = blobStore.get(fileKey);
+                if (objectCache.admit(fileKey, fileSize == null ? 0 : fileSize)) {
+                    // Sent to the client while it is written to the cache; a disk error only skips the caching
+                    body = out -> objectCache.store(fileKey, response, out);
+                } else {
+                    body = out -> {
+                        try (response) {
+                            response.transferTo(out);
+                        }
+                    };
+                }
+            }
+            downloadCounter.increment(id);
+            downloadCounter.recordBytesSaved(id, bytesSaved);
 
             return ResponseEntity.ok()
                     .contentType(MediaType.parseMediaType(doc.getContentType()))
                     .header("Content-Disposition", "attachment; filename=\"" + doc.getTitle() + "\"")
-                    .body(fileBytes);
+                    .body(body);
 
         } catch (Exception e) {
             e.printStackTrace();
+            byte[] message = ("Error during download: " + e.getMessage()).getBytes();
             return ResponseEntity.internalServerError()
-                    .body(("Error during download: " + e.getMessage()).getBytes());
+                    .body(out -> out.write(message));
         }
     }
 
@@ -171,19 +241,46 @@ public class DocumentServiceImpl implements DocumentService {
         return repo.existsByTitle(title);
     }
 
+    // Served from the document cache; the OCR text is never loaded for it
     @Override
-    @Transactional
     public String getOcrSummaryTextFromDB(long id) {
-        return repo.findById(id).get().getOcrSummaryText();
+        return documentCache.get(id).getOcrSummaryText();
     }
 
 
+    /**
+     * Typeahead over titles. Queries shorter than three characters return nothing:
+     * they yield no trigrams, so the index cannot help and every row would be scanned.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DocumentTitleView> searchTitles(String query, int limit) {
+        if (query == null || query.trim().length() < MIN_TITLE_QUERY_LENGTH) {
+            return List.of();
+        }
+        String q = query.trim();
+        String pattern = "%" + q.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_TITLE_RESULTS));
+        return repo.searchTitles(pattern, q, boundedLimit);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Document> findAll() {
         return repo.findAll();
     }
 
+    // Everything filed under the category, including its subcategories
+    @Override
+    @Transactional(readOnly = true)
+    public List<Document> findByCategory(String categoryPath) {
+        String path = CategoryPaths.normalize(categoryPath);
+        if (path.isEmpty()) {
+            return findAll();
+        }
+        return repo.findByCategorySubtree(path, CategoryPaths.descendantsPattern(path));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Document findById(Long id) {
@@ -197,11 +294,10 @@ public class DocumentServiceImpl implements DocumentService {
         Document existing = findById(id);
         String titleBefore = existing.getTitle();
         existing.setTitle(update.getTitle());
-        //publishing
-        publisher.publishDocumentUpdated(
-                new DocumentUpdatedEvent(id, titleBefore, update.getTitle(), Instant.now() )
-                // Changed from update.getId() to id
-        );
+        // After the commit: the index sync re-reads the title from Postgres
+        DocumentUpdatedEvent event = new DocumentUpdatedEvent(id, titleBefore, update.getTitle(), Instant.now());
+        AfterCommit.run(() -> publisher.publishDocumentUpdated(event));
+        documentCache.evict(id);
         return repo.save(existing);
     }
 
@@ -212,18 +308,23 @@ public class DocumentServiceImpl implements DocumentService {
                 .orElseThrow(() -> new NotFoundException("Document " + id + " not found"));
 
         try {
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
-                            .bucket("documents")
-                            .object(doc.getFileKey())
-                            .build()
-            );
+            blobStore.delete(doc.getFileKey());
+            objectCache.remove(doc.getFileKey());
+            if (doc.getOptimizedFileKey() != null) {
+                blobStore.delete(doc.getOptimizedFileKey());
+                objectCache.remove(doc.getOptimizedFileKey());
+            }
 
             repo.deleteById(id);
+            documentCache.evict(id);
 
         } catch (Exception e) {
-            throw new RuntimeException("Error deleting document from MinIO: " + e.getMessage(), e);
+            throw new RuntimeException("Error deleting document from storage: " + e.getMessage(), e);
         }
+
+        // Removes the document from the search index, unless the delete rolls back
+        DocumentDeletedEvent event = new DocumentDeletedEvent(id, doc.getFileKey(), Instant.now());
+        AfterCommit.run(() -> publisher.publishDocumentDeleted(event));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package org.swen.dms.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.swen.dms.batch.AccessCountWriter;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Real-time download counting.
+ * <p>
+ * {@link #increment(Long)} is on the download path: it only bumps a per-document {@link LongAdder}
+ * (striped cells, no lock, no contention between threads downloading the same document) and never
+ * touches the database. Every {@code dms.access.flush-ms} the counters are drained and added to
+ * the {@code download_count} of today's rows in {@code document_access_daily} with one batched
+ * upsert, and fed to the {@link TrendingService}.
+ * <p>
+ * Counts are held in memory until flushed, so at most one flush interval is lost on a crash.
+ * Downloads counted shortly before midnight may be flushed into the next day.
+ * <p>
+ * Bytes saved by serving an optimized copy ({@link #recordBytesSaved}) are buffered the same way
+ * and added to each document's {@code egress_bytes_saved} with one batched update on flush.
+ */
+@Component
+public class DownloadCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(DownloadCounter.class);
+
+    private final AccessCountWriter writer;
+    private final TrendingService trending;
+
+    private final ConcurrentHashMap<Long, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> bytesSaved = new ConcurrentHashMap<>();
+
+    public DownloadCounter(AccessCountWriter writer, TrendingService trending) {
+        this.writer = writer;
+        this.trending = trending;
+    }
+
+    public void increment(Long documentId) {
+        counters.computeIfAbsent(documentId, id -> new LongAdder()).increment();
+    }
+
+    /** Records that a download of the document sent {@code bytes} fewer bytes than the original. */
+    public void recordBytesSaved(Long documentId, long bytes) {
+        if (bytes > 0) {
+            bytesSaved.computeIfAbsent(documentId, id -> new LongAdder()).add(bytes);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dms.access.flush-ms:5000}")
+    public synchronized void flush() {
+        flushBytesSaved();
+
+        Map<Long, Long> batch = drain(counters);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        try {
+            writer.ensurePartition(today);
+            List<Long> deleted = writer.add(today, batch);
+            log.debug("Flushed download counts for {} documents ({} no longer exist)", batch.size(), deleted.size());
+        } catch (Exception e) {
+            log.error("Flushing download counts failed, keeping them for the next flush: {}", e.getMessage());
+            batch.forEach((id, n) -> counters.computeIfAbsent(id, k -> new LongAdder()).add(n));
+            return;
+        }
+        trending.record(batch);
+    }
+
+    private void flushBytesSaved() {
+        Map<Long, Long> batch = drain(bytesSaved);
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            int updated = writer.addEgressBytesSaved(batch);
+            log.debug("Flushed saved bytes for {} documents ({} no longer exist)", batch.size(), batch.size() - updated);
+        } catch (Exception e) {
+            log.error("Flushing saved bytes failed, keeping them for the next flush: {}", e.getMessage());
+            batch.forEach((id, bytes) -> bytesSaved.computeIfAbsent(id, k -> new LongAdder()).add(bytes));
+        }
+    }
+
+    private static Map<Long, Long> drain(ConcurrentHashMap<Long, LongAdder> adders) {
+        Map<Long, Long> batch = new HashMap<>();
+        // sumThenReset swaps every cell to 0 atomically, so increments racing with the flush
+        // land either in this batch or in the next one. Adders are never removed (removing one
+        // could lose an increment in flight); that is one small object per downloaded document.
+        adders.forEach((id, adder) -> {
+            long n = adder.sumThenReset();
+            if (n > 0) {
+                batch.put(id, n);
+            }
+        });
+        return batch;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
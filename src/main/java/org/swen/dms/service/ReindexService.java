@@ -0,0 +1,15 @@
+package org.swen.dms.service;
+
+import org.swen.dms.dto.ReindexStatus;
+
+/**
+ * Rebuilds the Elasticsearch search index from Postgres without search downtime.
+ * <p>
+ * Each run writes into a fresh versioned index ({@code documents_vN}) and only
+ * switches the {@code documents} alias over once the new index is complete.
+ */
+public interface ReindexService {
+    ReindexStatus startReindex();
+    ReindexStatus getStatus();
+    void ensureIndex();
+}
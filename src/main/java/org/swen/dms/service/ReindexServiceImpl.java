@@ -0,0 +1,511 @@
+package org.swen.dms.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexInformation;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.PutIndexTemplateRequest;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.swen.dms.dto.ReindexStatus;
+import org.swen.dms.entity.DocumentSearch;
+import org.swen.dms.helper.CategoryPaths;
+import org.swen.dms.messaging.CategoriesChangedEvent;
+import org.swen.dms.messaging.DocumentDeletedEvent;
+import org.swen.dms.messaging.DocumentUpdatedEvent;
+import org.swen.dms.messaging.OcrCompletedEvent;
+import org.swen.dms.repository.jpa.CategoryRepository;
+import org.swen.dms.repository.jpa.DocumentCategoryView;
+import org.swen.dms.repository.jpa.DocumentIndexView;
+import org.swen.dms.repository.jpa.DocumentRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Zero-downtime reindex of {@link DocumentSearch} from Postgres.
+ * <p>
+ * Flow of one run:
+ * <ol>
+ *   <li>put the {@code documents_template} index template (mapping and settings from {@link DocumentSearch})</li>
+ *   <li>create {@code documents_v(N+1)}, which picks up the template</li>
+ *   <li>stream the OCR text from Postgres with a JPA stream and fetch size, and bulk-index it
+ *       in batches on a bounded pool</li>
+ *   <li>atomically move the {@code documents} alias to the new index and drop the old alias target</li>
+ *   <li>catch up documents uploaded while the run was in progress</li>
+ *   <li>re-sync documents changed or deleted while the run was in progress</li>
+ * </ol>
+ * Searches keep hitting the old index through the alias until the swap.
+ * <p>
+ * Until the swap, the OCR worker and the index sync write to the old index, so changes to documents
+ * already copied would be lost. While a run is in progress, this instance therefore records the
+ * ids of every {@code docs.updated}, {@code docs.deleted}, {@code docs.categories.changed} and
+ * {@code docs.ocr.completed} event (on its own queues), and after the swap re-reads those documents from Postgres into the new
+ * index, deleting the ones that are gone. Recording stops, atomically with taking the last batch of
+ * ids, once a pass finds nothing new and the settle time has passed.
+ * <p>
+ * Documents that fail to reach the new index after the swap are retried a few times. If some still
+ * fail, the run ends {@link ReindexStatus.State#PARTIAL} instead of {@code COMPLETED}, with their
+ * count in {@code failedDocuments}.
+ */
+@Service
+public class ReindexServiceImpl implements ReindexService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReindexServiceImpl.class);
+
+    static final String ALIAS = "documents";
+    static final String TEMPLATE_NAME = "documents_template";
+    static final String INDEX_PREFIX = "documents_v";
+    private static final Pattern VERSIONED_INDEX = Pattern.compile("^documents_v(\\d+)$");
+
+    private static final long PROGRESS_LOG_INTERVAL = 10_000;
+    private static final int RESYNC_RETRIES = 3;
+
+    private final ElasticsearchOperations operations;
+    private final DocumentRepository documentRepo;
+    private final CategoryRepository categoryRepo;
+    private final TransactionTemplate readOnlyTx;
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration settle;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> new Thread(r, "reindex-runner"));
+    private final ExecutorService bulkPool;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    // Documents changed since the current run started; guarded by itself, together with recording
+    private final Set<Long> changed = new HashSet<>();
+    private boolean recording;
+
+    private volatile Run current;
+
+    public ReindexServiceImpl(ElasticsearchOperations operations,
+                              DocumentRepository documentRepo,
+                              CategoryRepository categoryRepo,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${dms.search.reindex.batch-size:500}") int batchSize,
+                              @Value("${dms.search.reindex.parallelism:4}") int parallelism,
+                              @Value("${dms.search.reindex.settle:PT2S}") Duration settle) {
+        this.operations = operations;
+        this.documentRepo = documentRepo;
+        this.categoryRepo = categoryRepo;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.settle = settle;
+        this.bulkPool = Executors.newFixedThreadPool(parallelism, r -> new Thread(r, "reindex-bulk"));
+    }
+
+    /**
+     * Makes sure the {@code documents} alias exists on startup, so the repository
+     * and the OCR worker never auto-create a plain {@code documents} index.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        try {
+            putTemplate();
+            IndexOperations aliasOps = operations.indexOps(IndexCoordinates.of(ALIAS));
+            if (aliasOps.exists()) {
+                return;
+            }
+            String first = INDEX_PREFIX + 1;
+            operations.indexOps(IndexCoordinates.of(first)).create();
+            swapAlias(first, Set.of(), false);
+            log.info("Created search index {} behind alias '{}'", first, ALIAS);
+        } catch (Exception e) {
+            // Log the error but allow the app to keep running
+            log.error("Error checking/creating search index alias: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public ReindexStatus startReindex() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reindex is already running");
+        }
+        synchronized (changed) {
+            changed.clear();
+            recording = true;
+        }
+        Run run = new Run();
+        current = run;
+        runner.submit(() -> {
+            try {
+                execute(run);
+            } catch (Exception e) {
+                log.error("Reindex into {} failed", run.targetIndex, e);
+                run.fail(e);
+            } finally {
+                stopRecording();
+                running.set(false);
+            }
+        });
+        return run.snapshot();
+    }
+
+    @Override
+    public ReindexStatus getStatus() {
+        Run run = current;
+        return run == null ? ReindexStatus.idle() : run.snapshot();
+    }
+
+    @RabbitListener(queues = "#{reindexUpdatedQueue.name}")
+    public void onUpdated(DocumentUpdatedEvent event) {
+        recordChange(event.getId());
+    }
+
+    @RabbitListener(queues = "#{reindexDeletedQueue.name}")
+    public void onDeleted(DocumentDeletedEvent event) {
+        recordChange(event.getId());
+    }
+
+    @RabbitListener(queues = "#{reindexCategoriesChangedQueue.name}")
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        if (event.getDocumentIds() != null) {
+            event.getDocumentIds().forEach(this::recordChange);
+        }
+    }
+
+    @RabbitListener(queues = "#{reindexOcrCompletedQueue.name}")
+    public void onOcrCompleted(OcrCompletedEvent event) {
+        recordChange(event.getDocumentId());
+    }
+
+    private void recordChange(Long documentId) {
+        if (documentId == null) {
+            return;
+        }
+        synchronized (changed) {
+            if (recording) {
+                changed.add(documentId);
+            }
+        }
+    }
+
+    /**
+     * @param stop whether to stop recording in the same step, so no change can slip in between
+     * @return the changes recorded since the last call
+     */
+    private List<Long> takeChanges(boolean stop) {
+        synchronized (changed) {
+            List<Long> ids = new ArrayList<>(changed);
+            changed.clear();
+            recording &= !stop;
+            return ids;
+        }
+    }
+
+    private void stopRecording() {
+        takeChanges(true);
+    }
+
+    private void execute(Run run) throws Exception {
+        putTemplate();
+
+        Set<String> previous = currentAliasTargets();
+        boolean aliasIsConcreteIndex = previous.remove(ALIAS);
+
+        run.targetIndex = INDEX_PREFIX + (highestVersion() + 1);
+        run.previousIndex = aliasIsConcreteIndex ? ALIAS : String.join(",", previous);
+        run.total.set(documentRepo.count());
+
+        operations.indexOps(IndexCoordinates.of(run.targetIndex)).create();
+        log.info("Reindex started: {} documents into {}", run.total.get(), run.targetIndex);
+
+        long lastId = loadFrom(run, 0L);
+        if (run.failed.get() > 0) {
+            // Never swap to an incomplete index; searches stay on the old one
+            operations.indexOps(IndexCoordinates.of(run.targetIndex)).delete();
+            throw new IllegalStateException(run.failed.get() + " documents failed to index; alias left on " + run.previousIndex);
+        }
+        operations.indexOps(IndexCoordinates.of(run.targetIndex)).refresh();
+
+        swapAlias(run.targetIndex, previous, aliasIsConcreteIndex);
+        log.info("Alias '{}' now points to {} (was {})", ALIAS, run.targetIndex, run.previousIndex);
+
+        // Documents uploaded during the run were written to the old index; pick them up now
+        loadFrom(run, lastId);
+        catchUp(run);
+
+        // Only the documents still missing or stale in the new index count as failed now
+        run.failed.set(run.failedIds.size());
+        if (run.failedIds.isEmpty()) {
+            run.complete();
+        } else {
+            run.partial(run.failedIds.size() + " documents could not be written to " + run.targetIndex
+                    + " after the swap and are missing or stale in search until they change again or the next reindex");
+        }
+        log.info("Reindex finished ({}): {} indexed, {} failed, {} docs/s",
+                run.state, run.indexed.get(), run.failed.get(), String.format("%.1f", run.throughput()));
+    }
+
+    /**
+     * Re-syncs the documents changed while the run was in progress, which went to the old index.
+     * Each pass takes the changes recorded so far, including events still in flight at the swap;
+     * writes made after the swap go to the new index anyway. Once a pass finds nothing new and the
+     * settle time passes, the last changes are taken and recording stops in one step, so none are
+     * dropped in between. Documents that failed since the swap are then retried from Postgres.
+     */
+    private void catchUp(Run run) throws InterruptedException {
+        for (List<Long> ids = takeChanges(false); !ids.isEmpty(); ids = takeChanges(false)) {
+            resync(run, ids);
+        }
+        // Give events still in flight the settle time, then take the rest and stop recording
+        Thread.sleep(settle.toMillis());
+        resync(run, takeChanges(true));
+
+        for (int attempt = 1; attempt <= RESYNC_RETRIES && !run.failedIds.isEmpty(); attempt++) {
+            Thread.sleep(settle.toMillis() * attempt);
+            List<Long> ids = new ArrayList<>(run.failedIds);
+            run.failedIds.removeAll(ids);
+            log.info("Retrying {} documents that failed to reach {} (attempt {}/{})",
+                    ids.size(), run.targetIndex, attempt, RESYNC_RETRIES);
+            resync(run, ids);
+        }
+    }
+
+    /**
+     * Streams every document with an id greater than {@code afterId} into the target index.
+     *
+     * @return the highest document id that was read
+     */
+    private long loadFrom(Run run, long afterId) throws Exception {
+        IndexCoordinates target = IndexCoordinates.of(run.targetIndex);
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        AtomicLong lastId = new AtomicLong(afterId);
+
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<DocumentIndexView> rows = documentRepo.streamForIndexing(afterId)) {
+                List<DocumentIndexView> batch = new ArrayList<>(batchSize);
+                rows.forEach(row -> {
+                    batch.add(row);
+                    lastId.set(row.getId());
+                    if (batch.size() == batchSize) {
+                        futures.add(submitBatch(run, target, List.copyOf(batch), inFlight));
+                        batch.clear();
+                    }
+                });
+                if (!batch.isEmpty()) {
+                    futures.add(submitBatch(run, target, List.copyOf(batch), inFlight));
+                }
+            }
+        });
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return lastId.get();
+    }
+
+    /**
+     * Re-indexes the given documents from Postgres into the target index, and deletes the ones
+     * that no longer exist from it.
+     */
+    private void resync(Run run, List<Long> ids) {
+        IndexCoordinates target = IndexCoordinates.of(run.targetIndex);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            try {
+                List<DocumentIndexView> rows = documentRepo.findForIndexingByIdIn(batch);
+                if (!rows.isEmpty()) {
+                    Map<Long, List<String>> categories = categoriesFor(rows.stream().map(DocumentIndexView::getId).toList());
+                    operations.bulkIndex(rows.stream()
+                            .map(row -> toIndexQuery(row, categories.getOrDefault(row.getId(), List.of())))
+                            .toList(), target);
+                }
+                Set<Long> found = rows.stream().map(DocumentIndexView::getId).collect(Collectors.toSet());
+                for (Long id : batch) {
+                    if (!found.contains(id)) {
+                        operations.delete(String.valueOf(id), target);
+                    }
+                }
+                log.info("Re-synced {} documents changed during the reindex ({} deleted)",
+                        batch.size(), batch.size() - found.size());
+            } catch (Exception e) {
+                // The alias has moved already; catchUp retries them
+                log.error("Re-sync of {} changed documents into {} failed: {}", batch.size(), target.getIndexName(), e.getMessage());
+                run.failed.addAndGet(batch.size());
+                run.failedIds.addAll(batch);
+            }
+        }
+    }
+
+    private Future<?> submitBatch(Run run, IndexCoordinates target, List<DocumentIndexView> rows, Semaphore inFlight) {
+        // Backpressure: the streaming thread blocks while too many bulk requests are in flight
+        inFlight.acquireUninterruptibly();
+        Map<Long, List<String>> categories = categoriesFor(rows.stream().map(DocumentIndexView::getId).toList());
+        return bulkPool.submit(() -> {
+            try {
+                List<IndexQuery> queries = rows.stream()
+                        .map(row -> toIndexQuery(row, categories.getOrDefault(row.getId(), List.of())))
+                        .toList();
+                operations.bulkIndex(queries, target);
+                run.progress(rows.size());
+            } catch (Exception e) {
+                log.error("Bulk index of {} documents into {} failed: {}", rows.size(), target.getIndexName(), e.getMessage());
+                run.failed.addAndGet(rows.size());
+                rows.forEach(row -> run.failedIds.add(row.getId()));
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private Map<Long, List<String>> categoriesFor(Collection<Long> documentIds) {
+        Map<Long, List<String>> result = new HashMap<>();
+        for (DocumentCategoryView row : categoryRepo.findPathsByDocumentIds(documentIds)) {
+            result.computeIfAbsent(row.getDocumentId(), id -> new ArrayList<>()).add(row.getPath());
+        }
+        return result;
+    }
+
+    private static IndexQuery toIndexQuery(DocumentIndexView row, List<String> categories) {
+        DocumentSearch doc = new DocumentSearch(String.valueOf(row.getId()), row.getTitle(), row.getOcrText());
+        doc.setCategories(CategoryPaths.withAncestors(categories));
+        doc.setUploadedAt(row.getUploadedAt());
+        doc.setFileSize(row.getFileSize());
+        return new IndexQueryBuilder().withId(doc.getId()).withObject(doc).build();
+    }
+
+    private void putTemplate() {
+        IndexOperations ops = operations.indexOps(DocumentSearch.class);
+        operations.indexOps(IndexCoordinates.of(ALIAS)).putIndexTemplate(PutIndexTemplateRequest.builder()
+                .withName(TEMPLATE_NAME)
+                .withIndexPatterns(INDEX_PREFIX + "*")
+                .withSettings(ops.createSettings(DocumentSearch.class))
+                .withMapping(ops.createMapping(DocumentSearch.class))
+                .build());
+    }
+
+    /** Indices currently behind the alias; contains "documents" itself if that is still a real index. */
+    private Set<String> currentAliasTargets() {
+        IndexOperations ops = operations.indexOps(IndexCoordinates.of(ALIAS));
+        if (!ops.exists()) {
+            return new HashSet<>();
+        }
+        return ops.getInformation().stream()
+                .map(IndexInformation::getName)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private int highestVersion() {
+        int highest = 0;
+        List<IndexInformation> indices = operations.indexOps(IndexCoordinates.of(INDEX_PREFIX + "*")).getInformation();
+        for (IndexInformation index : indices) {
+            Matcher m = VERSIONED_INDEX.matcher(index.getName());
+            if (m.matches()) {
+                highest = Math.max(highest, Integer.parseInt(m.group(1)));
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * Points the alias at {@code newIndex} in a single _aliases call, so there is
+     * no moment where searches see no index or two indices.
+     */
+    private void swapAlias(String newIndex, Set<String> oldTargets, boolean dropConcreteIndex) {
+        AliasActions actions = new AliasActions();
+        if (dropConcreteIndex) {
+            // Pre-alias deployments have a real index called "documents"; it must go in the same call
+            actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(ALIAS).build()));
+        }
+        for (String old : oldTargets) {
+            actions.add(new AliasAction.Remove(AliasActionParameters.builder()
+                    .withIndices(old).withAliases(ALIAS).build()));
+        }
+        actions.add(new AliasAction.Add(AliasActionParameters.builder()
+                .withIndices(newIndex).withAliases(ALIAS).withIsWriteIndex(true).build()));
+        operations.indexOps(IndexCoordinates.of(newIndex)).alias(actions);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdownNow();
+        bulkPool.shutdownNow();
+    }
+
+    /** Mutable progress of one reindex run, read concurrently by {@link #getStatus()}. */
+    private static final class Run {
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong indexed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        // Documents that did not make it into the target index; retried after the swap
+        private final Set<Long> failedIds = ConcurrentHashMap.newKeySet();
+        private volatile String targetIndex;
+        private volatile String previousIndex;
+        private volatile Instant finishedAt;
+        private volatile ReindexStatus.State state = ReindexStatus.State.RUNNING;
+        private volatile String error;
+
+        void progress(int count) {
+            long before = indexed.getAndAdd(count);
+            if ((before + count) / PROGRESS_LOG_INTERVAL > before / PROGRESS_LOG_INTERVAL) {
+                log.info("Reindex progress: {}/{} documents ({} docs/s)",
+                        before + count, total.get(), String.format("%.1f", throughput()));
+            }
+        }
+
+        double throughput() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+            return indexed.get() * 1000.0 / millis;
+        }
+
+        void complete() {
+            finishedAt = Instant.now();
+            state = ReindexStatus.State.COMPLETED;
+        }
+
+        void partial(String error) {
+            finishedAt = Instant.now();
+            this.error = error;
+            state = ReindexStatus.State.PARTIAL;
+        }
+
+        void fail(Exception e) {
+            finishedAt = Instant.now();
+            error = e.getMessage();
+            state = ReindexStatus.State.FAILED;
+        }
+
+        ReindexStatus snapshot() {
+            return new ReindexStatus(state, targetIndex, previousIndex, total.get(), indexed.get(),
+                    failed.get(), throughput(), startedAt, finishedAt, error);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package org.swen.dms.service;
 
+import org.swen.dms.dto.SearchResult;
 import org.swen.dms.entity.DocumentSearch;
 import java.util.List;
 
 public interface SearchService {
     List<DocumentSearch> searchDocuments(String query);
+    SearchResult search(String query);
+    SearchResult searchWithFacets(String query, String category);
 }
@@ -1,32 +1,245 @@
 package org.swen.dms.service;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.stereotype.Service;
+import org.swen.dms.dto.FacetBucket;
+import org.swen.dms.dto.SearchResult;
 import org.swen.dms.entity.DocumentSearch;
+import org.swen.dms.helper.CategoryPaths;
+import org.swen.dms.helper.CircuitBreaker;
+import org.swen.dms.repository.jpa.DocumentIndexView;
+import org.swen.dms.repository.jpa.DocumentRepository;
 import org.swen.dms.repository.search.DocumentSearchRepository;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+/**
+ * Search over Elasticsearch with a Postgres full-text fallback.
+ *
+ * Every Elasticsearch call runs on a small bounded pool and must answer within
+ * {@code dms.search.latency-budget-ms}. Errors and timeouts are counted by a circuit breaker;
+ * while it is open, queries go straight to the {@code search_vector} GIN index in Postgres
+ * instead of waiting on a dead cluster. {@link SearchResult#getEngine()} reports who answered.
+ */
 @Service
 public class SearchServiceImpl implements SearchService {
 
     private static final Logger log = LoggerFactory.getLogger(SearchServiceImpl.class);
 
+    static final String FACET_CATEGORIES = "categories";
+    static final String FACET_UPLOADED_AT = "uploadedAt";
+    static final String FACET_FILE_SIZE = "fileSize";
+
+    private static final int MAX_HITS = 100;
+    private static final int MAX_CATEGORY_BUCKETS = 50;
+
     private final DocumentSearchRepository repository;
+    private final ElasticsearchOperations operations;
+    private final DocumentRepository documentRepo;
+    private final CircuitBreaker breaker;
+    private final long latencyBudgetMs;
+
+    // Bounded so a hanging cluster cannot pile up request threads; rejections count as failures
+    private final ThreadPoolExecutor esExecutor = new ThreadPoolExecutor(
+            4, 16, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64),
+            r -> {
+                Thread t = new Thread(r, "es-search");
+                t.setDaemon(true);
+                return t;
+            });
 
-    public SearchServiceImpl(DocumentSearchRepository repository) {
+    public SearchServiceImpl(DocumentSearchRepository repository,
+                             ElasticsearchOperations operations,
+                             DocumentRepository documentRepo,
+                             @Value("${dms.search.latency-budget-ms:800}") long latencyBudgetMs,
+                             @Value("${dms.search.breaker.failure-threshold:3}") int failureThreshold,
+                             @Value("${dms.search.breaker.open-ms:30000}") long openMillis) {
         this.repository = repository;
+        this.operations = operations;
+        this.documentRepo = documentRepo;
+        this.latencyBudgetMs = latencyBudgetMs;
+        this.breaker = new CircuitBreaker(failureThreshold, openMillis);
     }
 
     @Override
     public List<DocumentSearch> searchDocuments(String query) {
-        try {
-            return repository.searchByContent(query);
+        return search(query).getHits();
+    }
+
+    @Override
+    public SearchResult search(String query) {
+        return withFallback(query, null, () -> {
+            List<DocumentSearch> hits = repository.searchByContent(query);
+            return new SearchResult(SearchResult.ENGINE_ELASTICSEARCH, hits, hits.size(), Map.of());
+        });
+    }
+
+    /**
+     * Runs the full-text query and computes the category, upload month and size facets
+     * in the same Elasticsearch request, so no document or category has to be loaded
+     * from Postgres to get the counts.
+     */
+    @Override
+    public SearchResult searchWithFacets(String query, String category) {
+        return withFallback(query, category, () -> {
+            NativeQuery nativeQuery = NativeQuery.builder()
+                    .withQuery(buildQuery(query, category))
+                    .withAggregation(FACET_CATEGORIES, Aggregation.of(a -> a
+                            .terms(t -> t.field(FACET_CATEGORIES).size(MAX_CATEGORY_BUCKETS))))
+                    .withAggregation(FACET_UPLOADED_AT, Aggregation.of(a -> a
+                            .dateHistogram(d -> d.field(FACET_UPLOADED_AT)
+                                    .calendarInterval(CalendarInterval.Month)
+                                    .format("yyyy-MM")
+                                    .minDocCount(1))))
+                    .withAggregation(FACET_FILE_SIZE, Aggregation.of(a -> a
+                            .range(r -> r.field(FACET_FILE_SIZE).ranges(
+                                    range("< 100 KB", null, 100 * 1024.0),
+                                    range("100 KB - 1 MB", 100 * 1024.0, 1024 * 1024.0),
+                                    range("1 MB - 10 MB", 1024 * 1024.0, 10 * 1024 * 1024.0),
+                                    range("> 10 MB", 10 * 1024 * 1024.0, null)))))
+                    .withMaxResults(MAX_HITS)
+                    .withTrackTotalHits(true)
+                    .build();
 
+            SearchHits<DocumentSearch> searchHits = operations.search(nativeQuery, DocumentSearch.class);
+
+            List<DocumentSearch> hits = searchHits.getSearchHits().stream()
+                    .map(SearchHit::getContent)
+                    .toList();
+
+            return new SearchResult(SearchResult.ENGINE_ELASTICSEARCH, hits, searchHits.getTotalHits(), toFacets(searchHits));
+        });
+    }
+
+    private SearchResult withFallback(String query, String category, Supplier<SearchResult> elasticsearchCall) {
+        if (breaker.allowRequest()) {
+            Future<SearchResult> future = null;
+            try {
+                future = esExecutor.submit(elasticsearchCall::get);
+                SearchResult result = future.get(latencyBudgetMs, TimeUnit.MILLISECONDS);
+                breaker.recordSuccess();
+                return result;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Elasticsearch search exceeded {} ms, falling back to Postgres", latencyBudgetMs);
+                breaker.recordFailure();
+            } catch (ExecutionException e) {
+                log.error("Elasticsearch search failed: {}", e.getCause().getMessage());
+                breaker.recordFailure();
+            } catch (RejectedExecutionException e) {
+                log.warn("Elasticsearch search pool saturated, falling back to Postgres");
+                breaker.recordFailure();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                breaker.recordFailure();
+            }
+        }
+        return searchPostgres(query, category);
+    }
+
+    // Same category filter as Elasticsearch: the category and everything below it
+    private SearchResult searchPostgres(String query, String category) {
+        try {
+            String path = CategoryPaths.normalize(category);
+            List<DocumentIndexView> rows = path.isEmpty()
+                    ? documentRepo.searchFullText(query, MAX_HITS)
+                    : documentRepo.searchFullTextInCategory(query, path, CategoryPaths.descendantsPattern(path), MAX_HITS);
+            List<DocumentSearch> hits = rows.stream()
+                    .map(SearchServiceImpl::toSearchDocument)
+                    .toList();
+            return new SearchResult(SearchResult.ENGINE_POSTGRES, hits, hits.size(), Map.of());
         } catch (Exception e) {
-            log.error("Elasticsearch search failed: {}", e.getMessage());
-            return List.of();
+            log.error("Postgres fallback search failed: {}", e.getMessage());
+            return new SearchResult(SearchResult.ENGINE_POSTGRES, List.of(), 0, Map.of());
         }
     }
-}
\ No newline at end of file
+
+    private static DocumentSearch toSearchDocument(DocumentIndexView row) {
+        DocumentSearch doc = new DocumentSearch(String.valueOf(row.getId()), row.getTitle(), row.getOcrText());
+        doc.setUploadedAt(row.getUploadedAt());
+        doc.setFileSize(row.getFileSize());
+        return doc;
+    }
+
+    private static Query buildQuery(String query, String category) {
+        return Query.of(q -> q.bool(b -> {
+            b.must(m -> m.match(mt -> mt.field("content").query(query).fuzziness("AUTO")));
+            // Documents are indexed with every ancestor path, so this matches the whole subtree
+            String path = CategoryPaths.normalize(category);
+            if (!path.isEmpty()) {
+                b.filter(f -> f.term(t -> t.field(FACET_CATEGORIES).value(path)));
+            }
+            return b;
+        }));
+    }
+
+    private static AggregationRange range(String key, Double from, Double to) {
+        return AggregationRange.of(r -> r.key(key).from(from).to(to));
+    }
+
+    private static Map<String, List<FacetBucket>> toFacets(SearchHits<DocumentSearch> searchHits) {
+        Map<String, List<FacetBucket>> facets = new LinkedHashMap<>();
+        if (!(searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations)) {
+            return facets;
+        }
+
+        Map<String, ElasticsearchAggregation> byName = aggregations.aggregationsAsMap();
+
+        Aggregate categories = aggregate(byName, FACET_CATEGORIES);
+        if (categories != null && categories.isSterms()) {
+            facets.put(FACET_CATEGORIES, categories.sterms().buckets().array().stream()
+                    .map(b -> new FacetBucket(b.key().stringValue(), b.docCount()))
+                    .toList());
+        }
+
+        Aggregate uploadedAt = aggregate(byName, FACET_UPLOADED_AT);
+        if (uploadedAt != null && uploadedAt.isDateHistogram()) {
+            facets.put(FACET_UPLOADED_AT, uploadedAt.dateHistogram().buckets().array().stream()
+                    .map(b -> new FacetBucket(b.keyAsString(), b.docCount()))
+                    .toList());
+        }
+
+        Aggregate fileSize = aggregate(byName, FACET_FILE_SIZE);
+        if (fileSize != null && fileSize.isRange()) {
+            facets.put(FACET_FILE_SIZE, fileSize.range().buckets().array().stream()
+                    .map(b -> new FacetBucket(b.key(), b.docCount()))
+                    .toList());
+        }
+
+        return facets;
+    }
+
+    private static Aggregate aggregate(Map<String, ElasticsearchAggregation> byName, String name) {
+        ElasticsearchAggregation aggregation = byName.get(name);
+        return aggregation == null ? null : aggregation.aggregation().getAggregate();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        esExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package org.swen.dms.service;
+
+import org.swen.dms.dto.TrendingDocument;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate "trending documents": heavy hitters of the recent access stream, with older
+ * accesses decaying away. Bounded memory, no database query per request.
+ */
+public interface TrendingService {
+
+    /** Feeds access counts (document id to number of accesses). */
+    void record(Map<Long, Long> accessCounts);
+
+    List<TrendingDocument> top(int limit);
+}
@@ -0,0 +1,210 @@
+package org.swen.dms.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.swen.dms.dto.TrendingDocument;
+import org.swen.dms.helper.CountMinSketch;
+import org.swen.dms.helper.SpaceSavingTopK;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.repository.jpa.DocumentTitleView;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks trending documents with a {@link CountMinSketch} (point estimates for any document)
+ * and a {@link SpaceSavingTopK} summary (the heavy hitters), fed with the flushed download
+ * counts and the access-log import chunks.
+ * <p>
+ * All counts decay exponentially with a half-life of {@code dms.trending.half-life-hours}, applied
+ * every {@code dms.trending.decay-interval-ms}. Memory is fixed by {@code dms.trending.width},
+ * {@code dms.trending.depth} and {@code dms.trending.capacity}.
+ * <p>
+ * The state is written to {@code trending_snapshots} every {@code dms.trending.snapshot-ms} and on
+ * shutdown, and restored (decayed by the time it was offline) on startup. A snapshot is only
+ * written if counts were recorded since the last one, so an instance without downloads or
+ * imports (e.g. the worker service, which runs the same jar) never overwrites the state of the
+ * one that has them. With several instances that count, each keeps its own view and the last
+ * snapshot wins.
+ */
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingServiceImpl.class);
+
+    static final String SNAPSHOT_NAME = "documents";
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final double DROP_BELOW = 0.01;
+    static final int MAX_LIMIT = 100;
+
+    private final DocumentRepository documentRepo;
+    private final JdbcTemplate jdbc;
+    private final long halfLifeMillis;
+
+    private final CountMinSketch sketch;
+    private final SpaceSavingTopK topK;
+    private long lastDecay = System.currentTimeMillis();
+    private boolean recordedSinceSnapshot;
+
+    public TrendingServiceImpl(DocumentRepository documentRepo,
+                               JdbcTemplate jdbc,
+                               @Value("${dms.trending.width:2048}") int width,
+                               @Value("${dms.trending.depth:4}") int depth,
+                               @Value("${dms.trending.capacity:1000}") int capacity,
+                               @Value("${dms.trending.half-life-hours:24}") double halfLifeHours) {
+        this.documentRepo = documentRepo;
+        this.jdbc = jdbc;
+        this.halfLifeMillis = (long) (halfLifeHours * 3_600_000);
+        this.sketch = new CountMinSketch(width, depth);
+        this.topK = new SpaceSavingTopK(capacity);
+    }
+
+    @Override
+    public synchronized void record(Map<Long, Long> accessCounts) {
+        accessCounts.forEach((id, n) -> {
+            if (n > 0) {
+                double estimate = sketch.add(id, n);
+                topK.add(id, n, estimate);
+                recordedSinceSnapshot = true;
+            }
+        });
+    }
+
+    @Override
+    public List<TrendingDocument> top(int limit) {
+        limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<SpaceSavingTopK.Counter> top;
+        synchronized (this) {
+            // A few extra in case some were deleted
+            top = topK.top(limit + 10);
+        }
+        if (top.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, String> titles = documentRepo.findTitlesByIdIn(top.stream().map(SpaceSavingTopK.Counter::key).toList())
+                .stream().collect(Collectors.toMap(DocumentTitleView::getId, DocumentTitleView::getTitle));
+        List<TrendingDocument> result = new ArrayList<>(limit);
+        for (SpaceSavingTopK.Counter c : top) {
+            String title = titles.get(c.key());
+            if (title != null && result.size() < limit) {
+                result.add(new TrendingDocument(c.key(), title, c.count(), c.count() - c.error()));
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${dms.trending.decay-interval-ms:60000}")
+    public synchronized void decay() {
+        long now = System.currentTimeMillis();
+        decayBy(now - lastDecay);
+        lastDecay = now;
+    }
+
+    private void decayBy(long elapsedMillis) {
+        if (elapsedMillis <= 0 || halfLifeMillis <= 0) {
+            return;
+        }
+        double factor = Math.pow(0.5, (double) elapsedMillis / halfLifeMillis);
+        sketch.scale(factor);
+        topK.scale(factor, DROP_BELOW);
+    }
+
+    @Scheduled(fixedDelayString = "${dms.trending.snapshot-ms:300000}", initialDelayString = "${dms.trending.snapshot-ms:300000}")
+    public void snapshot() {
+        try {
+            byte[] data;
+            synchronized (this) {
+                // Nothing new: the stored snapshot is this state, restore applies the decay since
+                if (!recordedSinceSnapshot) {
+                    return;
+                }
+                data = serialize();
+                recordedSinceSnapshot = false;
+            }
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            try {
+                jdbc.update("INSERT INTO trending_snapshots (name, taken_at, data) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (name) DO UPDATE SET taken_at = EXCLUDED.taken_at, data = EXCLUDED.data",
+                        SNAPSHOT_NAME, now, data);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    recordedSinceSnapshot = true;
+                }
+                throw e;
+            }
+            log.debug("Trending snapshot written ({} bytes)", data.length);
+        } catch (Exception e) {
+            log.error("Writing trending snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * This runs automatically on startup.
+     * Restores the last snapshot, decayed by the time since it was taken.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            List<Map<String, Object>> rows = jdbc.queryForList(
+                    "SELECT taken_at, data FROM trending_snapshots WHERE name = ?", SNAPSHOT_NAME);
+            if (rows.isEmpty()) {
+                return;
+            }
+            Timestamp takenAt = (Timestamp) rows.get(0).get("taken_at");
+            byte[] data = (byte[]) rows.get(0).get("data");
+            synchronized (this) {
+                deserialize(data);
+                decayBy(System.currentTimeMillis() - takenAt.getTime());
+                lastDecay = System.currentTimeMillis();
+            }
+            log.info("Trending state restored from snapshot of {} ({} documents tracked)", takenAt, topK.size());
+        } catch (Exception e) {
+            // Log the error but allow the app to keep running
+            log.warn("Could not restore trending snapshot, starting empty: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshot();
+    }
+
+    byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SNAPSHOT_VERSION);
+            sketch.writeTo(out);
+            topK.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    void deserialize(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readInt();
+            if (version != SNAPSHOT_VERSION) {
+                throw new IOException("Unknown snapshot version " + version);
+            }
+            if (!sketch.readFrom(in)) {
+                log.warn("Trending sketch dimensions changed, only the top-K counters are restored");
+            }
+            topK.readFrom(in);
+        }
+    }
+}
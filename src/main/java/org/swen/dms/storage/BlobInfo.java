@@ -0,0 +1,10 @@
+package org.swen.dms.storage;
+
+import java.time.Instant;
+
+/**
+ * Metadata of a stored object, as returned by {@link BlobStore#stat(String)}.
+ * {@code contentType} is null where the backend does not keep it.
+ */
+public record BlobInfo(String key, long size, String contentType, Instant lastModified) {
+}
@@ -0,0 +1,88 @@
+package org.swen.dms.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage for document files, addressed by file key.
+ * <p>
+ * The backend is chosen with {@code dms.storage.backend}: {@code minio} (default,
+ * {@link MinioBlobStore}) or {@code local} ({@link LocalBlobStore}), which avoids the S3 HTTP
+ * round trips on single-node deployments.
+ * <p>
+ * A missing object is reported as {@link java.nio.file.NoSuchFileException} by every backend.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores {@code size} bytes from {@code in} under {@code key}, replacing any existing object.
+     * The object is durable (and visible to readers) only once this returns.
+     */
+    void put(String key, InputStream in, long size, String contentType) throws IOException;
+
+    /** Streams the whole object. The caller closes the stream. */
+    InputStream get(String key) throws IOException;
+
+    /** Streams {@code length} bytes from {@code offset} (fewer if the object ends first). */
+    InputStream get(String key, long offset, long length) throws IOException;
+
+    /** Deletes the object; deleting a missing object is not an error. */
+    void delete(String key) throws IOException;
+
+    /**
+     * Deletes all the objects in as few requests as the backend allows.
+     *
+     * @return the keys that could not be deleted (empty if all succeeded)
+     */
+    List<String> deleteAll(Collection<String> keys) throws IOException;
+
+    /** Size and modification time of the object, empty if it does not exist. */
+    Optional<BlobInfo> stat(String key) throws IOException;
+
+    /**
+     * Starts a multipart upload of {@code key}. Parts are stored with {@link #uploadPart}, in any
+     * order and each in its own request, and joined by {@link #completeMultipart}; the object does
+     * not exist until then.
+     *
+     * @return the id of the upload
+     */
+    String startMultipart(String key, String contentType) throws IOException;
+
+    /**
+     * Stores part {@code partNumber} (1 to 10000) of an upload, replacing an earlier attempt at the
+     * same part. S3 requires every part but the last to have at least 5 MiB.
+     *
+     * @throws java.nio.file.NoSuchFileException if the upload was completed or aborted
+     */
+    PartInfo uploadPart(String key, String uploadId, int partNumber, InputStream in, long size) throws IOException;
+
+    /**
+     * The parts stored so far, by part number.
+     *
+     * @throws java.nio.file.NoSuchFileException if the upload was completed or aborted
+     */
+    List<PartInfo> listParts(String key, String uploadId) throws IOException;
+
+    /** Joins {@code parts}, in the given order, into the object; the upload ends. */
+    void completeMultipart(String key, String uploadId, List<PartInfo> parts) throws IOException;
+
+    /** Discards the upload and its parts; aborting an upload that no longer exists is not an error. */
+    void abortMultipart(String key, String uploadId) throws IOException;
+
+    /**
+     * A short-lived URL from which the client can download the object itself, offered as
+     * {@code downloadName} if given. Empty if the backend only serves bytes through the application
+     * (the local filesystem) or presigning is turned off.
+     */
+    default Optional<PresignedUrl> presignGet(String key, String downloadName) throws IOException {
+        return Optional.empty();
+    }
+
+    /** A short-lived URL to which the client can PUT the object itself; empty as for {@link #presignGet}. */
+    default Optional<PresignedUrl> presignPut(String key) throws IOException {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,79 @@
+package org.swen.dms.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Stream over a range of a file. {@link #transferTo(OutputStream)} hands the rest of the range to
+ * {@link FileChannel#transferTo}, so copying it into another file is done by the kernel; a servlet
+ * response stream still gets the bytes through a small heap buffer. Closing the stream closes the
+ * channel.
+ */
+class ChannelInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private long position;
+    private final long end;
+
+    ChannelInputStream(FileChannel channel, long offset, long length) {
+        this.channel = channel;
+        this.position = offset;
+        this.end = length > Long.MAX_VALUE - offset ? Long.MAX_VALUE : offset + length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long limit = Math.min(end, channel.size());
+        if (position >= limit) {
+            return -1;
+        }
+        int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, limit - position)), position);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = Math.max(0, Math.min(n, Math.min(end, channel.size()) - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, Math.min(end, channel.size()) - position));
+    }
+
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long limit = Math.min(end, channel.size());
+        long start = position;
+        while (position < limit) {
+            long n = channel.transferTo(position, limit - position, target);
+            if (n <= 0) {
+                break;
+            }
+            position += n;
+        }
+        return position - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,258 @@
+package org.swen.dms.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * {@link BlobStore} on the local filesystem, under {@code dms.storage.local.root}.
+ * <p>
+ * Objects are plain files named by their key. A put copies into a temporary file with
+ * {@link FileChannel#transferFrom}, fsyncs it, renames it into place atomically and fsyncs the
+ * directory, so after a crash an object is either complete or absent. Reads return streams whose
+ * {@link InputStream#transferTo} uses {@link FileChannel#transferTo}, which lets the kernel copy
+ * the bytes when the target is a file or socket channel.
+ * <p>
+ * A multipart upload is a directory under {@code .uploads} in the root, named by the upload id,
+ * with one file per part, each written like an object. Completing concatenates them into the
+ * object and removes the directory.
+ */
+@Component
+@ConditionalOnProperty(name = "dms.storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalBlobStore.class);
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String UPLOADS_DIR = ".uploads";
+    private static final String PART_NAME = "part-%05d";
+    private static final String PART_GLOB = "part-[0-9][0-9][0-9][0-9][0-9]";
+    private static final int MAX_PARTS = 10_000;
+
+    private final Path root;
+    private final Path uploads;
+
+    public LocalBlobStore(@Value("${dms.storage.local.root:/var/lib/dms/blobs}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.uploads = this.root.resolve(UPLOADS_DIR);
+        Files.createDirectories(this.root);
+        log.info("Storing documents under {}", this.root);
+    }
+
+    @Override
+    public void put(String key, InputStream in, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        writeAtomically(target, in, size, key);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        return new ChannelInputStream(channel, 0, Long.MAX_VALUE);
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid range " + offset + "+" + length);
+        }
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        return new ChannelInputStream(channel, offset, length);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public List<String> deleteAll(Collection<String> keys) throws IOException {
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                delete(key);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Could not delete object {}: {}", key, e.getMessage());
+                failed.add(key);
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            return Optional.of(new BlobInfo(key, attrs.size(), null, attrs.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String startMultipart(String key, String contentType) throws IOException {
+        resolve(key);
+        String uploadId = UUID.randomUUID().toString();
+        Files.createDirectories(uploads.resolve(uploadId));
+        return uploadId;
+    }
+
+    @Override
+    public PartInfo uploadPart(String key, String uploadId, int partNumber, InputStream in, long size) throws IOException {
+        if (partNumber < 1 || partNumber > MAX_PARTS) {
+            throw new IllegalArgumentException("Invalid part number " + partNumber);
+        }
+        writeAtomically(uploadDir(uploadId).resolve(String.format(PART_NAME, partNumber)), in, size, key);
+        return new PartInfo(partNumber, null, size);
+    }
+
+    @Override
+    public List<PartInfo> listParts(String key, String uploadId) throws IOException {
+        List<PartInfo> parts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir(uploadId), PART_GLOB)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int partNumber = Integer.parseInt(name.substring(name.indexOf('-') + 1));
+                parts.add(new PartInfo(partNumber, null, Files.size(file)));
+            }
+        }
+        parts.sort(Comparator.comparingInt(PartInfo::partNumber));
+        return parts;
+    }
+
+    // Concatenates the parts into a temporary file with transferTo, then renames it like a put
+    @Override
+    public void completeMultipart(String key, String uploadId, List<PartInfo> parts) throws IOException {
+        Path dir = uploadDir(uploadId);
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tmp = tempFileFor(target);
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                for (PartInfo part : parts) {
+                    try (FileChannel in = FileChannel.open(dir.resolve(String.format(PART_NAME, part.partNumber())),
+                            StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = in.size();
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+                out.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(target.getParent());
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        deleteRecursively(dir);
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) throws IOException {
+        try {
+            deleteRecursively(uploadDir(uploadId));
+        } catch (NoSuchFileException e) {
+            // Already completed or aborted
+        }
+    }
+
+    // Upload ids are UUIDs we generated; anything else cannot name an upload
+    private Path uploadDir(String uploadId) throws NoSuchFileException {
+        Path dir;
+        try {
+            dir = uploads.resolve(UUID.fromString(uploadId).toString());
+        } catch (IllegalArgumentException e) {
+            throw new NoSuchFileException(uploadId);
+        }
+        if (!Files.isDirectory(dir)) {
+            throw new NoSuchFileException(uploadId);
+        }
+        return dir;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Copies into a temporary file next to the target, fsyncs it, renames it into place atomically
+    // and fsyncs the directory
+    private static void writeAtomically(Path target, InputStream in, long size, String key) throws IOException {
+        Path tmp = tempFileFor(target);
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ReadableByteChannel src = Channels.newChannel(in);
+                long remaining = size < 0 ? Long.MAX_VALUE : size;
+                long position = 0;
+                while (remaining > 0) {
+                    long n = out.transferFrom(src, position, remaining);
+                    if (n <= 0) {
+                        break;
+                    }
+                    position += n;
+                    remaining -= n;
+                }
+                if (size >= 0 && position != size) {
+                    throw new IOException("Expected " + size + " bytes for " + key + " but got " + position);
+                }
+                out.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(target.getParent());
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static Path tempFileFor(Path target) {
+        return target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + TMP_SUFFIX);
+    }
+
+    // Keys may contain '/', but must stay below the root and out of the multipart staging area
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (key.isBlank() || !path.startsWith(root) || path.equals(root) || path.startsWith(uploads)
+                || path.getFileName().toString().endsWith(TMP_SUFFIX)) {
+            throw new IllegalArgumentException("Invalid object key: '" + key + "'");
+        }
+        return path;
+    }
+
+    // Makes the rename durable; not every platform can open a directory, which is fine there
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not fsync {}: {}", dir, e.getMessage());
+        }
+    }
+}
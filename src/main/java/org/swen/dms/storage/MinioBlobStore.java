@@ -0,0 +1,276 @@
+package org.swen.dms.storage;
+
+import io.minio.BucketExistsArgs;
+import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.ListObjectsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import io.minio.messages.Part;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * {@link BlobStore} on a MinIO (S3) bucket, {@code dms.storage.minio.bucket}.
+ * <p>
+ * Presigned URLs are signed with a separate client for the endpoint clients reach
+ * ({@code dms.storage.minio.public-endpoint}), since the signature covers the host. Signing is
+ * local and needs no request to MinIO.
+ * <p>
+ * Multipart uploads go through {@link MinioMultipartClient}.
+ */
+public class MinioBlobStore implements BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MinioBlobStore.class);
+
+    private static final String NO_SUCH_KEY = "NoSuchKey";
+    private static final String NO_SUCH_UPLOAD = "NoSuchUpload";
+
+    private final MinioClient minio;
+    private final MinioMultipartClient multipart;
+    private final MinioClient presigner;
+    private final String bucket;
+    private final Duration getTtl;
+    private final Duration putTtl;
+
+    /**
+     * @param multipart for multipart uploads, on the same endpoint as {@code minio}
+     * @param presigner signs presigned URLs; built for the public endpoint
+     * @param getTtl    lifetime of download URLs; zero turns them off
+     * @param putTtl    lifetime of upload URLs; zero turns them off
+     */
+    public MinioBlobStore(MinioClient minio, MinioMultipartClient multipart, MinioClient presigner, String bucket,
+                          Duration getTtl, Duration putTtl) {
+        this.minio = minio;
+        this.multipart = Objects.requireNonNull(multipart, "multipart");
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.getTtl = getTtl;
+        this.putTtl = putTtl;
+    }
+
+    @Override
+    public void put(String key, InputStream in, long size, String contentType) throws IOException {
+        call(key, () -> minio.putObject(PutObjectArgs.builder()
+                .bucket(bucket)
+                .object(key)
+                .stream(in, size, -1)
+                .contentType(contentType)
+                .build()));
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return call(key, () -> minio.getObject(GetObjectArgs.builder().bucket(bucket).object(key).build()));
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        return call(key, () -> minio.getObject(GetObjectArgs.builder()
+                .bucket(bucket)
+                .object(key)
+                .offset(offset)
+                .length(length)
+                .build()));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        call(key, () -> {
+            minio.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(key).build());
+            return null;
+        });
+    }
+
+    // One multi-object delete request per 1000 keys (the S3 limit, batched by the client)
+    @Override
+    public List<String> deleteAll(Collection<String> keys) throws IOException {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<DeleteObject> objects = keys.stream().map(DeleteObject::new).toList();
+        Iterable<Result<DeleteError>> results = minio.removeObjects(
+                RemoveObjectsArgs.builder().bucket(bucket).objects(objects).build());
+
+        // The requests are only sent while iterating
+        List<String> failed = new ArrayList<>();
+        for (Result<DeleteError> result : results) {
+            DeleteError error = call(null, result::get);
+            log.warn("Could not delete object {}: {}", error.objectName(), error.message());
+            failed.add(error.objectName());
+        }
+        return failed;
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        try {
+            StatObjectResponse stat = call(key, () ->
+                    minio.statObject(StatObjectArgs.builder().bucket(bucket).object(key).build()));
+            return Optional.of(new BlobInfo(key, stat.size(), stat.contentType(), stat.lastModified().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String startMultipart(String key, String contentType) throws IOException {
+        return call(key, () -> multipart.create(bucket, key, contentType));
+    }
+
+    @Override
+    public PartInfo uploadPart(String key, String uploadId, int partNumber, InputStream in, long size) throws IOException {
+        String etag = call(key, () -> multipart.uploadPart(bucket, key, uploadId, partNumber, in, size));
+        return new PartInfo(partNumber, etag, size);
+    }
+
+    @Override
+    public List<PartInfo> listParts(String key, String uploadId) throws IOException {
+        return call(key, () -> multipart.listParts(bucket, key, uploadId)).stream()
+                .map(part -> new PartInfo(part.partNumber(), part.etag(), part.partSize()))
+                .sorted(Comparator.comparingInt(PartInfo::partNumber))
+                .toList();
+    }
+
+    @Override
+    public void completeMultipart(String key, String uploadId, List<PartInfo> parts) throws IOException {
+        Part[] completed = parts.stream().map(part -> new Part(part.partNumber(), part.etag())).toArray(Part[]::new);
+        call(key, () -> {
+            multipart.complete(bucket, key, uploadId, completed);
+            return null;
+        });
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) throws IOException {
+        try {
+            call(key, () -> {
+                multipart.abort(bucket, key, uploadId);
+                return null;
+            });
+        } catch (NoSuchFileException e) {
+            // Already completed or aborted
+        }
+    }
+
+    @Override
+    public Optional<PresignedUrl> presignGet(String key, String downloadName) throws IOException {
+        if (getTtl.isZero()) {
+            return Optional.empty();
+        }
+        Map<String, String> params = downloadName == null ? Map.of()
+                : Map.of("response-content-disposition",
+                         "attachment; filename=\"" + downloadName.replace("\"", "") + "\"");
+        return Optional.of(presign(key, Method.GET, getTtl, params));
+    }
+
+    @Override
+    public Optional<PresignedUrl> presignPut(String key) throws IOException {
+        if (putTtl.isZero()) {
+            return Optional.empty();
+        }
+        return Optional.of(presign(key, Method.PUT, putTtl, Map.of()));
+    }
+
+    private PresignedUrl presign(String key, Method method, Duration ttl, Map<String, String> params) throws IOException {
+        Instant expiresAt = Instant.now().plus(ttl);
+        String url = call(key, () -> presigner.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                .method(method)
+                .bucket(bucket)
+                .object(key)
+                .expiry((int) ttl.toSeconds())
+                .extraQueryParams(params)
+                .build()));
+        return new PresignedUrl(url, expiresAt);
+    }
+
+    /**
+     * Every object in the bucket, listed page by page while iterating. The content type is not
+     * part of a listing and is null.
+     *
+     * @throws UncheckedIOException from the iterator if a page cannot be fetched
+     */
+    public Iterable<BlobInfo> list() {
+        Iterable<Result<Item>> results = minio.listObjects(
+                ListObjectsArgs.builder().bucket(bucket).recursive(true).build());
+        return () -> new Iterator<>() {
+            private final Iterator<Result<Item>> it = results.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public BlobInfo next() {
+                try {
+                    Item item = call(null, it.next()::get);
+                    return new BlobInfo(item.objectName(), item.size(), null,
+                            item.lastModified() == null ? null : item.lastModified().toInstant());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /** Creates the bucket unless it exists; used on startup. */
+    public void createBucketIfMissing() throws IOException {
+        call(bucket, () -> {
+            if (!minio.bucketExists(BucketExistsArgs.builder().bucket(bucket).build())) {
+                minio.makeBucket(MakeBucketArgs.builder().bucket(bucket).build());
+                log.info("Created bucket '{}'", bucket);
+            }
+            return null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface MinioCall<T> {
+        T call() throws Exception;
+    }
+
+    // Maps the client's many checked exceptions onto IOException, NoSuchKey and NoSuchUpload onto
+    // NoSuchFileException
+    private static <T> T call(String key, MinioCall<T> call) throws IOException {
+        try {
+            return call.call();
+        } catch (ErrorResponseException e) {
+            String code = e.errorResponse().code();
+            if (NO_SUCH_KEY.equals(code) || NO_SUCH_UPLOAD.equals(code)) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException("Object store request failed: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Object store request failed: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.swen.dms.storage;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.ListPartsResponse;
+import io.minio.MinioAsyncClient;
+import io.minio.messages.Part;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The S3 multipart calls, which minio-java only offers to subclasses of {@link MinioAsyncClient}
+ * (its {@code putObject} uses them internally). The calls block on the asynchronous requests, like
+ * {@link io.minio.MinioClient}, and throw the same exceptions (e.g. {@link io.minio.errors.ErrorResponseException}).
+ * <p>
+ * A part sent as an {@link InputStream} is buffered in memory by the client before it is signed,
+ * so parts should be a few MiB, not the whole object.
+ */
+public class MinioMultipartClient extends MinioAsyncClient {
+
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    public MinioMultipartClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    public String create(String bucket, String object, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        return await(createMultipartUploadAsync(bucket, null, object, headers, HashMultimap.create()))
+                .result().uploadId();
+    }
+
+    /** @return the ETag of the part, needed to complete the upload */
+    public String uploadPart(String bucket, String object, String uploadId, int partNumber,
+                             InputStream in, long size) throws Exception {
+        return await(uploadPartAsync(bucket, null, object, in, size, uploadId, partNumber,
+                HashMultimap.create(), HashMultimap.create())).etag();
+    }
+
+    /** All parts of the upload, fetched 1000 per request. */
+    public List<Part> listParts(String bucket, String object, String uploadId) throws Exception {
+        List<Part> parts = new ArrayList<>();
+        Integer marker = null;
+        while (true) {
+            ListPartsResponse page = await(listPartsAsync(bucket, null, object, LIST_PAGE_SIZE, marker, uploadId,
+                    HashMultimap.create(), HashMultimap.create()));
+            if (page.result().partList() != null) {
+                parts.addAll(page.result().partList());
+            }
+            if (!page.result().isTruncated()) {
+                return parts;
+            }
+            marker = page.result().nextPartNumberMarker();
+        }
+    }
+
+    public void complete(String bucket, String object, String uploadId, Part[] parts) throws Exception {
+        await(completeMultipartUploadAsync(bucket, null, object, uploadId, parts,
+                HashMultimap.create(), HashMultimap.create()));
+    }
+
+    public void abort(String bucket, String object, String uploadId) throws Exception {
+        await(abortMultipartUploadAsync(bucket, null, object, uploadId, HashMultimap.create(), HashMultimap.create()));
+    }
+
+    // Waits for the request and throws what it failed with, not the ExecutionException around it
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package org.swen.dms.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.swen.dms.helper.CountMinSketch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local-disk cache of object bytes in front of MinIO, for the few documents that get most of the
+ * downloads.
+ * <p>
+ * Objects are stored as plain files under {@code dms.storage.cache.dir} (meant for a local SSD),
+ * named by the SHA-256 of their key so any key (e.g. {@code optimized/<uuid>.pdf}) is a safe file
+ * name, and served from there with {@link FileChannel#transferTo}. Objects are never rewritten
+ * under the same key, so an entry is never stale; it is removed to make room or when its object is
+ * deleted ({@link #remove}). The index is rebuilt from the directory on startup.
+ * <p>
+ * Eviction is least-recently-used within {@code dms.storage.cache.max-bytes}. Admission is
+ * frequency-based (TinyLFU): every lookup is counted in a decaying Count-Min sketch, an object
+ * is only cached from its {@code dms.storage.cache.min-hits}-th recent download on, and when the
+ * cache is full only if it is downloaded more often than the entries it would evict. One-off
+ * downloads therefore never push out the hot set.
+ */
+@Component
+public class ObjectByteCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ObjectByteCache.class);
+
+    // Cache file names: the hex SHA-256 of the object key
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f]{64}");
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    /** Size of a cached object; {@code ready} once its file is complete. */
+    private static final class Entry {
+        final long size;
+        final boolean ready;
+
+        Entry(long size, boolean ready) {
+            this.size = size;
+            this.ready = ready;
+        }
+    }
+
+    private final Path dir;
+    private final long maxBytes;
+    private final long maxObjectBytes;
+    private final int minHits;
+    private final boolean enabled;
+
+    // By file name, in access order: the first entry is the least recently used
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+
+    // Recent download frequency per key; halved every resetInterval lookups so it follows the trend
+    private final CountMinSketch frequency = new CountMinSketch(16_384, 4);
+    private final long resetInterval;
+    private long lookups;
+
+    public ObjectByteCache(@Value("${dms.storage.cache.dir:${java.io.tmpdir}/dms-object-cache}") String dir,
+                           @Value("${dms.storage.cache.max-bytes:1073741824}") long maxBytes,
+                           @Value("${dms.storage.cache.max-object-bytes:67108864}") long maxObjectBytes,
+                           @Value("${dms.storage.cache.min-hits:2}") int minHits,
+                           @Value("${dms.storage.cache.enabled:true}") boolean enabled) {
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxObjectBytes = Math.min(this.maxBytes, maxObjectBytes);
+        this.minHits = Math.max(1, minHits);
+        this.enabled = enabled && this.maxBytes > 0;
+        this.resetInterval = 10L * 16_384;
+    }
+
+    /** Indexes what is already on disk (oldest first, so it is evicted first) and drops partial files. */
+    @PostConstruct
+    public synchronized void load() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(dir);
+            List<Path> files = new ArrayList<>();
+            try (Stream<Path> listing = Files.list(dir)) {
+                listing.forEach(files::add);
+            }
+            files.sort(Comparator.comparingLong(ObjectByteCache::modifiedMillis));
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!FILE_NAME.matcher(name).matches()) {
+                    // Partial files, and anything not written by this cache
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                long size = Files.size(file);
+                entries.put(name, new Entry(size, true));
+                usedBytes += size;
+            }
+            evictLeastRecentlyUsed(0);
+            log.info("Object cache at {}: {} objects, {} bytes", dir, entries.size(), usedBytes);
+        } catch (IOException e) {
+            log.error("Object cache at {} unavailable, downloads go to the object store: {}", dir, e.getMessage());
+            entries.clear();
+            usedBytes = 0;
+        }
+    }
+
+    /**
+     * Counts a download of {@code fileKey} and opens its cached file, if there is one.
+     * The caller owns (and must close) the returned channel; the file stays readable through it
+     * even if the entry is evicted meanwhile.
+     */
+    public Optional<FileChannel> open(String fileKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String name = fileName(fileKey);
+        synchronized (this) {
+            recordAccess(name);
+            Entry entry = entries.get(name);
+            if (entry == null || !entry.ready) {
+                return Optional.empty();
+            }
+        }
+        try {
+            return Optional.of(FileChannel.open(dir.resolve(name), StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            forget(name);
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Reading cached object {} failed: {}", fileKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Decides whether an object of {@code size} bytes that just missed should be cached and, if so,
+     * reserves the space (evicting colder entries). A reserved key must be {@link #store stored}.
+     */
+    public synchronized boolean admit(String fileKey, long size) {
+        if (!enabled || size <= 0 || size > maxObjectBytes) {
+            return false;
+        }
+        String name = fileName(fileKey);
+        if (entries.containsKey(name)) {
+            return false;
+        }
+        double candidate = frequency.estimate(hash(name));
+        if (candidate < minHits) {
+            return false;
+        }
+
+        // Only push out entries that are downloaded less often than the candidate
+        long needed = usedBytes + size - maxBytes;
+        if (needed > 0) {
+            long freed = 0;
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (freed >= needed) {
+                    break;
+                }
+                if (!e.getValue().ready || frequency.estimate(hash(e.getKey())) >= candidate) {
+                    return false;
+                }
+                freed += e.getValue().size;
+            }
+            evictLeastRecentlyUsed(size);
+        }
+        entries.put(name, new Entry(size, false));
+        usedBytes += size;
+        return true;
+    }
+
+    /**
+     * Streams an admitted object to {@code out} and, on the way, into the cache: each chunk read
+     * from {@code in} goes to the client and to a {@code .tmp} file, which becomes the cache entry
+     * once the object is complete. The client never waits for the whole object to be on disk.
+     * A disk error only stops the caching (the reservation is released) and the download goes on;
+     * a failure to read or to send releases the reservation and is rethrown. Closes {@code in}.
+     */
+    public void store(String fileKey, InputStream in, OutputStream out) throws IOException {
+        String name = fileName(fileKey);
+        Path target = dir.resolve(name);
+        Path tmp = dir.resolve(name + TMP_SUFFIX);
+        OutputStream file = openTmp(fileKey, tmp);
+        try (in) {
+            byte[] buffer = new byte[COPY_BUFFER_BYTES];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, n);
+                if (file != null) {
+                    try {
+                        file.write(buffer, 0, n);
+                    } catch (IOException e) {
+                        log.warn("Caching object {} failed, serving it without: {}", fileKey, e.getMessage());
+                        file = abandon(name, tmp, file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            abandon(name, tmp, file);
+            throw e;
+        }
+        if (file != null) {
+            commit(fileKey, name, tmp, target, file);
+        }
+    }
+
+    private OutputStream openTmp(String fileKey, Path tmp) {
+        try {
+            return Files.newOutputStream(tmp);
+        } catch (IOException e) {
+            log.warn("Caching object {} failed, serving it without: {}", fileKey, e.getMessage());
+            forget(fileName(fileKey));
+            return null;
+        }
+    }
+
+    // Moves the complete .tmp file into place and marks the entry ready
+    private void commit(String fileKey, String name, Path tmp, Path target, OutputStream file) {
+        try {
+            file.close();
+            long size = Files.size(tmp);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            synchronized (this) {
+                Entry reserved = entries.get(name);
+                if (reserved != null) {
+                    // The size from the database was only what was reserved
+                    usedBytes += size - reserved.size;
+                    entries.put(name, new Entry(size, true));
+                    return;
+                }
+            }
+            // Removed while it was being written: keep nothing on disk
+            deleteFile(name);
+        } catch (IOException e) {
+            log.warn("Caching object {} failed: {}", fileKey, e.getMessage());
+            abandon(name, tmp, null);
+        }
+    }
+
+    // Releases the reservation and drops the partial file; returns null so callers stop writing it
+    private OutputStream abandon(String name, Path tmp, OutputStream file) {
+        try {
+            if (file != null) {
+                file.close();
+            }
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            log.warn("Could not delete partial cached object {}: {}", tmp, e.getMessage());
+        }
+        forget(name);
+        return null;
+    }
+
+    /**
+     * Sends the whole file to {@code out} with {@link FileChannel#transferTo}. Into a file or socket
+     * channel the kernel copies it; a servlet stream is wrapped with {@link Channels#newChannel}, so
+     * the bytes go through a small heap buffer after all, but a hit still saves the round trip to
+     * the object store. Closes the channel.
+     */
+    public static void transfer(FileChannel channel, OutputStream out) throws IOException {
+        try (channel) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    /**
+     * Drops {@code fileKey} from the cache, e.g. when its object is deleted. Readers that already
+     * opened it keep reading the unlinked file.
+     */
+    public void remove(String fileKey) {
+        if (!enabled) {
+            return;
+        }
+        String name = fileName(fileKey);
+        forget(name);
+        deleteFile(name);
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    synchronized boolean contains(String fileKey) {
+        Entry entry = entries.get(fileName(fileKey));
+        return entry != null && entry.ready;
+    }
+
+    private void recordAccess(String name) {
+        frequency.add(hash(name), 1);
+        if (++lookups >= resetInterval) {
+            frequency.scale(0.5);
+            lookups = 0;
+        }
+    }
+
+    private synchronized void forget(String name) {
+        Entry entry = entries.remove(name);
+        if (entry != null) {
+            usedBytes -= entry.size;
+        }
+    }
+
+    // Evicts least recently used (complete) entries until `incoming` more bytes fit
+    private void evictLeastRecentlyUsed(long incoming) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes + incoming > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (!e.getValue().ready) {
+                continue;
+            }
+            it.remove();
+            usedBytes -= e.getValue().size;
+            // Readers that already opened it keep reading the unlinked file
+            deleteFile(e.getKey());
+        }
+    }
+
+    private void deleteFile(String name) {
+        try {
+            Files.deleteIfExists(dir.resolve(name));
+        } catch (IOException e) {
+            log.warn("Could not delete cached object {}: {}", name, e.getMessage());
+        }
+    }
+
+    static String fileName(String fileKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fileKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 64-bit FNV-1a, so keys are spread over the sketch independently of String.hashCode
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long modifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.swen.dms.storage;
+
+/**
+ * One stored part of a multipart upload (see {@link BlobStore#startMultipart}). {@code etag} is
+ * null where the backend does not need one to complete the upload.
+ */
+public record PartInfo(int partNumber, String etag, long size) {
+}
@@ -0,0 +1,7 @@
+package org.swen.dms.storage;
+
+import java.time.Instant;
+
+/** A time-limited URL that lets a client read or write one object directly in the store. */
+public record PresignedUrl(String url, Instant expiresAt) {
+}
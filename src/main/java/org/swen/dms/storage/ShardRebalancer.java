@@ -0,0 +1,158 @@
+package org.swen.dms.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swen.dms.dto.RebalanceStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves objects to the shard that owns them after shards were added to a
+ * {@link ShardedBlobStore}.
+ * <p>
+ * A run lists every shard and, for each object that belongs elsewhere, copies it to its owner
+ * (unless already there) and then deletes it from the shard it was found on. Reads keep working
+ * throughout: until the copy exists they fall back to the old shard. After the copy, the source is
+ * checked again, and the copy deleted if the object was deleted meanwhile. Runs in the background,
+ * one at a time; a failed object is logged and left in place for the next run.
+ */
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final ShardedBlobStore store;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "shard-rebalancer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile Run current;
+
+    public ShardRebalancer(ShardedBlobStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Starts a run in the background.
+     *
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public RebalanceStatus start() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rebalance is already running");
+        }
+        Run run = new Run();
+        current = run;
+        runner.submit(() -> {
+            try {
+                rebalance(run);
+            } finally {
+                running.set(false);
+            }
+        });
+        return run.snapshot();
+    }
+
+    public RebalanceStatus getStatus() {
+        Run run = current;
+        return run == null ? RebalanceStatus.idle() : run.snapshot();
+    }
+
+    /** Runs synchronously on the calling thread; returns the final status. */
+    RebalanceStatus runNow() {
+        Run run = new Run();
+        current = run;
+        rebalance(run);
+        return run.snapshot();
+    }
+
+    private void rebalance(Run run) {
+        try {
+            for (Map.Entry<String, MinioBlobStore> shard : store.shards().entrySet()) {
+                for (BlobInfo object : shard.getValue().list()) {
+                    run.scanned.incrementAndGet();
+                    String owner = store.shardFor(object.key());
+                    if (owner.equals(shard.getKey())) {
+                        continue;
+                    }
+                    try {
+                        if (move(object, shard.getValue(), store.shards().get(owner))) {
+                            run.moved.incrementAndGet();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        run.failed.incrementAndGet();
+                        log.warn("Moving {} from shard {} to {} failed: {}",
+                                object.key(), shard.getKey(), owner, e.getMessage());
+                    }
+                }
+            }
+            run.finish(RebalanceStatus.State.COMPLETED, null);
+            log.info("Rebalance done: {} objects scanned, {} moved, {} failed",
+                    run.scanned.get(), run.moved.get(), run.failed.get());
+        } catch (RuntimeException e) {
+            run.finish(RebalanceStatus.State.FAILED, e.getMessage());
+            log.error("Rebalance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /** @return false if the object was deleted meanwhile */
+    private static boolean move(BlobInfo object, MinioBlobStore from, MinioBlobStore to) throws IOException {
+        if (to.stat(object.key()).isEmpty()) {
+            // The listing has no content type; stat the source for it
+            Optional<BlobInfo> source = from.stat(object.key());
+            if (source.isEmpty()) {
+                return false;
+            }
+            String contentType = source.get().contentType() != null ? source.get().contentType() : DEFAULT_CONTENT_TYPE;
+            try (InputStream in = from.get(object.key())) {
+                to.put(object.key(), in, source.get().size(), contentType);
+            }
+            // A delete may have run between the stat and the put and missed the copy. It removes the
+            // source before the owner's copy, so if the source is gone now, this copy is an orphan.
+            if (from.stat(object.key()).isEmpty()) {
+                to.delete(object.key());
+                return false;
+            }
+        }
+        from.delete(object.key());
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private static final class Run {
+        final Instant startedAt = Instant.now();
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong moved = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile RebalanceStatus.State state = RebalanceStatus.State.RUNNING;
+        volatile Instant finishedAt;
+        volatile String error;
+
+        void finish(RebalanceStatus.State state, String error) {
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.state = state;
+        }
+
+        RebalanceStatus snapshot() {
+            return new RebalanceStatus(state, scanned.get(), moved.get(), failed.get(), startedAt, finishedAt, error);
+        }
+    }
+}
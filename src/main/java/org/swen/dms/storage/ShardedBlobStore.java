@@ -0,0 +1,201 @@
+package org.swen.dms.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swen.dms.helper.ConsistentHashRing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link BlobStore} spread over several MinIO deployments ({@code dms.storage.backend=sharded}).
+ * <p>
+ * Each key is placed on one shard by consistent hashing of the key over the shard names (their
+ * endpoints), so adding a shard only moves the keys it takes over. Writes go to the owning shard.
+ * Reads and stats try the owner first and then the other shards in ring order, so objects that
+ * {@link ShardRebalancer} has not moved yet are still found (on the next shard, their previous
+ * owner). Deletes go to every shard, which also removes a copy left behind by a move; the owning
+ * shard comes last, so they cannot miss a copy a concurrent move puts there (see {@link ShardRebalancer}).
+ * <p>
+ * Multipart uploads run on the owning shard. An upload that is in progress while a shard is added
+ * may change owner and then cannot be found any more; the client has to start it again.
+ */
+public class ShardedBlobStore implements BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedBlobStore.class);
+
+    private final Map<String, MinioBlobStore> shards;
+    private final ConsistentHashRing<String> ring;
+    private final boolean presignsGet;
+
+    /**
+     * @param shards       the shards by name, usually their endpoint; names must stay stable
+     * @param virtualNodes points per shard on the ring; more spread the keys more evenly
+     * @param presignsGet  whether the shards hand out download URLs (a non-zero GET TTL)
+     */
+    public ShardedBlobStore(Map<String, MinioBlobStore> shards, int virtualNodes, boolean presignsGet) {
+        this.shards = new LinkedHashMap<>(shards);
+        Map<String, String> names = new LinkedHashMap<>();
+        shards.keySet().forEach(name -> names.put(name, name));
+        this.ring = new ConsistentHashRing<>(names, virtualNodes);
+        this.presignsGet = presignsGet;
+    }
+
+    /** Name of the shard that owns {@code key}. */
+    public String shardFor(String key) {
+        return ring.nodeFor(key);
+    }
+
+    Map<String, MinioBlobStore> shards() {
+        return shards;
+    }
+
+    /** Creates the bucket on each shard that lacks it; an unreachable shard is logged and skipped. */
+    public void createBucketsIfMissing() {
+        shards.forEach((name, shard) -> {
+            try {
+                shard.createBucketIfMissing();
+            } catch (IOException e) {
+                log.error("Error checking/creating the bucket on shard {}: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void put(String key, InputStream in, long size, String contentType) throws IOException {
+        shards.get(shardFor(key)).put(key, in, size, contentType);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        for (String shard : ring.nodesFor(key)) {
+            try {
+                return shards.get(shard).get(key);
+            } catch (NoSuchFileException e) {
+                // Not moved to its owner yet: try the next shard
+            }
+        }
+        throw new NoSuchFileException(key);
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        for (String shard : ring.nodesFor(key)) {
+            try {
+                return shards.get(shard).get(key, offset, length);
+            } catch (NoSuchFileException e) {
+                // Not moved to its owner yet: try the next shard
+            }
+        }
+        throw new NoSuchFileException(key);
+    }
+
+    // The owner last, so a copy ShardRebalancer makes meanwhile is either deleted here or finds its source gone
+    @Override
+    public void delete(String key) throws IOException {
+        String owner = shardFor(key);
+        for (Map.Entry<String, MinioBlobStore> shard : shards.entrySet()) {
+            if (!shard.getKey().equals(owner)) {
+                shard.getValue().delete(key);
+            }
+        }
+        shards.get(owner).delete(key);
+    }
+
+    // At most two batch requests per shard: first the keys it does not own, then (as in delete) the ones it does
+    @Override
+    public List<String> deleteAll(Collection<String> keys) throws IOException {
+        Map<String, List<String>> owned = new LinkedHashMap<>();
+        Map<String, List<String>> notOwned = new LinkedHashMap<>();
+        for (String key : keys) {
+            String owner = shardFor(key);
+            for (String shard : shards.keySet()) {
+                (shard.equals(owner) ? owned : notOwned).computeIfAbsent(shard, s -> new ArrayList<>()).add(key);
+            }
+        }
+        Set<String> failed = new LinkedHashSet<>();
+        deleteAll(notOwned, failed);
+        deleteAll(owned, failed);
+        return new ArrayList<>(failed);
+    }
+
+    private void deleteAll(Map<String, List<String>> keysByShard, Set<String> failed) {
+        keysByShard.forEach((shard, keys) -> {
+            try {
+                failed.addAll(shards.get(shard).deleteAll(keys));
+            } catch (IOException e) {
+                log.warn("Batch delete on shard {} failed: {}", shard, e.getMessage());
+                failed.addAll(keys);
+            }
+        });
+    }
+
+    @Override
+    public String startMultipart(String key, String contentType) throws IOException {
+        return owner(key).startMultipart(key, contentType);
+    }
+
+    @Override
+    public PartInfo uploadPart(String key, String uploadId, int partNumber, InputStream in, long size) throws IOException {
+        return owner(key).uploadPart(key, uploadId, partNumber, in, size);
+    }
+
+    @Override
+    public List<PartInfo> listParts(String key, String uploadId) throws IOException {
+        return owner(key).listParts(key, uploadId);
+    }
+
+    @Override
+    public void completeMultipart(String key, String uploadId, List<PartInfo> parts) throws IOException {
+        owner(key).completeMultipart(key, uploadId, parts);
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) throws IOException {
+        owner(key).abortMultipart(key, uploadId);
+    }
+
+    private MinioBlobStore owner(String key) {
+        return shards.get(shardFor(key));
+    }
+
+    // Signed for the shard that has the object now, which costs a HEAD request per download;
+    // skipped entirely when download URLs are turned off (the default)
+    @Override
+    public Optional<PresignedUrl> presignGet(String key, String downloadName) throws IOException {
+        if (!presignsGet) {
+            return Optional.empty();
+        }
+        for (String shard : ring.nodesFor(key)) {
+            if (shards.get(shard).stat(key).isPresent()) {
+                return shards.get(shard).presignGet(key, downloadName);
+            }
+        }
+        throw new NoSuchFileException(key);
+    }
+
+    @Override
+    public Optional<PresignedUrl> presignPut(String key) throws IOException {
+        return shards.get(shardFor(key)).presignPut(key);
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        for (String shard : ring.nodesFor(key)) {
+            Optional<BlobInfo> info = shards.get(shard).stat(key);
+            if (info.isPresent()) {
+                return info;
+            }
+        }
+        return Optional.empty();
+    }
+}
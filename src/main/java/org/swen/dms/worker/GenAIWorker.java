@@ -12,6 +12,7 @@ import org.springframework.stereotype.Component;
 import org.swen.dms.entity.Document;
 import org.swen.dms.messaging.OcrCompletedEvent;
 import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.service.DocumentCache;
 
 import static org.swen.dms.config.RabbitConfig.QUEUE_GENAI;
 
@@ -20,17 +21,20 @@ import static org.swen.dms.config.RabbitConfig.QUEUE_GENAI;
 public class GenAIWorker {
     private static final Logger log = LoggerFactory.getLogger(GenAIWorker.class);
     private final DocumentRepository repo;
+    private final DocumentCache documentCache;
 
     private final Client client;
 
     @Autowired
-    public GenAIWorker(DocumentRepository repo, @Value("${GENAI_API_KEY}") String apiKey) {
+    public GenAIWorker(DocumentRepository repo, DocumentCache documentCache, @Value("${GENAI_API_KEY}") String apiKey) {
         this.repo = repo;
+        this.documentCache = documentCache;
         this.client = Client.builder().apiKey(apiKey).build();
     }
 
-    protected GenAIWorker(DocumentRepository repo) {
+    protected GenAIWorker(DocumentRepository repo, DocumentCache documentCache) {
         this.repo = repo;
+        this.documentCache = documentCache;
         this.client = null;
     }
 
@@ -66,6 +70,8 @@ public class GenAIWorker {
         String summary = summarize(doc.getOcrText());
         doc.setOcrSummaryText(summary);
         repo.save(doc);
+        // This worker runs in its own process: tell the app instances their cached summary is stale
+        documentCache.evict(doc.getId());
 
         log.info("GenAI summary saved for doc ID:" + event.getDocumentId());
     }
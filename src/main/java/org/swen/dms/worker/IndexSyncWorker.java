@@ -0,0 +1,163 @@
+package org.swen.dms.worker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.swen.dms.helper.CategoryPaths;
+import org.swen.dms.messaging.CategoriesChangedEvent;
+import org.swen.dms.messaging.DocumentDeletedEvent;
+import org.swen.dms.messaging.DocumentUpdatedEvent;
+import org.swen.dms.repository.jpa.CategoryRepository;
+import org.swen.dms.repository.jpa.DocumentCategoryView;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.repository.jpa.DocumentTitleView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.swen.dms.config.RabbitConfig.QUEUE_INDEX_CATEGORIES;
+import static org.swen.dms.config.RabbitConfig.QUEUE_INDEX_DELETED;
+import static org.swen.dms.config.RabbitConfig.QUEUE_INDEX_UPDATED;
+
+/**
+ * Keeps the Elasticsearch index in sync with metadata changes and deletes.
+ *
+ * Consumes {@link DocumentUpdatedEvent}, {@link CategoriesChangedEvent} (one per bulk category
+ * change) and {@link DocumentDeletedEvent} but does not write
+ * per event: each event only marks the document as dirty (or deleted). A scheduled flush,
+ * every {@code dms.index-sync.window-ms}, then issues one write per document:
+ * a single bulk of partial {@code _update}s (current title and categories read from Postgres)
+ * plus a {@code _delete} per removed document. Rapid successive edits therefore collapse
+ * into one write, and a delete always wins over pending updates.
+ *
+ * Pending changes live in memory only; if ES is unreachable they are kept and retried
+ * on the next flush.
+ */
+@Component
+@Profile("indexSyncWorker")
+public class IndexSyncWorker {
+    private static final Logger log = LoggerFactory.getLogger(IndexSyncWorker.class);
+
+    private static final IndexCoordinates INDEX = IndexCoordinates.of("documents");
+
+    private enum Op { UPDATE, DELETE }
+
+    private final ElasticsearchOperations operations;
+    private final DocumentRepository documentRepo;
+    private final CategoryRepository categoryRepo;
+
+    private final ConcurrentHashMap<Long, Op> pending = new ConcurrentHashMap<>();
+
+    public IndexSyncWorker(ElasticsearchOperations operations,
+                           DocumentRepository documentRepo,
+                           CategoryRepository categoryRepo) {
+        this.operations = operations;
+        this.documentRepo = documentRepo;
+        this.categoryRepo = categoryRepo;
+    }
+
+    @RabbitListener(queues = QUEUE_INDEX_UPDATED)
+    public void handleUpdated(DocumentUpdatedEvent event) {
+        // A pending delete is never downgraded to an update
+        pending.merge(event.getId(), Op.UPDATE, (before, now) -> before);
+    }
+
+    @RabbitListener(queues = QUEUE_INDEX_CATEGORIES)
+    public void handleCategoriesChanged(CategoriesChangedEvent event) {
+        if (event.getDocumentIds() != null) {
+            event.getDocumentIds().forEach(id -> pending.merge(id, Op.UPDATE, (before, now) -> before));
+        }
+    }
+
+    @RabbitListener(queues = QUEUE_INDEX_DELETED)
+    public void handleDeleted(DocumentDeletedEvent event) {
+        pending.put(event.getId(), Op.DELETE);
+    }
+
+    @Scheduled(fixedDelayString = "${dms.index-sync.window-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Long> updates = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        for (Long id : pending.keySet()) {
+            Op op = pending.remove(id);
+            if (op == Op.DELETE) {
+                deletes.add(id);
+            } else if (op == Op.UPDATE) {
+                updates.add(id);
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            applyUpdates(updates, deletes);
+        }
+        for (Long id : deletes) {
+            try {
+                operations.delete(String.valueOf(id), INDEX);
+            } catch (Exception e) {
+                log.error("Index delete failed for id={}: {}", id, e.getMessage());
+                retry(id, Op.DELETE);
+            }
+        }
+        log.info("Index sync flushed: {} updates, {} deletes", updates.size(), deletes.size());
+    }
+
+    private void applyUpdates(List<Long> ids, List<Long> deletes) {
+        List<DocumentTitleView> rows = documentRepo.findTitlesByIdIn(ids);
+
+        Map<Long, List<String>> categories = new HashMap<>();
+        for (DocumentCategoryView row : categoryRepo.findPathsByDocumentIds(ids)) {
+            categories.computeIfAbsent(row.getDocumentId(), id -> new ArrayList<>()).add(row.getPath());
+        }
+
+        List<UpdateQuery> queries = new ArrayList<>();
+        for (DocumentTitleView row : rows) {
+            Document partial = Document.create();
+            partial.put("title", row.getTitle());
+            partial.put("categories", CategoryPaths.withAncestors(categories.getOrDefault(row.getId(), List.of())));
+            queries.add(UpdateQuery.builder(String.valueOf(row.getId()))
+                    .withDocument(partial)
+                    .withRetryOnConflict(3)
+                    .build());
+        }
+
+        // Row is gone by now: the document was deleted after the update event
+        if (rows.size() < ids.size()) {
+            List<Long> found = rows.stream().map(DocumentTitleView::getId).toList();
+            ids.stream().filter(id -> !found.contains(id)).forEach(deletes::add);
+        }
+
+        if (queries.isEmpty()) {
+            return;
+        }
+        try {
+            operations.bulkUpdate(queries, INDEX);
+        } catch (BulkFailureException e) {
+            // Typically document_missing: OCR has not indexed it yet and will use the current title
+            log.warn("Index update skipped for {} documents: {}", e.getFailedDocuments().size(),
+                    e.getFailedDocuments().keySet());
+        } catch (Exception e) {
+            log.error("Index bulk update failed: {}", e.getMessage());
+            rows.forEach(row -> retry(row.getId(), Op.UPDATE));
+        }
+    }
+
+    private void retry(Long id, Op op) {
+        // Keep anything that arrived in the meantime; a delete still wins
+        pending.merge(id, op, (newer, failed) -> newer == Op.DELETE || failed == Op.DELETE ? Op.DELETE : Op.UPDATE);
+    }
+}
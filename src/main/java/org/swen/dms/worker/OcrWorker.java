@@ -1,7 +1,5 @@
 package org.swen.dms.worker;
 
-import io.minio.GetObjectArgs;
-import io.minio.MinioClient;
 import net.sourceforge.tess4j.ITesseract;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.rendering.ImageType;
@@ -13,11 +11,14 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import org.swen.dms.entity.Category;
+import org.swen.dms.helper.CategoryPaths;
 import org.swen.dms.messaging.DocumentCreatedEvent;
 import org.swen.dms.messaging.OcrCompletedEvent;
 import org.swen.dms.repository.jpa.DocumentRepository;
 import org.swen.dms.entity.DocumentSearch;
 import org.swen.dms.repository.search.DocumentSearchRepository;
+import org.swen.dms.storage.BlobStore;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -40,7 +41,7 @@ import static org.swen.dms.config.RabbitConfig.*;
 @Profile("ocrWorker")
 public class OcrWorker {
     private static final Logger log = LoggerFactory.getLogger(OcrWorker.class);
-    private final MinioClient minio;
+    private final BlobStore blobStore;
     private final ITesseract tess;
     private final int dpi;
 
@@ -48,9 +49,9 @@ public class OcrWorker {
     private final RabbitTemplate rabbitTemplate;
     private final DocumentSearchRepository searchRepository;
 
-    public OcrWorker(MinioClient minio, ITesseract tess,
+    public OcrWorker(BlobStore blobStore, ITesseract tess,
                      @Value("${ocr.dpi:300}") int dpi, DocumentRepository repo, RabbitTemplate rabbitTemplate, DocumentSearchRepository searchRepository) {
-        this.minio = minio; this.tess = tess; this.dpi = dpi;
+        this.blobStore = blobStore; this.tess = tess; this.dpi = dpi;
         this.repo = repo;
         this.rabbitTemplate = rabbitTemplate;
         this.searchRepository = searchRepository;
@@ -62,8 +63,7 @@ public class OcrWorker {
                 e.getId(), e.getTitle(), e.getBucket(), e.getFileKey());
 
         File tmp = null;
-        try (InputStream in = minio.getObject(
-                GetObjectArgs.builder().bucket(e.getBucket()).object(e.getFileKey()).build())) {
+        try (InputStream in = blobStore.get(e.getFileKey())) {
 
             tmp = File.createTempFile("dms_", ".pdf");
             try (OutputStream out = new FileOutputStream(tmp)) { in.transferTo(out); }
@@ -78,8 +78,11 @@ public class OcrWorker {
             try {
                 DocumentSearch esDoc = new DocumentSearch();
                 esDoc.setId(String.valueOf(e.getId()));
-                esDoc.setTitle(e.getTitle());
+                esDoc.setTitle(doc.getTitle()); // current title, in case it was renamed while OCR ran
                 esDoc.setContent(text);
+                esDoc.setCategories(CategoryPaths.withAncestors(doc.getCategories().stream().map(Category::getPath).toList()));
+                esDoc.setUploadedAt(doc.getUploadedAt());
+                esDoc.setFileSize(doc.getFileSize());
 
                 searchRepository.save(esDoc);
                 log.info("Indexed document {} in Elasticsearch", e.getId());
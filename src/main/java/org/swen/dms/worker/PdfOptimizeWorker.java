@@ -0,0 +1,107 @@
+package org.swen.dms.worker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.swen.dms.helper.PdfOptimizer;
+import org.swen.dms.messaging.DocumentCreatedEvent;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.service.DocumentCache;
+import org.swen.dms.storage.BlobStore;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.swen.dms.config.RabbitConfig.QUEUE_OPTIMIZE;
+
+/**
+ * Optional ingest stage ({@code dms.optimize.enabled=true}): makes an optimized copy of every new
+ * document with {@link PdfOptimizer} and serves downloads from it.
+ * <p>
+ * Consumes the same {@code docs.created} events as the OCR worker, on its own queue. The copy is
+ * stored under {@code optimized/<fileKey>} next to the original, which is kept unchanged, and
+ * recorded with its size on the document (storage saved is {@code fileSize - optimizedFileSize}).
+ * A copy that saves less than {@code dms.optimize.min-savings-percent} is discarded; already
+ * compact PDFs keep being served as they are.
+ */
+@Component
+@ConditionalOnProperty(name = "dms.optimize.enabled", havingValue = "true")
+public class PdfOptimizeWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfOptimizeWorker.class);
+
+    static final String OPTIMIZED_PREFIX = "optimized/";
+
+    private final BlobStore blobStore;
+    private final DocumentRepository repo;
+    private final DocumentCache documentCache;
+    private final PdfOptimizer optimizer;
+    private final int minSavingsPercent;
+
+    public PdfOptimizeWorker(BlobStore blobStore, DocumentRepository repo, DocumentCache documentCache,
+                             @Value("${dms.optimize.max-dpi:150}") int maxDpi,
+                             @Value("${dms.optimize.jpeg-quality:0.75}") float jpegQuality,
+                             @Value("${dms.optimize.min-savings-percent:10}") int minSavingsPercent) {
+        this.blobStore = blobStore;
+        this.repo = repo;
+        this.documentCache = documentCache;
+        this.optimizer = new PdfOptimizer(maxDpi, jpegQuality);
+        this.minSavingsPercent = minSavingsPercent;
+    }
+
+    @RabbitListener(queues = QUEUE_OPTIMIZE)
+    public void handle(DocumentCreatedEvent e) {
+        Path source = null;
+        Path target = null;
+        try {
+            source = Files.createTempFile("dms_original_", ".pdf");
+            target = Files.createTempFile("dms_optimized_", ".pdf");
+            try (InputStream in = blobStore.get(e.getFileKey())) {
+                Files.copy(in, source, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            PdfOptimizer.Result result = optimizer.optimize(source, target);
+            long saved = result.originalBytes() - result.optimizedBytes();
+            if (saved * 100 < result.originalBytes() * minSavingsPercent) {
+                log.info("Not optimizing document {}: {} -> {} bytes saves less than {}%",
+                        e.getId(), result.originalBytes(), result.optimizedBytes(), minSavingsPercent);
+                return;
+            }
+
+            String key = OPTIMIZED_PREFIX + e.getFileKey();
+            try (InputStream in = Files.newInputStream(target)) {
+                blobStore.put(key, in, result.optimizedBytes(), "application/pdf");
+            }
+            if (repo.setOptimized(e.getId(), key, result.optimizedBytes()) == 0) {
+                // Deleted while we were at it
+                blobStore.delete(key);
+                return;
+            }
+            documentCache.evict(e.getId());
+            log.info("Optimized document {}: {} -> {} bytes ({} images recompressed on {} pages)",
+                    e.getId(), result.originalBytes(), result.optimizedBytes(),
+                    result.imagesRecompressed(), result.pages());
+        } catch (Exception ex) {
+            log.error("Optimizing document {} failed, serving the original: {}", e.getId(), ex.getMessage(), ex);
+        } finally {
+            deleteQuietly(source);
+            deleteQuietly(target);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            log.warn("Could not delete temporary file {}: {}", file, e.getMessage());
+        }
+    }
+}
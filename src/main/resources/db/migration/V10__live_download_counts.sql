@@ -0,0 +1,7 @@
+-- Live download counts get their own column. The access-log import overwrites access_count for
+-- its day, which wiped the downloads counted that day, while downloads added to access_count
+-- inflated the imported totals. Readers and rollups now use access_count + download_count.
+-- Rows written before this migration keep whatever mix they had.
+
+ALTER TABLE document_access_daily ALTER COLUMN access_count SET DEFAULT 0;
+ALTER TABLE document_access_daily ADD COLUMN download_count BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Presigned uploads not completed yet: one row per issued ticket, removed on completion. Objects
+-- PUT for a ticket that is never completed are deleted by a scheduled sweep once expires_at (the
+-- end of the ticket's completion window) has passed.
+
+CREATE TABLE direct_uploads (
+    file_key   VARCHAR(255) PRIMARY KEY,
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_direct_uploads_expires_at ON direct_uploads (expires_at);
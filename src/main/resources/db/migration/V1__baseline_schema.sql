@@ -0,0 +1,27 @@
+-- Baseline: the schema Hibernate used to create with ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate),
+-- so IF NOT EXISTS only matters for fresh databases.
+
+CREATE TABLE IF NOT EXISTS documents (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title             VARCHAR(255) NOT NULL,
+    file_key          VARCHAR(255) NOT NULL UNIQUE,
+    content_type      VARCHAR(255) NOT NULL,
+    file_size         BIGINT,
+    uploaded_at       TIMESTAMP(6) NOT NULL,
+    ocr_text          TEXT,
+    ocr_summary_text  TEXT,
+    access_count      BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL UNIQUE,
+    description  VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS document_categories (
+    document_id  BIGINT NOT NULL REFERENCES documents (id),
+    category_id  BIGINT NOT NULL REFERENCES categories (id),
+    PRIMARY KEY (document_id, category_id)
+);
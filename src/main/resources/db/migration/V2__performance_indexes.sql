@@ -0,0 +1,19 @@
+-- Indexes for the hot queries.
+
+-- existsByTitle / findByTitle run on every upload
+CREATE INDEX IF NOT EXISTS idx_documents_title ON documents (title);
+
+-- Title-substring (typeahead) search: ILIKE '%...%' can use a trigram GIN index
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_documents_title_trgm ON documents USING GIN (title gin_trgm_ops);
+
+-- The join table's primary key starts with document_id; this covers lookups by category
+CREATE INDEX IF NOT EXISTS idx_document_categories_category ON document_categories (category_id);
+
+-- Degraded-mode full-text search when Elasticsearch is unavailable
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(ocr_text, '')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_documents_search_vector ON documents USING GIN (search_vector);
@@ -0,0 +1,13 @@
+-- Checkpoints of the access-log import: one row per distinct file content (SHA-256).
+-- committed_entries is the number of <entry> elements whose updates are committed,
+-- so a crashed import resumes after them and a re-dropped file is not applied twice.
+
+CREATE TABLE access_log_imports (
+    file_hash          VARCHAR(64)  PRIMARY KEY,
+    file_name          VARCHAR(255) NOT NULL,
+    committed_entries  BIGINT       NOT NULL,
+    status             VARCHAR(16)  NOT NULL,
+    started_at         TIMESTAMP(6) NOT NULL,
+    updated_at         TIMESTAMP(6) NOT NULL,
+    completed_at       TIMESTAMP(6)
+);
@@ -0,0 +1,31 @@
+-- Access-count history. The importer appends one row per document and day instead of
+-- overwriting documents.access_count; weekly and monthly rollups serve the analytics queries.
+
+CREATE TABLE document_access_daily (
+    day           DATE   NOT NULL,
+    document_id   BIGINT NOT NULL,
+    access_count  BIGINT NOT NULL,
+    PRIMARY KEY (day, document_id)
+) PARTITION BY RANGE (day);
+-- Monthly partitions (document_access_daily_yYYYYmMM) are created on demand by the importer.
+-- No foreign key: deleting a document must not scan years of partitions; queries join documents.
+
+CREATE TABLE document_access_weekly (
+    week_start    DATE   NOT NULL,
+    document_id   BIGINT NOT NULL,
+    access_count  BIGINT NOT NULL,
+    PRIMARY KEY (week_start, document_id)
+);
+
+CREATE TABLE document_access_monthly (
+    month_start   DATE   NOT NULL,
+    document_id   BIGINT NOT NULL,
+    access_count  BIGINT NOT NULL,
+    PRIMARY KEY (month_start, document_id)
+);
+
+-- Which day a file's counts belong to, and whether its periods have been rolled up
+ALTER TABLE access_log_imports ADD COLUMN log_date DATE;
+ALTER TABLE access_log_imports ADD COLUMN rolled_up BOOLEAN NOT NULL DEFAULT FALSE;
+-- Earlier imports wrote to documents.access_count, there is nothing to roll up
+UPDATE access_log_imports SET log_date = CAST(started_at AS DATE) - 1, rolled_up = TRUE;
@@ -0,0 +1,6 @@
+-- Periodic snapshots of the in-memory trending sketch, so it survives restarts
+CREATE TABLE trending_snapshots (
+    name      VARCHAR(64)  PRIMARY KEY,
+    taken_at  TIMESTAMP(6) NOT NULL,
+    data      BYTEA        NOT NULL
+);
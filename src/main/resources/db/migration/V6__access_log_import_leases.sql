@@ -0,0 +1,6 @@
+-- Leases for importing across replicas: a file (by content hash) is imported by the instance
+-- in claimed_by until lease_until. The lease is extended with every committed chunk; once it
+-- has expired (crashed instance) another instance may claim the file and resume it.
+
+ALTER TABLE access_log_imports ADD COLUMN claimed_by VARCHAR(255);
+ALTER TABLE access_log_imports ADD COLUMN lease_until TIMESTAMP(6);
@@ -0,0 +1,66 @@
+-- Hierarchical categories as a materialized path: every category stores the names from its root
+-- down to itself ("Finance/Invoices/2026"). A subtree is path = 'X' OR path LIKE 'X/%', answered
+-- by the prefix index below. Existing (flat) categories become roots.
+
+ALTER TABLE categories ADD COLUMN parent_id BIGINT REFERENCES categories (id);
+ALTER TABLE categories ADD COLUMN path VARCHAR(1024);
+UPDATE categories SET path = name;
+ALTER TABLE categories ALTER COLUMN path SET NOT NULL;
+ALTER TABLE categories ADD CONSTRAINT uk_categories_path UNIQUE (path);
+
+-- Names only need to be unique among siblings now (the path is); drop the unique constraint on
+-- name, whatever it was called when the schema was created
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT con.conname FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+        WHERE con.conrelid = 'categories'::regclass AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1 AND att.attname = 'name'
+    LOOP
+        EXECUTE format('ALTER TABLE categories DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+-- LIKE 'prefix/%' can only use a btree index built with the pattern operator class
+CREATE INDEX idx_categories_path_prefix ON categories (path text_pattern_ops);
+CREATE INDEX idx_categories_parent ON categories (parent_id);
+
+-- Document assignments in each category's subtree (a document in both Finance and
+-- Finance/Invoices counts twice for Finance). Kept up to date by the statement-level triggers
+-- below, so a bulk assignment of thousands of documents updates each ancestor once.
+ALTER TABLE categories ADD COLUMN subtree_document_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE categories a SET subtree_document_count = counts.n
+FROM (SELECT anc.id, count(*) AS n
+      FROM document_categories dc
+      JOIN categories c ON c.id = dc.category_id
+      JOIN categories anc ON anc.path = c.path OR starts_with(c.path, anc.path || '/')
+      GROUP BY anc.id) counts
+WHERE a.id = counts.id;
+
+CREATE FUNCTION update_subtree_document_counts() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE categories a
+    SET subtree_document_count = a.subtree_document_count
+        + CASE TG_OP WHEN 'INSERT' THEN counts.n ELSE -counts.n END
+    FROM (SELECT anc.id, count(*) AS n
+          FROM changed ch
+          JOIN categories c ON c.id = ch.category_id
+          JOIN categories anc ON anc.path = c.path OR starts_with(c.path, anc.path || '/')
+          GROUP BY anc.id) counts
+    WHERE a.id = counts.id;
+    RETURN NULL;
+END $$;
+
+CREATE TRIGGER document_categories_counts_insert
+    AFTER INSERT ON document_categories
+    REFERENCING NEW TABLE AS changed
+    FOR EACH STATEMENT EXECUTE FUNCTION update_subtree_document_counts();
+
+CREATE TRIGGER document_categories_counts_delete
+    AFTER DELETE ON document_categories
+    REFERENCING OLD TABLE AS changed
+    FOR EACH STATEMENT EXECUTE FUNCTION update_subtree_document_counts();
@@ -0,0 +1,18 @@
+-- Resumable uploads: one row per upload session. The chunks themselves are parts of the multipart
+-- upload upload_id in the object store, which is also the record of which chunks have arrived.
+-- Sessions past expires_at are aborted (or, once completed, just removed) by a scheduled sweep.
+
+CREATE TABLE upload_sessions (
+    id          VARCHAR(36)   PRIMARY KEY,
+    file_key    VARCHAR(255)  NOT NULL,
+    upload_id   VARCHAR(1024) NOT NULL,
+    title       VARCHAR(255),
+    category    VARCHAR(1024),
+    total_size  BIGINT        NOT NULL,
+    chunk_size  BIGINT        NOT NULL,
+    created_at  TIMESTAMP(6)  NOT NULL,
+    expires_at  TIMESTAMP(6)  NOT NULL,
+    document_id BIGINT
+);
+
+CREATE INDEX idx_upload_sessions_expires_at ON upload_sessions (expires_at);
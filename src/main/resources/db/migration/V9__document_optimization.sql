@@ -0,0 +1,7 @@
+-- Optimized copies of uploaded PDFs (recompressed, downsampled page images). The original stays
+-- under file_key; downloads are served from optimized_file_key once it is set. egress_bytes_saved
+-- adds up (file_size - optimized_file_size) for every download served from the optimized copy.
+
+ALTER TABLE documents ADD COLUMN optimized_file_key VARCHAR(255);
+ALTER TABLE documents ADD COLUMN optimized_file_size BIGINT;
+ALTER TABLE documents ADD COLUMN egress_bytes_saved BIGINT NOT NULL DEFAULT 0;
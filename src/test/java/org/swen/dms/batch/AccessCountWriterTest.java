@@ -0,0 +1,122 @@
+package org.swen.dms.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AccessCountWriter}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AccessCountWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    @InjectMocks
+    private AccessCountWriter writer;
+
+    /**
+     * Verifies that a chunk becomes one INSERT ... SELECT FROM (VALUES ...) and that ids missing
+     * from RETURNING are reported as unknown.
+     */
+    @Test
+    void apply_SingleStatement_ReportsUnknownIds() {
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        counts.put(1L, 10L);
+        counts.put(2L, 20L);
+        counts.put(3L, 30L);
+        when(jdbc.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(3L, 1L));
+
+        List<Long> unknown = writer.apply(LocalDate.of(2025, 3, 14), counts);
+
+        assertThat(unknown).containsExactly(2L);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc, times(1)).queryForList(sql.capture(), eq(Long.class), args.capture());
+        assertThat(sql.getValue())
+                .startsWith("INSERT INTO document_access_daily (day, document_id, access_count) ")
+                .contains("JOIN documents d ON d.id = v.id")
+                .contains("DO UPDATE SET access_count = EXCLUDED.access_count")
+                .doesNotContain("download_count")
+                .endsWith("RETURNING document_id");
+        assertThat(sql.getValue().split("CAST\\(\\? AS BIGINT\\), CAST").length - 1).isEqualTo(3);
+        assertThat(args.getValue()).containsExactly(LocalDate.of(2025, 3, 14), 1L, 10L, 2L, 20L, 3L, 30L);
+    }
+
+    /**
+     * Verifies that live counts are added to download_count, so imports (which overwrite
+     * access_count) and downloads never clobber each other.
+     */
+    @Test
+    void add_IncrementsDownloadCountOnly() {
+        when(jdbc.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(1L));
+
+        writer.add(LocalDate.of(2025, 3, 14), Map.of(1L, 2L));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbc).queryForList(sql.capture(), eq(Long.class), any(Object[].class));
+        assertThat(sql.getValue())
+                .startsWith("INSERT INTO document_access_daily (day, document_id, download_count) ")
+                .contains("DO UPDATE SET download_count = document_access_daily.download_count + EXCLUDED.download_count")
+                .doesNotContain("access_count");
+    }
+
+    /**
+     * Verifies that an empty chunk does not hit the database.
+     */
+    @Test
+    void apply_Empty_NoStatement() {
+        assertThat(writer.apply(LocalDate.of(2025, 3, 14), Map.of())).isEmpty();
+        verifyNoInteractions(jdbc);
+    }
+
+    /**
+     * Verifies that saved bytes for many documents become one UPDATE ... FROM (VALUES ...).
+     */
+    @Test
+    void addEgressBytesSaved_SingleStatement() {
+        Map<Long, Long> bytes = new LinkedHashMap<>();
+        bytes.put(1L, 100L);
+        bytes.put(2L, 200L);
+        when(jdbc.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertThat(writer.addEgressBytesSaved(bytes)).isEqualTo(1);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc, times(1)).update(sql.capture(), args.capture());
+        assertThat(sql.getValue())
+                .startsWith("UPDATE documents d SET egress_bytes_saved = d.egress_bytes_saved + v.n FROM (VALUES ")
+                .endsWith(") AS v(id, n) WHERE d.id = v.id");
+        assertThat(args.getValue()).containsExactly(1L, 100L, 2L, 200L);
+        assertThat(writer.addEgressBytesSaved(Map.of())).isZero();
+        verifyNoMoreInteractions(jdbc);
+    }
+
+    /**
+     * Verifies that the monthly partition is created once and then remembered.
+     */
+    @Test
+    void ensurePartition_CreatesMonthlyPartitionOnce() {
+        writer.ensurePartition(LocalDate.of(2025, 3, 14));
+        writer.ensurePartition(LocalDate.of(2025, 3, 31));
+
+        verify(jdbc, times(1)).execute("CREATE TABLE IF NOT EXISTS document_access_daily_y2025m03 " +
+                "PARTITION OF document_access_daily FOR VALUES FROM ('2025-03-01') TO ('2025-04-01')");
+    }
+}
@@ -0,0 +1,95 @@
+package org.swen.dms.batch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.swen.dms.entity.AccessLogImport;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AccessLogClaims}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AccessLogClaimsTest {
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    private AccessLogClaims claims;
+
+    @BeforeEach
+    void setUp() {
+        claims = new AccessLogClaims(jdbc, "node-1", 60);
+    }
+
+    /**
+     * Verifies that a claim is a single conditional upsert and returns the checkpoint to resume from.
+     */
+    @Test
+    void claim_ConditionalUpsert_ReturnsCheckpoint() {
+        LocalDate day = LocalDate.of(2025, 3, 14);
+        AccessLogClaims.Claim resumed = new AccessLogClaims.Claim(5000, day);
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(resumed));
+
+        assertThat(claims.claim("abc", "access.xml", day)).contains(resumed);
+
+        verify(jdbc).query(argThat((String sql) -> sql.startsWith("INSERT INTO access_log_imports")
+                        && sql.contains("ON CONFLICT (file_hash) DO UPDATE")
+                        && sql.contains("status <> 'COMPLETED'")
+                        && sql.contains("lease_until < LOCALTIMESTAMP")
+                        && sql.endsWith("RETURNING committed_entries, log_date")),
+                any(RowMapper.class), eq("abc"), eq("access.xml"), eq(day), eq("node-1"), eq(60L));
+    }
+
+    /**
+     * Verifies that no returned row means the file is completed or held elsewhere.
+     */
+    @Test
+    void claim_HeldElsewhere_Empty() {
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+        assertThat(claims.claim("abc", "access.xml", LocalDate.of(2025, 3, 14))).isEmpty();
+    }
+
+    /**
+     * Verifies that renewing fails once another instance has taken the file over.
+     */
+    @Test
+    void renew_FencedByNode() {
+        when(jdbc.update(anyString(), eq(5000L), eq(60L), eq("abc"), eq("node-1"))).thenReturn(1, 0);
+
+        claims.renew("abc", 5000);
+        assertThatThrownBy(() -> claims.renew("abc", 5000)).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Verifies that releasing records the outcome and clears the lease.
+     */
+    @Test
+    void release_ClearsLease() {
+        when(jdbc.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        claims.release("abc", AccessLogImport.Status.COMPLETED);
+
+        verify(jdbc).update(contains("claimed_by = NULL, lease_until = NULL"),
+                eq("COMPLETED"), eq(true), eq("abc"), eq("node-1"));
+    }
+
+    @Test
+    void defaultNodeId_HostAndPid() {
+        AccessLogClaims unnamed = new AccessLogClaims(jdbc, " ", 60);
+
+        assertThat(unnamed.getNodeId()).endsWith(":" + ProcessHandle.current().pid());
+    }
+}
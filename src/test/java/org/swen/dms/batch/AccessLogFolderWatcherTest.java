@@ -0,0 +1,136 @@
+package org.swen.dms.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.swen.dms.batch.format.AccessLogFormats;
+import org.swen.dms.batch.format.CsvAccessLogParser;
+import org.swen.dms.batch.format.NdjsonAccessLogParser;
+import org.swen.dms.batch.format.XmlAccessLogParser;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AccessLogFolderWatcher}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AccessLogFolderWatcherTest {
+
+    @Mock
+    private AccessLogImporter importer;
+
+    @TempDir
+    Path folder;
+
+    private final AccessLogFormats formats = new AccessLogFormats(List.of(
+            new XmlAccessLogParser("stax"), new NdjsonAccessLogParser(), new CsvAccessLogParser()));
+
+    private AccessLogFolderWatcher watcher;
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    private AccessLogFolderWatcher watcher(long debounceMillis) {
+        watcher = new AccessLogFolderWatcher(importer, formats, folder.toString(), true, debounceMillis);
+        return watcher;
+    }
+
+    /**
+     * Verifies that a file is only submitted after the debounce time without new events.
+     */
+    @Test
+    void checkPending_SubmitsAfterQuietPeriod() throws Exception {
+        AccessLogFolderWatcher watcher = watcher(1000);
+        Path file = Files.writeString(folder.resolve("access.xml"), "<accessLogs/>");
+
+        watcher.onEvent(file, 0);
+        watcher.checkPending(500);
+        verifyNoInteractions(importer);
+
+        watcher.onEvent(file, 800);
+        watcher.checkPending(1500);
+        verifyNoInteractions(importer);
+
+        watcher.checkPending(1800);
+        verify(importer).submit(file);
+        assertThat(watcher.pendingCount()).isZero();
+    }
+
+    /**
+     * Verifies that a file that changed without events is given another quiet period.
+     */
+    @Test
+    void checkPending_FileStillGrowing_Waits() throws Exception {
+        AccessLogFolderWatcher watcher = watcher(1000);
+        Path file = Files.writeString(folder.resolve("access.xml"), "<accessLogs>");
+        watcher.onEvent(file, 0);
+
+        Files.writeString(folder.resolve("access.xml"), "<accessLogs><entry/></accessLogs>");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        watcher.checkPending(1000);
+        verifyNoInteractions(importer);
+
+        watcher.checkPending(2000);
+        verify(importer).submit(file);
+    }
+
+    /**
+     * Verifies that other files and files deleted before they settled are ignored.
+     */
+    @Test
+    void onEvent_IgnoresOtherAndVanishedFiles() throws Exception {
+        AccessLogFolderWatcher watcher = watcher(0);
+        watcher.onEvent(Files.writeString(folder.resolve("access.xml.part"), "x"), 0);
+        watcher.onEvent(Files.writeString(folder.resolve(".access.xml"), "x"), 0);
+        Path vanished = Files.writeString(folder.resolve("access.xml"), "x");
+        watcher.onEvent(vanished, 0);
+        Files.delete(vanished);
+
+        watcher.checkPending(10);
+
+        verifyNoInteractions(importer);
+        assertThat(watcher.pendingCount()).isZero();
+    }
+
+    /**
+     * Verifies the watch loop end to end: existing files and new files are submitted.
+     */
+    @Test
+    void start_SubmitsExistingAndNewFiles() throws Exception {
+        Path existing = Files.writeString(folder.resolve("existing.xml"), "<accessLogs/>");
+        AccessLogFolderWatcher watcher = watcher(100);
+
+        watcher.start();
+        Path dropped = Files.writeString(folder.resolve("dropped.csv.gz"), "1,5");
+
+        verify(importer, timeout(10_000)).submit(existing);
+        verify(importer, timeout(10_000)).submit(dropped);
+    }
+
+    /**
+     * Verifies that nothing is watched when disabled.
+     */
+    @Test
+    void start_Disabled_DoesNothing() throws Exception {
+        Files.writeString(folder.resolve("existing.xml"), "<accessLogs/>");
+        watcher = new AccessLogFolderWatcher(importer, formats, folder.toString(), false, 0);
+
+        watcher.start();
+
+        verify(importer, after(300).never()).submit(any());
+    }
+}
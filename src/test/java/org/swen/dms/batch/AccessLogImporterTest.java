@@ -0,0 +1,325 @@
+package org.swen.dms.batch;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.swen.dms.batch.format.AccessLogFormats;
+import org.swen.dms.batch.format.CsvAccessLogParser;
+import org.swen.dms.batch.format.NdjsonAccessLogParser;
+import org.swen.dms.batch.format.XmlAccessLogParser;
+import org.swen.dms.entity.AccessLogImport;
+import org.swen.dms.repository.jpa.AccessLogImportRepository;
+import org.swen.dms.service.AccessStatsService;
+import org.swen.dms.service.TrendingService;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AccessLogImporter}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AccessLogImporterTest {
+
+    private static final String XML = """
+            <accessLogs>
+                <entry><documentId>1</documentId><accessCount>5</accessCount></entry>
+                <entry><documentId>2</documentId><accessCount>6</accessCount></entry>
+                <entry><accessCount>7</accessCount></entry>
+                <entry><documentId>1</documentId><accessCount>8</accessCount></entry>
+                <entry><documentId>3</documentId><accessCount>9</accessCount></entry>
+            </accessLogs>
+            """;
+
+    @Mock
+    private AccessCountWriter writer;
+
+    @Mock
+    private AccessLogImportRepository checkpoints;
+
+    @Mock
+    private AccessLogClaims claims;
+
+    @Mock
+    private AccessStatsService accessStats;
+
+    @Mock
+    private TrendingService trending;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path folder;
+
+    private final List<AccessLogImporter> importers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // By default every file is free to claim, starting from the beginning
+        lenient().when(claims.claim(anyString(), anyString(), any(LocalDate.class)))
+                .thenAnswer(i -> Optional.of(new AccessLogClaims.Claim(0, i.getArgument(2))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        importers.forEach(AccessLogImporter::shutdown);
+    }
+
+    private AccessLogImporter importer(String mode, int chunkSize) {
+        AccessLogFormats formats = new AccessLogFormats(List.of(
+                new XmlAccessLogParser(mode), new NdjsonAccessLogParser(), new CsvAccessLogParser()));
+        AccessLogImporter importer = new AccessLogImporter(writer, checkpoints, claims, accessStats, trending, transactionManager,
+                formats, folder.toString(), chunkSize, 2);
+        importers.add(importer);
+        return importer;
+    }
+
+    /**
+     * Records copies of the chunks, since the importer hands over its own map.
+     */
+    private List<Map<Long, Long>> captureChunks() {
+        List<Map<Long, Long>> chunks = Collections.synchronizedList(new ArrayList<>());
+        lenient().when(writer.apply(any(LocalDate.class), anyMap())).thenAnswer(i -> {
+            Map<Long, Long> chunk = i.getArgument(1);
+            if (!chunk.isEmpty()) {
+                chunks.add(new LinkedHashMap<>(chunk));
+            }
+            return List.of();
+        });
+        return chunks;
+    }
+
+    /**
+     * Verifies that every mode writes the same chunks, skips incomplete entries,
+     * marks the checkpoint completed and deletes the file afterwards.
+     */
+    @Test
+    void processAccessLogs_AllModes() throws Exception {
+        List<Map<Long, Long>> chunks = captureChunks();
+
+        for (String mode : new String[]{"stax", "jaxb-fragment", "full"}) {
+            // Distinct content per mode, so no file is treated as a re-drop of another
+            Path file = Files.writeString(folder.resolve("access-" + mode + ".xml"), XML + "<!-- " + mode + " -->");
+
+            importer(mode, 1000).processAccessLogs();
+
+            assertThat(file).doesNotExist();
+        }
+
+        // One chunk per file; the later entry for id 1 wins
+        assertThat(chunks).hasSize(3).allSatisfy(chunk ->
+                assertThat(chunk).containsExactly(entry(1L, 8L), entry(2L, 6L), entry(3L, 9L)));
+        verify(claims, times(3)).renew(anyString(), eq(5L));
+        verify(claims, times(3)).release(anyString(), eq(AccessLogImport.Status.COMPLETED));
+    }
+
+    /**
+     * Verifies that each full chunk is committed together with the checkpoint position.
+     */
+    @Test
+    void processAccessLogs_SplitsIntoChunks() throws Exception {
+        List<Map<Long, Long>> chunks = captureChunks();
+        Files.writeString(folder.resolve("access.xml"), XML);
+
+        importer("stax", 2).processAccessLogs();
+
+        assertThat(chunks).containsExactly(
+                Map.of(1L, 5L, 2L, 6L),
+                Map.of(1L, 8L, 3L, 9L));
+        verify(claims).renew(anyString(), eq(2L));
+        verify(claims).renew(anyString(), eq(5L));
+        verify(transactionManager, times(2)).commit(any());
+        verify(trending, times(2)).record(anyMap());
+    }
+
+    /**
+     * Verifies that an interrupted import resumes after the last committed entry.
+     */
+    @Test
+    void processAccessLogs_ResumesFromCheckpoint() throws Exception {
+        List<Map<Long, Long>> chunks = captureChunks();
+        Files.writeString(folder.resolve("access.xml"), XML);
+        when(claims.claim(anyString(), eq("access.xml"), any()))
+                .thenReturn(Optional.of(new AccessLogClaims.Claim(2, LocalDate.of(2025, 3, 14))));
+
+        importer("stax", 2).processAccessLogs();
+
+        assertThat(chunks).containsExactly(Map.of(1L, 8L, 3L, 9L));
+        verify(writer).apply(eq(LocalDate.of(2025, 3, 14)), anyMap());
+        verify(claims, never()).renew(anyString(), eq(2L));
+        verify(claims).release(anyString(), eq(AccessLogImport.Status.COMPLETED));
+    }
+
+    /**
+     * Verifies that a re-dropped file that was already imported is deleted without applying it.
+     */
+    @Test
+    void processAccessLogs_AlreadyImported_IsNotAppliedAgain() throws Exception {
+        Path file = Files.writeString(folder.resolve("access.xml"), XML);
+        AccessLogImport checkpoint = new AccessLogImport("hash", "access-yesterday.xml", LocalDate.of(2025, 3, 13));
+        checkpoint.setStatus(AccessLogImport.Status.COMPLETED);
+        when(claims.claim(anyString(), anyString(), any())).thenReturn(Optional.empty());
+        when(checkpoints.findById(anyString())).thenReturn(Optional.of(checkpoint));
+
+        importer("stax", 2).processAccessLogs();
+
+        assertThat(file).doesNotExist();
+        verifyNoInteractions(writer);
+    }
+
+    /**
+     * Verifies that a file held by another instance is left alone.
+     */
+    @Test
+    void processAccessLogs_ClaimedElsewhere_IsSkipped() throws Exception {
+        Path file = Files.writeString(folder.resolve("access.xml"), XML);
+        AccessLogImport checkpoint = new AccessLogImport("hash", "access.xml", LocalDate.of(2025, 3, 14));
+        checkpoint.setClaimedBy("node-2");
+        when(claims.claim(anyString(), anyString(), any())).thenReturn(Optional.empty());
+        when(checkpoints.findById(anyString())).thenReturn(Optional.of(checkpoint));
+
+        importer("stax", 2).processAccessLogs();
+
+        assertThat(file).exists();
+        verifyNoInteractions(writer);
+        verify(claims, never()).release(anyString(), any());
+    }
+
+    /**
+     * Verifies that a chunk is rolled back and the file kept when another instance took it over.
+     */
+    @Test
+    void processAccessLogs_LostClaim_RollsBackChunk() throws Exception {
+        captureChunks();
+        Path file = Files.writeString(folder.resolve("access.xml"), XML);
+        doThrow(new IllegalStateException("lost")).when(claims).renew(anyString(), anyLong());
+
+        importer("stax", 2).processAccessLogs();
+
+        assertThat(file).exists();
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(claims).release(anyString(), eq(AccessLogImport.Status.FAILED));
+    }
+
+    /**
+     * Verifies that two files with the same content in one run are applied only once.
+     */
+    @Test
+    void processAccessLogs_DuplicateContent_AppliedOnce() throws Exception {
+        List<Map<Long, Long>> chunks = captureChunks();
+        Files.writeString(folder.resolve("a.xml"), XML);
+        Files.writeString(folder.resolve("b.xml"), XML);
+
+        importer("stax", 1000).processAccessLogs();
+
+        assertThat(chunks).hasSize(1);
+    }
+
+    /**
+     * Verifies that a malformed file is kept for inspection and its checkpoint marked failed.
+     */
+    @Test
+    void processAccessLogs_MalformedFile_IsKept() throws Exception {
+        Path file = Files.writeString(folder.resolve("broken.xml"), "<accessLogs><entry>");
+
+        importer("stax", 1000).processAccessLogs();
+
+        assertThat(file).exists();
+        verify(claims).release(anyString(), eq(AccessLogImport.Status.FAILED));
+        verify(writer, never()).apply(any(), anyMap());
+    }
+
+    /**
+     * Verifies that the counts are written for the day in the file name, into its partition,
+     * and that the rollups are refreshed after the run.
+     */
+    @Test
+    void processAccessLogs_DayFromFileName() throws Exception {
+        captureChunks();
+        Files.writeString(folder.resolve("access-2025-03-14.xml"), XML);
+
+        importer("stax", 1000).processAccessLogs();
+
+        verify(writer).ensurePartition(LocalDate.of(2025, 3, 14));
+        verify(writer).apply(eq(LocalDate.of(2025, 3, 14)), anyMap());
+        verify(accessStats).rollUp();
+    }
+
+    @Test
+    void logDate_DefaultsToYesterday() {
+        AccessLogImporter importer = importer("stax", 1000);
+
+        assertThat(importer.logDate("access-2024-12-31.xml")).isEqualTo(LocalDate.of(2024, 12, 31));
+        assertThat(importer.logDate("access-2024-13-45.xml")).isEqualTo(LocalDate.now().minusDays(1));
+        assertThat(importer.logDate("access.xml")).isEqualTo(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Verifies that a submitted file is imported in the background and the rollups refreshed,
+     * and that a file already queued is not submitted twice.
+     */
+    @Test
+    void submit_ImportsFileInBackground() throws Exception {
+        List<Map<Long, Long>> chunks = captureChunks();
+        Path file = Files.writeString(folder.resolve("access-2025-03-14.xml"), XML);
+        AccessLogImporter importer = importer("stax", 1000);
+
+        importer.submit(file);
+        importer.submit(file);
+
+        verify(accessStats, timeout(5000)).rollUp();
+        assertThat(file).doesNotExist();
+        assertThat(chunks).hasSize(1);
+    }
+
+    /**
+     * Verifies that compressed NDJSON and CSV files produce the same chunks as the XML file,
+     * and that other files in the folder are left alone.
+     */
+    @Test
+    void processAccessLogs_CompressedAndOtherFormats() throws Exception {
+        List<Map<Long, Long>> chunks = captureChunks();
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(folder.resolve("access-1.ndjson.gz")))) {
+            out.write("""
+                    {"documentId": 1, "accessCount": 5}
+                    {"documentId": 2, "accessCount": 6}
+                    {"accessCount": 7}
+                    {"documentId": 1, "accessCount": 8}
+                    {"documentId": 3, "accessCount": 9}
+                    """.getBytes(StandardCharsets.UTF_8));
+        }
+        try (OutputStream out = new ZstdOutputStream(Files.newOutputStream(folder.resolve("access-2.csv.zst")))) {
+            out.write("documentId,accessCount\n1,5\n2,6\n,7\n1,8\n3,9\n".getBytes(StandardCharsets.UTF_8));
+        }
+        Path ignored = Files.writeString(folder.resolve("notes.txt"), "not an access log");
+
+        importer("stax", 1000).processAccessLogs();
+
+        assertThat(chunks).hasSize(2).allSatisfy(chunk ->
+                assertThat(chunk).containsExactly(entry(1L, 8L), entry(2L, 6L), entry(3L, 9L)));
+        assertThat(ignored).exists();
+    }
+}
@@ -0,0 +1,87 @@
+package org.swen.dms.batch.format;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link AccessLogFormats}.
+ */
+class AccessLogFormatsTest {
+
+    private static final String CONTENT = "documentId,accessCount\n1,5\n";
+
+    private final AccessLogFormats formats = new AccessLogFormats(List.of(
+            new XmlAccessLogParser("stax"), new NdjsonAccessLogParser(), new CsvAccessLogParser()));
+
+    /**
+     * Verifies that the parser is chosen by extension, ignoring a compression extension.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "access.xml, xml (stax)",
+            "ACCESS-2025-03-14.XML.GZ, xml (stax)",
+            "access.ndjson.zst, ndjson",
+            "access.jsonl, ndjson",
+            "access.csv.gzip, csv",
+            "access.xml.part, ",
+            ".access.xml, ",
+            "access.gz, ",
+            "notes.txt, "
+    })
+    void parserFor_ByExtension(String fileName, String parser) {
+        assertThat(formats.parserFor(Path.of(fileName)).map(AccessLogParser::name).orElse(null)).isEqualTo(parser);
+    }
+
+    /**
+     * Verifies that gzip, zstd and plain content are told apart by their magic bytes.
+     */
+    @Test
+    void decompress_DetectsByMagicBytes() throws Exception {
+        byte[] plain = CONTENT.getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(plain);
+        }
+        ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+        try (OutputStream out = new ZstdOutputStream(zstd)) {
+            out.write(plain);
+        }
+
+        for (byte[] bytes : List.of(plain, gzip.toByteArray(), zstd.toByteArray())) {
+            try (InputStream in = AccessLogFormats.decompress(new ByteArrayInputStream(bytes))) {
+                assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+            }
+        }
+    }
+
+    /**
+     * Verifies that files shorter than the magic bytes are read as is.
+     */
+    @Test
+    void decompress_ShortContent() throws Exception {
+        try (InputStream in = AccessLogFormats.decompress(new ByteArrayInputStream(new byte[]{0x1f}))) {
+            assertThat(in.readAllBytes()).containsExactly(0x1f);
+        }
+    }
+
+    @Test
+    void duplicateExtension_Rejected() {
+        assertThatThrownBy(() -> new AccessLogFormats(List.of(new CsvAccessLogParser(), new CsvAccessLogParser())))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
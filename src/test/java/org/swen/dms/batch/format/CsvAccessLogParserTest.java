@@ -0,0 +1,58 @@
+package org.swen.dms.batch.format;
+
+import org.junit.jupiter.api.Test;
+import org.swen.dms.batch.xml.AccessLogEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for {@link CsvAccessLogParser}.
+ */
+class CsvAccessLogParserTest {
+
+    private final CsvAccessLogParser parser = new CsvAccessLogParser();
+
+    private static InputStream csv(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<AccessLogEntry> read(String body) throws IOException {
+        List<AccessLogEntry> entries = new ArrayList<>();
+        parser.read(csv(body), entries::add);
+        return entries;
+    }
+
+    /**
+     * Verifies that without a header the first two columns are used.
+     */
+    @Test
+    void read_NoHeader() throws Exception {
+        assertThat(read("1,10\n\n# comment\n\"2\", 20\n3,x\n"))
+                .extracting(AccessLogEntry::getDocumentId, AccessLogEntry::getAccessCount)
+                .containsExactly(tuple(1L, 10L), tuple(2L, 20L), tuple(3L, null));
+    }
+
+    /**
+     * Verifies that a header maps columns by name, in any order and with extra columns.
+     */
+    @Test
+    void read_HeaderByName() throws Exception {
+        assertThat(read("source,access_count,document_id\nweb,10,1\napp,20\n"))
+                .extracting(AccessLogEntry::getDocumentId, AccessLogEntry::getAccessCount)
+                .containsExactly(tuple(1L, 10L), tuple(null, 20L));
+    }
+
+    @Test
+    void read_HeaderWithoutColumns_Fails() {
+        assertThatThrownBy(() -> read("id,count\n1,10\n")).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,57 @@
+package org.swen.dms.batch.format;
+
+import org.junit.jupiter.api.Test;
+import org.swen.dms.batch.xml.AccessLogEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for {@link NdjsonAccessLogParser}.
+ */
+class NdjsonAccessLogParserTest {
+
+    private final NdjsonAccessLogParser parser = new NdjsonAccessLogParser();
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Verifies both field spellings, string numbers, unknown fields, blank lines and bad values.
+     */
+    @Test
+    void read_AllEntries() throws Exception {
+        List<AccessLogEntry> entries = new ArrayList<>();
+
+        long count = parser.read(json("""
+                {"documentId": 1, "accessCount": 10}
+
+                {"document_id": "2", "access_count": 20, "source": {"app": "web"}}
+                {"documentId": 3, "accessCount": "many", "tags": ["a"]}
+                {"accessCount": 40}
+                """), entries::add);
+
+        assertThat(count).isEqualTo(4);
+        assertThat(entries)
+                .extracting(AccessLogEntry::getDocumentId, AccessLogEntry::getAccessCount)
+                .containsExactly(tuple(1L, 10L), tuple(2L, 20L), tuple(3L, null), tuple(null, 40L));
+    }
+
+    /**
+     * Verifies that a line that is not an object fails the file.
+     */
+    @Test
+    void read_NotAnObject_Fails() {
+        assertThatThrownBy(() -> parser.read(json("{\"documentId\": 1, \"accessCount\": 1}\n[1, 2]\n"), e -> { }))
+                .isInstanceOf(IOException.class);
+    }
+}
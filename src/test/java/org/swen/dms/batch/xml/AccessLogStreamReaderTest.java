@@ -0,0 +1,76 @@
+package org.swen.dms.batch.xml;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for {@link AccessLogStreamReader}, in plain StAX and JAXB-fragment mode.
+ */
+class AccessLogStreamReaderTest {
+
+    private static InputStream xml(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Verifies that every entry is read, including whitespace and unknown elements.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void read_AllEntries(boolean unmarshalFragments) throws Exception {
+        String body = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <accessLogs>
+                    <entry><documentId>1</documentId><accessCount>10</accessCount></entry>
+                    <entry>
+                        <documentId> 2 </documentId>
+                        <source>web</source>
+                        <accessCount>20</accessCount>
+                    </entry>
+                    <entry><documentId>3</documentId></entry>
+                </accessLogs>
+                """;
+        List<AccessLogEntry> entries = new ArrayList<>();
+
+        long count = new AccessLogStreamReader(unmarshalFragments).read(xml(body), entries::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(entries)
+                .extracting(AccessLogEntry::getDocumentId, AccessLogEntry::getAccessCount)
+                .containsExactly(tuple(1L, 10L), tuple(2L, 20L), tuple(3L, null));
+    }
+
+    /**
+     * Verifies that a large document is consumed in a single pass, entry by entry.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void read_LargeStream(boolean unmarshalFragments) throws Exception {
+        int n = 50_000;
+        List<InputStream> parts = new ArrayList<>();
+        parts.add(xml("<accessLogs>"));
+        IntStream.range(0, n).forEach(i -> parts.add(
+                xml("<entry><documentId>" + i + "</documentId><accessCount>1</accessCount></entry>")));
+        parts.add(xml("</accessLogs>"));
+        AtomicLong sum = new AtomicLong();
+
+        long count = new AccessLogStreamReader(unmarshalFragments)
+                .read(new SequenceInputStream(Collections.enumeration(parts)), e -> sum.addAndGet(e.getAccessCount()));
+
+        assertThat(count).isEqualTo(n);
+        assertThat(sum.get()).isEqualTo(n);
+    }
+}
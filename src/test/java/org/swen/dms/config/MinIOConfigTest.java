@@ -0,0 +1,48 @@
+package org.swen.dms.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.swen.dms.storage.MinioBlobStore;
+import org.swen.dms.storage.PresignedUrl;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the storage settings of {@link MinIOConfig}; signing is local, so no MinIO is needed.
+ */
+class MinIOConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(MinIOConfig.class);
+
+    /**
+     * Verifies that downloads are streamed by default instead of redirected to the internal endpoint.
+     */
+    @Test
+    void defaults_NoPresignedDownloads() {
+        runner.run(context -> {
+            MinioBlobStore store = context.getBean(MinioBlobStore.class);
+
+            assertThat(store.presignGet("key.pdf", "Report.pdf")).isEmpty();
+        });
+    }
+
+    /**
+     * Verifies that download URLs are signed for the public endpoint once enabled.
+     */
+    @Test
+    void getTtlAndPublicEndpoint_PresignsForPublicHost() {
+        runner.withPropertyValues("dms.storage.presigned.get-ttl-seconds=300",
+                        "dms.storage.minio.public-endpoint=https://files.example.com")
+                .run(context -> {
+                    MinioBlobStore store = context.getBean(MinioBlobStore.class);
+
+                    Optional<PresignedUrl> url = store.presignGet("key.pdf", "Report.pdf");
+
+                    assertThat(url).isPresent();
+                    assertThat(url.get().url()).startsWith("https://files.example.com/documents/key.pdf");
+                });
+    }
+}
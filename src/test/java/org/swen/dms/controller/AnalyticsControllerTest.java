@@ -0,0 +1,93 @@
+package org.swen.dms.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchDataAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.swen.dms.dto.TopDocument;
+import org.swen.dms.dto.TrendingDocument;
+import org.swen.dms.service.AccessStatsService;
+import org.swen.dms.service.TrendingService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Web layer tests for {@link AnalyticsController}.
+ */
+@WebMvcTest(controllers = AnalyticsController.class,
+    excludeAutoConfiguration = {RabbitAutoConfiguration.class, ElasticsearchDataAutoConfiguration.class})
+@AutoConfigureMockMvc(addFilters = false)
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private AccessStatsService accessStats;
+
+    @MockitoBean
+    private TrendingService trending;
+
+    /**
+     * Verifies that the default window is the last 30 days, ending today.
+     */
+    @Test
+    void topDocuments_DefaultLast30Days() throws Exception {
+        LocalDate today = LocalDate.now();
+        when(accessStats.topDocuments(today.minusDays(29), today, 10))
+                .thenReturn(List.of(new TopDocument(7L, "Invoice", 42)));
+
+        mvc.perform(get("/api/analytics/top-documents"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].documentId").value(7))
+                .andExpect(jsonPath("$[0].accessCount").value(42));
+    }
+
+    /**
+     * Verifies that an explicit range is passed through and an inverted one is rejected.
+     */
+    @Test
+    void topDocuments_ExplicitRange() throws Exception {
+        when(accessStats.topDocuments(any(), any(), anyInt())).thenReturn(List.of());
+
+        mvc.perform(get("/api/analytics/top-documents")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-03-31")
+                        .param("limit", "5"))
+                .andExpect(status().isOk());
+        verify(accessStats).topDocuments(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31), 5);
+
+        mvc.perform(get("/api/analytics/top-documents")
+                        .param("from", "2025-04-01")
+                        .param("to", "2025-03-31"))
+                .andExpect(status().isBadRequest());
+        verifyNoMoreInteractions(accessStats);
+    }
+
+    /**
+     * Verifies that trending documents are served with their score bounds.
+     */
+    @Test
+    void trending_ReturnsTopK() throws Exception {
+        when(trending.top(3)).thenReturn(List.of(new TrendingDocument(7L, "Invoice", 12.5, 10.0)));
+
+        mvc.perform(get("/api/analytics/trending").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].documentId").value(7))
+                .andExpect(jsonPath("$[0].score").value(12.5))
+                .andExpect(jsonPath("$[0].minScore").value(10.0));
+    }
+}
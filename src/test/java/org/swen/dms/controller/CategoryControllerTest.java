@@ -10,15 +10,17 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.swen.dms.dto.BulkCategoryRequest;
+import org.swen.dms.dto.BulkCategoryResult;
 import org.swen.dms.entity.Category;
+import org.swen.dms.repository.jpa.CategoryCountView;
 import org.swen.dms.service.CategoryService;
 
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -60,6 +62,31 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$[1].name").value("Personal"));
     }
 
+    /**
+     * 1b. Listing with document counts is a separate variant of GET /api/categories
+     */
+    @Test
+    void listCategoriesWithCounts_Success() throws Exception {
+        CategoryCountView invoices = new CategoryCountView() {
+            public Long getId() { return 1L; }
+            public String getName() { return "Invoice"; }
+            public String getPath() { return "Invoice"; }
+            public Long getParentId() { return null; }
+            public String getDescription() { return null; }
+            public Long getDocumentCount() { return 42L; }
+            public Long getSubtreeDocumentCount() { return 42L; }
+        };
+        when(service.getAllCategoriesWithCounts()).thenReturn(List.of(invoices));
+
+        mvc.perform(get("/api/categories").param("withCounts", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Invoice"))
+                .andExpect(jsonPath("$[0].documentCount").value(42));
+
+        verify(service, never()).getAllCategories();
+    }
+
     /**
      * 2. Test Listing (Empty Database)
      */
@@ -81,7 +108,7 @@ class CategoryControllerTest {
         Category newCat = createCategory(5L, "Work");
 
         // Service expects (String, String), so we must mock (String, null)
-        when(service.createCategory(eq("Work"), isNull())).thenReturn(newCat);
+        when(service.createCategory(eq("Work"), isNull(), isNull())).thenReturn(newCat);
 
         mvc.perform(post("/api/categories")
                         .param("name", "Work")
@@ -91,6 +118,21 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$.name").value("Work"));
     }
 
+    /**
+     * 3b. Test Creation below a parent category
+     */
+    @Test
+    void createCategory_WithParent() throws Exception {
+        Category child = createCategory(6L, "Invoices");
+        when(service.createCategory(eq("Invoices"), isNull(), eq(5L))).thenReturn(child);
+
+        mvc.perform(post("/api/categories")
+                        .param("name", "Invoices")
+                        .param("parentId", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(6L));
+    }
+
     /**
      * 4. Test Creation Validation (Missing Parameter)
      */
@@ -116,6 +158,47 @@ class CategoryControllerTest {
         verify(service).assignCategoryToDoc(catId, docId);
     }
 
+    /**
+     * 5b. Test Bulk Assignment: returns the affected count
+     */
+    @Test
+    void assignCategoryBulk_Success() throws Exception {
+        when(service.assignCategoryToDocs(eq(1L), any(BulkCategoryRequest.class)))
+                .thenReturn(new BulkCategoryResult(1L, 2));
+
+        mvc.perform(post("/api/categories/1/assign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"documentIds\": [4, 5, 6]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categoryId").value(1))
+                .andExpect(jsonPath("$.affected").value(2));
+
+        verify(service).assignCategoryToDocs(eq(1L), argThat(r -> r.getDocumentIds().equals(List.of(4L, 5L, 6L))));
+    }
+
+    /**
+     * 5c. Test Bulk Removal by query, and rejected selections
+     */
+    @Test
+    void removeCategoryBulk_Validation() throws Exception {
+        when(service.removeCategoryFromDocs(eq(1L), any(BulkCategoryRequest.class)))
+                .thenReturn(new BulkCategoryResult(1L, 7));
+
+        mvc.perform(post("/api/categories/1/remove")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"invoice 2024\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(7));
+
+        for (String body : new String[]{"{}", "{\"documentIds\": [1], \"query\": \"x\"}", "{\"documentIds\": [1, null]}"}) {
+            mvc.perform(post("/api/categories/1/remove")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(service, times(1)).removeCategoryFromDocs(any(), any());
+    }
+
     /**
      * 6. Test Duplicate/Conflict (Service Exception)
      * FIX: Added 'isNull()' to match the service signature
@@ -123,7 +206,7 @@ class CategoryControllerTest {
     @Test
     void createCategory_Duplicate() throws Exception {
         // Service expects (String, String), so we must mock (String, null)
-        when(service.createCategory(eq("Duplicate"), isNull()))
+        when(service.createCategory(eq("Duplicate"), isNull(), isNull()))
                 .thenThrow(new IllegalArgumentException("Category exists"));
 
         mvc.perform(post("/api/categories")
@@ -12,7 +12,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.swen.dms.entity.Document;
+import org.swen.dms.repository.jpa.DocumentTitleView;
 import org.swen.dms.service.DocumentService;
 
 import java.time.LocalDateTime;
@@ -128,6 +131,41 @@ class DocumentControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2L));
     }
 
+    /**
+     * Verifies that GET /api/documents?category=... lists the category's subtree.
+     */
+    @Test
+    void listDocuments_ByCategory() throws Exception {
+        when(service.findByCategory("Finance")).thenReturn(List.of(createTestDocument(3L)));
+
+        mvc.perform(get("/api/documents").param("category", "Finance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(3L));
+
+        verify(service, never()).findAll();
+    }
+
+    /**
+     * Verifies that GET /api/documents/titles returns id/title pairs for the typeahead.
+     */
+    @Test
+    void searchTitles_Success() throws Exception {
+        DocumentTitleView view = new DocumentTitleView() {
+            public Long getId() { return 4L; }
+            public String getTitle() { return "Annual Invoice 2024"; }
+        };
+        when(service.searchTitles("voice", 5)).thenReturn(List.of(view));
+
+        mvc.perform(get("/api/documents/titles")
+                        .param("q", "voice")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(4L))
+                .andExpect(jsonPath("$[0].title").value("Annual Invoice 2024"));
+    }
+
     /**
      * Verifies that GET /api/documents/{id}/download returns the document file
      * with correct content type and headers.
@@ -136,14 +174,21 @@ class DocumentControllerTest {
     void downloadDocument_Success() throws Exception {
         byte[] fileContent = "PDF content".getBytes();
 
+        StreamingResponseBody body = out -> out.write(fileContent);
         when(service.downloadDocument(1L))
                 .thenReturn(ResponseEntity.ok()
                         .contentType(MediaType.APPLICATION_PDF)
-                        .body(fileContent));
+                        .body(body));
+
+        // The body is written asynchronously
+        MvcResult result = mvc.perform(get("/api/documents/1/download"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mvc.perform(get("/api/documents/1/download"))
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(header().string("Content-Type", "application/pdf"));
+                .andExpect(header().string("Content-Type", "application/pdf"))
+                .andExpect(content().bytes(fileContent));
     }
 
     /**
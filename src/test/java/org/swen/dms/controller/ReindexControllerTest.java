@@ -0,0 +1,80 @@
+package org.swen.dms.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchDataAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.swen.dms.dto.ReindexStatus;
+import org.swen.dms.service.ReindexService;
+
+import java.time.Instant;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Web layer tests for {@link ReindexController}.
+ */
+@WebMvcTest(controllers = ReindexController.class,
+    excludeAutoConfiguration = {RabbitAutoConfiguration.class, ElasticsearchDataAutoConfiguration.class})
+@AutoConfigureMockMvc(addFilters = false)
+class ReindexControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private ReindexService reindexService;
+
+    private ReindexStatus running() {
+        return new ReindexStatus(ReindexStatus.State.RUNNING, "documents_v2", "documents_v1",
+                10, 4, 0, 2.0, Instant.now(), null, null);
+    }
+
+    /**
+     * Verifies that POST /api/admin/reindex starts a run and answers 202 Accepted.
+     */
+    @Test
+    void start_Idle_ReturnsAccepted() throws Exception {
+        when(reindexService.getStatus()).thenReturn(ReindexStatus.idle());
+        when(reindexService.startReindex()).thenReturn(running());
+
+        mvc.perform(post("/api/admin/reindex"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.targetIndex").value("documents_v2"));
+
+        verify(reindexService).startReindex();
+    }
+
+    /**
+     * Verifies that a second POST while a run is active answers 409 Conflict.
+     */
+    @Test
+    void start_AlreadyRunning_ReturnsConflict() throws Exception {
+        when(reindexService.getStatus()).thenReturn(running());
+
+        mvc.perform(post("/api/admin/reindex"))
+                .andExpect(status().isConflict());
+
+        verify(reindexService, never()).startReindex();
+    }
+
+    /**
+     * Verifies that GET /api/admin/reindex reports progress.
+     */
+    @Test
+    void status_ReturnsProgress() throws Exception {
+        when(reindexService.getStatus()).thenReturn(running());
+
+        mvc.perform(get("/api/admin/reindex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.indexedDocuments").value(4))
+                .andExpect(jsonPath("$.totalDocuments").value(10));
+    }
+}
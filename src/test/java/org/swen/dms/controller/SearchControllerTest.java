@@ -10,10 +10,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.swen.dms.dto.FacetBucket;
+import org.swen.dms.dto.SearchResult;
 import org.swen.dms.entity.DocumentSearch;
 import org.swen.dms.service.SearchService;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
@@ -37,6 +40,10 @@ class SearchControllerTest {
     @MockitoBean
     private SearchService searchService;
 
+    private SearchResult es(List<DocumentSearch> hits) {
+        return new SearchResult(SearchResult.ENGINE_ELASTICSEARCH, hits, hits.size(), Map.of());
+    }
+
     private DocumentSearch createTestDocumentSearch(String id, String title, String content) {
         DocumentSearch doc = new DocumentSearch();
         doc.setId(id);
@@ -55,16 +62,17 @@ class SearchControllerTest {
                 createTestDocumentSearch("2", "Invoice Report", "Report content")
         );
 
-        when(searchService.searchDocuments("invoice")).thenReturn(results);
+        when(searchService.search("invoice")).thenReturn(es(results));
 
         mvc.perform(get("/api/search")
                         .param("q", "invoice"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].title").value("Invoice Document"))
-                .andExpect(jsonPath("$[1].title").value("Invoice Report"));
+                .andExpect(jsonPath("$[1].title").value("Invoice Report"))
+                .andExpect(header().string("X-Search-Engine", "elasticsearch"));
 
-        verify(searchService).searchDocuments("invoice");
+        verify(searchService).search("invoice");
     }
 
     /**
@@ -72,14 +80,14 @@ class SearchControllerTest {
      */
     @Test
     void search_NoResults() throws Exception {
-        when(searchService.searchDocuments("nonexistent")).thenReturn(List.of());
+        when(searchService.search("nonexistent")).thenReturn(es(List.of()));
 
         mvc.perform(get("/api/search")
                         .param("q", "nonexistent"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(searchService).searchDocuments("nonexistent");
+        verify(searchService).search("nonexistent");
     }
 
     /**
@@ -87,14 +95,14 @@ class SearchControllerTest {
      */
     @Test
     void search_EmptyQuery() throws Exception {
-        when(searchService.searchDocuments("")).thenReturn(List.of());
+        when(searchService.search("")).thenReturn(es(List.of()));
 
         mvc.perform(get("/api/search")
                         .param("q", ""))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(searchService).searchDocuments("");
+        verify(searchService).search("");
     }
 
     /**
@@ -119,7 +127,7 @@ class SearchControllerTest {
                 createTestDocumentSearch("3", "Contract Amendment", "Contract update")
         );
 
-        when(searchService.searchDocuments("contract")).thenReturn(results);
+        when(searchService.search("contract")).thenReturn(es(results));
 
         mvc.perform(get("/api/search")
                         .param("q", "contract"))
@@ -129,7 +137,7 @@ class SearchControllerTest {
                 .andExpect(jsonPath("$[1].id").value("2"))
                 .andExpect(jsonPath("$[2].id").value("3"));
 
-        verify(searchService).searchDocuments("contract");
+        verify(searchService).search("contract");
     }
 
     /**
@@ -137,14 +145,14 @@ class SearchControllerTest {
      */
     @Test
     void search_WithSpecialCharacters() throws Exception {
-        when(searchService.searchDocuments("invoice-2024")).thenReturn(List.of());
+        when(searchService.search("invoice-2024")).thenReturn(es(List.of()));
 
         mvc.perform(get("/api/search")
                         .param("q", "invoice-2024"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(searchService).searchDocuments("invoice-2024");
+        verify(searchService).search("invoice-2024");
     }
 
     /**
@@ -156,7 +164,7 @@ class SearchControllerTest {
                 createTestDocumentSearch("1", "Document 12345", "Reference number 12345")
         );
 
-        when(searchService.searchDocuments("12345")).thenReturn(results);
+        when(searchService.search("12345")).thenReturn(es(results));
 
         mvc.perform(get("/api/search")
                         .param("q", "12345"))
@@ -164,7 +172,7 @@ class SearchControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].title").value("Document 12345"));
 
-        verify(searchService).searchDocuments("12345");
+        verify(searchService).search("12345");
     }
 
     /**
@@ -173,14 +181,14 @@ class SearchControllerTest {
     @Test
     void search_LongQuery() throws Exception {
         String longQuery = "this is a very long search query that contains multiple words and phrases";
-        when(searchService.searchDocuments(longQuery)).thenReturn(List.of());
+        when(searchService.search(longQuery)).thenReturn(es(List.of()));
 
         mvc.perform(get("/api/search")
                         .param("q", longQuery))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(searchService).searchDocuments(longQuery);
+        verify(searchService).search(longQuery);
     }
 
     /**
@@ -189,7 +197,7 @@ class SearchControllerTest {
      */
     @Test
     void search_ServiceFailure() throws Exception {
-        when(searchService.searchDocuments("crash")).thenThrow(new RuntimeException("Elasticsearch is down"));
+        when(searchService.search("crash")).thenThrow(new RuntimeException("Elasticsearch is down"));
 
         mvc.perform(get("/api/search")
                         .param("q", "crash"))
@@ -206,28 +214,69 @@ class SearchControllerTest {
     @Test
     void search_PreservesWhitespace() throws Exception {
         String queryWithSpace = "  invoice  ";
-        when(searchService.searchDocuments(anyString())).thenReturn(List.of());
+        when(searchService.search(anyString())).thenReturn(es(List.of()));
 
         mvc.perform(get("/api/search")
                         .param("q", queryWithSpace))
                 .andExpect(status().isOk());
 
         // Verify the service received the EXACT string with spaces
-        verify(searchService).searchDocuments("  invoice  ");
+        verify(searchService).search("  invoice  ");
     }
 
     /**
-     * Verifies behavior when the service returns null (instead of empty list).
+     * Verifies behavior when the service returns null (instead of a result).
      * The controller should serialize this as a null JSON response body.
      */
     @Test
     void search_ServiceReturnsNull() throws Exception {
         // Simulating a buggy service returning null
-        when(searchService.searchDocuments("null-check")).thenReturn(null);
+        when(searchService.search("null-check")).thenReturn(null);
 
         mvc.perform(get("/api/search")
                         .param("q", "null-check"))
                 .andExpect(status().isOk())
                 .andExpect(content().string("")); // Or empty string/null depending on Jackson config
     }
+
+    /**
+     * Verifies that GET /api/search/faceted returns hits and facet buckets together.
+     */
+    @Test
+    void searchFaceted_ReturnsHitsAndFacets() throws Exception {
+        SearchResult result = new SearchResult(
+                List.of(createTestDocumentSearch("1", "Invoice Document", "Invoice content")),
+                1,
+                Map.of("categories", List.of(new FacetBucket("Finance", 1)))
+        );
+
+        when(searchService.searchWithFacets("invoice", "Finance")).thenReturn(result);
+
+        mvc.perform(get("/api/search/faceted")
+                        .param("q", "invoice")
+                        .param("category", "Finance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.hits", hasSize(1)))
+                .andExpect(jsonPath("$.facets.categories[0].key").value("Finance"))
+                .andExpect(jsonPath("$.facets.categories[0].count").value(1));
+
+        verify(searchService).searchWithFacets("invoice", "Finance");
+    }
+
+    /**
+     * Verifies that results served by the Postgres fallback are labelled as such.
+     */
+    @Test
+    void search_FallbackEngine_SetsHeader() throws Exception {
+        SearchResult fallback = new SearchResult(SearchResult.ENGINE_POSTGRES,
+                List.of(createTestDocumentSearch("7", "Invoice", "Invoice content")), 1, Map.of());
+        when(searchService.search("invoice")).thenReturn(fallback);
+
+        mvc.perform(get("/api/search")
+                        .param("q", "invoice"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Search-Engine", "postgres"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
 }
@@ -0,0 +1,75 @@
+package org.swen.dms.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchDataAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.swen.dms.dto.RebalanceStatus;
+import org.swen.dms.storage.ShardRebalancer;
+
+import java.time.Instant;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Web layer tests for {@link StorageController}.
+ */
+@WebMvcTest(controllers = StorageController.class,
+    excludeAutoConfiguration = {RabbitAutoConfiguration.class, ElasticsearchDataAutoConfiguration.class})
+@AutoConfigureMockMvc(addFilters = false)
+class StorageControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private ShardRebalancer rebalancer;
+
+    private RebalanceStatus running() {
+        return new RebalanceStatus(RebalanceStatus.State.RUNNING, 10, 2, 0, Instant.now(), null, null);
+    }
+
+    /**
+     * Verifies that POST /api/admin/storage/rebalance starts a run and answers 202 Accepted.
+     */
+    @Test
+    void start_Idle_ReturnsAccepted() throws Exception {
+        when(rebalancer.getStatus()).thenReturn(RebalanceStatus.idle());
+        when(rebalancer.start()).thenReturn(running());
+
+        mvc.perform(post("/api/admin/storage/rebalance"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.movedObjects").value(2));
+    }
+
+    /**
+     * Verifies that a second run is refused with 409 Conflict while one is in progress.
+     */
+    @Test
+    void start_AlreadyRunning_ReturnsConflict() throws Exception {
+        when(rebalancer.getStatus()).thenReturn(running());
+
+        mvc.perform(post("/api/admin/storage/rebalance"))
+                .andExpect(status().isConflict());
+        verify(rebalancer, never()).start();
+    }
+
+    /**
+     * Verifies that GET returns the progress of the current run.
+     */
+    @Test
+    void status_ReturnsProgress() throws Exception {
+        when(rebalancer.getStatus()).thenReturn(running());
+
+        mvc.perform(get("/api/admin/storage/rebalance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scannedObjects").value(10));
+    }
+}
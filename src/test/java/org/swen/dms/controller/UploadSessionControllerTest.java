@@ -0,0 +1,141 @@
+package org.swen.dms.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchDataAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.swen.dms.dto.UploadSessionStatus;
+import org.swen.dms.entity.Document;
+import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.service.ChunkedUploadService;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Web layer tests for {@link UploadSessionController}.
+ */
+@WebMvcTest(controllers = UploadSessionController.class,
+    excludeAutoConfiguration = {RabbitAutoConfiguration.class, ElasticsearchDataAutoConfiguration.class})
+@AutoConfigureMockMvc(addFilters = false)
+class UploadSessionControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private ChunkedUploadService service;
+
+    private static UploadSessionStatus session(long receivedBytes, List<Integer> chunks) {
+        return new UploadSessionStatus("s1", 25, 10, 3, receivedBytes, chunks, LocalDateTime.now(), null);
+    }
+
+    /**
+     * Verifies that POST /api/documents/upload-sessions opens a session.
+     */
+    @Test
+    void create_ReturnsSession() throws Exception {
+        when(service.createSession("Scan", "Finance", 25L)).thenReturn(session(0, List.of()));
+
+        mvc.perform(post("/api/documents/upload-sessions")
+                        .param("size", "25").param("title", "Scan").param("category", "Finance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("s1"))
+                .andExpect(jsonPath("$.chunkSize").value(10))
+                .andExpect(jsonPath("$.chunkCount").value(3));
+    }
+
+    /**
+     * Verifies that an unacceptable size answers 400 Bad Request.
+     */
+    @Test
+    void create_InvalidSize_ReturnsBadRequest() throws Exception {
+        when(service.createSession(null, null, 0L)).thenThrow(new IllegalArgumentException("Size must be positive"));
+
+        mvc.perform(post("/api/documents/upload-sessions").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Verifies that a chunk is passed on as the raw body with its length.
+     */
+    @Test
+    void uploadChunk_PassesBodyStream() throws Exception {
+        mvc.perform(put("/api/documents/upload-sessions/s1/chunks/2")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[10]))
+                .andExpect(status().isNoContent());
+
+        verify(service).uploadChunk(eq("s1"), eq(2), any(InputStream.class), eq(10L));
+    }
+
+    /**
+     * Verifies that a chunk of the wrong size answers 400 and an unknown session 404.
+     */
+    @Test
+    void uploadChunk_Errors() throws Exception {
+        doThrow(new IllegalArgumentException("Chunk 1 must have 10 bytes, not 3"))
+                .when(service).uploadChunk(eq("s1"), eq(1), any(), eq(3L));
+        doThrow(new NotFoundException("Upload session gone not found"))
+                .when(service).uploadChunk(eq("gone"), eq(1), any(), anyLong());
+
+        mvc.perform(put("/api/documents/upload-sessions/s1/chunks/1").content(new byte[3]))
+                .andExpect(status().isBadRequest());
+        mvc.perform(put("/api/documents/upload-sessions/gone/chunks/1").content(new byte[10]))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Verifies that GET returns the received offset for resuming.
+     */
+    @Test
+    void status_ReturnsReceivedOffset() throws Exception {
+        when(service.getStatus("s1")).thenReturn(session(10, List.of(1, 3)));
+
+        mvc.perform(get("/api/documents/upload-sessions/s1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedBytes").value(10))
+                .andExpect(jsonPath("$.receivedChunks[1]").value(3));
+    }
+
+    /**
+     * Verifies that completing returns the created document, and missing chunks answer 400.
+     */
+    @Test
+    void complete_ReturnsDocument() throws Exception {
+        Document doc = new Document();
+        doc.setId(7L);
+        doc.setTitle("Scan.pdf");
+        when(service.complete("s1")).thenReturn(doc);
+        when(service.complete("s2")).thenThrow(new IllegalArgumentException("Missing chunks: [2]"));
+
+        mvc.perform(post("/api/documents/upload-sessions/s1/complete"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7));
+        mvc.perform(post("/api/documents/upload-sessions/s2/complete"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Verifies that DELETE aborts the session.
+     */
+    @Test
+    void abort_ReturnsNoContent() throws Exception {
+        mvc.perform(delete("/api/documents/upload-sessions/s1"))
+                .andExpect(status().isNoContent());
+
+        verify(service).abort("s1");
+    }
+}
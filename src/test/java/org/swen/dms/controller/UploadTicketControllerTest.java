@@ -0,0 +1,99 @@
+package org.swen.dms.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchDataAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.swen.dms.dto.UploadTicket;
+import org.swen.dms.entity.Document;
+import org.swen.dms.service.DirectUploadService;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Web layer tests for {@link UploadTicketController}.
+ */
+@WebMvcTest(controllers = UploadTicketController.class,
+    excludeAutoConfiguration = {RabbitAutoConfiguration.class, ElasticsearchDataAutoConfiguration.class})
+@AutoConfigureMockMvc(addFilters = false)
+class UploadTicketControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private DirectUploadService service;
+
+    /**
+     * Verifies that POST /api/documents/upload-tickets returns the presigned upload URL.
+     */
+    @Test
+    void issue_ReturnsTicket() throws Exception {
+        when(service.issueTicket("Report", "Finance", 1234L)).thenReturn(Optional.of(
+                new UploadTicket("k.pdf", "http://minio/put", "PUT", Instant.now(), "signed")));
+
+        mvc.perform(post("/api/documents/upload-tickets")
+                        .param("size", "1234").param("title", "Report").param("category", "Finance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uploadUrl").value("http://minio/put"))
+                .andExpect(jsonPath("$.ticket").value("signed"));
+    }
+
+    /**
+     * Verifies that backends without presigned URLs answer 501 Not Implemented.
+     */
+    @Test
+    void issue_Unsupported_ReturnsNotImplemented() throws Exception {
+        when(service.issueTicket(null, null, 10L)).thenReturn(Optional.empty());
+
+        mvc.perform(post("/api/documents/upload-tickets").param("size", "10"))
+                .andExpect(status().isNotImplemented());
+    }
+
+    /**
+     * Verifies that an invalid size answers 400 Bad Request.
+     */
+    @Test
+    void issue_InvalidSize_ReturnsBadRequest() throws Exception {
+        when(service.issueTicket(null, null, 0L)).thenThrow(new IllegalArgumentException("Size must be positive"));
+
+        mvc.perform(post("/api/documents/upload-tickets").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Verifies that completing a ticket returns the created document.
+     */
+    @Test
+    void complete_ReturnsDocument() throws Exception {
+        Document doc = new Document();
+        doc.setId(7L);
+        doc.setTitle("Report.pdf");
+        when(service.complete("signed")).thenReturn(doc);
+
+        mvc.perform(post("/api/documents/upload-tickets/complete").param("ticket", "signed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.title").value("Report.pdf"));
+    }
+
+    /**
+     * Verifies that an invalid ticket answers 400 Bad Request.
+     */
+    @Test
+    void complete_InvalidTicket_ReturnsBadRequest() throws Exception {
+        when(service.complete("forged")).thenThrow(new IllegalArgumentException("Invalid upload ticket"));
+
+        mvc.perform(post("/api/documents/upload-tickets/complete").param("ticket", "forged"))
+                .andExpect(status().isBadRequest());
+    }
+}
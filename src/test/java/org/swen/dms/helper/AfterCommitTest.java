@@ -0,0 +1,68 @@
+package org.swen.dms.helper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for {@link AfterCommit}.
+ */
+class AfterCommitTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void noTransaction_RunsRightAway() {
+        List<String> ran = new ArrayList<>();
+
+        AfterCommit.run(() -> ran.add("published"));
+
+        assertThat(ran).containsExactly("published");
+    }
+
+    @Test
+    void inTransaction_RunsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        List<String> ran = new ArrayList<>();
+
+        AfterCommit.run(() -> ran.add("published"));
+        assertThat(ran).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(ran).containsExactly("published");
+    }
+
+    @Test
+    void inTransaction_RollbackRunsNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        List<String> ran = new ArrayList<>();
+
+        AfterCommit.run(() -> ran.add("published"));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(ran).isEmpty();
+    }
+
+    @Test
+    void failureAfterCommit_NotThrown() {
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.run(() -> {
+            throw new IllegalStateException("broker down");
+        });
+
+        assertThatCode(() -> TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit)).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,31 @@
+package org.swen.dms.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryPathsTest {
+
+    @Test
+    void normalize_TrimsNamesAndDropsEmptySegments() {
+        assertThat(CategoryPaths.normalize(" Finance / Invoices//2026/ ")).isEqualTo("Finance/Invoices/2026");
+        assertThat(CategoryPaths.normalize(null)).isEmpty();
+        assertThat(CategoryPaths.segments("/")).isEmpty();
+    }
+
+    @Test
+    void withAncestors_AddsEveryPrefixOnce() {
+        List<String> result = CategoryPaths.withAncestors(List.of("Finance/Invoices/2026", "Finance/Tax", "Private"));
+
+        assertThat(result).containsExactly(
+                "Finance", "Finance/Invoices", "Finance/Invoices/2026", "Finance/Tax", "Private");
+    }
+
+    @Test
+    void descendantsPattern_EscapesLikeWildcards() {
+        assertThat(CategoryPaths.descendantsPattern("Finance")).isEqualTo("Finance/%");
+        assertThat(CategoryPaths.descendantsPattern("50%_off")).isEqualTo("50\\%\\_off/%");
+    }
+}
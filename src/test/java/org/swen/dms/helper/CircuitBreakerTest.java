@@ -0,0 +1,60 @@
+package org.swen.dms.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    private final Clock clock = new Clock() {
+        public ZoneOffset getZone() { return ZoneOffset.UTC; }
+        public Clock withZone(java.time.ZoneId zone) { return this; }
+        public Instant instant() { return Instant.ofEpochMilli(now.get()); }
+    };
+
+    @Test
+    void opensAfterThresholdAndRejects() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000, clock);
+
+        breaker.recordFailure();
+        assertThat(breaker.allowRequest()).isTrue();
+        breaker.recordFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void halfOpenAllowsSingleTrialAndClosesOnSuccess() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, clock);
+        breaker.recordFailure();
+
+        now.set(1000);
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+
+        breaker.recordSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void failedTrialReopens() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, clock);
+        breaker.recordFailure();
+
+        now.set(1500);
+        assertThat(breaker.allowRequest()).isTrue();
+        breaker.recordFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+}
@@ -0,0 +1,82 @@
+package org.swen.dms.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ConsistentHashRing}.
+ */
+class ConsistentHashRingTest {
+
+    private static Map<String, String> nodes(String... names) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String name : names) {
+            nodes.put(name, name);
+        }
+        return nodes;
+    }
+
+    @Test
+    void placement_IndependentOfNodeOrder() {
+        ConsistentHashRing<String> ab = new ConsistentHashRing<>(nodes("a", "b", "c"), 100);
+        ConsistentHashRing<String> ba = new ConsistentHashRing<>(nodes("c", "b", "a"), 100);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(ab.nodeFor("key-" + i)).isEqualTo(ba.nodeFor("key-" + i));
+        }
+    }
+
+    @Test
+    void keys_SpreadRoughlyEvenly() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("a", "b", "c", "d"), 160);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            counts.merge(ring.nodeFor("key-" + i), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        // 10,000 each on average
+        assertThat(counts.values()).allSatisfy(n -> assertThat(n).isBetween(7_500, 12_500));
+    }
+
+    @Test
+    void addingNode_OnlyMovesKeysToIt() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(nodes("a", "b", "c"), 160);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(nodes("a", "b", "c", "d"), 160);
+
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "key-" + i;
+            String oldOwner = before.nodeFor(key);
+            String newOwner = after.nodeFor(key);
+            if (!oldOwner.equals(newOwner)) {
+                moved++;
+                assertThat(newOwner).isEqualTo("d");
+                // The previous owner is the next node along the ring
+                assertThat(after.nodesFor(key).get(1)).isEqualTo(oldOwner);
+            }
+        }
+        assertThat(moved).isBetween(1_500, 3_500);
+    }
+
+    @Test
+    void nodesFor_StartsAtOwnerAndListsEachNodeOnce() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("a", "b", "c"), 50);
+
+        List<String> order = ring.nodesFor("some-key");
+
+        assertThat(order).hasSize(3).doesNotHaveDuplicates().first().isEqualTo(ring.nodeFor("some-key"));
+    }
+
+    @Test
+    void emptyRing_Rejected() {
+        assertThatThrownBy(() -> new ConsistentHashRing<>(Map.of(), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
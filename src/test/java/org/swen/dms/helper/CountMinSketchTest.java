@@ -0,0 +1,56 @@
+package org.swen.dms.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUnderestimatesAndStaysClose() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (long id = 1; id <= 5000; id++) {
+            sketch.add(id, id % 10 + 1);
+        }
+        sketch.add(42L, 1000);
+
+        assertThat(sketch.estimate(42L)).isGreaterThanOrEqualTo(1003);
+        // e / w * total ≈ 0.27% of ~28500
+        assertThat(sketch.estimate(42L)).isLessThan(1003 + 200);
+        for (long id = 1; id <= 5000; id += 97) {
+            assertThat(sketch.estimate(id)).isGreaterThanOrEqualTo(id % 10 + 1);
+        }
+    }
+
+    @Test
+    void scaleDecaysEstimates() {
+        CountMinSketch sketch = new CountMinSketch(64, 3);
+        sketch.add(1L, 8);
+
+        sketch.scale(0.5);
+
+        assertThat(sketch.estimate(1L)).isCloseTo(4, within(1e-9));
+    }
+
+    @Test
+    void snapshotRoundTrip() throws Exception {
+        CountMinSketch sketch = new CountMinSketch(64, 3);
+        sketch.add(7L, 3.5);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+
+        CountMinSketch restored = new CountMinSketch(64, 3);
+        assertThat(restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isTrue();
+        assertThat(restored.estimate(7L)).isEqualTo(3.5);
+
+        CountMinSketch resized = new CountMinSketch(128, 3);
+        assertThat(resized.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isFalse();
+        assertThat(resized.estimate(7L)).isZero();
+    }
+}
@@ -0,0 +1,104 @@
+package org.swen.dms.helper;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfOptimizerTest {
+
+    @TempDir
+    Path dir;
+
+    /** A letter page showing one full-page image, drawn on two pages to check it is converted once. */
+    static void writeScan(Path file, BufferedImage image) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDImageXObject xObject = LosslessFactory.createFromImage(doc, image);
+            for (int i = 0; i < 2; i++) {
+                PDPage page = new PDPage(PDRectangle.LETTER);
+                doc.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(doc, page)) {
+                    content.drawImage(xObject, 0, 0, PDRectangle.LETTER.getWidth(), PDRectangle.LETTER.getHeight());
+                }
+            }
+            doc.save(file.toFile());
+        }
+    }
+
+    /** A noisy gradient, which Flate compresses badly, like a photographed page. */
+    static BufferedImage noisyImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(1);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int v = Math.min(255, (x + y) * 255 / (width + height) + random.nextInt(24));
+                image.setRGB(x, y, v << 16 | v << 8 | (255 - v));
+            }
+        }
+        return image;
+    }
+
+    private static PDImageXObject firstImage(PDDocument doc) throws IOException {
+        PDPage page = doc.getPage(0);
+        COSName name = page.getResources().getXObjectNames().iterator().next();
+        return (PDImageXObject) page.getResources().getXObject(name);
+    }
+
+    @Test
+    void optimize_LargeImage_DownsampledAndSmaller() throws IOException {
+        Path source = dir.resolve("scan.pdf");
+        Path target = dir.resolve("optimized.pdf");
+        writeScan(source, noisyImage(2400, 2400));
+
+        PdfOptimizer.Result result = new PdfOptimizer(150, 0.75f).optimize(source, target);
+
+        assertThat(result.pages()).isEqualTo(2);
+        assertThat(result.imagesRecompressed()).isEqualTo(1);
+        assertThat(result.originalBytes()).isEqualTo(Files.size(source));
+        assertThat(result.optimizedBytes()).isEqualTo(Files.size(target));
+        assertThat(result.optimizedBytes()).isLessThan(result.originalBytes() / 2);
+        try (PDDocument optimized = Loader.loadPDF(target.toFile())) {
+            assertThat(optimized.getNumberOfPages()).isEqualTo(2);
+            PDImageXObject image = firstImage(optimized);
+            // 11 in at 150 dpi
+            assertThat(image.getWidth()).isEqualTo(1650);
+            assertThat(image.getSuffix()).isEqualTo("jpg");
+        }
+    }
+
+    @Test
+    void optimize_BilevelImage_LeftAlone() throws IOException {
+        Path source = dir.resolve("fax.pdf");
+        Path target = dir.resolve("optimized.pdf");
+        BufferedImage fax = new BufferedImage(1700, 2200, BufferedImage.TYPE_BYTE_BINARY);
+        writeScan(source, fax);
+
+        PdfOptimizer.Result result = new PdfOptimizer(150, 0.75f).optimize(source, target);
+
+        assertThat(result.imagesRecompressed()).isZero();
+        try (PDDocument optimized = Loader.loadPDF(target.toFile())) {
+            assertThat(firstImage(optimized).getBitsPerComponent()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void constructor_RejectsInvalidSettings() {
+        assertThatThrownBy(() -> new PdfOptimizer(0, 0.75f)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PdfOptimizer(150, 1.5f)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
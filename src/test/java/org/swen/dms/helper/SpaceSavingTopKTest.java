@@ -0,0 +1,118 @@
+package org.swen.dms.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SpaceSavingTopKTest {
+
+    @Test
+    void keepsHeavyHittersWithinCapacity() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(10);
+        for (int round = 0; round < 100; round++) {
+            topK.add(1L, 5, Double.MAX_VALUE);
+            topK.add(2L, 3, Double.MAX_VALUE);
+            topK.add(1000L + round, 1, Double.MAX_VALUE);
+        }
+
+        assertThat(topK.size()).isEqualTo(10);
+        assertThat(topK.top(2)).extracting(SpaceSavingTopK.Counter::key).containsExactly(1L, 2L);
+        assertThat(topK.top(1).get(0).count()).isEqualTo(500);
+        assertThat(topK.top(1).get(0).error()).isZero();
+    }
+
+    @Test
+    void evictionInheritsMinimumCappedByUpperBound() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(2);
+        topK.add(1L, 10, Double.MAX_VALUE);
+        topK.add(2L, 4, Double.MAX_VALUE);
+
+        topK.add(3L, 1, 2);
+
+        assertThat(topK.top(2)).containsExactly(
+                new SpaceSavingTopK.Counter(1L, 10, 0),
+                new SpaceSavingTopK.Counter(3L, 2, 1));
+    }
+
+    @Test
+    void scaleDropsDecayedCounters() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(5);
+        topK.add(1L, 10, Double.MAX_VALUE);
+        topK.add(2L, 0.1, Double.MAX_VALUE);
+
+        topK.scale(0.5, 0.1);
+
+        assertThat(topK.top(5)).containsExactly(new SpaceSavingTopK.Counter(1L, 5, 0));
+    }
+
+    @Test
+    void snapshotRoundTripKeepsLargestWhenCapacityShrank() throws Exception {
+        SpaceSavingTopK topK = new SpaceSavingTopK(3);
+        topK.add(1L, 1, Double.MAX_VALUE);
+        topK.add(2L, 3, Double.MAX_VALUE);
+        topK.add(3L, 2, Double.MAX_VALUE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        topK.writeTo(new DataOutputStream(bytes));
+
+        SpaceSavingTopK restored = new SpaceSavingTopK(2);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(restored.top(5)).extracting(SpaceSavingTopK.Counter::key).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void evictsTheSmallestCounterLikeAFullScan() {
+        // Reference: the textbook version that scans every counter for the minimum
+        Map<Long, double[]> expected = new HashMap<>();
+        SpaceSavingTopK topK = new SpaceSavingTopK(50);
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(500);
+            double amount = random.nextDouble() * 3;
+            addByScan(expected, 50, key, amount);
+            topK.add(key, amount, Double.MAX_VALUE);
+            if (i % 5_000 == 4_999) {
+                topK.scale(0.5, 0.5);
+                expected.values().forEach(c -> { c[0] *= 0.5; c[1] *= 0.5; });
+                expected.values().removeIf(c -> c[0] < 0.5);
+            }
+        }
+
+        assertThat(topK.size()).isEqualTo(expected.size());
+        for (SpaceSavingTopK.Counter c : topK.top(50)) {
+            assertThat(expected).containsKey(c.key());
+            assertThat(c.count()).isCloseTo(expected.get(c.key())[0], within(1e-9));
+        }
+    }
+
+    private static void addByScan(Map<Long, double[]> counters, int capacity, long key, double amount) {
+        double[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += amount;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new double[]{amount, 0});
+            return;
+        }
+        long minKey = 0;
+        double min = Double.MAX_VALUE;
+        for (Map.Entry<Long, double[]> e : counters.entrySet()) {
+            if (e.getValue()[0] < min) {
+                min = e.getValue()[0];
+                minKey = e.getKey();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new double[]{min + amount, min});
+    }
+}
@@ -1,12 +1,12 @@
 package org.swen.dms.integration;
 
 import io.minio.MinioClient;
-import io.minio.PutObjectArgs;
 import org.junit.jupiter.api.Test;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
@@ -16,9 +16,13 @@ import org.swen.dms.entity.Document;
 import org.swen.dms.repository.jpa.DocumentRepository;
 import org.swen.dms.repository.search.DocumentSearchRepository;
 import org.swen.dms.service.SearchService;
+import org.swen.dms.storage.BlobStore;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -34,9 +38,13 @@ class DocumentUploadIntegrationTest {
     @Autowired
     private DocumentRepository documentRepository;
 
+    // Keeps the bucket check at startup off the network
     @MockitoBean
     private MinioClient minioClient;
 
+    @MockitoBean
+    private BlobStore blobStore;
+
     @MockitoBean
     private RabbitTemplate rabbitTemplate;
 
@@ -46,6 +54,9 @@ class DocumentUploadIntegrationTest {
     @MockitoBean
     private DocumentSearchRepository documentSearchRepository;
 
+    @MockitoBean
+    private ElasticsearchOperations elasticsearchOperations;
+
     @Test
     void shouldUploadAndPersistDocument() throws Exception {
         MockMultipartFile file = new MockMultipartFile(
@@ -73,6 +84,6 @@ class DocumentUploadIntegrationTest {
         assertThat(savedDoc.getContentType()).isEqualTo("application/pdf");
 
         // Verify MinIO Interaction
-        verify(minioClient).putObject(any(PutObjectArgs.class));
+        verify(blobStore).put(anyString(), any(), anyLong(), eq("application/pdf"));
     }
 }
\ No newline at end of file
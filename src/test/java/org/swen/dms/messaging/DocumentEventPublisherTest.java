@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 
 import java.time.Instant;
+import java.util.List;
 
 import static org.swen.dms.config.RabbitConfig.*;
 import static org.assertj.core.api.Assertions.*;
@@ -98,6 +99,18 @@ class DocumentEventPublisherTest {
         );
     }
 
+    /**
+     * Verifies that a bulk category change goes out as one message on its own routing key.
+     */
+    @Test
+    void publishCategoriesChanged_Success() {
+        CategoriesChangedEvent event = new CategoriesChangedEvent(10L, List.of(1L, 2L), Instant.now());
+
+        publisher.publishCategoriesChanged(event);
+
+        verify(rabbitTemplate).convertAndSend(EXCHANGE_DOCS, ROUTING_CATEGORIES_CHANGED, event);
+    }
+
     /**
      * Verifies that publishDocumentUpdated throws MessagingException
      * when RabbitMQ communication fails.
@@ -122,4 +135,24 @@ class DocumentEventPublisherTest {
                 .isInstanceOf(DocumentEventPublisher.MessagingException.class)
                 .hasMessageContaining("Unable to publish document event");
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies that publishDocumentDeleted sends the delete event
+     * to the correct exchange and routing key.
+     */
+    @Test
+    void publishDocumentDeleted_Success() {
+        // Arrange
+        DocumentDeletedEvent event = new DocumentDeletedEvent(1L, "file-key-1", Instant.now());
+
+        // Act
+        publisher.publishDocumentDeleted(event);
+
+        // Assert
+        verify(rabbitTemplate).convertAndSend(
+                eq(EXCHANGE_DOCS),
+                eq(ROUTING_DOC_DELETED),
+                eq(event)
+        );
+    }
+}
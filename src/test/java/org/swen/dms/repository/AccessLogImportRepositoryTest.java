@@ -0,0 +1,55 @@
+package org.swen.dms.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.swen.dms.entity.AccessLogImport;
+import org.swen.dms.repository.jpa.AccessLogImportRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class AccessLogImportRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AccessLogImportRepository repo;
+
+    @Test
+    void markRolledUp_RemovesFromPending() {
+        // Arrange
+        AccessLogImport done = new AccessLogImport("abc123", "access.xml", LocalDate.of(2025, 3, 14));
+        done.setStatus(AccessLogImport.Status.COMPLETED);
+        AccessLogImport other = new AccessLogImport("def456", "access-2.xml", LocalDate.of(2025, 3, 15));
+        other.setStatus(AccessLogImport.Status.COMPLETED);
+        AccessLogImport running = new AccessLogImport("ghi789", "access-3.xml", LocalDate.of(2025, 3, 16));
+        running.setClaimedBy("node-1");
+        running.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+        entityManager.persist(done);
+        entityManager.persist(other);
+        entityManager.persistAndFlush(running);
+        entityManager.clear();
+
+        // Act
+        int updated = repo.markRolledUp(List.of("abc123", "unknown"));
+        entityManager.clear();
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(repo.findByStatusAndRolledUpFalse(AccessLogImport.Status.COMPLETED))
+                .extracting(AccessLogImport::getFileHash)
+                .containsExactly("def456");
+        assertThat(repo.findById("ghi789")).get()
+                .extracting(AccessLogImport::getClaimedBy)
+                .isEqualTo("node-1");
+    }
+}
@@ -4,14 +4,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
 import org.swen.dms.entity.Category;
+import org.swen.dms.entity.Document;
+import org.swen.dms.repository.jpa.CategoryCountView;
 import org.swen.dms.repository.jpa.CategoryRepository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
+@ActiveProfiles("test")
 class CategoryRepositoryTest {
 
     @Autowired
@@ -21,14 +27,14 @@ class CategoryRepositoryTest {
     private CategoryRepository repo;
 
     @Test
-    void findByName_Success() {
+    void findByPath_Success() {
         // Arrange
         Category cat = new Category("Invoices", "All bills");
         entityManager.persist(cat);
         entityManager.flush();
 
         // Act
-        Optional<Category> found = repo.findByName("Invoices");
+        Optional<Category> found = repo.findByPath("Invoices");
 
         // Assert
         assertThat(found).isPresent();
@@ -36,9 +42,51 @@ class CategoryRepositoryTest {
     }
 
     @Test
-    void findByName_NotFound() {
+    void persist_DerivesThePathFromTheParent() {
+        // Arrange
+        Category finance = entityManager.persist(new Category("Finance", null));
+        Category invoices = entityManager.persist(new Category("Invoices", null, finance));
+        entityManager.persist(new Category("2026", null, invoices));
+        // Same name in another branch is fine, the path is what must be unique
+        entityManager.persist(new Category("2026", null, finance));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        Optional<Category> found = repo.findByPath("Finance/Invoices/2026");
+
+        // Assert
+        assertThat(found).isPresent();
+        assertThat(found.get().getName()).isEqualTo("2026");
+        assertThat(found.get().getParentId()).isEqualTo(invoices.getId());
+        assertThat(repo.findByPath("Finance/2026")).isPresent();
+    }
+
+    @Test
+    void findAllWithDocumentCounts_IncludesEmptyCategories() {
+        // Arrange
+        Category invoices = entityManager.persist(new Category("Invoices", "All bills"));
+        entityManager.persist(new Category("Archive", null));
+        for (int i = 0; i < 3; i++) {
+            Document doc = new Document(null, "Doc" + i, "key" + i, "application/pdf", 1024L, LocalDateTime.now());
+            doc.addCategory(invoices);
+            entityManager.persist(doc);
+        }
+        entityManager.flush();
+
+        // Act
+        List<CategoryCountView> counts = repo.findAllWithDocumentCounts();
+
+        // Assert
+        assertThat(counts).extracting(CategoryCountView::getPath).containsExactly("Archive", "Invoices");
+        assertThat(counts).extracting(CategoryCountView::getDocumentCount).containsExactly(0L, 3L);
+        assertThat(counts.get(1).getDescription()).isEqualTo("All bills");
+    }
+
+    @Test
+    void findByPath_NotFound() {
         // Act
-        Optional<Category> found = repo.findByName("NonExistent");
+        Optional<Category> found = repo.findByPath("NonExistent");
 
         // Assert
         assertThat(found).isEmpty();
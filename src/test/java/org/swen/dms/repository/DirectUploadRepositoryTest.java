@@ -0,0 +1,39 @@
+package org.swen.dms.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.swen.dms.entity.DirectUpload;
+import org.swen.dms.repository.jpa.DirectUploadRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class DirectUploadRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DirectUploadRepository repo;
+
+    @Test
+    void findExpired_OldestFirst() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2026, 10, 1, 10, 0);
+        entityManager.persist(new DirectUpload("later.pdf", now.minusMinutes(1)));
+        entityManager.persist(new DirectUpload("active.pdf", now.plusMinutes(30)));
+        entityManager.persistAndFlush(new DirectUpload("oldest.pdf", now.minusHours(3)));
+        entityManager.clear();
+
+        // Act & Assert
+        assertThat(repo.findTop100ByExpiresAtBeforeOrderByExpiresAt(now))
+                .extracting(DirectUpload::getFileKey)
+                .containsExactly("oldest.pdf", "later.pdf");
+    }
+}
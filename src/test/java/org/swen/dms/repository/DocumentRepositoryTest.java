@@ -1,10 +1,15 @@
 package org.swen.dms.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.swen.dms.entity.Category;
 import org.swen.dms.entity.Document;
+import org.swen.dms.helper.CategoryPaths;
+import org.swen.dms.repository.jpa.DocumentDetailsView;
 import org.swen.dms.repository.jpa.DocumentRepository;
 
 import java.time.LocalDateTime;
@@ -22,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 
 @DataJpaTest
+@ActiveProfiles("test")
 class DocumentRepositoryTest {
 
     @Autowired
@@ -134,6 +140,111 @@ class DocumentRepositoryTest {
         assertThat(all).hasSize(2);
     }
 
+    /**
+     * Verifies that findAll loads the categories with the documents, so they can be read
+     * after the persistence context is gone.
+     */
+    @Test
+    void findAll_FetchesCategories() {
+        // Arrange
+        Category invoices = entityManager.persist(new Category("Invoices", null));
+        Document doc1 = createAndSaveDocument("Doc1", "key1");
+        createAndSaveDocument("Doc2", "key2");
+        doc1.addCategory(invoices);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Document> all = repo.findAll();
+        entityManager.clear();
+
+        // Assert
+        assertThat(all).hasSize(2);
+        assertThat(all).allMatch(d -> Hibernate.isInitialized(d.getCategories()));
+        assertThat(all).filteredOn(d -> d.getId().equals(doc1.getId())).singleElement()
+                .satisfies(d -> assertThat(d.getCategories()).extracting(Category::getName).containsExactly("Invoices"));
+    }
+
+    /**
+     * Verifies that the subtree filter matches the category and its descendants, but not
+     * siblings that merely share the name prefix.
+     */
+    @Test
+    void findByCategorySubtree_MatchesDescendantsOnly() {
+        // Arrange
+        Category finance = entityManager.persist(new Category("Finance", null));
+        Category invoices = entityManager.persist(new Category("Invoices", null, finance));
+        Category financeOld = entityManager.persist(new Category("Finance_old", null));
+        Document top = createAndSaveDocument("Top", "key1");
+        Document nested = createAndSaveDocument("Nested", "key2");
+        Document other = createAndSaveDocument("Other", "key3");
+        top.addCategory(finance);
+        nested.addCategory(invoices);
+        nested.addCategory(financeOld);
+        other.addCategory(financeOld);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Document> found = repo.findByCategorySubtree("Finance", CategoryPaths.descendantsPattern("Finance"));
+
+        // Assert
+        assertThat(found).extracting(Document::getId).containsExactlyInAnyOrder(top.getId(), nested.getId());
+        // The entity graph still loads all categories of a match, not only the matching ones
+        assertThat(found).filteredOn(d -> d.getId().equals(nested.getId())).singleElement()
+                .satisfies(d -> assertThat(d.getCategories()).hasSize(2));
+    }
+
+    /**
+     * Verifies that the details projection carries the summary but not the OCR text.
+     */
+    @Test
+    void findDetailsById_ReturnsMetadataAndSummary() {
+        // Arrange
+        Document doc = createAndSaveDocument("Contract", "key1");
+        doc.setOcrText("long OCR text");
+        doc.setOcrSummaryText("Short summary");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        Optional<DocumentDetailsView> details = repo.findDetailsById(doc.getId());
+
+        // Assert
+        assertThat(details).isPresent();
+        assertThat(details.get().getTitle()).isEqualTo("Contract");
+        assertThat(details.get().getFileKey()).isEqualTo("key1");
+        assertThat(details.get().getOcrSummaryText()).isEqualTo("Short summary");
+        assertThat(repo.findDetailsById(-1L)).isEmpty();
+    }
+
+    /**
+     * Verifies that the optimized copy is recorded by its own update and is not overwritten
+     * when the entity is saved again.
+     */
+    @Test
+    void setOptimized_SurvivesEntitySave() {
+        // Arrange
+        Document doc = createAndSaveDocument("Scan", "key1");
+        entityManager.clear();
+
+        // Act
+        assertThat(repo.setOptimized(doc.getId(), "optimized/key1", 256L)).isEqualTo(1);
+        entityManager.clear();
+        Document loaded = repo.findById(doc.getId()).orElseThrow();
+        loaded.setOcrText("text");
+        repo.saveAndFlush(loaded);
+        entityManager.clear();
+
+        // Assert
+        Document reloaded = repo.findById(doc.getId()).orElseThrow();
+        assertThat(reloaded.getOptimizedFileKey()).isEqualTo("optimized/key1");
+        DocumentDetailsView details = repo.findDetailsById(doc.getId()).orElseThrow();
+        assertThat(details.getOptimizedFileKey()).isEqualTo("optimized/key1");
+        assertThat(details.getOptimizedFileSize()).isEqualTo(256L);
+        assertThat(repo.setOptimized(-1L, "optimized/none", 1L)).isZero();
+    }
+
     /**
      * Verifies that deleteById removes a document from the repository.
      */
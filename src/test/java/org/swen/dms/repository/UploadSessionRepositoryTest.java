@@ -0,0 +1,43 @@
+package org.swen.dms.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.swen.dms.entity.UploadSession;
+import org.swen.dms.repository.jpa.UploadSessionRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class UploadSessionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UploadSessionRepository repo;
+
+    private static UploadSession session(String id, LocalDateTime expiresAt) {
+        return new UploadSession(id, id + ".pdf", "up-" + id, null, null, 25, 10, expiresAt.minusDays(1), expiresAt);
+    }
+
+    @Test
+    void findExpired_OldestFirst() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2026, 10, 1, 10, 0);
+        entityManager.persist(session("later", now.minusMinutes(1)));
+        entityManager.persist(session("active", now.plusMinutes(30)));
+        entityManager.persistAndFlush(session("oldest", now.minusHours(3)));
+        entityManager.clear();
+
+        // Act & Assert
+        assertThat(repo.findTop100ByExpiresAtBeforeOrderByExpiresAt(now))
+                .extracting(UploadSession::getId)
+                .containsExactly("oldest", "later");
+    }
+}
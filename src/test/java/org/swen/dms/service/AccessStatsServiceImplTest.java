@@ -0,0 +1,132 @@
+package org.swen.dms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.swen.dms.entity.AccessLogImport;
+import org.swen.dms.repository.jpa.AccessLogImportRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AccessStatsServiceImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AccessStatsServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    @Mock
+    private AccessLogImportRepository imports;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccessStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AccessStatsServiceImpl(jdbc, imports, transactionManager);
+    }
+
+    private Object[] captureTopQuery(LocalDate from, LocalDate to, ArgumentCaptor<String> sql) {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+        service.topDocuments(from, to, 500);
+        verify(jdbc).query(sql.capture(), any(RowMapper.class), args.capture());
+        return args.getValue();
+    }
+
+    /**
+     * Verifies that whole months are read from the monthly rollup and the edges from the daily table.
+     */
+    @Test
+    void topDocuments_UsesMonthlyRollupForWholeMonths() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        Object[] args = captureTopQuery(LocalDate.of(2025, 2, 26), LocalDate.of(2025, 4, 9), sql);
+
+        assertThat(sql.getValue().split("UNION ALL")).hasSize(3);
+        assertThat(sql.getValue()).contains("document_access_monthly").doesNotContain("document_access_weekly");
+        assertThat(args).containsExactly(
+                LocalDate.of(2025, 2, 26), LocalDate.of(2025, 3, 1),   // daily Feb 26-28
+                LocalDate.of(2025, 3, 1),                              // March
+                LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 10),   // daily Apr 1-9
+                AccessStatsServiceImpl.MAX_LIMIT);
+    }
+
+    /**
+     * Verifies that whole Monday-to-Sunday weeks are read from the weekly rollup.
+     */
+    @Test
+    void topDocuments_UsesWeeklyRollupForWholeWeeks() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        Object[] args = captureTopQuery(LocalDate.of(2025, 6, 4), LocalDate.of(2025, 6, 22), sql);
+
+        assertThat(sql.getValue()).contains("document_access_weekly").doesNotContain("document_access_monthly");
+        assertThat(args).containsExactly(
+                LocalDate.of(2025, 6, 4), LocalDate.of(2025, 6, 9),    // daily Wed-Sun
+                LocalDate.of(2025, 6, 9),                              // week of Jun 9
+                LocalDate.of(2025, 6, 16),                             // week of Jun 16
+                AccessStatsServiceImpl.MAX_LIMIT);
+    }
+
+    @Test
+    void topDocuments_InvertedRange_Throws() {
+        assertThatThrownBy(() -> service.topDocuments(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Verifies that each touched week and month is recomputed once and the imports are marked.
+     */
+    @Test
+    void rollUp_RecomputesTouchedPeriods() {
+        AccessLogImport a = new AccessLogImport("a", "a.xml", LocalDate.of(2025, 6, 30)); // Monday
+        AccessLogImport b = new AccessLogImport("b", "b.xml", LocalDate.of(2025, 7, 1));  // same week, next month
+        when(imports.findByStatusAndRolledUpFalse(AccessLogImport.Status.COMPLETED)).thenReturn(List.of(a, b));
+
+        int rolledUp = service.rollUp();
+
+        assertThat(rolledUp).isEqualTo(2);
+        verify(jdbc).update(contains("document_access_weekly"),
+                eq(LocalDate.of(2025, 6, 30)), eq(LocalDate.of(2025, 6, 30)), eq(LocalDate.of(2025, 7, 7)));
+        verify(jdbc).update(contains("document_access_monthly"),
+                eq(LocalDate.of(2025, 6, 1)), eq(LocalDate.of(2025, 6, 1)), eq(LocalDate.of(2025, 7, 1)));
+        verify(jdbc).update(contains("document_access_monthly"),
+                eq(LocalDate.of(2025, 7, 1)), eq(LocalDate.of(2025, 7, 1)), eq(LocalDate.of(2025, 8, 1)));
+        verify(imports).markRolledUp(List.of("a", "b"));
+        verify(transactionManager).commit(any());
+    }
+
+    /**
+     * Verifies that the periods of the day that just ended are refreshed once, even without imports.
+     */
+    @Test
+    void rollUp_RefreshesEndedDayOnce() {
+        when(imports.findByStatusAndRolledUpFalse(AccessLogImport.Status.COMPLETED)).thenReturn(List.of());
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+
+        assertThat(service.rollUp()).isZero();
+        assertThat(service.rollUp()).isZero();
+
+        verify(jdbc, times(1)).update(contains("document_access_weekly"), any(), any(), any());
+        verify(jdbc, times(1)).update(contains("document_access_monthly"),
+                eq(yesterday.withDayOfMonth(1)), eq(yesterday.withDayOfMonth(1)), eq(yesterday.withDayOfMonth(1).plusMonths(1)));
+        verify(imports, never()).markRolledUp(any());
+    }
+}
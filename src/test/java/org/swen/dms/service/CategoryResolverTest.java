@@ -0,0 +1,162 @@
+package org.swen.dms.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.swen.dms.entity.Category;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryResolverTest {
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CategoryResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new CategoryResolver(jdbc, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolve_NewName_UpsertsOnceThenServesFromCache() {
+        // Arrange
+        when(jdbc.update(contains("ON CONFLICT DO NOTHING"), eq("Invoices"), eq("Invoices"), isNull())).thenReturn(1);
+        when(jdbc.queryForObject(startsWith("SELECT id, description"), any(RowMapper.class), eq("Invoices")))
+                .thenReturn(new CategoryResolver.Cached(5L, null, null));
+
+        // Act
+        Category first = resolver.resolve("Invoices");
+        Category second = resolver.resolve("Invoices");
+
+        // Assert
+        assertThat(first.getId()).isEqualTo(5L);
+        assertThat(first.getName()).isEqualTo("Invoices");
+        assertThat(second.getId()).isEqualTo(5L);
+        assertThat(second).isNotSameAs(first); // callers get their own detached copy
+        verify(jdbc, times(1)).update(anyString(), eq("Invoices"), eq("Invoices"), isNull());
+        verify(jdbc, times(1)).queryForObject(anyString(), any(RowMapper.class), eq("Invoices"));
+        verify(transactionManager).commit(any()); // no caller transaction: committed before it is cached
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolve_InCallerTransaction_CachedOnlyAfterCommit() {
+        // Arrange: an upload transaction is active, the upsert joins it
+        TransactionSynchronizationManager.initSynchronization();
+        when(jdbc.queryForObject(anyString(), any(RowMapper.class), eq("Invoices")))
+                .thenReturn(new CategoryResolver.Cached(5L, null, null));
+
+        // Act
+        Category category = resolver.resolve("Invoices");
+
+        // Assert
+        assertThat(category.getId()).isEqualTo(5L);
+        assertThat(resolver.cachedCount()).isZero();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(resolver.cachedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolve_CallerRollsBack_NotCached() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        when(jdbc.queryForObject(anyString(), any(RowMapper.class), eq("Invoices")))
+                .thenReturn(new CategoryResolver.Cached(5L, null, null));
+
+        // Act
+        resolver.resolve("Invoices");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert: the row is gone with the rollback, so the next upload upserts it again
+        assertThat(resolver.cachedCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolve_ExistingName_ReadsTheRowInsteadOfFailing() {
+        // Arrange: the insert hits the unique name (created earlier or by a concurrent upload)
+        when(jdbc.update(anyString(), eq("Invoices"), eq("Invoices"), isNull())).thenReturn(0);
+        when(jdbc.queryForObject(anyString(), any(RowMapper.class), eq("Invoices")))
+                .thenReturn(new CategoryResolver.Cached(3L, "All bills", null));
+
+        // Act
+        Category category = resolver.resolve("Invoices");
+
+        // Assert
+        assertThat(category.getId()).isEqualTo(3L);
+        assertThat(category.getDescription()).isEqualTo("All bills");
+        assertThat(resolver.cachedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolve_Path_CreatesMissingAncestorsRootFirst() {
+        // Arrange: "Finance" exists and is cached, "Finance/Invoices" is new
+        when(jdbc.queryForObject(anyString(), any(RowMapper.class), eq("Finance")))
+                .thenReturn(new CategoryResolver.Cached(1L, null, null));
+        when(jdbc.queryForObject(anyString(), any(RowMapper.class), eq("Finance/Invoices")))
+                .thenReturn(new CategoryResolver.Cached(2L, null, 1L));
+        resolver.resolve("Finance");
+
+        // Act
+        Category invoices = resolver.resolve(" Finance / Invoices/");
+
+        // Assert
+        assertThat(invoices.getId()).isEqualTo(2L);
+        assertThat(invoices.getName()).isEqualTo("Invoices");
+        assertThat(invoices.getPath()).isEqualTo("Finance/Invoices");
+        assertThat(invoices.getParentId()).isEqualTo(1L);
+        verify(jdbc).update(anyString(), eq("Invoices"), eq("Finance/Invoices"), eq(1L));
+        verify(jdbc, times(1)).update(anyString(), eq("Finance"), eq("Finance"), isNull());
+        assertThat(resolver.cachedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void resolve_EmptyPath_Throws() {
+        assertThatThrownBy(() -> resolver.resolve(" / ")).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidate_ResolvesAgain() {
+        // Arrange
+        when(jdbc.queryForObject(anyString(), any(RowMapper.class), eq("Invoices")))
+                .thenReturn(new CategoryResolver.Cached(5L, null, null));
+        resolver.resolve("Invoices");
+
+        // Act
+        resolver.invalidate("Invoices");
+        resolver.resolve("Invoices");
+
+        // Assert
+        verify(jdbc, times(2)).queryForObject(anyString(), any(RowMapper.class), eq("Invoices"));
+    }
+}
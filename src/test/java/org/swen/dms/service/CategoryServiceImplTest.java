@@ -2,11 +2,20 @@ package org.swen.dms.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.swen.dms.dto.BulkCategoryRequest;
+import org.swen.dms.dto.BulkCategoryResult;
 import org.swen.dms.entity.Category;
 import org.swen.dms.entity.Document;
+import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.messaging.DocumentEventPublisher;
+import org.swen.dms.messaging.CategoriesChangedEvent;
+import org.swen.dms.messaging.DocumentUpdatedEvent;
 import org.swen.dms.repository.jpa.CategoryRepository;
 import org.swen.dms.repository.jpa.DocumentRepository;
 
@@ -15,7 +24,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +36,15 @@ class CategoryServiceImplTest {
     @Mock
     private DocumentRepository documentRepo;
 
+    @Mock
+    private DocumentEventPublisher publisher;
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    @Mock
+    private CategoryResolver categoryResolver;
+
     @InjectMocks
     private CategoryServiceImpl service;
 
@@ -57,22 +75,41 @@ class CategoryServiceImplTest {
         String name = "Invoices";
         String desc = "All bills";
 
-        when(categoryRepo.findByName(name)).thenReturn(Optional.empty()); // No duplicate exists
+        when(categoryRepo.findByPath(name)).thenReturn(Optional.empty()); // No duplicate exists
 
         // Mock the save behavior to return the object passed to it
-        when(categoryRepo.save(any(Category.class))).thenAnswer(i -> {
+        when(categoryRepo.saveAndFlush(any(Category.class))).thenAnswer(i -> {
             Category c = i.getArgument(0);
             c.setId(1L); // Simulate DB generating an ID
             return c;
         });
 
         // Act
-        Category created = service.createCategory(name, desc);
+        Category created = service.createCategory(name, desc, null);
 
         // Assert
         assertThat(created.getId()).isEqualTo(1L);
         assertThat(created.getName()).isEqualTo(name);
-        verify(categoryRepo).save(any(Category.class));
+        verify(categoryRepo).saveAndFlush(any(Category.class));
+        verify(categoryResolver).invalidate(name);
+    }
+
+    /**
+     * Verifies that losing the race against a concurrent create of the same path is reported
+     * as a duplicate instead of a server error.
+     */
+    @Test
+    void createCategory_ConcurrentDuplicate_ThrowsException() {
+        // Arrange: not there at the check, inserted by someone else before the flush
+        when(categoryRepo.findByPath("Invoices")).thenReturn(Optional.empty());
+        when(categoryRepo.saveAndFlush(any(Category.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"uk_categories_path\""));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.createCategory("Invoices", "Desc", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Category already exists: Invoices");
+        verify(categoryResolver, never()).invalidate(any());
     }
 
     /**
@@ -82,14 +119,50 @@ class CategoryServiceImplTest {
     @Test
     void createCategory_DuplicateName_ThrowsException() {
         // Arrange
-        when(categoryRepo.findByName("Invoices")).thenReturn(Optional.of(new Category()));
+        when(categoryRepo.findByPath("Invoices")).thenReturn(Optional.of(new Category()));
 
         // Act & Assert
-        assertThatThrownBy(() -> service.createCategory("Invoices", "Desc"))
+        assertThatThrownBy(() -> service.createCategory("Invoices", "Desc", null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("already exists");
 
-        verify(categoryRepo, never()).save(any());
+        verify(categoryRepo, never()).saveAndFlush(any());
+    }
+
+    /**
+     * Verifies that a category created below a parent gets the parent's path as prefix.
+     */
+    @Test
+    void createCategory_WithParent_ExtendsThePath() {
+        // Arrange
+        Category finance = new Category("Finance", null);
+        finance.setId(1L);
+        finance.setPath("Finance");
+        when(categoryRepo.findById(1L)).thenReturn(Optional.of(finance));
+        when(categoryRepo.findByPath("Finance/Invoices")).thenReturn(Optional.empty());
+        when(categoryRepo.saveAndFlush(any(Category.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        Category created = service.createCategory("Invoices", null, 1L);
+
+        // Assert
+        assertThat(created.getParent()).isSameAs(finance);
+        verify(categoryResolver).invalidate("Finance/Invoices");
+    }
+
+    /**
+     * Verifies that names cannot contain the path separator and parents must exist.
+     */
+    @Test
+    void createCategory_InvalidNameOrParent() {
+        assertThatThrownBy(() -> service.createCategory("Finance/Invoices", null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        when(categoryRepo.findById(9L)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> service.createCategory("Invoices", null, 9L))
+                .isInstanceOf(NotFoundException.class);
+
+        verify(categoryRepo, never()).saveAndFlush(any());
     }
 
     /**
@@ -121,6 +194,9 @@ class CategoryServiceImplTest {
 
         // Verify the logic actually modified the document's category list
         assertThat(doc.getCategories()).contains(category);
+
+        // Verify the search index gets told about the change
+        verify(publisher).publishDocumentUpdated(any(DocumentUpdatedEvent.class));
     }
 
     /**
@@ -181,4 +257,89 @@ class CategoryServiceImplTest {
         verify(documentRepo).save(doc);
         assertThat(doc.getCategories()).doesNotContain(category);
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies that a bulk assignment by ids is one INSERT ... ON CONFLICT DO NOTHING and that only
+     * the documents it actually tagged are sent to the index, in one event.
+     */
+    @Test
+    void assignCategoryToDocs_ByIds_SingleStatement() {
+        // Arrange
+        when(categoryRepo.existsById(10L)).thenReturn(true);
+        when(jdbc.queryForList(anyString(), eq(Long.class), any(), any())).thenReturn(List.of(1L, 3L));
+
+        // Act
+        BulkCategoryResult result = service.assignCategoryToDocs(10L, new BulkCategoryRequest(List.of(1L, 2L, 3L), null));
+
+        // Assert
+        assertThat(result.getAffected()).isEqualTo(2);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbc).queryForList(sql.capture(), eq(Long.class), eq(10L), eq(new Long[]{1L, 2L, 3L}));
+        assertThat(sql.getValue())
+                .contains("INSERT INTO document_categories")
+                .contains("d.id = ANY(CAST(? AS BIGINT[]))")
+                .contains("ON CONFLICT DO NOTHING");
+        ArgumentCaptor<CategoriesChangedEvent> event = ArgumentCaptor.forClass(CategoriesChangedEvent.class);
+        verify(publisher).publishCategoriesChanged(event.capture());
+        assertThat(event.getValue().getCategoryId()).isEqualTo(10L);
+        assertThat(event.getValue().getDocumentIds()).containsExactly(1L, 3L);
+        verifyNoMoreInteractions(publisher);
+        verifyNoInteractions(documentRepo);
+    }
+
+    /**
+     * Verifies that a bulk removal by query deletes the links of the matching documents.
+     */
+    @Test
+    void removeCategoryFromDocs_ByQuery() {
+        // Arrange
+        when(categoryRepo.existsById(10L)).thenReturn(true);
+        when(jdbc.queryForObject(anyString(), eq(Long.class), any(), any())).thenReturn(3L);
+        when(jdbc.queryForList(anyString(), eq(Long.class), any(), any())).thenReturn(List.of());
+
+        // Act
+        BulkCategoryResult result = service.removeCategoryFromDocs(10L, new BulkCategoryRequest(null, " invoice "));
+
+        // Assert
+        assertThat(result.getAffected()).isZero();
+        verify(jdbc).queryForList(argThat((String sql) -> sql.startsWith("DELETE FROM document_categories dc USING documents d")
+                        && sql.contains("websearch_to_tsquery('simple', ?)")),
+                eq(Long.class), eq(10L), eq("invoice"));
+        verifyNoInteractions(publisher);
+    }
+
+    /**
+     * Verifies that a query matching more documents than an id list may hold is rejected before
+     * anything changes.
+     */
+    @Test
+    void assignCategoryToDocs_QueryTooBroad_Rejected() {
+        when(categoryRepo.existsById(10L)).thenReturn(true);
+        when(jdbc.queryForObject(anyString(), eq(Long.class), any(), any()))
+                .thenReturn((long) BulkCategoryRequest.MAX_DOCUMENT_IDS + 1);
+
+        assertThatThrownBy(() -> service.assignCategoryToDocs(10L, new BulkCategoryRequest(null, "the")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("narrow it down");
+        verify(jdbc).queryForObject(argThat((String sql) -> sql.endsWith("LIMIT ?) AS matches")),
+                eq(Long.class), eq("the"), eq(BulkCategoryRequest.MAX_DOCUMENT_IDS + 1));
+        verifyNoMoreInteractions(jdbc);
+        verifyNoInteractions(publisher);
+    }
+
+    /**
+     * Verifies that the selection must be exactly one of ids and query, and the category must exist.
+     */
+    @Test
+    void assignCategoryToDocs_InvalidSelection() {
+        assertThatThrownBy(() -> service.assignCategoryToDocs(10L, new BulkCategoryRequest(List.of(1L), "invoice")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.assignCategoryToDocs(10L, new BulkCategoryRequest(List.of(), " ")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        when(categoryRepo.existsById(99L)).thenReturn(false);
+        assertThatThrownBy(() -> service.assignCategoryToDocs(99L, new BulkCategoryRequest(List.of(1L), null)))
+                .isInstanceOf(NotFoundException.class);
+        verifyNoInteractions(jdbc);
+    }
+}
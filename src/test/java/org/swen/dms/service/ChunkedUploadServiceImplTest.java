@@ -0,0 +1,276 @@
+package org.swen.dms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.swen.dms.dto.UploadSessionStatus;
+import org.swen.dms.entity.Document;
+import org.swen.dms.entity.UploadSession;
+import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.repository.jpa.UploadSessionRepository;
+import org.swen.dms.storage.BlobInfo;
+import org.swen.dms.storage.BlobStore;
+import org.swen.dms.storage.PartInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ChunkedUploadServiceImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceImplTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T10:00:00Z");
+    private static final LocalDateTime LOCAL_NOW = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private DocumentRepository documentRepo;
+
+    @Mock
+    private UploadSessionRepository sessions;
+
+    private ChunkedUploadServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        // 10-byte chunks, files up to 1000 bytes, sessions idle for an hour expire
+        service = new ChunkedUploadServiceImpl(blobStore, documentService, documentRepo, sessions, 1000, 10,
+                Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    // A 25-byte file: chunks of 10, 10 and 5 bytes
+    private UploadSession session() {
+        UploadSession session = new UploadSession("s1", "k.pdf", "up-1", "Scan", "Finance", 25, 10,
+                LOCAL_NOW.minusMinutes(5), LOCAL_NOW.plusMinutes(55));
+        when(sessions.findById("s1")).thenReturn(Optional.of(session));
+        return session;
+    }
+
+    private static InputStream bytes(int n) {
+        return new ByteArrayInputStream(new byte[n]);
+    }
+
+    @Test
+    void createSession_StartsMultipartUploadAndSavesSession() throws Exception {
+        when(blobStore.startMultipart(anyString(), eq("application/pdf"))).thenReturn("up-1");
+        when(sessions.save(any(UploadSession.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        UploadSessionStatus status = service.createSession("Scan", "Finance", 25);
+
+        assertThat(status.getChunkSize()).isEqualTo(10);
+        assertThat(status.getChunkCount()).isEqualTo(3);
+        assertThat(status.getReceivedBytes()).isZero();
+        assertThat(status.getExpiresAt()).isEqualTo(LOCAL_NOW.plusHours(1));
+        ArgumentCaptor<UploadSession> saved = ArgumentCaptor.forClass(UploadSession.class);
+        verify(sessions).save(saved.capture());
+        assertThat(saved.getValue().getUploadId()).isEqualTo("up-1");
+        assertThat(saved.getValue().getFileKey()).endsWith(".pdf");
+        assertThat(saved.getValue().getId()).isEqualTo(status.getId());
+    }
+
+    @Test
+    void createSession_InvalidSize_Rejected() {
+        assertThatThrownBy(() -> service.createSession("Scan", null, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.createSession("Scan", null, 1001)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    void createSession_TooManyChunks_Rejected() {
+        ChunkedUploadServiceImpl tiny = new ChunkedUploadServiceImpl(blobStore, documentService, documentRepo,
+                sessions, Long.MAX_VALUE, 1, Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThatThrownBy(() -> tiny.createSession("Scan", null, ChunkedUploadServiceImpl.MAX_CHUNKS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void uploadChunk_StreamsPartAndExtendsExpiry() throws Exception {
+        UploadSession session = session();
+        InputStream in = bytes(5);
+
+        service.uploadChunk("s1", 3, in, 5);
+
+        verify(blobStore).uploadPart("k.pdf", "up-1", 3, in, 5);
+        assertThat(session.getExpiresAt()).isEqualTo(LOCAL_NOW.plusHours(1));
+        verify(sessions).save(session);
+    }
+
+    @Test
+    void uploadChunk_WrongLengthOrNumber_Rejected() {
+        session();
+
+        assertThatThrownBy(() -> service.uploadChunk("s1", 1, bytes(5), 5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must have 10 bytes");
+        assertThatThrownBy(() -> service.uploadChunk("s1", 4, bytes(5), 5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.uploadChunk("s1", 1, bytes(10), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    void uploadChunk_ExpiredOrUnknownSession_NotFound() {
+        UploadSession session = session();
+        session.setExpiresAt(LOCAL_NOW.minusSeconds(1));
+
+        assertThatThrownBy(() -> service.uploadChunk("s1", 1, bytes(10), 10)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> service.uploadChunk("nope", 1, bytes(10), 10)).isInstanceOf(NotFoundException.class);
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    void uploadChunk_UploadAbortedInStore_NotFound() throws Exception {
+        session();
+        when(blobStore.uploadPart(eq("k.pdf"), eq("up-1"), eq(1), any(), eq(10L)))
+                .thenThrow(new NoSuchFileException("up-1"));
+
+        assertThatThrownBy(() -> service.uploadChunk("s1", 1, bytes(10), 10)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void getStatus_ReportsOffsetUpToFirstGap() throws Exception {
+        session();
+        // Chunk 2 was cut off (4 of 10 bytes), chunk 3 arrived
+        when(blobStore.listParts("k.pdf", "up-1")).thenReturn(List.of(
+                new PartInfo(1, "e1", 10), new PartInfo(2, "e2", 4), new PartInfo(3, "e3", 5)));
+
+        UploadSessionStatus status = service.getStatus("s1");
+
+        assertThat(status.getReceivedBytes()).isEqualTo(10);
+        assertThat(status.getReceivedChunks()).containsExactly(1, 3);
+        assertThat(status.getDocumentId()).isNull();
+    }
+
+    @Test
+    void complete_AllChunks_JoinsAndRegistersDocument() throws Exception {
+        UploadSession session = session();
+        List<PartInfo> parts = List.of(new PartInfo(1, "e1", 10), new PartInfo(2, "e2", 10), new PartInfo(3, "e3", 5));
+        when(documentRepo.findByFileKey("k.pdf")).thenReturn(Optional.empty());
+        when(blobStore.stat("k.pdf")).thenReturn(Optional.empty());
+        when(blobStore.listParts("k.pdf", "up-1")).thenReturn(parts);
+        when(blobStore.get("k.pdf", 0, 5)).thenReturn(new ByteArrayInputStream("%PDF-1.7".getBytes()));
+        Document created = new Document();
+        created.setId(42L);
+        when(documentService.registerUpload("k.pdf", "Scan", "application/pdf", 25, "Finance")).thenReturn(created);
+
+        assertThat(service.complete("s1")).isSameAs(created);
+
+        verify(blobStore).completeMultipart("k.pdf", "up-1", parts);
+        // Kept so that a retried completion finds the document
+        assertThat(session.getDocumentId()).isEqualTo(42L);
+        verify(sessions).save(session);
+    }
+
+    @Test
+    void complete_MissingChunks_Rejected() throws Exception {
+        session();
+        when(documentRepo.findByFileKey("k.pdf")).thenReturn(Optional.empty());
+        when(blobStore.stat("k.pdf")).thenReturn(Optional.empty());
+        when(blobStore.listParts("k.pdf", "up-1")).thenReturn(List.of(new PartInfo(1, "e1", 10)));
+
+        assertThatThrownBy(() -> service.complete("s1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Missing chunks: [2, 3]");
+        verify(blobStore, never()).completeMultipart(anyString(), anyString(), anyList());
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    void complete_Twice_ReturnsSameDocument() {
+        UploadSession session = session();
+        session.setDocumentId(42L);
+        Document existing = new Document();
+        when(documentRepo.findById(42L)).thenReturn(Optional.of(existing));
+
+        assertThat(service.complete("s1")).isSameAs(existing);
+        verifyNoInteractions(blobStore, documentService);
+    }
+
+    @Test
+    void complete_AfterJoinFailedToRegister_DoesNotJoinAgain() throws Exception {
+        session();
+        when(documentRepo.findByFileKey("k.pdf")).thenReturn(Optional.empty());
+        when(blobStore.stat("k.pdf")).thenReturn(Optional.of(new BlobInfo("k.pdf", 25, "application/pdf", NOW)));
+        when(blobStore.get("k.pdf", 0, 5)).thenReturn(new ByteArrayInputStream("%PDF-1.7".getBytes()));
+        when(documentService.registerUpload(anyString(), any(), anyString(), anyLong(), any())).thenReturn(new Document());
+
+        service.complete("s1");
+
+        verify(blobStore, never()).listParts(anyString(), anyString());
+        verify(blobStore, never()).completeMultipart(anyString(), anyString(), anyList());
+    }
+
+    @Test
+    void complete_NotAPdf_DeletedAndRejected() throws Exception {
+        UploadSession session = session();
+        when(documentRepo.findByFileKey("k.pdf")).thenReturn(Optional.empty());
+        when(blobStore.stat("k.pdf")).thenReturn(Optional.of(new BlobInfo("k.pdf", 25, null, NOW)));
+        when(blobStore.get("k.pdf", 0, 5)).thenReturn(new ByteArrayInputStream("MZ\u0090\u0000".getBytes()));
+
+        assertThatThrownBy(() -> service.complete("s1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only PDFs allowed!");
+        verify(blobStore).delete("k.pdf");
+        verify(sessions).delete(session);
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    void abort_AbortsUploadAndDeletesSession() throws Exception {
+        UploadSession session = session();
+
+        service.abort("s1");
+
+        verify(blobStore).abortMultipart("k.pdf", "up-1");
+        verify(sessions).delete(session);
+    }
+
+    @Test
+    void sweepExpired_AbortsOpenSessionsAndForgetsCompletedOnes() throws Exception {
+        UploadSession open = new UploadSession("s1", "k1.pdf", "up-1", null, null, 25, 10,
+                LOCAL_NOW.minusDays(2), LOCAL_NOW.minusDays(1));
+        UploadSession completed = new UploadSession("s2", "k2.pdf", "up-2", null, null, 25, 10,
+                LOCAL_NOW.minusDays(2), LOCAL_NOW.minusDays(1));
+        completed.setDocumentId(7L);
+        UploadSession failing = new UploadSession("s3", "k3.pdf", "up-3", null, null, 25, 10,
+                LOCAL_NOW.minusDays(2), LOCAL_NOW.minusDays(1));
+        when(sessions.findTop100ByExpiresAtBeforeOrderByExpiresAt(LOCAL_NOW))
+                .thenReturn(List.of(open, completed, failing));
+        lenient().doThrow(new IOException("unreachable")).when(blobStore).abortMultipart("k3.pdf", "up-3");
+
+        assertThat(service.sweepExpired()).isEqualTo(2);
+
+        verify(blobStore).abortMultipart("k1.pdf", "up-1");
+        verify(blobStore, never()).abortMultipart("k2.pdf", "up-2");
+        verify(sessions).delete(open);
+        verify(sessions).delete(completed);
+        // Tried again on the next sweep
+        verify(sessions, never()).delete(failing);
+    }
+}
@@ -0,0 +1,231 @@
+package org.swen.dms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.swen.dms.dto.UploadTicket;
+import org.swen.dms.entity.DirectUpload;
+import org.swen.dms.entity.Document;
+import org.swen.dms.repository.jpa.DirectUploadRepository;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.storage.BlobInfo;
+import org.swen.dms.storage.BlobStore;
+import org.swen.dms.storage.PresignedUrl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link DirectUploadServiceImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+class DirectUploadServiceImplTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T10:00:00Z");
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private DocumentRepository repo;
+
+    @Mock
+    private DirectUploadRepository pending;
+
+    private DirectUploadServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = service(NOW);
+    }
+
+    private DirectUploadServiceImpl service(Instant now) {
+        return new DirectUploadServiceImpl(blobStore, documentService, repo, pending, 1000, "secret",
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private UploadTicket issue(String title, String category) throws Exception {
+        when(blobStore.presignPut(anyString()))
+                .thenReturn(Optional.of(new PresignedUrl("http://minio/put", NOW.plusSeconds(900))));
+        return service.issueTicket(title, category, 500).orElseThrow();
+    }
+
+    @Test
+    void issueTicket_ReturnsPresignedUrlForNewKey() throws Exception {
+        UploadTicket ticket = issue("Report", "Finance");
+
+        assertThat(ticket.getFileKey()).endsWith(".pdf");
+        assertThat(ticket.getUploadUrl()).isEqualTo("http://minio/put");
+        assertThat(ticket.getMethod()).isEqualTo("PUT");
+        verify(blobStore).presignPut(ticket.getFileKey());
+        // Recorded until completed, with the end of the completion window
+        ArgumentCaptor<DirectUpload> recorded = ArgumentCaptor.forClass(DirectUpload.class);
+        verify(pending).save(recorded.capture());
+        assertThat(recorded.getValue().getFileKey()).isEqualTo(ticket.getFileKey());
+        assertThat(recorded.getValue().getExpiresAt()).isEqualTo(
+                LocalDateTime.ofInstant(NOW.plusSeconds(900).plus(DirectUploadServiceImpl.COMPLETE_GRACE), ZoneOffset.UTC));
+    }
+
+    @Test
+    void issueTicket_BackendWithoutPresigning_Empty() throws Exception {
+        when(blobStore.presignPut(anyString())).thenReturn(Optional.empty());
+
+        assertThat(service.issueTicket("Report", null, 500)).isEmpty();
+        verifyNoInteractions(pending);
+    }
+
+    @Test
+    void issueTicket_InvalidSize_Rejected() {
+        assertThatThrownBy(() -> service.issueTicket("Report", null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.issueTicket("Report", null, 1001))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void complete_UploadedPdf_RegistersDocument() throws Exception {
+        UploadTicket ticket = issue("Report", "Finance/Invoices");
+        String key = ticket.getFileKey();
+        when(repo.findByFileKey(key)).thenReturn(Optional.empty());
+        when(blobStore.stat(key)).thenReturn(Optional.of(new BlobInfo(key, 500, "application/pdf", NOW)));
+        when(blobStore.get(key, 0, 5)).thenReturn(new ByteArrayInputStream("%PDF-1.7".getBytes()));
+        Document created = new Document();
+        when(documentService.registerUpload(key, "Report", "application/pdf", 500, "Finance/Invoices"))
+                .thenReturn(created);
+
+        assertThat(service.complete(ticket.getTicket())).isSameAs(created);
+        verify(pending).deleteById(key);
+    }
+
+    @Test
+    void complete_NullTitleAndCategory_RoundTrip() throws Exception {
+        UploadTicket ticket = issue(null, null);
+        String key = ticket.getFileKey();
+        when(repo.findByFileKey(key)).thenReturn(Optional.empty());
+        when(blobStore.stat(key)).thenReturn(Optional.of(new BlobInfo(key, 500, null, NOW)));
+        when(blobStore.get(key, 0, 5)).thenReturn(new ByteArrayInputStream("%PDF-1.4".getBytes()));
+
+        service.complete(ticket.getTicket());
+
+        verify(documentService).registerUpload(eq(key), isNull(), eq("application/pdf"), eq(500L), isNull());
+    }
+
+    @Test
+    void complete_Twice_ReturnsExistingDocument() throws Exception {
+        UploadTicket ticket = issue("Report", null);
+        Document existing = new Document();
+        when(repo.findByFileKey(ticket.getFileKey())).thenReturn(Optional.of(existing));
+
+        assertThat(service.complete(ticket.getTicket())).isSameAs(existing);
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    void complete_NothingUploaded_Rejected() throws Exception {
+        UploadTicket ticket = issue("Report", null);
+        when(repo.findByFileKey(ticket.getFileKey())).thenReturn(Optional.empty());
+        when(blobStore.stat(ticket.getFileKey())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.complete(ticket.getTicket()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Nothing was uploaded");
+    }
+
+    @Test
+    void complete_NotAPdf_DeletedAndRejected() throws Exception {
+        UploadTicket ticket = issue("Report", null);
+        String key = ticket.getFileKey();
+        when(repo.findByFileKey(key)).thenReturn(Optional.empty());
+        when(blobStore.stat(key)).thenReturn(Optional.of(new BlobInfo(key, 500, null, NOW)));
+        when(blobStore.get(key, 0, 5)).thenReturn(new ByteArrayInputStream("MZ\u0090\u0000".getBytes()));
+
+        assertThatThrownBy(() -> service.complete(ticket.getTicket()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only PDFs allowed!");
+        verify(blobStore).delete(key);
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    void complete_Oversized_DeletedAndRejected() throws Exception {
+        UploadTicket ticket = issue("Report", null);
+        String key = ticket.getFileKey();
+        when(repo.findByFileKey(key)).thenReturn(Optional.empty());
+        when(blobStore.stat(key)).thenReturn(Optional.of(new BlobInfo(key, 5000, null, NOW)));
+
+        assertThatThrownBy(() -> service.complete(ticket.getTicket()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(blobStore).delete(key);
+    }
+
+    @Test
+    void complete_TamperedTicket_Rejected() throws Exception {
+        UploadTicket ticket = issue("Report", null);
+        // Swap in another file key, keeping the signature
+        String other = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString("other.pdf".getBytes());
+        String tampered = other + ticket.getTicket().substring(ticket.getTicket().indexOf('.'));
+
+        assertThatThrownBy(() -> service.complete(tampered))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid upload ticket");
+        assertThatThrownBy(() -> service.complete("garbage"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void complete_ExpiredTicket_Rejected() throws Exception {
+        UploadTicket ticket = issue("Report", null);
+        DirectUploadServiceImpl later = service(NOW.plusSeconds(900).plus(DirectUploadServiceImpl.COMPLETE_GRACE).plusSeconds(1));
+
+        assertThatThrownBy(() -> later.complete(ticket.getTicket()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Upload ticket expired");
+    }
+
+    @Test
+    void complete_TicketFromOtherSecret_Rejected() throws Exception {
+        UploadTicket ticket = issue("Report", null);
+        DirectUploadServiceImpl other = new DirectUploadServiceImpl(blobStore, documentService, repo, pending, 1000,
+                "another-secret", Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThatThrownBy(() -> other.complete(ticket.getTicket()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sweepAbandoned_DeletesObjectsOfUncompletedTickets() throws Exception {
+        LocalDateTime now = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+        DirectUpload abandoned = new DirectUpload("a.pdf", now.minusMinutes(5));
+        DirectUpload completed = new DirectUpload("c.pdf", now.minusMinutes(5));
+        DirectUpload failing = new DirectUpload("f.pdf", now.minusMinutes(5));
+        when(pending.findTop100ByExpiresAtBeforeOrderByExpiresAt(now)).thenReturn(List.of(abandoned, completed, failing));
+        lenient().when(repo.existsByFileKey("c.pdf")).thenReturn(true);
+        lenient().doThrow(new IOException("unreachable")).when(blobStore).delete("f.pdf");
+
+        assertThat(service.sweepAbandoned()).isEqualTo(2);
+
+        verify(blobStore).delete("a.pdf");
+        verify(blobStore, never()).delete("c.pdf");
+        verify(pending).delete(abandoned);
+        verify(pending).delete(completed);
+        // Tried again on the next sweep
+        verify(pending, never()).delete(failing);
+    }
+}
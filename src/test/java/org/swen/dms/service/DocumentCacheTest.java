@@ -0,0 +1,147 @@
+package org.swen.dms.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.swen.dms.exception.NotFoundException;
+import org.swen.dms.messaging.DocumentCacheInvalidation;
+import org.swen.dms.messaging.DocumentEventPublisher;
+import org.swen.dms.repository.jpa.DocumentDetailsView;
+import org.swen.dms.repository.jpa.DocumentRepository;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link DocumentCache}.
+ */
+@ExtendWith(MockitoExtension.class)
+class DocumentCacheTest {
+
+    @Mock
+    private DocumentRepository repo;
+
+    @Mock
+    private DocumentEventPublisher publisher;
+
+    private DocumentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DocumentCache(repo, publisher, 1024 * 1024, 600);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static DocumentDetailsView details(String summary) {
+        DocumentDetailsView details = mock(DocumentDetailsView.class);
+        lenient().when(details.getOcrSummaryText()).thenReturn(summary);
+        return details;
+    }
+
+    @Test
+    void get_RepeatReads_QueryTheDatabaseOnce() {
+        // Arrange
+        DocumentDetailsView row = details("Summary");
+        when(repo.findDetailsById(1L)).thenReturn(Optional.of(row));
+
+        // Act
+        cache.get(1L);
+        DocumentDetailsView second = cache.get(1L);
+
+        // Assert
+        assertThat(second.getOcrSummaryText()).isEqualTo("Summary");
+        verify(repo, times(1)).findDetailsById(1L);
+    }
+
+    @Test
+    void get_Missing_ThrowsNotFoundAndCachesNothing() {
+        when(repo.findDetailsById(9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cache.get(9L)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> cache.get(9L)).isInstanceOf(NotFoundException.class);
+
+        verify(repo, times(2)).findDetailsById(9L);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_BoundedByEntrySize() {
+        // Arrange: room for a few large summaries only
+        cache = new DocumentCache(repo, publisher, 64 * 1024, 600);
+        DocumentDetailsView large = details("x".repeat(10_000)); // ~20 KB as chars
+        for (long id = 1; id <= 20; id++) {
+            when(repo.findDetailsById(id)).thenReturn(Optional.of(large));
+        }
+
+        // Act
+        for (long id = 1; id <= 20; id++) {
+            cache.get(id);
+        }
+
+        // Assert
+        assertThat(cache.size()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void evict_OutsideTransaction_DropsAndBroadcasts() {
+        // Arrange
+        DocumentDetailsView before = details("Old");
+        DocumentDetailsView after = details("New");
+        when(repo.findDetailsById(1L)).thenReturn(Optional.of(before), Optional.of(after));
+        cache.get(1L);
+
+        // Act
+        cache.evict(1L);
+
+        // Assert
+        assertThat(cache.get(1L).getOcrSummaryText()).isEqualTo("New");
+        verify(publisher).publishCacheInvalidation(1L);
+    }
+
+    @Test
+    void evict_InTransaction_BroadcastsAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        DocumentDetailsView before = details("Old");
+        when(repo.findDetailsById(1L)).thenReturn(Optional.of(before));
+
+        // Act
+        cache.evict(1L);
+        cache.get(1L); // a read before the commit re-caches the old row...
+
+        // Assert
+        verify(publisher, never()).publishCacheInvalidation(1L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.size()).isZero(); // ...which the commit drops again
+        verify(publisher).publishCacheInvalidation(1L);
+    }
+
+    @Test
+    void onInvalidation_DropsTheEntry() {
+        // Arrange
+        DocumentDetailsView row = details("Summary");
+        when(repo.findDetailsById(1L)).thenReturn(Optional.of(row));
+        cache.get(1L);
+
+        // Act
+        cache.onInvalidation(new DocumentCacheInvalidation(1L));
+
+        // Assert
+        assertThat(cache.size()).isZero();
+        verifyNoInteractions(publisher); // received broadcasts are not re-broadcast
+    }
+}
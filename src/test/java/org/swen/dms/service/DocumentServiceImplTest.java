@@ -2,24 +2,39 @@ package org.swen.dms.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.swen.dms.entity.Category;
 import org.swen.dms.entity.Document;
 import org.swen.dms.exception.NotFoundException;
 import org.swen.dms.messaging.DocumentCreatedEvent;
+import org.swen.dms.messaging.DocumentDeletedEvent;
 import org.swen.dms.messaging.DocumentEventPublisher;
 import org.swen.dms.messaging.DocumentUpdatedEvent;
-import org.swen.dms.repository.jpa.CategoryRepository;
+import org.swen.dms.repository.jpa.DocumentDetailsView;
 import org.swen.dms.repository.jpa.DocumentRepository;
-
-import io.minio.MinioClient;
-
+import org.swen.dms.storage.BlobStore;
+import org.swen.dms.storage.ObjectByteCache;
+import org.swen.dms.storage.PresignedUrl;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -44,13 +59,22 @@ class DocumentServiceImplTest {
     private DocumentEventPublisher publisher;
 
     @Mock
-    private MinioClient minioClient;
+    private BlobStore blobStore;
 
     @InjectMocks
     private DocumentServiceImpl service;
 
     @Mock
-    private CategoryRepository categoryRepo;
+    private CategoryResolver categoryResolver;
+
+    @Mock
+    private DownloadCounter downloadCounter;
+
+    @Mock
+    private DocumentCache documentCache;
+
+    @Mock
+    private ObjectByteCache objectCache;
 
     private Document createTestDocument(Long id) {
         Document doc = new Document();
@@ -137,6 +161,17 @@ class DocumentServiceImplTest {
         assertThat(result.get(1).getId()).isEqualTo(2L);
     }
 
+    @Test
+    void findByCategory_QueriesTheNormalizedSubtree() {
+        when(repo.findByCategorySubtree("Finance/Invoices", "Finance/Invoices/%"))
+                .thenReturn(List.of(createTestDocument(1L)));
+
+        List<Document> result = service.findByCategory(" Finance / Invoices ");
+
+        assertThat(result).hasSize(1);
+        verify(repo, never()).findAll();
+    }
+
     /**
      * Verifies that findById returns the document when it exists.
      */
@@ -194,6 +229,7 @@ class DocumentServiceImplTest {
         assertThat(capturedEvent.getId()).isEqualTo(1L);
         assertThat(capturedEvent.getTitleBefore()).isEqualTo(originalTitle);
         assertThat(capturedEvent.getTitleAfter()).isEqualTo("Updated Title");
+        verify(documentCache).evict(1L);
     }
 
     /**
@@ -209,6 +245,26 @@ class DocumentServiceImplTest {
         verify(repo).deleteById(1L);
     }
 
+    /**
+     * Verifies that the index only hears of a delete once it has committed, and not at all if it
+     * rolls back.
+     */
+    @Test
+    void delete_InTransaction_PublishesAfterCommitOnly() {
+        Document doc = createTestDocument(1L);
+        when(repo.findById(1L)).thenReturn(Optional.of(doc));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.delete(1L);
+            verify(publisher, never()).publishDocumentDeleted(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(publisher).publishDocumentDeleted(any(DocumentDeletedEvent.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     /**
      * Verifies that delete throws NotFoundException if the entity does not exist.
      */
@@ -238,27 +294,187 @@ class DocumentServiceImplTest {
     void downloadDocument_Success() throws Exception {
         // Arrange
         Long docId = 1L;
-        Document doc = createTestDocument(docId);
-        doc.setContentType("application/pdf");
+        DocumentDetailsView doc = mock(DocumentDetailsView.class);
+        when(doc.getFileKey()).thenReturn("file-key-1");
+        when(doc.getTitle()).thenReturn("Test Document 1");
+        when(doc.getContentType()).thenReturn("application/pdf");
+        when(doc.getFileSize()).thenReturn(11L);
         byte[] expectedBytes = "PDF CONTENT".getBytes();
 
-        when(repo.findById(docId)).thenReturn(Optional.of(doc));
+        // Metadata comes from the cache, not the repository
+        when(documentCache.get(docId)).thenReturn(doc);
+        // Not hot: streamed from MinIO without caching
+        when(objectCache.open("file-key-1")).thenReturn(Optional.empty());
+        when(objectCache.admit("file-key-1", 11L)).thenReturn(false);
 
         // Mocking MinIO Response
-        io.minio.GetObjectResponse mockResponse = mock(io.minio.GetObjectResponse.class);
-        when(mockResponse.readAllBytes()).thenReturn(expectedBytes);
+        InputStream mockResponse = mock(InputStream.class);
+        when(mockResponse.transferTo(any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write(expectedBytes);
+            return (long) expectedBytes.length;
+        });
 
-        when(minioClient.getObject(any(io.minio.GetObjectArgs.class)))
-                .thenReturn(mockResponse);
+        when(blobStore.get("file-key-1")).thenReturn(mockResponse);
 
         // Act
-        ResponseEntity<byte[]> response = service.downloadDocument(docId);
+        ResponseEntity<StreamingResponseBody> response = service.downloadDocument(docId);
 
         // Assert
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
-        assertThat(response.getBody()).isEqualTo(expectedBytes);
+        assertThat(write(response.getBody())).isEqualTo(expectedBytes);
         assertThat(response.getHeaders().getContentType().toString())
                 .contains("application/pdf");
+        verify(mockResponse).close();
+        verify(objectCache, never()).store(any(), any(), any());
+        // Counted in memory only, no DB write on the download path
+        verify(downloadCounter).increment(docId);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void downloadDocument_Presigned_RedirectsWithoutReadingBytes() throws Exception {
+        DocumentDetailsView doc = mock(DocumentDetailsView.class);
+        when(doc.getFileKey()).thenReturn("file-key-1");
+        when(doc.getTitle()).thenReturn("Test Document 1");
+        when(documentCache.get(1L)).thenReturn(doc);
+        when(blobStore.presignGet("file-key-1", "Test Document 1"))
+                .thenReturn(Optional.of(new PresignedUrl("http://minio:9000/documents/file-key-1?X-Amz-Signature=abc",
+                        java.time.Instant.now().plusSeconds(300))));
+
+        ResponseEntity<StreamingResponseBody> response = service.downloadDocument(1L);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(302);
+        assertThat(response.getHeaders().getLocation().toString()).contains("X-Amz-Signature=abc");
+        assertThat(response.getBody()).isNull();
+        verify(blobStore, never()).get(anyString());
+        verifyNoInteractions(objectCache);
+        verify(downloadCounter).increment(1L);
+    }
+
+    @Test
+    void downloadDocument_Optimized_ServesCopyAndRecordsSavings() throws Exception {
+        DocumentDetailsView doc = mock(DocumentDetailsView.class);
+        when(doc.getOptimizedFileKey()).thenReturn("optimized/file-key-1");
+        when(doc.getFileSize()).thenReturn(1000L);
+        when(doc.getOptimizedFileSize()).thenReturn(400L);
+        when(doc.getTitle()).thenReturn("Test Document 1");
+        when(documentCache.get(1L)).thenReturn(doc);
+        when(blobStore.presignGet("optimized/file-key-1", "Test Document 1"))
+                .thenReturn(Optional.of(new PresignedUrl("http://minio:9000/documents/optimized/file-key-1",
+                        java.time.Instant.now().plusSeconds(300))));
+
+        ResponseEntity<StreamingResponseBody> response = service.downloadDocument(1L);
+
+        assertThat(response.getHeaders().getLocation().toString()).contains("optimized/file-key-1");
+        verify(blobStore, never()).presignGet(eq("file-key-1"), anyString());
+        verify(downloadCounter).increment(1L);
+        verify(downloadCounter).recordBytesSaved(1L, 600L);
+    }
+
+    @Test
+    void registerUpload_NoTitle_UsesFileKey() {
+        when(repo.existsByTitle(anyString())).thenReturn(false);
+        when(repo.save(any(Document.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Document fromTicket = service.registerUpload("4f1c.pdf", null, "application/pdf", 123, null);
+        Document fromSession = service.registerUpload("9a2b.pdf", "  ", "application/pdf", 123, null);
+
+        assertThat(fromTicket.getTitle()).isEqualTo("4f1c.pdf");
+        assertThat(fromSession.getTitle()).isEqualTo("9a2b.pdf");
+    }
+
+    @Test
+    void registerUpload_CreatesDocumentAndPublishesEvent() {
+        when(repo.existsByTitle("Report.pdf")).thenReturn(false);
+        when(repo.save(any(Document.class))).thenAnswer(invocation -> {
+            Document d = invocation.getArgument(0);
+            d.setId(42L);
+            return d;
+        });
+
+        Document saved = service.registerUpload("key.pdf", "Report.pdf", "application/pdf", 123, null);
+
+        assertThat(saved.getTitle()).isEqualTo("Report.pdf");
+        assertThat(saved.getFileKey()).isEqualTo("key.pdf");
+        assertThat(saved.getFileSize()).isEqualTo(123L);
+        verify(publisher).publishDocumentCreated(any(DocumentCreatedEvent.class));
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    void downloadDocument_CachedObject_NotFetchedFromStore(@TempDir Path dir) throws Exception {
+        DocumentDetailsView doc = mock(DocumentDetailsView.class);
+        when(doc.getFileKey()).thenReturn("file-key-1");
+        when(doc.getTitle()).thenReturn("Test Document 1");
+        when(doc.getContentType()).thenReturn("application/pdf");
+        when(documentCache.get(1L)).thenReturn(doc);
+
+        Path file = Files.write(dir.resolve("file-key-1"), "CACHED PDF".getBytes());
+        when(objectCache.open("file-key-1")).thenReturn(Optional.of(FileChannel.open(file)));
+
+        ResponseEntity<StreamingResponseBody> response = service.downloadDocument(1L);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(write(response.getBody())).isEqualTo("CACHED PDF".getBytes());
+        verify(blobStore, never()).get(anyString());
+        verify(downloadCounter).increment(1L);
+    }
+
+    @Test
+    void downloadDocument_HotObject_CachedOnTheWay() throws Exception {
+        DocumentDetailsView doc = mock(DocumentDetailsView.class);
+        when(doc.getFileKey()).thenReturn("file-key-1");
+        when(doc.getTitle()).thenReturn("Test Document 1");
+        when(doc.getContentType()).thenReturn("application/pdf");
+        when(doc.getFileSize()).thenReturn(10L);
+        when(documentCache.get(1L)).thenReturn(doc);
+
+        InputStream storeResponse = mock(InputStream.class);
+        when(blobStore.get("file-key-1")).thenReturn(storeResponse);
+        when(objectCache.open("file-key-1")).thenReturn(Optional.empty());
+        when(objectCache.admit("file-key-1", 10L)).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write("STORED PDF".getBytes());
+            return null;
+        }).when(objectCache).store(eq("file-key-1"), eq(storeResponse), any(OutputStream.class));
+
+        ResponseEntity<StreamingResponseBody> response = service.downloadDocument(1L);
+
+        // Nothing is copied before the response starts; the body tees the object to client and cache
+        verify(objectCache, never()).store(any(), any(), any());
+        assertThat(write(response.getBody())).isEqualTo("STORED PDF".getBytes());
+        verify(objectCache).store(eq("file-key-1"), eq(storeResponse), any(OutputStream.class));
+    }
+
+    @Test
+    void downloadDocument_StoreFails_ReturnsServerError() throws Exception {
+        DocumentDetailsView doc = mock(DocumentDetailsView.class);
+        when(doc.getFileKey()).thenReturn("file-key-1");
+        when(documentCache.get(1L)).thenReturn(doc);
+        when(objectCache.open("file-key-1")).thenReturn(Optional.empty());
+        when(blobStore.get("file-key-1")).thenThrow(new NoSuchFileException("no such object"));
+
+        ResponseEntity<StreamingResponseBody> response = service.downloadDocument(1L);
+
+        assertThat(response.getStatusCode().is5xxServerError()).isTrue();
+        assertThat(new String(write(response.getBody()))).contains("no such object");
+        verifyNoInteractions(downloadCounter);
+    }
+
+    private static byte[] write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void getOcrSummaryText_ServedFromCache() {
+        DocumentDetailsView details = mock(DocumentDetailsView.class);
+        when(details.getOcrSummaryText()).thenReturn("Summary");
+        when(documentCache.get(1L)).thenReturn(details);
+
+        assertThat(service.getOcrSummaryTextFromDB(1L)).isEqualTo("Summary");
+        verifyNoInteractions(repo);
     }
 
     @Test
@@ -270,17 +486,19 @@ class DocumentServiceImplTest {
         // Stub repo to return the saved doc
         when(repo.save(any(Document.class))).thenAnswer(i -> i.getArgument(0));
 
-        // Stub category repo to return empty (simulating new category creation)
-        when(categoryRepo.findByName(categoryName)).thenReturn(Optional.empty());
-        when(categoryRepo.save(any(Category.class))).thenAnswer(i -> i.getArgument(0));
+        // The resolver creates or finds the category (no repository call on the upload path)
+        Category category = new Category(categoryName, null);
+        category.setId(7L);
+        when(categoryResolver.resolve(categoryName)).thenReturn(category);
 
         // Act
         service.uploadDocument(file, "My Doc", categoryName);
 
         // Assert
-        // Verify that the Category Repo was actually queried and saved
-        verify(categoryRepo).findByName(categoryName);
-        verify(categoryRepo).save(argThat(cat -> cat.getName().equals(categoryName)));
+        // Verify that the resolved category is linked to the saved document
+        ArgumentCaptor<Document> saved = ArgumentCaptor.forClass(Document.class);
+        verify(repo).save(saved.capture());
+        assertThat(saved.getValue().getCategories()).extracting(Category::getId).containsExactly(7L);
     }
 
     @Test
@@ -306,7 +524,7 @@ class DocumentServiceImplTest {
     }
 
     @Test
-    void delete_existing_removesFromMinioAndDb() throws Exception {
+    void delete_existing_removesFromStoreAndDb() throws Exception {
         // Arrange
         Document doc = createTestDocument(1L);
         doc.setFileKey("some-key-123");
@@ -317,7 +535,52 @@ class DocumentServiceImplTest {
 
         // Assert
         verify(repo).deleteById(1L);
-        // Verify MinIO client was called with RemoveObjectArgs
-        verify(minioClient).removeObject(any(io.minio.RemoveObjectArgs.class));
+        // Verify the file was removed from the blob store
+        verify(blobStore).delete("some-key-123");
+        verify(objectCache).remove("some-key-123");
+        // Verify the search index is told to drop it
+        verify(publisher).publishDocumentDeleted(any(org.swen.dms.messaging.DocumentDeletedEvent.class));
+        verify(documentCache).evict(1L);
+    }
+
+    @Test
+    void delete_optimized_removesBothObjects() throws Exception {
+        Document doc = createTestDocument(1L);
+        doc.setFileKey("some-key-123");
+        doc.setOptimizedFileKey("optimized/some-key-123");
+        when(repo.findById(1L)).thenReturn(Optional.of(doc));
+
+        service.delete(1L);
+
+        verify(blobStore).delete("some-key-123");
+        verify(blobStore).delete("optimized/some-key-123");
+        verify(objectCache).remove("some-key-123");
+        verify(objectCache).remove("optimized/some-key-123");
+        verify(repo).deleteById(1L);
+    }
+
+    /**
+     * Verifies that the title search escapes LIKE wildcards and wraps the query for a substring match.
+     */
+    @Test
+    void searchTitles_EscapesWildcards() {
+        when(repo.searchTitles(anyString(), anyString(), anyInt())).thenReturn(List.of());
+
+        service.searchTitles("  50%_off\\ ", 10);
+
+        verify(repo).searchTitles("%50\\%\\_off\\\\%", "50%_off\\", 10);
+    }
+
+    /**
+     * Verifies that too-short queries never reach the database and that the limit is capped.
+     */
+    @Test
+    void searchTitles_ShortQueryAndLimit() {
+        assertThat(service.searchTitles("ab", 10)).isEmpty();
+        assertThat(service.searchTitles(null, 10)).isEmpty();
+        verify(repo, never()).searchTitles(anyString(), anyString(), anyInt());
+
+        service.searchTitles("invoice", 1000);
+        verify(repo).searchTitles("%invoice%", "invoice", 50);
     }
-}
\ No newline at end of file
+}
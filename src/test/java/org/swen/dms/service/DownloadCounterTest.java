@@ -0,0 +1,134 @@
+package org.swen.dms.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.swen.dms.batch.AccessCountWriter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link DownloadCounter}.
+ */
+@ExtendWith(MockitoExtension.class)
+class DownloadCounterTest {
+
+    @Mock
+    private AccessCountWriter writer;
+
+    @Mock
+    private TrendingService trending;
+
+    @InjectMocks
+    private DownloadCounter counter;
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> flushed() {
+        ArgumentCaptor<Map<Long, Long>> batch = ArgumentCaptor.forClass(Map.class);
+        verify(writer).add(eq(LocalDate.now()), batch.capture());
+        return batch.getValue();
+    }
+
+    /**
+     * Verifies that concurrent downloads are all counted and written with one batched upsert.
+     */
+    @Test
+    void flush_ConcurrentIncrements_OneBatch() throws Exception {
+        when(writer.add(any(), anyMap())).thenReturn(List.of());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    counter.increment(1L);
+                    counter.increment(2L + i % 2);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        counter.flush();
+
+        assertThat(flushed()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 8000L, 2L, 4000L, 3L, 4000L));
+        verify(writer).ensurePartition(LocalDate.now());
+        verify(trending).record(Map.of(1L, 8000L, 2L, 4000L, 3L, 4000L));
+    }
+
+    /**
+     * Verifies that nothing is written when there were no downloads since the last flush.
+     */
+    @Test
+    void flush_NoDownloads_NoWrite() {
+        when(writer.add(any(), anyMap())).thenReturn(List.of());
+        counter.increment(1L);
+        counter.flush();
+        clearInvocations(writer);
+
+        counter.flush();
+
+        verifyNoInteractions(writer);
+    }
+
+    /**
+     * Verifies that counts survive a failed flush and are written with the next one.
+     */
+    @Test
+    void flush_Failure_KeepsCounts() {
+        when(writer.add(any(), anyMap()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(List.of());
+        counter.increment(5L);
+        counter.flush();
+        verifyNoInteractions(trending);
+        counter.increment(5L);
+        clearInvocations(writer);
+
+        counter.flush();
+
+        assertThat(flushed()).containsExactly(Map.entry(5L, 2L));
+        verify(trending).record(Map.of(5L, 2L));
+    }
+
+    /**
+     * Verifies that saved bytes are summed per document and added with one batched update on flush.
+     */
+    @Test
+    void flush_BytesSaved_OneBatch() {
+        counter.recordBytesSaved(1L, 100);
+        counter.recordBytesSaved(1L, 50);
+        counter.recordBytesSaved(2L, 0);
+        counter.recordBytesSaved(3L, 7);
+
+        counter.flush();
+
+        verify(writer).addEgressBytesSaved(Map.of(1L, 150L, 3L, 7L));
+        verifyNoMoreInteractions(writer);
+    }
+
+    /**
+     * Verifies that saved bytes survive a failed update and are added with the next flush.
+     */
+    @Test
+    void flush_BytesSavedFailure_KeepsBytes() {
+        when(writer.addEgressBytesSaved(Map.of(7L, 10L))).thenThrow(new RuntimeException("db down"));
+        counter.recordBytesSaved(7L, 10);
+        counter.flush();
+        counter.recordBytesSaved(7L, 5);
+
+        counter.flush();
+
+        verify(writer).addEgressBytesSaved(Map.of(7L, 15L));
+    }
+}
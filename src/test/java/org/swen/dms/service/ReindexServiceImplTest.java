@@ -0,0 +1,302 @@
+package org.swen.dms.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.swen.dms.dto.ReindexStatus;
+import org.swen.dms.entity.DocumentSearch;
+import org.swen.dms.messaging.DocumentDeletedEvent;
+import org.swen.dms.messaging.DocumentUpdatedEvent;
+import org.swen.dms.repository.jpa.CategoryRepository;
+import org.swen.dms.repository.jpa.DocumentIndexView;
+import org.swen.dms.repository.jpa.DocumentRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReindexServiceImplTest {
+
+    @Mock
+    private ElasticsearchOperations operations;
+    @Mock
+    private DocumentRepository documentRepo;
+    @Mock
+    private CategoryRepository categoryRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IndexOperations aliasOps;
+    @Mock
+    private IndexOperations versionOps;
+    @Mock
+    private IndexOperations entityOps;
+
+    private ReindexServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReindexServiceImpl(operations, documentRepo, categoryRepo, transactionManager, 100, 2, Duration.ZERO);
+        when(operations.indexOps(DocumentSearch.class)).thenReturn(entityOps);
+        when(entityOps.createSettings(DocumentSearch.class)).thenReturn(new Settings());
+        when(entityOps.createMapping(DocumentSearch.class)).thenReturn(Document.create());
+        when(operations.indexOps(IndexCoordinates.of("documents"))).thenReturn(aliasOps);
+        when(operations.indexOps(IndexCoordinates.of("documents_v1"))).thenReturn(versionOps);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    /**
+     * Verifies that on a fresh cluster the first versioned index is created
+     * and the "documents" alias is pointed at it.
+     */
+    @Test
+    void ensureIndex_NoAlias_CreatesFirstVersionAndAlias() {
+        // Arrange
+        when(aliasOps.exists()).thenReturn(false);
+
+        // Act
+        service.ensureIndex();
+
+        // Assert
+        verify(aliasOps).putIndexTemplate(any());
+        verify(versionOps).create();
+
+        ArgumentCaptor<AliasActions> captor = ArgumentCaptor.forClass(AliasActions.class);
+        verify(versionOps).alias(captor.capture());
+        assertThat(captor.getValue().getActions()).hasSize(1);
+        AliasAction action = captor.getValue().getActions().get(0);
+        assertThat(action).isInstanceOf(AliasAction.Add.class);
+        assertThat(action.getParameters().getIndices()).containsExactly("documents_v1");
+        assertThat(action.getParameters().getAliases()).containsExactly("documents");
+    }
+
+    /**
+     * Verifies that nothing is created when the alias already exists.
+     */
+    @Test
+    void ensureIndex_AliasExists_DoesNothing() {
+        // Arrange
+        when(aliasOps.exists()).thenReturn(true);
+
+        // Act
+        service.ensureIndex();
+
+        // Assert
+        verify(versionOps, never()).create();
+        verify(versionOps, never()).alias(any());
+    }
+
+    /**
+     * Verifies that Elasticsearch being unreachable on startup is logged, not thrown.
+     */
+    @Test
+    void ensureIndex_ElasticsearchDown_DoesNotThrow() {
+        // Arrange
+        when(aliasOps.exists()).thenThrow(new RuntimeException("Elasticsearch down"));
+
+        // Act
+        service.ensureIndex();
+
+        // Assert
+        verify(versionOps, never()).create();
+    }
+
+    /**
+     * Verifies that status is IDLE before any run and that a second concurrent start is rejected.
+     */
+    @Test
+    void startReindex_WhileRunning_Throws() {
+        // Arrange: block the run on the document count so it stays RUNNING
+        when(aliasOps.exists()).thenReturn(false);
+        when(operations.indexOps(eq(IndexCoordinates.of("documents_v*")))).thenReturn(versionOps);
+        when(documentRepo.count()).thenAnswer(i -> {
+            Thread.sleep(500);
+            return 0L;
+        });
+        assertThat(service.getStatus().getState()).isEqualTo(ReindexStatus.State.IDLE);
+
+        // Act
+        ReindexStatus first = service.startReindex();
+
+        // Assert
+        assertThat(first.getState()).isEqualTo(ReindexStatus.State.RUNNING);
+        assertThatThrownBy(() -> service.startReindex())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already running");
+    }
+
+    /**
+     * Verifies that documents changed or deleted while the run streams are re-synced into the
+     * new index after the swap, since those changes went to the old index.
+     */
+    @Test
+    void startReindex_ChangesDuringRun_ResyncedAfterSwap() throws Exception {
+        // Arrange
+        when(aliasOps.exists()).thenReturn(false);
+        when(operations.indexOps(eq(IndexCoordinates.of("documents_v*")))).thenReturn(versionOps);
+        DocumentIndexView first = view(1L, "Old title");
+        DocumentIndexView second = view(2L, "Removed later");
+        when(documentRepo.streamForIndexing(0L)).thenAnswer(i -> {
+            // Both documents are streamed, then renamed / deleted before the swap
+            service.onUpdated(new DocumentUpdatedEvent(1L, "Old title", "New title", Instant.now()));
+            service.onDeleted(new DocumentDeletedEvent(2L, "key-2", Instant.now()));
+            return Stream.of(first, second);
+        });
+        when(documentRepo.streamForIndexing(2L)).thenReturn(Stream.empty());
+        DocumentIndexView renamed = view(1L, "New title");
+        when(documentRepo.findForIndexingByIdIn(anyList())).thenReturn(List.of(renamed));
+
+        // Act
+        service.startReindex();
+        awaitFinished();
+
+        // Assert
+        assertThat(service.getStatus().getState()).isEqualTo(ReindexStatus.State.COMPLETED);
+        verify(documentRepo).findForIndexingByIdIn(argThat(ids -> ids.containsAll(List.of(1L, 2L))));
+        verify(operations, times(2)).bulkIndex(anyList(), eq(IndexCoordinates.of("documents_v1")));
+        verify(operations).delete("2", IndexCoordinates.of("documents_v1"));
+    }
+
+    /**
+     * Verifies that a re-sync that fails after the swap is retried, and the run still completes.
+     */
+    @Test
+    void startReindex_ResyncFailsOnce_RetriedAndCompleted() throws Exception {
+        // Arrange
+        when(aliasOps.exists()).thenReturn(false);
+        when(operations.indexOps(eq(IndexCoordinates.of("documents_v*")))).thenReturn(versionOps);
+        when(documentRepo.streamForIndexing(anyLong())).thenAnswer(i -> {
+            service.onUpdated(new DocumentUpdatedEvent(1L, "a", "b", Instant.now()));
+            return Stream.empty();
+        });
+        DocumentIndexView renamed = view(1L, "b");
+        when(documentRepo.findForIndexingByIdIn(anyList())).thenReturn(List.of(renamed));
+        when(operations.bulkIndex(anyList(), eq(IndexCoordinates.of("documents_v1"))))
+                .thenThrow(new RuntimeException("Elasticsearch busy"))
+                .thenReturn(List.of());
+
+        // Act
+        service.startReindex();
+        awaitFinished();
+
+        // Assert
+        ReindexStatus status = service.getStatus();
+        assertThat(status.getState()).isEqualTo(ReindexStatus.State.COMPLETED);
+        assertThat(status.getFailedDocuments()).isZero();
+        verify(operations, times(2)).bulkIndex(anyList(), eq(IndexCoordinates.of("documents_v1")));
+    }
+
+    /**
+     * Verifies that documents that keep failing after the swap end the run PARTIAL, not COMPLETED.
+     */
+    @Test
+    void startReindex_ResyncKeepsFailing_Partial() throws Exception {
+        // Arrange
+        when(aliasOps.exists()).thenReturn(false);
+        when(operations.indexOps(eq(IndexCoordinates.of("documents_v*")))).thenReturn(versionOps);
+        when(documentRepo.streamForIndexing(anyLong())).thenAnswer(i -> {
+            service.onUpdated(new DocumentUpdatedEvent(1L, "a", "b", Instant.now()));
+            return Stream.empty();
+        });
+        when(documentRepo.findForIndexingByIdIn(anyList())).thenThrow(new RuntimeException("DB down"));
+
+        // Act
+        service.startReindex();
+        awaitFinished();
+
+        // Assert
+        ReindexStatus status = service.getStatus();
+        assertThat(status.getState()).isEqualTo(ReindexStatus.State.PARTIAL);
+        assertThat(status.getFailedDocuments()).isEqualTo(1);
+        assertThat(status.getError()).contains("documents_v1");
+        verify(documentRepo, times(4)).findForIndexingByIdIn(anyList());
+    }
+
+    /**
+     * Verifies that a change recorded while the recorded changes are being re-synced is re-synced too.
+     */
+    @Test
+    void startReindex_ChangeDuringResync_AlsoResynced() throws Exception {
+        // Arrange
+        when(aliasOps.exists()).thenReturn(false);
+        when(operations.indexOps(eq(IndexCoordinates.of("documents_v*")))).thenReturn(versionOps);
+        when(documentRepo.streamForIndexing(anyLong())).thenAnswer(i -> {
+            service.onUpdated(new DocumentUpdatedEvent(1L, "a", "b", Instant.now()));
+            return Stream.empty();
+        });
+        when(documentRepo.findForIndexingByIdIn(List.of(1L))).thenAnswer(i -> {
+            service.onDeleted(new DocumentDeletedEvent(2L, "key-2", Instant.now()));
+            return List.of();
+        });
+        when(documentRepo.findForIndexingByIdIn(List.of(2L))).thenReturn(List.of());
+
+        // Act
+        service.startReindex();
+        awaitFinished();
+
+        // Assert
+        assertThat(service.getStatus().getState()).isEqualTo(ReindexStatus.State.COMPLETED);
+        verify(operations).delete("2", IndexCoordinates.of("documents_v1"));
+    }
+
+    /**
+     * Verifies that changes are not recorded while no reindex is running.
+     */
+    @Test
+    void onUpdated_NoRun_NotRecorded() throws Exception {
+        // Arrange
+        service.onUpdated(new DocumentUpdatedEvent(1L, "a", "b", Instant.now()));
+        when(aliasOps.exists()).thenReturn(false);
+        when(operations.indexOps(eq(IndexCoordinates.of("documents_v*")))).thenReturn(versionOps);
+        when(documentRepo.streamForIndexing(anyLong())).thenReturn(Stream.empty());
+
+        // Act
+        service.startReindex();
+        awaitFinished();
+
+        // Assert
+        verify(documentRepo, never()).findForIndexingByIdIn(any());
+    }
+
+    private static DocumentIndexView view(Long id, String title) {
+        DocumentIndexView view = mock(DocumentIndexView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getTitle()).thenReturn(title);
+        return view;
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        for (int i = 0; i < 100 && service.getStatus().getState() == ReindexStatus.State.RUNNING; i++) {
+            Thread.sleep(50);
+        }
+    }
+}
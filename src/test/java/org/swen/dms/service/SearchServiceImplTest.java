@@ -1,16 +1,33 @@
 package org.swen.dms.service;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.swen.dms.dto.SearchResult;
 import org.swen.dms.entity.DocumentSearch;
+import org.swen.dms.repository.jpa.DocumentIndexView;
+import org.swen.dms.repository.jpa.DocumentRepository;
 import org.swen.dms.repository.search.DocumentSearchRepository;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,9 +36,35 @@ class SearchServiceImplTest {
     @Mock
     private DocumentSearchRepository repository;
 
-    @InjectMocks
+    @Mock
+    private ElasticsearchOperations operations;
+
+    @Mock
+    private DocumentRepository documentRepo;
+
     private SearchServiceImpl service;
 
+    @BeforeEach
+    void setUp() {
+        // 200 ms latency budget, breaker opens after 2 failures for a minute
+        service = new SearchServiceImpl(repository, operations, documentRepo, 200, 2, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static DocumentIndexView row(Long id, String title, String text) {
+        return new DocumentIndexView() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public String getOcrText() { return text; }
+            public java.time.LocalDateTime getUploadedAt() { return null; }
+            public Long getFileSize() { return 1L; }
+        };
+    }
+
     /**
      * Verifies that searchDocuments returns the list provided by the repository.
      */
@@ -47,16 +90,38 @@ class SearchServiceImplTest {
     }
 
     /**
-     * Verifies that searchDocuments returns an empty list (graceful degradation)
+     * Verifies that searchDocuments answers from the Postgres full-text fallback
      * if the repository throws an exception (e.g., Elasticsearch is down).
      */
     @Test
+    void searchDocuments_RepositoryError_FallsBackToPostgres() {
+        // Arrange
+        String query = "crash";
+
+        // Simulate ES failure
+        when(repository.searchByContent(query)).thenThrow(new RuntimeException("Elasticsearch down"));
+        when(documentRepo.searchFullText(eq(query), anyInt())).thenReturn(List.of(row(5L, "Crash report", "crash text")));
+
+        // Act
+        SearchResult result = service.search(query);
+
+        // Assert
+        assertThat(result.getEngine()).isEqualTo(SearchResult.ENGINE_POSTGRES);
+        assertThat(result.getHits()).extracting(DocumentSearch::getId).containsExactly("5");
+    }
+
+    /**
+     * Verifies that searchDocuments returns an empty list (graceful degradation)
+     * if both Elasticsearch and the Postgres fallback fail.
+     */
+    @Test
     void searchDocuments_RepositoryError_ReturnsEmpty() {
         // Arrange
         String query = "crash";
 
         // Simulate DB failure
         when(repository.searchByContent(query)).thenThrow(new RuntimeException("Elasticsearch down"));
+        when(documentRepo.searchFullText(eq(query), anyInt())).thenThrow(new RuntimeException("Postgres down"));
 
         // Act
         List<DocumentSearch> result = service.searchDocuments(query);
@@ -66,6 +131,48 @@ class SearchServiceImplTest {
         // Ensure the exception was caught and not rethrown
     }
 
+    /**
+     * Verifies that a query slower than the latency budget is answered by Postgres.
+     */
+    @Test
+    void search_SlowElasticsearch_FallsBackWithinBudget() {
+        // Arrange
+        when(repository.searchByContent("slow")).thenAnswer(i -> {
+            Thread.sleep(2_000);
+            return List.of();
+        });
+        when(documentRepo.searchFullText(eq("slow"), anyInt())).thenReturn(List.of(row(1L, "Slow", "slow")));
+
+        // Act
+        long start = System.nanoTime();
+        SearchResult result = service.search("slow");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertThat(result.getEngine()).isEqualTo(SearchResult.ENGINE_POSTGRES);
+        assertThat(elapsedMs).isLessThan(1_500);
+    }
+
+    /**
+     * Verifies that once the breaker is open, Elasticsearch is not called at all.
+     */
+    @Test
+    void search_BreakerOpen_SkipsElasticsearch() {
+        // Arrange
+        when(repository.searchByContent(anyString())).thenThrow(new RuntimeException("Elasticsearch down"));
+        when(documentRepo.searchFullText(anyString(), anyInt())).thenReturn(List.of());
+
+        // Act: two failures open the breaker, the third query should not reach ES
+        service.search("a");
+        service.search("b");
+        SearchResult third = service.search("c");
+
+        // Assert
+        assertThat(third.getEngine()).isEqualTo(SearchResult.ENGINE_POSTGRES);
+        verify(repository, times(2)).searchByContent(anyString());
+        verify(repository, never()).searchByContent("c");
+    }
+
     /**
      * Verifies that searchDocuments returns an empty list if no matches are found.
      */
@@ -81,4 +188,100 @@ class SearchServiceImplTest {
         // Assert
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies that searchWithFacets returns hits and the category buckets
+     * from the aggregation in the same response.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchWithFacets_ReturnsHitsAndCategoryFacet() {
+        // Arrange
+        DocumentSearch doc = new DocumentSearch("1", "Invoice", "invoice text");
+        SearchHit<DocumentSearch> hit = mock(SearchHit.class);
+        when(hit.getContent()).thenReturn(doc);
+
+        Aggregate categories = Aggregate.of(a -> a.sterms(st -> st
+                .buckets(b -> b.array(List.of(
+                        StringTermsBucket.of(sb -> sb.key("Finance").docCount(3)),
+                        StringTermsBucket.of(sb -> sb.key("HR").docCount(1)))))
+                .sumOtherDocCount(0L)));
+
+        SearchHits<DocumentSearch> searchHits = mock(SearchHits.class);
+        when(searchHits.getSearchHits()).thenReturn(List.of(hit));
+        when(searchHits.getTotalHits()).thenReturn(4L);
+        doReturn(new ElasticsearchAggregations(Map.of("categories", categories))).when(searchHits).getAggregations();
+
+        when(operations.search(any(NativeQuery.class), eq(DocumentSearch.class))).thenReturn(searchHits);
+
+        // Act
+        SearchResult result = service.searchWithFacets("invoice", null);
+
+        // Assert
+        assertThat(result.getHits()).containsExactly(doc);
+        assertThat(result.getTotal()).isEqualTo(4L);
+        assertThat(result.getFacets().get("categories"))
+                .extracting("key", "count")
+                .containsExactly(
+                        tuple("Finance", 3L),
+                        tuple("HR", 1L));
+    }
+
+    /**
+     * Verifies that searchWithFacets degrades to the Postgres fallback without facets
+     * when Elasticsearch fails.
+     */
+    @Test
+    void searchWithFacets_OperationsError_FallsBackWithoutFacets() {
+        // Arrange
+        when(operations.search(any(NativeQuery.class), eq(DocumentSearch.class)))
+                .thenThrow(new RuntimeException("Elasticsearch down"));
+        when(documentRepo.searchFullTextInCategory(eq("crash"), eq("Finance"), eq("Finance/%"), anyInt()))
+                .thenReturn(List.of());
+
+        // Act
+        SearchResult result = service.searchWithFacets("crash", "Finance");
+
+        // Assert
+        assertThat(result.getEngine()).isEqualTo(SearchResult.ENGINE_POSTGRES);
+        assertThat(result.getHits()).isEmpty();
+        assertThat(result.getFacets()).isEmpty();
+    }
+
+    /**
+     * Verifies that the Postgres fallback keeps the category filter, including subcategories.
+     */
+    @Test
+    void searchWithFacets_Fallback_FiltersByCategorySubtree() {
+        // Arrange
+        when(operations.search(any(NativeQuery.class), eq(DocumentSearch.class)))
+                .thenThrow(new RuntimeException("Elasticsearch down"));
+        when(documentRepo.searchFullTextInCategory(eq("invoice"), eq("Finance/Tax_2024"), eq("Finance/Tax\\_2024/%"), anyInt()))
+                .thenReturn(List.of(row(3L, "Invoice", "invoice text")));
+
+        // Act
+        SearchResult result = service.searchWithFacets("invoice", "/Finance/Tax_2024/");
+
+        // Assert
+        assertThat(result.getEngine()).isEqualTo(SearchResult.ENGINE_POSTGRES);
+        assertThat(result.getHits()).extracting(DocumentSearch::getId).containsExactly("3");
+        verify(documentRepo, never()).searchFullText(anyString(), anyInt());
+    }
+
+    /**
+     * Verifies that the fallback without a category searches all documents.
+     */
+    @Test
+    void searchWithFacets_FallbackWithoutCategory_SearchesAll() {
+        // Arrange
+        when(operations.search(any(NativeQuery.class), eq(DocumentSearch.class)))
+                .thenThrow(new RuntimeException("Elasticsearch down"));
+        when(documentRepo.searchFullText(eq("invoice"), anyInt())).thenReturn(List.of());
+
+        // Act
+        service.searchWithFacets("invoice", " ");
+
+        // Assert
+        verify(documentRepo, never()).searchFullTextInCategory(anyString(), anyString(), anyString(), anyInt());
+    }
+}
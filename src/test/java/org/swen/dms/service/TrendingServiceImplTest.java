@@ -0,0 +1,140 @@
+package org.swen.dms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.swen.dms.dto.TrendingDocument;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.repository.jpa.DocumentTitleView;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link TrendingServiceImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+class TrendingServiceImplTest {
+
+    @Mock
+    private DocumentRepository documentRepo;
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    private TrendingServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TrendingServiceImpl(documentRepo, jdbc, 256, 4, 3, 24);
+    }
+
+    private static DocumentTitleView title(Long id, String title) {
+        return new DocumentTitleView() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+        };
+    }
+
+    /**
+     * Verifies that the heaviest documents come first and deleted ones are skipped.
+     */
+    @Test
+    void top_OrdersByScoreAndSkipsDeleted() {
+        service.record(Map.of(1L, 5L, 2L, 20L, 3L, 10L));
+        service.record(Map.of(1L, 3L));
+        when(documentRepo.findTitlesByIdIn(anyCollection()))
+                .thenReturn(List.of(title(1L, "Report"), title(3L, "Invoice")));
+
+        List<TrendingDocument> top = service.top(10);
+
+        assertThat(top).extracting(TrendingDocument::getDocumentId).containsExactly(3L, 1L);
+        assertThat(top.get(1).getScore()).isEqualTo(8);
+        assertThat(top.get(1).getMinScore()).isEqualTo(8);
+    }
+
+    /**
+     * Verifies that nothing is queried while no accesses were recorded.
+     */
+    @Test
+    void top_Empty_NoQuery() {
+        assertThat(service.top(10)).isEmpty();
+        verifyNoInteractions(documentRepo);
+    }
+
+    /**
+     * Verifies that a snapshot restores the state, decayed by the time since it was taken.
+     */
+    @Test
+    void snapshotAndRestore_DecaysByElapsedHalfLives() {
+        service.record(Map.of(1L, 16L));
+        service.snapshot();
+        ArgumentCaptor<byte[]> data = ArgumentCaptor.forClass(byte[].class);
+        verify(jdbc).update(contains("ON CONFLICT (name)"), eq(TrendingServiceImpl.SNAPSHOT_NAME),
+                any(Timestamp.class), data.capture());
+
+        // Restored one half-life (24h) later
+        Timestamp takenAt = new Timestamp(System.currentTimeMillis() - 24 * 3_600_000L);
+        when(jdbc.queryForList(anyString(), eq(TrendingServiceImpl.SNAPSHOT_NAME)))
+                .thenReturn(List.of(Map.of("taken_at", takenAt, "data", data.getValue())));
+        when(documentRepo.findTitlesByIdIn(anyCollection())).thenReturn(List.of(title(1L, "Report")));
+        TrendingServiceImpl restarted = new TrendingServiceImpl(documentRepo, jdbc, 256, 4, 3, 24);
+
+        restarted.restore();
+
+        assertThat(restarted.top(1).get(0).getScore()).isCloseTo(8, within(0.01));
+    }
+
+    /**
+     * Verifies that an instance that recorded nothing (e.g. the worker service) never overwrites
+     * the snapshot, and that a restored state is not written back unchanged.
+     */
+    @Test
+    void snapshot_NothingRecorded_NoWrite() {
+        service.snapshot();
+
+        service.record(Map.of(1L, 4L));
+        service.snapshot();
+        service.snapshot();
+
+        verify(jdbc, times(1)).update(anyString(), any(), any(), any());
+    }
+
+    /**
+     * Verifies that a failed write is retried with the next snapshot.
+     */
+    @Test
+    void snapshot_WriteFails_RetriedNextTime() {
+        when(jdbc.update(anyString(), any(), any(), any()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+        service.record(Map.of(1L, 4L));
+
+        service.snapshot();
+        service.snapshot();
+
+        verify(jdbc, times(2)).update(anyString(), any(), any(), any());
+    }
+
+    /**
+     * Verifies that a missing snapshot table does not prevent startup.
+     */
+    @Test
+    void restore_Failure_StartsEmpty() {
+        when(jdbc.queryForList(anyString(), anyString())).thenThrow(new RuntimeException("no table"));
+
+        service.restore();
+
+        assertThat(service.top(10)).isEmpty();
+    }
+}
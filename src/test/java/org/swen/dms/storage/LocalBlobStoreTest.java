@@ -0,0 +1,185 @@
+package org.swen.dms.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LocalBlobStore} against a temporary directory.
+ */
+class LocalBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalBlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new LocalBlobStore(root.toString());
+    }
+
+    private void put(String key, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        store.put(key, new ByteArrayInputStream(bytes), bytes.length, "application/pdf");
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void putThenGet_RoundTrips() throws IOException {
+        put("a.pdf", "hello world");
+
+        assertThat(read(store.get("a.pdf"))).isEqualTo("hello world");
+        // Only the object itself is left, no temporary file
+        try (var files = Files.list(root)) {
+            assertThat(files).containsExactly(root.resolve("a.pdf"));
+        }
+    }
+
+    @Test
+    void put_ReplacesExistingObject() throws IOException {
+        put("a.pdf", "first");
+        put("a.pdf", "second");
+
+        assertThat(read(store.get("a.pdf"))).isEqualTo("second");
+    }
+
+    @Test
+    void put_ShortStream_FailsAndLeavesNothing() {
+        InputStream in = new ByteArrayInputStream("abc".getBytes());
+
+        assertThatThrownBy(() -> store.put("a.pdf", in, 10, "application/pdf"))
+                .isInstanceOf(IOException.class);
+        assertThat(root.resolve("a.pdf")).doesNotExist();
+    }
+
+    @Test
+    void rangedGet_ReturnsOnlyTheRange() throws IOException {
+        put("a.pdf", "0123456789");
+
+        assertThat(read(store.get("a.pdf", 2, 3))).isEqualTo("234");
+        assertThat(read(store.get("a.pdf", 8, 100))).isEqualTo("89");
+    }
+
+    @Test
+    void transferTo_CopiesTheRange() throws IOException {
+        put("a.pdf", "0123456789");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (InputStream in = store.get("a.pdf", 3, 4)) {
+            assertThat(in.transferTo(out)).isEqualTo(4);
+        }
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("3456");
+    }
+
+    @Test
+    void get_Missing_ThrowsNoSuchFile() {
+        assertThatThrownBy(() -> store.get("missing.pdf")).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void stat_ReturnsSizeOrEmpty() throws IOException {
+        put("a.pdf", "12345");
+
+        assertThat(store.stat("a.pdf")).get().extracting(BlobInfo::size).isEqualTo(5L);
+        assertThat(store.stat("missing.pdf")).isEmpty();
+    }
+
+    @Test
+    void deleteAndDeleteAll_RemoveObjects() throws IOException {
+        put("a.pdf", "a");
+        put("b.pdf", "b");
+        put("c.pdf", "c");
+
+        store.delete("a.pdf");
+        store.delete("a.pdf"); // missing is fine
+        List<String> failed = store.deleteAll(List.of("b.pdf", "c.pdf", "../outside.pdf"));
+
+        assertThat(failed).containsExactly("../outside.pdf");
+        assertThat(store.stat("b.pdf")).isEmpty();
+        assertThat(store.stat("c.pdf")).isEmpty();
+    }
+
+    @Test
+    void keysOutsideTheRoot_Rejected() {
+        assertThatThrownBy(() -> store.get("../etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> put("", "x")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nestedKeys_StoredInSubdirectories() throws IOException {
+        put("2026/10/a.pdf", "nested");
+
+        assertThat(read(store.get("2026/10/a.pdf"))).isEqualTo("nested");
+    }
+
+    private PartInfo part(String uploadId, int partNumber, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return store.uploadPart("big.pdf", uploadId, partNumber, new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    @Test
+    void multipart_PartsInAnyOrder_JoinedInPartOrder() throws IOException {
+        String uploadId = store.startMultipart("big.pdf", "application/pdf");
+        part(uploadId, 2, "world");
+        part(uploadId, 1, "hel");
+        // A retried part replaces the first attempt
+        part(uploadId, 1, "hello ");
+
+        List<PartInfo> parts = store.listParts("big.pdf", uploadId);
+        assertThat(parts).containsExactly(new PartInfo(1, null, 6), new PartInfo(2, null, 5));
+        assertThat(store.stat("big.pdf")).isEmpty();
+
+        store.completeMultipart("big.pdf", uploadId, parts);
+
+        assertThat(read(store.get("big.pdf"))).isEqualTo("hello world");
+        assertThatThrownBy(() -> store.listParts("big.pdf", uploadId)).isInstanceOf(NoSuchFileException.class);
+        try (var files = Files.list(root.resolve(".uploads"))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void multipart_Abort_RemovesParts() throws IOException {
+        String uploadId = store.startMultipart("big.pdf", "application/pdf");
+        part(uploadId, 1, "hello");
+
+        store.abortMultipart("big.pdf", uploadId);
+        store.abortMultipart("big.pdf", uploadId);
+
+        assertThatThrownBy(() -> part(uploadId, 2, "world")).isInstanceOf(NoSuchFileException.class);
+        assertThat(store.stat("big.pdf")).isEmpty();
+    }
+
+    @Test
+    void multipart_UnknownUploadId_NoSuchFile() {
+        assertThatThrownBy(() -> store.listParts("big.pdf", "../../etc")).isInstanceOf(NoSuchFileException.class);
+        assertThatThrownBy(() -> store.listParts("big.pdf", "6f1c1f5e-0000-4000-8000-000000000000"))
+                .isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void multipart_StagingAreaIsNotAKey() throws IOException {
+        String uploadId = store.startMultipart("big.pdf", "application/pdf");
+
+        assertThatThrownBy(() -> store.get(".uploads/" + uploadId + "/part-00001"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,180 @@
+package org.swen.dms.storage;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.ErrorResponse;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link MinioBlobStore} with a mocked {@link MinioClient}.
+ */
+@ExtendWith(MockitoExtension.class)
+class MinioBlobStoreTest {
+
+    @Mock
+    private MinioClient minio;
+
+    @Mock
+    private MinioMultipartClient multipart;
+
+    private MinioBlobStore store() {
+        return new MinioBlobStore(minio, multipart, minio, "documents", Duration.ZERO, Duration.ZERO);
+    }
+
+    private static ErrorResponseException error(String code) {
+        return new ErrorResponseException(
+                new ErrorResponse(code, "message", "documents", "key", "/documents/key", "req", "host"),
+                null, null);
+    }
+
+    @Test
+    void rangedGet_PassesOffsetAndLength() throws Exception {
+        GetObjectResponse response = mock(GetObjectResponse.class);
+        when(minio.getObject(any(GetObjectArgs.class))).thenReturn(response);
+
+        assertThat(store().get("a.pdf", 10, 20)).isSameAs(response);
+
+        ArgumentCaptor<GetObjectArgs> args = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minio).getObject(args.capture());
+        assertThat(args.getValue().bucket()).isEqualTo("documents");
+        assertThat(args.getValue().offset()).isEqualTo(10L);
+        assertThat(args.getValue().length()).isEqualTo(20L);
+    }
+
+    @Test
+    void get_NoSuchKey_ThrowsNoSuchFile() throws Exception {
+        when(minio.getObject(any(GetObjectArgs.class))).thenThrow(error("NoSuchKey"));
+
+        assertThatThrownBy(() -> store().get("a.pdf"))
+                .isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void get_OtherError_ThrowsIOException() throws Exception {
+        when(minio.getObject(any(GetObjectArgs.class))).thenThrow(error("AccessDenied"));
+
+        assertThatThrownBy(() -> store().get("a.pdf"))
+                .isInstanceOf(IOException.class)
+                .isNotInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void stat_Missing_ReturnsEmpty() throws Exception {
+        when(minio.statObject(any(StatObjectArgs.class))).thenThrow(error("NoSuchKey"));
+
+        assertThat(store().stat("a.pdf")).isEmpty();
+    }
+
+    @Test
+    void deleteAll_OneRequest_ReportsFailedKeys() throws Exception {
+        DeleteError failure = mock(DeleteError.class);
+        when(failure.objectName()).thenReturn("b.pdf");
+        when(minio.removeObjects(any(RemoveObjectsArgs.class))).thenReturn(List.of(new Result<>(failure)));
+
+        List<String> failed = store().deleteAll(List.of("a.pdf", "b.pdf"));
+
+        assertThat(failed).containsExactly("b.pdf");
+        verify(minio, times(1)).removeObjects(any(RemoveObjectsArgs.class));
+    }
+
+    @Test
+    void presignGet_SignsWithPresignerAndSetsDownloadName() throws Exception {
+        MinioClient presigner = mock(MinioClient.class);
+        when(presigner.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class))).thenReturn("http://public/a.pdf?sig");
+        MinioBlobStore store = new MinioBlobStore(minio, multipart, presigner, "documents", Duration.ofMinutes(5), Duration.ZERO);
+
+        PresignedUrl url = store.presignGet("a.pdf", "Report.pdf").orElseThrow();
+
+        assertThat(url.url()).isEqualTo("http://public/a.pdf?sig");
+        ArgumentCaptor<GetPresignedObjectUrlArgs> args = ArgumentCaptor.forClass(GetPresignedObjectUrlArgs.class);
+        verify(presigner).getPresignedObjectUrl(args.capture());
+        assertThat(args.getValue().method()).isEqualTo(Method.GET);
+        assertThat(args.getValue().expiry()).isEqualTo(300);
+        assertThat(args.getValue().extraQueryParams().get("response-content-disposition"))
+                .contains("attachment; filename=\"Report.pdf\"");
+        verifyNoInteractions(minio);
+        // Uploads are turned off for this store
+        assertThat(store.presignPut("a.pdf")).isEmpty();
+    }
+
+    @Test
+    void presign_Disabled_Empty() throws Exception {
+        MinioBlobStore store = store();
+
+        assertThat(store.presignGet("a.pdf", null)).isEmpty();
+        assertThat(store.presignPut("a.pdf")).isEmpty();
+    }
+
+    @Test
+    void deleteAll_Empty_NoRequest() throws Exception {
+        assertThat(store().deleteAll(List.of())).isEmpty();
+        verifyNoInteractions(minio);
+    }
+
+    @Test
+    void multipart_UploadListComplete() throws Exception {
+        MinioBlobStore store = store();
+        InputStream in = new ByteArrayInputStream(new byte[10]);
+        when(multipart.uploadPart("documents", "a.pdf", "up-1", 2, in, 10)).thenReturn("etag-2");
+        Part second = mock(Part.class);
+        when(second.partNumber()).thenReturn(2);
+        when(second.etag()).thenReturn("etag-2");
+        when(second.partSize()).thenReturn(10L);
+        Part first = mock(Part.class);
+        when(first.partNumber()).thenReturn(1);
+        when(first.etag()).thenReturn("etag-1");
+        when(first.partSize()).thenReturn(20L);
+        when(multipart.listParts("documents", "a.pdf", "up-1")).thenReturn(List.of(second, first));
+
+        assertThat(store.uploadPart("a.pdf", "up-1", 2, in, 10)).isEqualTo(new PartInfo(2, "etag-2", 10));
+        List<PartInfo> parts = store.listParts("a.pdf", "up-1");
+        store.completeMultipart("a.pdf", "up-1", parts);
+
+        assertThat(parts).containsExactly(new PartInfo(1, "etag-1", 20), new PartInfo(2, "etag-2", 10));
+        ArgumentCaptor<Part[]> completed = ArgumentCaptor.forClass(Part[].class);
+        verify(multipart).complete(eq("documents"), eq("a.pdf"), eq("up-1"), completed.capture());
+        assertThat(completed.getValue()).extracting(Part::partNumber, Part::etag)
+                .containsExactly(tuple(1, "etag-1"), tuple(2, "etag-2"));
+    }
+
+    @Test
+    void multipart_NoSuchUpload_ThrowsNoSuchFileButAbortIgnoresIt() throws Exception {
+        MinioBlobStore store = store();
+        when(multipart.listParts("documents", "a.pdf", "gone")).thenThrow(error("NoSuchUpload"));
+        doThrow(error("NoSuchUpload")).when(multipart).abort("documents", "a.pdf", "gone");
+
+        assertThatThrownBy(() -> store.listParts("a.pdf", "gone")).isInstanceOf(NoSuchFileException.class);
+        assertThatCode(() -> store.abortMultipart("a.pdf", "gone")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void constructor_RequiresMultipartClient() {
+        assertThatThrownBy(() -> new MinioBlobStore(minio, null, minio, "documents", Duration.ZERO, Duration.ZERO))
+                .isInstanceOf(NullPointerException.class);
+    }
+}
@@ -0,0 +1,276 @@
+package org.swen.dms.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ObjectByteCache} against a temporary directory.
+ */
+class ObjectByteCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private ObjectByteCache cache(long maxBytes) {
+        ObjectByteCache cache = new ObjectByteCache(dir.toString(), maxBytes, maxBytes, 2, true);
+        cache.load();
+        return cache;
+    }
+
+    private static byte[] bytes(int size) {
+        return new byte[size];
+    }
+
+    // A download that misses and gets cached if admitted, as DocumentServiceImpl does it
+    private static void download(ObjectByteCache cache, String key, int size) throws IOException {
+        Optional<FileChannel> hit = cache.open(key);
+        if (hit.isPresent()) {
+            hit.get().close();
+        } else if (cache.admit(key, size)) {
+            cache.store(key, new ByteArrayInputStream(bytes(size)), OutputStream.nullOutputStream());
+        }
+    }
+
+    @Test
+    void firstDownload_NotAdmitted() throws IOException {
+        ObjectByteCache cache = cache(1000);
+
+        download(cache, "a.pdf", 100);
+
+        assertThat(cache.contains("a.pdf")).isFalse();
+        assertThat(cache.usedBytes()).isZero();
+    }
+
+    @Test
+    void repeatedDownload_CachedAndServed() throws IOException {
+        ObjectByteCache cache = cache(1000);
+        download(cache, "a.pdf", 100);
+        download(cache, "a.pdf", 100);
+
+        assertThat(cache.contains("a.pdf")).isTrue();
+        assertThat(cache.usedBytes()).isEqualTo(100);
+
+        FileChannel channel = cache.open("a.pdf").orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectByteCache.transfer(channel, out);
+        assertThat(out.toByteArray()).hasSize(100);
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void colderCandidate_DoesNotEvictHotterEntry() throws IOException {
+        ObjectByteCache cache = cache(150);
+        for (int i = 0; i < 5; i++) {
+            download(cache, "hot.pdf", 100);
+        }
+        download(cache, "cold.pdf", 100);
+        download(cache, "cold.pdf", 100);
+
+        assertThat(cache.contains("hot.pdf")).isTrue();
+        assertThat(cache.contains("cold.pdf")).isFalse();
+    }
+
+    @Test
+    void hotterCandidate_EvictsLeastRecentlyUsed() throws IOException {
+        ObjectByteCache cache = cache(150);
+        download(cache, "old.pdf", 100);
+        download(cache, "old.pdf", 100);
+        for (int i = 0; i < 4; i++) {
+            download(cache, "new.pdf", 100);
+        }
+
+        assertThat(cache.contains("new.pdf")).isTrue();
+        assertThat(cache.contains("old.pdf")).isFalse();
+        assertThat(Files.exists(dir.resolve(ObjectByteCache.fileName("old.pdf")))).isFalse();
+        assertThat(cache.usedBytes()).isEqualTo(100);
+    }
+
+    @Test
+    void oversizedObject_NeverAdmitted() throws IOException {
+        ObjectByteCache cache = new ObjectByteCache(dir.toString(), 1000, 50, 1, true);
+        cache.load();
+        cache.open("big.pdf");
+
+        assertThat(cache.admit("big.pdf", 100)).isFalse();
+    }
+
+    @Test
+    void keysWithSlashes_CachedUnderHashedFileNames() throws IOException {
+        ObjectByteCache cache = cache(1000);
+        download(cache, "optimized/a.pdf", 100);
+        download(cache, "optimized/a.pdf", 100);
+        download(cache, "../escape.pdf", 10);
+        download(cache, "../escape.pdf", 10);
+
+        assertThat(cache.contains("optimized/a.pdf")).isTrue();
+        assertThat(cache.contains("../escape.pdf")).isTrue();
+        try (FileChannel channel = cache.open("optimized/a.pdf").orElseThrow()) {
+            assertThat(channel.size()).isEqualTo(100);
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.map(f -> f.getFileName().toString())).containsExactlyInAnyOrder(
+                    ObjectByteCache.fileName("optimized/a.pdf"), ObjectByteCache.fileName("../escape.pdf"));
+        }
+        assertThat(dir.resolveSibling("escape.pdf")).doesNotExist();
+    }
+
+    @Test
+    void concurrentMiss_OnlyOneWriter() {
+        ObjectByteCache cache = cache(1000);
+        cache.open("a.pdf");
+        cache.open("a.pdf");
+
+        assertThat(cache.admit("a.pdf", 100)).isTrue();
+        assertThat(cache.admit("a.pdf", 100)).isFalse();
+        // Reserved but not yet written: not served
+        assertThat(cache.open("a.pdf")).isEmpty();
+    }
+
+    @Test
+    void failedStore_ReleasesReservation() {
+        ObjectByteCache cache = cache(1000);
+        cache.open("a.pdf");
+        cache.open("a.pdf");
+        assertThat(cache.admit("a.pdf", 100)).isTrue();
+
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+        assertThatThrownBy(() -> cache.store("a.pdf", failing, OutputStream.nullOutputStream()))
+                .isInstanceOf(IOException.class);
+
+        assertThat(cache.usedBytes()).isZero();
+        assertThat(dir.resolve(ObjectByteCache.fileName("a.pdf") + ".tmp")).doesNotExist();
+    }
+
+    @Test
+    void store_ServesAndCachesTheSameBytes() throws IOException {
+        ObjectByteCache cache = cache(1_000_000);
+        cache.open("a.pdf");
+        cache.open("a.pdf");
+        byte[] object = new byte[200_000];
+        new java.util.Random(1).nextBytes(object);
+        assertThat(cache.admit("a.pdf", object.length)).isTrue();
+
+        ByteArrayOutputStream served = new ByteArrayOutputStream();
+        cache.store("a.pdf", new ByteArrayInputStream(object), served);
+
+        assertThat(served.toByteArray()).isEqualTo(object);
+        assertThat(dir.resolve(ObjectByteCache.fileName("a.pdf"))).hasBinaryContent(object);
+        assertThat(cache.contains("a.pdf")).isTrue();
+    }
+
+    @Test
+    void diskFailure_StillServedButNotCached() throws IOException {
+        ObjectByteCache cache = cache(1000);
+        cache.open("a.pdf");
+        cache.open("a.pdf");
+        assertThat(cache.admit("a.pdf", 100)).isTrue();
+        // The .tmp path cannot be opened as a file
+        Files.createDirectory(dir.resolve(ObjectByteCache.fileName("a.pdf") + ".tmp"));
+
+        ByteArrayOutputStream served = new ByteArrayOutputStream();
+        cache.store("a.pdf", new ByteArrayInputStream(bytes(100)), served);
+
+        assertThat(served.size()).isEqualTo(100);
+        assertThat(cache.contains("a.pdf")).isFalse();
+        assertThat(cache.usedBytes()).isZero();
+    }
+
+    @Test
+    void clientGone_ReleasesReservation() {
+        ObjectByteCache cache = cache(1000);
+        cache.open("a.pdf");
+        cache.open("a.pdf");
+        assertThat(cache.admit("a.pdf", 100)).isTrue();
+
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("broken pipe");
+            }
+        };
+        assertThatThrownBy(() -> cache.store("a.pdf", new ByteArrayInputStream(bytes(100)), disconnected))
+                .isInstanceOf(IOException.class);
+
+        assertThat(cache.usedBytes()).isZero();
+        assertThat(dir.resolve(ObjectByteCache.fileName("a.pdf") + ".tmp")).doesNotExist();
+    }
+
+    @Test
+    void remove_DropsEntryAndFile() throws IOException {
+        ObjectByteCache cache = cache(1000);
+        download(cache, "a.pdf", 100);
+        download(cache, "a.pdf", 100);
+        FileChannel reading = cache.open("a.pdf").orElseThrow();
+
+        cache.remove("a.pdf");
+        cache.remove("never-cached.pdf");
+
+        assertThat(cache.contains("a.pdf")).isFalse();
+        assertThat(cache.usedBytes()).isZero();
+        assertThat(dir.resolve(ObjectByteCache.fileName("a.pdf"))).doesNotExist();
+        // An open reader still gets the whole file
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectByteCache.transfer(reading, out);
+        assertThat(out.size()).isEqualTo(100);
+    }
+
+    @Test
+    void removeWhileStoring_NotKept() throws IOException {
+        ObjectByteCache cache = cache(1000);
+        cache.open("a.pdf");
+        cache.open("a.pdf");
+        assertThat(cache.admit("a.pdf", 100)).isTrue();
+
+        cache.remove("a.pdf");
+        ByteArrayOutputStream served = new ByteArrayOutputStream();
+        cache.store("a.pdf", new ByteArrayInputStream(bytes(100)), served);
+        assertThat(served.size()).isEqualTo(100);
+
+        assertThat(cache.contains("a.pdf")).isFalse();
+        assertThat(cache.usedBytes()).isZero();
+        assertThat(dir.resolve(ObjectByteCache.fileName("a.pdf"))).doesNotExist();
+    }
+
+    @Test
+    void restart_IndexesExistingFilesAndDropsPartialOnes() throws IOException {
+        Files.write(dir.resolve(ObjectByteCache.fileName("a.pdf")), bytes(100));
+        Files.write(dir.resolve(ObjectByteCache.fileName("b.pdf") + ".tmp"), bytes(10));
+        Files.write(dir.resolve("c.pdf"), bytes(10));
+
+        ObjectByteCache cache = cache(1000);
+
+        assertThat(cache.contains("a.pdf")).isTrue();
+        assertThat(cache.usedBytes()).isEqualTo(100);
+        assertThat(dir.resolve(ObjectByteCache.fileName("b.pdf") + ".tmp")).doesNotExist();
+        assertThat(dir.resolve("c.pdf")).doesNotExist();
+        assertThat(cache.open("a.pdf")).isPresent();
+    }
+
+    @Test
+    void disabled_NeverCaches() throws IOException {
+        ObjectByteCache cache = new ObjectByteCache(dir.toString(), 1000, 1000, 1, false);
+        cache.load();
+        download(cache, "a.pdf", 100);
+        download(cache, "a.pdf", 100);
+
+        assertThat(cache.contains("a.pdf")).isFalse();
+    }
+}
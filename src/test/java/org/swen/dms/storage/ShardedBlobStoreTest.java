@@ -0,0 +1,216 @@
+package org.swen.dms.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ShardedBlobStore} and {@link ShardRebalancer} with mocked shards.
+ */
+@ExtendWith(MockitoExtension.class)
+class ShardedBlobStoreTest {
+
+    @Mock
+    private MinioBlobStore a;
+
+    @Mock
+    private MinioBlobStore b;
+
+    private ShardedBlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, MinioBlobStore> shards = new LinkedHashMap<>();
+        shards.put("http://a:9000", a);
+        shards.put("http://b:9000", b);
+        store = new ShardedBlobStore(shards, 64, false);
+    }
+
+    private MinioBlobStore owner(String key) {
+        return store.shardFor(key).equals("http://a:9000") ? a : b;
+    }
+
+    private MinioBlobStore other(String key) {
+        return owner(key) == a ? b : a;
+    }
+
+    @Test
+    void put_GoesToOwningShardOnly() throws Exception {
+        InputStream in = new ByteArrayInputStream(new byte[3]);
+
+        store.put("k1.pdf", in, 3, "application/pdf");
+
+        verify(owner("k1.pdf")).put("k1.pdf", in, 3, "application/pdf");
+        verifyNoInteractions(other("k1.pdf"));
+    }
+
+    @Test
+    void get_FallsBackToOtherShardUntilMoved() throws Exception {
+        InputStream content = new ByteArrayInputStream(new byte[1]);
+        when(owner("k1.pdf").get("k1.pdf")).thenThrow(new NoSuchFileException("k1.pdf"));
+        when(other("k1.pdf").get("k1.pdf")).thenReturn(content);
+
+        assertThat(store.get("k1.pdf")).isSameAs(content);
+    }
+
+    @Test
+    void get_MissingEverywhere_ThrowsNoSuchFile() throws Exception {
+        when(a.get("k1.pdf")).thenThrow(new NoSuchFileException("k1.pdf"));
+        when(b.get("k1.pdf")).thenThrow(new NoSuchFileException("k1.pdf"));
+
+        assertThatThrownBy(() -> store.get("k1.pdf")).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void delete_RemovesFromEveryShardOwnerLast() throws Exception {
+        store.delete("k1.pdf");
+
+        InOrder order = inOrder(other("k1.pdf"), owner("k1.pdf"));
+        order.verify(other("k1.pdf")).delete("k1.pdf");
+        order.verify(owner("k1.pdf")).delete("k1.pdf");
+    }
+
+    @Test
+    void deleteAll_ReportsKeysFailedOnAnyShard() throws Exception {
+        when(a.deleteAll(anyList())).thenAnswer(i -> i.getArgument(0, List.class).contains("y") ? List.of("y") : List.of());
+        when(b.deleteAll(anyList())).thenReturn(List.of());
+
+        assertThat(store.deleteAll(List.of("x", "y"))).containsExactly("y");
+        // Each key is deleted on both shards, on its owner last
+        InOrder order = inOrder(other("x"), owner("x"));
+        order.verify(other("x")).deleteAll(argThat(keys -> keys.contains("x")));
+        order.verify(owner("x")).deleteAll(argThat(keys -> keys.contains("x")));
+    }
+
+    @Test
+    void rebalance_MovesMisplacedObjectsToTheirOwner() throws Exception {
+        // Find a key that belongs on b but sits on a, and one that is already in place
+        String misplaced = null;
+        String placed = null;
+        for (int i = 0; misplaced == null || placed == null; i++) {
+            String key = "key-" + i + ".pdf";
+            if (owner(key) == b && misplaced == null) {
+                misplaced = key;
+            } else if (owner(key) == a && placed == null) {
+                placed = key;
+            }
+        }
+        BlobInfo misplacedInfo = new BlobInfo(misplaced, 5, null, Instant.now());
+        when(a.list()).thenReturn(List.of(misplacedInfo, new BlobInfo(placed, 7, null, Instant.now())));
+        when(b.list()).thenReturn(List.of());
+        when(b.stat(misplaced)).thenReturn(Optional.empty());
+        when(a.stat(misplaced)).thenReturn(Optional.of(new BlobInfo(misplaced, 5, "application/pdf", Instant.now())));
+        InputStream content = new ByteArrayInputStream(new byte[5]);
+        when(a.get(misplaced)).thenReturn(content);
+
+        var status = new ShardRebalancer(store).runNow();
+
+        verify(b).put(misplaced, content, 5, "application/pdf");
+        verify(a).delete(misplaced);
+        verify(a, never()).delete(placed);
+        assertThat(status.getScannedObjects()).isEqualTo(2);
+        assertThat(status.getMovedObjects()).isEqualTo(1);
+        assertThat(status.getFailedObjects()).isZero();
+    }
+
+    @Test
+    void rebalance_FailedCopy_KeepsSource() throws Exception {
+        String misplaced = null;
+        for (int i = 0; misplaced == null; i++) {
+            if (owner("key-" + i + ".pdf") == b) {
+                misplaced = "key-" + i + ".pdf";
+            }
+        }
+        when(a.list()).thenReturn(List.of(new BlobInfo(misplaced, 5, null, Instant.now())));
+        when(b.list()).thenReturn(List.of());
+        when(b.stat(misplaced)).thenReturn(Optional.empty());
+        when(a.stat(misplaced)).thenReturn(Optional.of(new BlobInfo(misplaced, 5, null, Instant.now())));
+        when(a.get(misplaced)).thenReturn(new ByteArrayInputStream(new byte[5]));
+        doThrow(new java.io.IOException("shard down")).when(b).put(anyString(), any(), anyLong(), anyString());
+
+        var status = new ShardRebalancer(store).runNow();
+
+        verify(a, never()).delete(anyString());
+        assertThat(status.getFailedObjects()).isEqualTo(1);
+    }
+
+    @Test
+    void rebalance_DeletedDuringCopy_CopyRemoved() throws Exception {
+        String misplaced = null;
+        for (int i = 0; misplaced == null; i++) {
+            if (owner("key-" + i + ".pdf") == b) {
+                misplaced = "key-" + i + ".pdf";
+            }
+        }
+        when(a.list()).thenReturn(List.of(new BlobInfo(misplaced, 5, null, Instant.now())));
+        when(b.list()).thenReturn(List.of());
+        when(b.stat(misplaced)).thenReturn(Optional.empty());
+        // Present before the copy, deleted by the time it is done
+        when(a.stat(misplaced))
+                .thenReturn(Optional.of(new BlobInfo(misplaced, 5, null, Instant.now())))
+                .thenReturn(Optional.empty());
+        when(a.get(misplaced)).thenReturn(new ByteArrayInputStream(new byte[5]));
+
+        var status = new ShardRebalancer(store).runNow();
+
+        verify(b).put(eq(misplaced), any(), eq(5L), anyString());
+        verify(b).delete(misplaced);
+        verify(a, never()).delete(anyString());
+        assertThat(status.getMovedObjects()).isZero();
+        assertThat(status.getFailedObjects()).isZero();
+    }
+
+    @Test
+    void presignGet_Disabled_NoStatRequests() throws Exception {
+        assertThat(store.presignGet("k1.pdf", "Report.pdf")).isEmpty();
+
+        verify(a, never()).stat(anyString());
+        verify(b, never()).stat(anyString());
+    }
+
+    @Test
+    void presignGet_SignsOnShardThatHasTheObject() throws Exception {
+        ShardedBlobStore presigning = new ShardedBlobStore(Map.of("http://a:9000", a, "http://b:9000", b), 64, true);
+        PresignedUrl url = new PresignedUrl("http://b/k1.pdf", Instant.now());
+        // Not moved to its owner yet
+        when(owner("k1.pdf").stat("k1.pdf")).thenReturn(Optional.empty());
+        when(other("k1.pdf").stat("k1.pdf")).thenReturn(Optional.of(new BlobInfo("k1.pdf", 3, null, Instant.now())));
+        when(other("k1.pdf").presignGet("k1.pdf", "Report.pdf")).thenReturn(Optional.of(url));
+
+        assertThat(presigning.presignGet("k1.pdf", "Report.pdf")).contains(url);
+        verify(owner("k1.pdf"), never()).presignGet(anyString(), anyString());
+    }
+
+    @Test
+    void multipart_RunsOnOwningShard() throws Exception {
+        when(owner("big.pdf").startMultipart("big.pdf", "application/pdf")).thenReturn("up-1");
+        List<PartInfo> parts = List.of(new PartInfo(1, "e1", 10));
+        when(owner("big.pdf").listParts("big.pdf", "up-1")).thenReturn(parts);
+
+        String uploadId = store.startMultipart("big.pdf", "application/pdf");
+        store.completeMultipart("big.pdf", uploadId, store.listParts("big.pdf", uploadId));
+
+        verify(owner("big.pdf")).completeMultipart("big.pdf", "up-1", parts);
+        verifyNoInteractions(other("big.pdf"));
+    }
+}
@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.swen.dms.entity.Document;
 import org.swen.dms.messaging.OcrCompletedEvent;
 import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.service.DocumentCache;
 
 import java.util.Optional;
 
@@ -21,6 +22,9 @@ class GenAIWorkerTest {
     @Mock
     private DocumentRepository repo;
 
+    @Mock
+    private DocumentCache documentCache;
+
     @Test
     void handle_Success() {
         // Arrange
@@ -36,7 +40,7 @@ class GenAIWorkerTest {
 
         // 1. Create a SPY of the worker (using the protected constructor)
         // We pass 'repo', but 'client' is null (we won't use it)
-        GenAIWorker worker = new GenAIWorker(repo);
+        GenAIWorker worker = new GenAIWorker(repo, documentCache);
         GenAIWorker spyWorker = spy(worker);
 
         // 2. Override the protected method to return our fake summary
@@ -51,6 +55,8 @@ class GenAIWorkerTest {
         verify(repo).save(docCaptor.capture());
 
         assertThat(docCaptor.getValue().getOcrSummaryText()).isEqualTo(expectedSummary);
+        // Cached summaries on the app instances are dropped
+        verify(documentCache).evict(docId);
     }
 
     @Test
@@ -63,7 +69,7 @@ class GenAIWorkerTest {
 
         when(repo.findById(docId)).thenReturn(Optional.of(doc));
 
-        GenAIWorker worker = new GenAIWorker(repo);
+        GenAIWorker worker = new GenAIWorker(repo, documentCache);
         GenAIWorker spyWorker = spy(worker);
 
         // Simulate an API failure by making the method throw
@@ -0,0 +1,156 @@
+package org.swen.dms.worker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.swen.dms.messaging.CategoriesChangedEvent;
+import org.swen.dms.messaging.DocumentDeletedEvent;
+import org.swen.dms.messaging.DocumentUpdatedEvent;
+import org.swen.dms.repository.jpa.CategoryRepository;
+import org.swen.dms.repository.jpa.DocumentCategoryView;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.repository.jpa.DocumentTitleView;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexSyncWorkerTest {
+
+    @Mock
+    private ElasticsearchOperations operations;
+    @Mock
+    private DocumentRepository documentRepo;
+    @Mock
+    private CategoryRepository categoryRepo;
+
+    private IndexSyncWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new IndexSyncWorker(operations, documentRepo, categoryRepo);
+    }
+
+    private static DocumentTitleView titleRow(Long id, String title) {
+        return new DocumentTitleView() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+        };
+    }
+
+    private static DocumentCategoryView categoryRow(Long documentId, String path) {
+        return new DocumentCategoryView() {
+            public Long getDocumentId() { return documentId; }
+            public String getPath() { return path; }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_RapidUpdates_IssueOnePartialUpdatePerDocument() {
+        // Arrange: three renames of the same document within one window
+        worker.handleUpdated(new DocumentUpdatedEvent(1L, "A", "B", Instant.now()));
+        worker.handleUpdated(new DocumentUpdatedEvent(1L, "B", "C", Instant.now()));
+        worker.handleUpdated(new DocumentUpdatedEvent(1L, "C", "D", Instant.now()));
+
+        when(documentRepo.findTitlesByIdIn(List.of(1L))).thenReturn(List.of(titleRow(1L, "D")));
+        when(categoryRepo.findPathsByDocumentIds(List.of(1L))).thenReturn(List.of(categoryRow(1L, "Finance/Invoices")));
+
+        // Act
+        worker.flush();
+
+        // Assert
+        ArgumentCaptor<List<UpdateQuery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(operations, times(1)).bulkUpdate(captor.capture(), any(IndexCoordinates.class));
+        assertThat(captor.getValue()).hasSize(1);
+
+        UpdateQuery query = captor.getValue().get(0);
+        assertThat(query.getId()).isEqualTo("1");
+        assertThat(query.getDocument().get("title")).isEqualTo("D");
+        // Indexed with its ancestors, so filtering on "Finance" finds it
+        assertThat(query.getDocument().get("categories")).isEqualTo(List.of("Finance", "Finance/Invoices"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_BulkCategoryChange_OneBulkUpdate() {
+        // Arrange: one event for a bulk change; a delete that raced it still wins
+        worker.handleCategoriesChanged(new CategoriesChangedEvent(10L, List.of(5L, 6L, 7L), Instant.now()));
+        worker.handleDeleted(new DocumentDeletedEvent(7L, "key", Instant.now()));
+        when(documentRepo.findTitlesByIdIn(anyList())).thenReturn(List.of(titleRow(5L, "A"), titleRow(6L, "B")));
+
+        // Act
+        worker.flush();
+
+        // Assert
+        ArgumentCaptor<List<UpdateQuery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(operations, times(1)).bulkUpdate(captor.capture(), any(IndexCoordinates.class));
+        assertThat(captor.getValue()).extracting(UpdateQuery::getId).containsExactlyInAnyOrder("5", "6");
+        verify(operations).delete(eq("7"), any(IndexCoordinates.class));
+    }
+
+    @Test
+    void flush_UpdateThenDelete_OnlyDeletes() {
+        // Arrange
+        worker.handleUpdated(new DocumentUpdatedEvent(2L, "A", "B", Instant.now()));
+        worker.handleDeleted(new DocumentDeletedEvent(2L, "key", Instant.now()));
+        worker.handleUpdated(new DocumentUpdatedEvent(2L, "B", "C", Instant.now()));
+
+        // Act
+        worker.flush();
+
+        // Assert
+        verify(operations).delete(eq("2"), any(IndexCoordinates.class));
+        verify(operations, never()).bulkUpdate(anyList(), any(IndexCoordinates.class));
+        verifyNoInteractions(documentRepo);
+    }
+
+    @Test
+    void flush_RowAlreadyGone_DeletesFromIndex() {
+        // Arrange
+        worker.handleUpdated(new DocumentUpdatedEvent(3L, "A", "B", Instant.now()));
+        when(documentRepo.findTitlesByIdIn(List.of(3L))).thenReturn(List.of());
+
+        // Act
+        worker.flush();
+
+        // Assert
+        verify(operations).delete(eq("3"), any(IndexCoordinates.class));
+    }
+
+    @Test
+    void flush_ElasticsearchDown_RetriesOnNextFlush() {
+        // Arrange
+        worker.handleUpdated(new DocumentUpdatedEvent(4L, "A", "B", Instant.now()));
+        when(documentRepo.findTitlesByIdIn(List.of(4L))).thenReturn(List.of(titleRow(4L, "B")));
+        doThrow(new RuntimeException("Elasticsearch down"))
+                .doNothing()
+                .when(operations).bulkUpdate(anyList(), any(IndexCoordinates.class));
+
+        // Act
+        worker.flush();
+        worker.flush();
+
+        // Assert
+        verify(operations, times(2)).bulkUpdate(anyList(), any(IndexCoordinates.class));
+    }
+
+    @Test
+    void flush_NothingPending_DoesNothing() {
+        // Act
+        worker.flush();
+
+        // Assert
+        verifyNoInteractions(operations, documentRepo, categoryRepo);
+    }
+}
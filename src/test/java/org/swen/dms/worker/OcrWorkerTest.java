@@ -17,13 +17,12 @@ import org.swen.dms.repository.search.DocumentSearchRepository;
 import org.swen.dms.entity.DocumentSearch;
 import org.swen.dms.entity.Document;
 
-import io.minio.MinioClient;
-import io.minio.GetObjectArgs;
-import io.minio.GetObjectResponse;
+import org.swen.dms.storage.BlobStore;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.Optional;
 
@@ -38,7 +37,7 @@ import static org.swen.dms.config.RabbitConfig.ROUTING_OCR_COMPLETED;
 class OcrWorkerTest {
 
     @Mock
-    private MinioClient minioClient;
+    private BlobStore blobStore;
     @Mock
     private ITesseract tesseract;
     @Mock
@@ -53,7 +52,7 @@ class OcrWorkerTest {
     @Test
     void handleDocumentCreatedEvent_Success() throws Exception {
         // Arrange
-        ocrWorker = new OcrWorker(minioClient, tesseract, 300, repo, rabbitTemplate, searchRepository);
+        ocrWorker = new OcrWorker(blobStore, tesseract, 300, repo, rabbitTemplate, searchRepository);
 
         DocumentCreatedEvent event = new DocumentCreatedEvent(
                 1L, "Test Document", Instant.now(), "documents", "file-key-1"
@@ -61,14 +60,14 @@ class OcrWorkerTest {
 
         byte[] validPdf = createMinimalPdf();
 
-        // Mock MinIO Response
-        GetObjectResponse mockResponse = mock(GetObjectResponse.class);
+        // Mock the stored file
+        InputStream mockResponse = mock(InputStream.class);
         when(mockResponse.transferTo(any())).thenAnswer(invocation -> {
             ByteArrayInputStream bais = new ByteArrayInputStream(validPdf);
             bais.transferTo(invocation.getArgument(0));
             return (long) validPdf.length;
         });
-        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(mockResponse);
+        when(blobStore.get(anyString())).thenReturn(mockResponse);
 
         // Mock Tesseract & DB
         when(tesseract.doOCR(any(File.class))).thenReturn("Extracted text content");
@@ -89,20 +88,20 @@ class OcrWorkerTest {
     @Test
     void handleDocumentCreatedEvent_DocumentNotFound() throws Exception {
         // Arrange
-        ocrWorker = new OcrWorker(minioClient, tesseract, 300, repo, rabbitTemplate, searchRepository);
+        ocrWorker = new OcrWorker(blobStore, tesseract, 300, repo, rabbitTemplate, searchRepository);
 
         DocumentCreatedEvent event = new DocumentCreatedEvent(
                 1L, "Test Document", Instant.now(), "documents", "file-key-1"
         );
 
         byte[] validPdf = createMinimalPdf();
-        GetObjectResponse mockResponse = mock(GetObjectResponse.class);
+        InputStream mockResponse = mock(InputStream.class);
         when(mockResponse.transferTo(any())).thenAnswer(invocation -> {
             ByteArrayInputStream bais = new ByteArrayInputStream(validPdf);
             bais.transferTo(invocation.getArgument(0));
             return (long) validPdf.length;
         });
-        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(mockResponse);
+        when(blobStore.get(anyString())).thenReturn(mockResponse);
 
         when(tesseract.doOCR(any(File.class))).thenReturn("Extracted text");
 
@@ -120,14 +119,14 @@ class OcrWorkerTest {
     @Test
     void handleDocumentCreatedEvent_MinIOFailure() throws Exception {
         // Arrange
-        ocrWorker = new OcrWorker(minioClient, tesseract, 300, repo, rabbitTemplate, searchRepository);
+        ocrWorker = new OcrWorker(blobStore, tesseract, 300, repo, rabbitTemplate, searchRepository);
 
         DocumentCreatedEvent event = new DocumentCreatedEvent(
                 1L, "Test Document", Instant.now(), "documents", "file-key-1"
         );
 
-        when(minioClient.getObject(any(GetObjectArgs.class)))
-                .thenThrow(new RuntimeException("MinIO connection failed"));
+        when(blobStore.get(anyString()))
+                .thenThrow(new java.io.IOException("Object store connection failed"));
 
         // Act
         ocrWorker.handle(event);
@@ -141,7 +140,7 @@ class OcrWorkerTest {
     @Test
     void shouldIndexOcrResultInElasticsearch() throws Exception {
         // Arrange
-        ocrWorker = new OcrWorker(minioClient, tesseract, 300, repo, rabbitTemplate, searchRepository);
+        ocrWorker = new OcrWorker(blobStore, tesseract, 300, repo, rabbitTemplate, searchRepository);
 
         Long docId = 123L;
         String expectedOcrText = "This is the text detected by OCR";
@@ -152,15 +151,15 @@ class OcrWorkerTest {
         existingDoc.setId(docId);
         when(repo.findById(docId)).thenReturn(Optional.of(existingDoc));
 
-        // Mock MinIO
+        // Mock the blob store
         byte[] pdfBytes = createMinimalPdf();
-        GetObjectResponse mockResponse = mock(GetObjectResponse.class);
+        InputStream mockResponse = mock(InputStream.class);
         when(mockResponse.transferTo(any())).thenAnswer(invocation -> {
             ByteArrayInputStream bais = new ByteArrayInputStream(pdfBytes);
             bais.transferTo(invocation.getArgument(0));
             return (long) pdfBytes.length;
         });
-        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(mockResponse);
+        when(blobStore.get(anyString())).thenReturn(mockResponse);
 
         // Mock Tesseract
         when(tesseract.doOCR(any(File.class))).thenReturn(expectedOcrText);
@@ -201,18 +200,18 @@ class OcrWorkerTest {
     @Test
     void handle_ElasticsearchFailure_ShouldContinue() throws Exception {
         // Arrange
-        ocrWorker = new OcrWorker(minioClient, tesseract, 300, repo, rabbitTemplate, searchRepository);
+        ocrWorker = new OcrWorker(blobStore, tesseract, 300, repo, rabbitTemplate, searchRepository);
 
         DocumentCreatedEvent event = new DocumentCreatedEvent(1L, "Test", Instant.now(), "docs", "key");
         byte[] pdfBytes = createMinimalPdf();
 
-        // 1. MinIO works
-        GetObjectResponse mockResponse = mock(GetObjectResponse.class);
+        // 1. The blob store works
+        InputStream mockResponse = mock(InputStream.class);
         when(mockResponse.transferTo(any())).thenAnswer(i -> {
             new ByteArrayInputStream(pdfBytes).transferTo(i.getArgument(0));
             return (long) pdfBytes.length;
         });
-        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(mockResponse);
+        when(blobStore.get(anyString())).thenReturn(mockResponse);
 
         // 2. DB and OCR work
         when(repo.findById(1L)).thenReturn(Optional.of(new Document()));
@@ -0,0 +1,132 @@
+package org.swen.dms.worker;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.swen.dms.messaging.DocumentCreatedEvent;
+import org.swen.dms.repository.jpa.DocumentRepository;
+import org.swen.dms.service.DocumentCache;
+import org.swen.dms.storage.BlobStore;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PdfOptimizeWorkerTest {
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private DocumentRepository repo;
+
+    @Mock
+    private DocumentCache documentCache;
+
+    @TempDir
+    Path dir;
+
+    private PdfOptimizeWorker worker;
+
+    private final DocumentCreatedEvent event =
+            new DocumentCreatedEvent(1L, "scan.pdf", Instant.now(), "documents", "k.pdf");
+
+    @BeforeEach
+    void setUp() {
+        worker = new PdfOptimizeWorker(blobStore, repo, documentCache, 150, 0.75f, 10);
+    }
+
+    // A letter page showing a noisy 2000 px image, which shrinks a lot
+    private byte[] scan() throws IOException {
+        BufferedImage image = new BufferedImage(2000, 2000, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(1);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt(32) * 0x010101 + (x / 8) * 0x010000);
+            }
+        }
+        return pdf(image);
+    }
+
+    private byte[] pdf(BufferedImage image) throws IOException {
+        Path file = dir.resolve("source.pdf");
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.LETTER);
+            doc.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(doc, page)) {
+                if (image != null) {
+                    PDImageXObject xObject = LosslessFactory.createFromImage(doc, image);
+                    content.drawImage(xObject, 0, 0, PDRectangle.LETTER.getWidth(), PDRectangle.LETTER.getHeight());
+                }
+            }
+            doc.save(file.toFile());
+        }
+        return Files.readAllBytes(file);
+    }
+
+    @Test
+    void handle_StoresCopyAndRecordsIt() throws Exception {
+        byte[] original = scan();
+        when(blobStore.get("k.pdf")).thenReturn(new ByteArrayInputStream(original));
+        when(repo.setOptimized(eq(1L), eq("optimized/k.pdf"), anyLong())).thenReturn(1);
+
+        worker.handle(event);
+
+        verify(blobStore).put(eq("optimized/k.pdf"), any(InputStream.class),
+                longThat(size -> size < original.length * 9L / 10), eq("application/pdf"));
+        verify(repo).setOptimized(eq(1L), eq("optimized/k.pdf"), longThat(size -> size < original.length));
+        verify(documentCache).evict(1L);
+        verify(blobStore, never()).delete(anyString());
+    }
+
+    @Test
+    void handle_DocumentDeletedMeanwhile_RemovesCopy() throws Exception {
+        when(blobStore.get("k.pdf")).thenReturn(new ByteArrayInputStream(scan()));
+        when(repo.setOptimized(eq(1L), eq("optimized/k.pdf"), anyLong())).thenReturn(0);
+
+        worker.handle(event);
+
+        verify(blobStore).delete("optimized/k.pdf");
+        verifyNoInteractions(documentCache);
+    }
+
+    @Test
+    void handle_LittleSaved_KeepsOriginalOnly() throws Exception {
+        when(blobStore.get("k.pdf")).thenReturn(new ByteArrayInputStream(pdf(null)));
+        // An image-free page only gains from object streams, well below 90%
+        worker = new PdfOptimizeWorker(blobStore, repo, documentCache, 150, 0.75f, 90);
+
+        worker.handle(event);
+
+        verify(blobStore, never()).put(anyString(), any(), anyLong(), anyString());
+        verifyNoInteractions(repo, documentCache);
+    }
+
+    @Test
+    void handle_NotAPdf_LoggedAndIgnored() throws Exception {
+        when(blobStore.get("k.pdf")).thenReturn(new ByteArrayInputStream("not a pdf".getBytes()));
+
+        worker.handle(event);
+
+        verify(blobStore, never()).put(anyString(), any(), anyLong(), anyString());
+        verifyNoInteractions(repo, documentCache);
+    }
+}